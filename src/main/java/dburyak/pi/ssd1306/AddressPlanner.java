@@ -0,0 +1,566 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Command.MEMORY_ADDRESSING_MODE_HORIZONTAL;
+import static dburyak.pi.ssd1306.Command.MEMORY_ADDRESSING_MODE_PAGE;
+import static dburyak.pi.ssd1306.Command.MEMORY_ADDRESSING_MODE_VERTICAL;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Tracks memory addressing state of the display controller (addressing mode, address window and address pointer) and
+ * chooses addressing mode for each update, so that command plus data bytes are as few as possible :
+ * <ul>
+ * <li>"horizontal" mode sends region page by page, window is not resent when the same region is updated again</li>
+ * <li>"vertical" mode sends region column by column; window is extended to the last RAM column, so updates of
+ * consecutive column strips (scrolling chart etc.) continue from the address pointer without any commands</li>
+ * <li>"page" mode moves the pointer with short single byte commands, which suits regions of a single page (text)</li>
+ * </ul>
+ * Cost is estimated in bus bytes : each command byte is sent with its own control byte, each data transaction has one
+ * control byte.
+ * <p><b>Created on:</b> <i>10:30:05 AM May 22, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+final class AddressPlanner {
+
+    /**
+     * Number of columns in display RAM of the controller.
+     * <p><b>Created on:</b> <i>10:31:12 AM May 22, 2017</i>
+     */
+    static final int RAM_COLUMNS = 128;
+
+    /**
+     * Bus bytes of one command byte : control byte and command byte itself.
+     * <p><b>Created on:</b> <i>10:31:50 AM May 22, 2017</i>
+     */
+    private static final int COMMAND_COST = 2;
+
+    /**
+     * Bus bytes of data transaction overhead : control byte.
+     * <p><b>Created on:</b> <i>10:32:27 AM May 22, 2017</i>
+     */
+    private static final int DATA_TX_COST = 1;
+
+    /**
+     * Bus bytes of address window setup : {@link Command#SET_COLUMN_ADDR} and {@link Command#SET_PAGE_ADDR} with their
+     * arguments.
+     * <p><b>Created on:</b> <i>10:33:04 AM May 22, 2017</i>
+     */
+    private static final int WINDOW_COST = 6 * COMMAND_COST;
+
+    /**
+     * Bus bytes of addressing mode switch : {@link Command#SET_MEMORY_ADDRESSING_MODE} with its argument.
+     * <p><b>Created on:</b> <i>10:33:41 AM May 22, 2017</i>
+     */
+    private static final int MODE_COST = 2 * COMMAND_COST;
+
+    /**
+     * Marker of unknown address.
+     * <p><b>Created on:</b> <i>10:34:15 AM May 22, 2017</i>
+     */
+    static final int UNKNOWN = -1;
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Memory addressing mode.
+     * <p><b>Created on:</b> <i>10:35:02 AM May 22, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    static enum Mode {
+            /**
+             * Pointer goes right within window, then down to the next page.
+             * <p><b>Created on:</b> <i>10:35:40 AM May 22, 2017</i>
+             */
+            HORIZONTAL(MEMORY_ADDRESSING_MODE_HORIZONTAL),
+
+            /**
+             * Pointer goes down within window, then right to the next column.
+             * <p><b>Created on:</b> <i>10:36:12 AM May 22, 2017</i>
+             */
+            VERTICAL(MEMORY_ADDRESSING_MODE_VERTICAL),
+
+            /**
+             * Pointer goes right within one page, page is set explicitly.
+             * <p><b>Created on:</b> <i>10:36:45 AM May 22, 2017</i>
+             */
+            PAGE(MEMORY_ADDRESSING_MODE_PAGE);
+
+        /**
+         * Argument of {@link Command#SET_MEMORY_ADDRESSING_MODE} that selects this mode.
+         * <p><b>Created on:</b> <i>10:37:20 AM May 22, 2017</i>
+         */
+        private final Command command;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.AddressPlanner.Mode.<p>
+         * <p><b>PRE-conditions:</b> non-null {@code command}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:37:52 AM May 22, 2017</i>
+         * 
+         * @param command
+         *            argument of {@link Command#SET_MEMORY_ADDRESSING_MODE} that selects this mode
+         */
+        private Mode(final Command command) {
+            this.command = command;
+        }
+
+        /**
+         * Get argument of {@link Command#SET_MEMORY_ADDRESSING_MODE} that selects this mode.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:38:30 AM May 22, 2017</i>
+         * 
+         * @return mode command
+         */
+        final Command command() {
+            return command;
+        }
+    }
+
+
+    /**
+     * Current addressing mode, null if unknown.
+     * <p><b>Created on:</b> <i>10:39:14 AM May 22, 2017</i>
+     */
+    private @Nullable Mode mode = null;
+
+    /**
+     * First column of the address window.
+     * <p><b>Created on:</b> <i>10:39:48 AM May 22, 2017</i>
+     */
+    private int winColStart = UNKNOWN;
+
+    /**
+     * Last column of the address window (inclusive).
+     * <p><b>Created on:</b> <i>10:40:20 AM May 22, 2017</i>
+     */
+    private int winColEnd = UNKNOWN;
+
+    /**
+     * First page of the address window.
+     * <p><b>Created on:</b> <i>10:40:51 AM May 22, 2017</i>
+     */
+    private int winPageStart = UNKNOWN;
+
+    /**
+     * Last page of the address window (inclusive).
+     * <p><b>Created on:</b> <i>10:41:23 AM May 22, 2017</i>
+     */
+    private int winPageEnd = UNKNOWN;
+
+    /**
+     * Column of the address pointer.
+     * <p><b>Created on:</b> <i>10:41:56 AM May 22, 2017</i>
+     */
+    private int column = UNKNOWN;
+
+    /**
+     * Page of the address pointer.
+     * <p><b>Created on:</b> <i>10:42:30 AM May 22, 2017</i>
+     */
+    private int page = UNKNOWN;
+
+
+    /**
+     * Forget controller state. Should be called when state is changed by other means or is uncertain (after failed
+     * transfer, for example).
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:43:18 AM May 22, 2017</i>
+     */
+    final void invalidate() {
+        mode = null;
+        invalidateWindow();
+    }
+
+    /**
+     * Forget address window and pointer.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:43:55 AM May 22, 2017</i>
+     */
+    private final void invalidateWindow() {
+        winColStart = UNKNOWN;
+        winColEnd = UNKNOWN;
+        winPageStart = UNKNOWN;
+        winPageEnd = UNKNOWN;
+        column = UNKNOWN;
+        page = UNKNOWN;
+    }
+
+    /**
+     * Choose addressing mode that costs least bus bytes for update of the region. Current mode wins ties.
+     * <p><b>PRE-conditions:</b> region is inside of display RAM
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:45:02 AM May 22, 2017</i>
+     * 
+     * @param colStart
+     *            first column of the region
+     * @param colEnd
+     *            last column of the region (inclusive)
+     * @param pageStart
+     *            first RAM page of the region
+     * @param pageEnd
+     *            last RAM page of the region (inclusive)
+     * @return addressing mode for the update
+     */
+    final Mode choose(final int colStart, final int colEnd, final int pageStart, final int pageEnd) {
+        Mode best = (mode != null) ? notNull(mode) : Mode.HORIZONTAL;
+        int bestCost = cost(best, colStart, colEnd, pageStart, pageEnd);
+        for (final Mode candidate : Mode.values()) {
+            final int cost = cost(candidate, colStart, colEnd, pageStart, pageEnd);
+            if (cost < bestCost) {
+                best = candidate;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Estimate bus bytes of the region update in specified addressing mode.
+     * <p><b>PRE-conditions:</b> non-null {@code candidate}, region is inside of display RAM
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:47:30 AM May 22, 2017</i>
+     * 
+     * @param candidate
+     *            addressing mode
+     * @param colStart
+     *            first column of the region
+     * @param colEnd
+     *            last column of the region (inclusive)
+     * @param pageStart
+     *            first RAM page of the region
+     * @param pageEnd
+     *            last RAM page of the region (inclusive)
+     * @return estimated number of bus bytes
+     */
+    private final int cost(
+        final Mode candidate,
+        final int colStart,
+        final int colEnd,
+        final int pageStart,
+        final int pageEnd) {
+
+        final int columns = colEnd - colStart + 1;
+        final int pages = pageEnd - pageStart + 1;
+        final boolean isSwitch = (mode != candidate);
+        int cost = (isSwitch ? MODE_COST : 0) + columns * pages;
+        switch (candidate) {
+            case PAGE:
+                int fromColumn = isSwitch ? UNKNOWN : column;
+                int fromPage = isSwitch ? UNKNOWN : page;
+                for (int p = pageStart ; p <= pageEnd ; p++) {
+                    cost += pointerCost(fromColumn, fromPage, colStart, p) + DATA_TX_COST;
+                    fromColumn = nextPageColumn(colEnd);
+                    fromPage = p;
+                }
+                return cost;
+            case VERTICAL:
+                final int chunks = (columns + verticalChunk(pages) - 1) / verticalChunk(pages);
+                return cost + chunks * DATA_TX_COST
+                    + (isWindowReady(candidate, colStart, colEnd, pageStart, pageEnd) ? 0 : WINDOW_COST);
+            case HORIZONTAL:
+            default:
+                return cost + pages * DATA_TX_COST
+                    + (isWindowReady(candidate, colStart, colEnd, pageStart, pageEnd) ? 0 : WINDOW_COST);
+        }
+    }
+
+    /**
+     * Bus bytes of "page" mode commands that move address pointer.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> {@code result} &gt;= 0
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:50:14 AM May 22, 2017</i>
+     * 
+     * @param fromColumn
+     *            current pointer column, may be {@link #UNKNOWN}
+     * @param fromPage
+     *            current pointer page, may be {@link #UNKNOWN}
+     * @param toColumn
+     *            target pointer column
+     * @param toPage
+     *            target pointer page
+     * @return bus bytes
+     */
+    private static final int pointerCost(
+        final int fromColumn,
+        final int fromPage,
+        final int toColumn,
+        final int toPage) {
+
+        int commands = (fromPage != toPage) ? 1 : 0;
+        commands += isLowerColumnReady(fromColumn, toColumn) ? 0 : 1;
+        commands += isHigherColumnReady(fromColumn, toColumn) ? 0 : 1;
+        return commands * COMMAND_COST;
+    }
+
+    /**
+     * Check whether lower nibble of the pointer column does not need to be set.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:51:30 AM May 22, 2017</i>
+     * 
+     * @param fromColumn
+     *            current pointer column, may be {@link #UNKNOWN}
+     * @param toColumn
+     *            target pointer column
+     * @return true if lower nibble is already set
+     */
+    static final boolean isLowerColumnReady(final int fromColumn, final int toColumn) {
+        return fromColumn != UNKNOWN && (fromColumn & 0x0F) == (toColumn & 0x0F);
+    }
+
+    /**
+     * Check whether higher nibble of the pointer column does not need to be set.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:52:04 AM May 22, 2017</i>
+     * 
+     * @param fromColumn
+     *            current pointer column, may be {@link #UNKNOWN}
+     * @param toColumn
+     *            target pointer column
+     * @return true if higher nibble is already set
+     */
+    static final boolean isHigherColumnReady(final int fromColumn, final int toColumn) {
+        return fromColumn != UNKNOWN && (fromColumn >> 4) == (toColumn >> 4);
+    }
+
+    /**
+     * Get pointer column after a page is written up to specified column in "page" mode.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code colEnd} &lt; {@link #RAM_COLUMNS}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:53:10 AM May 22, 2017</i>
+     * 
+     * @param colEnd
+     *            last written column
+     * @return next pointer column, {@link #UNKNOWN} if pointer wraps
+     */
+    private static final int nextPageColumn(final int colEnd) {
+        return (colEnd + 1 < RAM_COLUMNS) ? colEnd + 1 : UNKNOWN;
+    }
+
+    /**
+     * Get number of columns sent in one data transaction in "vertical" mode, so that one transaction is not much
+     * longer than one RAM page.
+     * <p><b>PRE-conditions:</b> 0 &lt; {@code pages} &lt;= 8
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:54:25 AM May 22, 2017</i>
+     * 
+     * @param pages
+     *            number of pages in region
+     * @return number of columns per transaction
+     */
+    static final int verticalChunk(final int pages) {
+        return RAM_COLUMNS / pages;
+    }
+
+    /**
+     * Check whether region may be written in specified mode without setting address window.
+     * <p><b>PRE-conditions:</b> non-null {@code candidate}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:55:40 AM May 22, 2017</i>
+     * 
+     * @param candidate
+     *            addressing mode
+     * @param colStart
+     *            first column of the region
+     * @param colEnd
+     *            last column of the region (inclusive)
+     * @param pageStart
+     *            first RAM page of the region
+     * @param pageEnd
+     *            last RAM page of the region (inclusive)
+     * @return true if window is set and pointer is at the region start
+     */
+    final boolean isWindowReady(
+        final Mode candidate,
+        final int colStart,
+        final int colEnd,
+        final int pageStart,
+        final int pageEnd) {
+
+        if (mode != candidate || column != colStart || page != pageStart) {
+            return false;
+        }
+        switch (candidate) {
+            case HORIZONTAL:
+                return winColStart == colStart && winColEnd == colEnd && winPageEnd >= pageEnd;
+            case VERTICAL:
+                return winPageStart == pageStart && winPageEnd == pageEnd && winColEnd >= colEnd;
+            case PAGE:
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Get last column of the address window that should be set for region update in specified mode.
+     * <p><b>PRE-conditions:</b> non-null {@code candidate}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:57:02 AM May 22, 2017</i>
+     * 
+     * @param candidate
+     *            addressing mode
+     * @param colEnd
+     *            last column of the region
+     * @return last column of the window
+     */
+    static final int windowColumnEnd(final Mode candidate, final int colEnd) {
+        // next strip to the right continues from the pointer in vertical mode
+        return (candidate == Mode.VERTICAL) ? RAM_COLUMNS - 1 : colEnd;
+    }
+
+    /**
+     * Get current addressing mode.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:58:15 AM May 22, 2017</i>
+     * 
+     * @return current mode, null if unknown
+     */
+    final @Nullable Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Get column of the address pointer.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:58:50 AM May 22, 2017</i>
+     * 
+     * @return pointer column, {@link #UNKNOWN} if unknown
+     */
+    final int column() {
+        return column;
+    }
+
+    /**
+     * Get page of the address pointer.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:59:22 AM May 22, 2017</i>
+     * 
+     * @return pointer page, {@link #UNKNOWN} if unknown
+     */
+    final int page() {
+        return page;
+    }
+
+    /**
+     * Record that addressing mode was set. Address window and pointer become unknown.
+     * <p><b>PRE-conditions:</b> non-null {@code newMode}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:00:10 AM May 22, 2017</i>
+     * 
+     * @param newMode
+     *            mode that was set
+     */
+    final void modeSet(final Mode newMode) {
+        mode = newMode;
+        invalidateWindow();
+    }
+
+    /**
+     * Record that address window was set. Pointer is moved to the window start.
+     * <p><b>PRE-conditions:</b> window is inside of display RAM
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:01:25 AM May 22, 2017</i>
+     * 
+     * @param colStart
+     *            first column of the window
+     * @param colEnd
+     *            last column of the window (inclusive)
+     * @param pageStart
+     *            first page of the window
+     * @param pageEnd
+     *            last page of the window (inclusive)
+     */
+    final void windowSet(final int colStart, final int colEnd, final int pageStart, final int pageEnd) {
+        winColStart = colStart;
+        winColEnd = colEnd;
+        winPageStart = pageStart;
+        winPageEnd = pageEnd;
+        column = colStart;
+        page = pageStart;
+    }
+
+    /**
+     * Record that address pointer was set in "page" mode.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:02:30 AM May 22, 2017</i>
+     * 
+     * @param newColumn
+     *            pointer column
+     * @param newPage
+     *            pointer page
+     */
+    final void pointerSet(final int newColumn, final int newPage) {
+        column = newColumn;
+        page = newPage;
+    }
+
+    /**
+     * Record that data bytes were written. Address pointer is moved the same way as controller moves it.
+     * <p><b>PRE-conditions:</b> {@code bytes} &gt;= 0
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:03:44 AM May 22, 2017</i>
+     * 
+     * @param bytes
+     *            number of written data bytes
+     */
+    final void advance(final int bytes) {
+        if (mode == null || column == UNKNOWN || page == UNKNOWN) {
+            return;
+        }
+        if (mode == Mode.PAGE) {
+            column = (column + bytes < RAM_COLUMNS) ? column + bytes : UNKNOWN;
+            return;
+        }
+        final int columns = winColEnd - winColStart + 1;
+        final int pages = winPageEnd - winPageStart + 1;
+        final int size = columns * pages;
+        if (mode == Mode.HORIZONTAL) {
+            final int index = ((page - winPageStart) * columns + (column - winColStart) + bytes) % size;
+            page = winPageStart + index / columns;
+            column = winColStart + index % columns;
+        } else {
+            final int index = ((column - winColStart) * pages + (page - winPageStart) + bytes) % size;
+            column = winColStart + index / pages;
+            page = winPageStart + index % pages;
+        }
+    }
+
+}
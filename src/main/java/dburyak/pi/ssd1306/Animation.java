@@ -0,0 +1,550 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.w3c.dom.Node;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Animation decoded once into packed frames of the target size. Frames of animated GIF are composed as GIF viewers do
+ * (frame position, transparency and disposal method are honored) and then scaled and packed. For each frame the window
+ * that differs from the previous frame is computed at load time, so playback only copies and sends changed windows,
+ * and bus traffic follows the motion in the animation.
+ * <p>Images of other formats supported by {@link ImageIO} are loaded frame by frame with default frame delay. Note that
+ * animated PNG (APNG) can not be read by {@link ImageIO}, only its default image is loaded.
+ * <p><b>Created on:</b> <i>11:05:15 AM Jul 20, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class Animation {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>11:05:50 AM Jul 20, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(Animation.class));
+
+    /**
+     * Native metadata format of GIF frames.
+     * <p><b>Created on:</b> <i>11:06:25 AM Jul 20, 2017</i>
+     */
+    @SuppressWarnings("nls")
+    private static final String GIF_METADATA_FORMAT = "javax_imageio_gif_image_1.0";
+
+    /**
+     * Native metadata format of GIF stream.
+     * <p><b>Created on:</b> <i>11:06:40 AM Jul 20, 2017</i>
+     */
+    @SuppressWarnings("nls")
+    private static final String GIF_STREAM_METADATA_FORMAT = "javax_imageio_gif_stream_1.0";
+
+    /**
+     * Delay of the frame that has no delay specified, in milliseconds. GIF delays shorter than 20 ms are replaced with
+     * this delay too, as browsers do.
+     * <p><b>Created on:</b> <i>11:07:00 AM Jul 20, 2017</i>
+     */
+    private static final int DELAY_DEFAULT = 100;
+
+
+    /**
+     * Width of the animation.
+     * <p><b>Created on:</b> <i>11:07:40 AM Jul 20, 2017</i>
+     */
+    private final int width;
+
+    /**
+     * Height of the animation.
+     * <p><b>Created on:</b> <i>11:08:12 AM Jul 20, 2017</i>
+     */
+    private final int height;
+
+    /**
+     * Number of pages of each packed frame.
+     * <p><b>Created on:</b> <i>11:08:45 AM Jul 20, 2017</i>
+     */
+    private final int pages;
+
+    /**
+     * Packed frames.
+     * <p><b>Created on:</b> <i>11:09:20 AM Jul 20, 2017</i>
+     */
+    private final byte[][] frames;
+
+    /**
+     * Delay of each frame, in milliseconds.
+     * <p><b>Created on:</b> <i>11:09:55 AM Jul 20, 2017</i>
+     */
+    private final int[] delays;
+
+    /**
+     * Window of each frame that differs from the previous frame (the last frame for the first one), null if frames are
+     * equal.
+     * <p><b>Created on:</b> <i>11:10:30 AM Jul 20, 2017</i>
+     */
+    private final @Nullable Region[] deltas;
+
+    /**
+     * Indicates whether playing should be stopped.
+     * <p><b>Created on:</b> <i>11:11:05 AM Jul 20, 2017</i>
+     */
+    private volatile boolean isStopped = false;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Animation.<p>
+     * <p><b>PRE-conditions:</b> positive {@code width}, positive {@code height}, non-empty {@code frames} of packed
+     * frames of {@code width} x {@code height}, non-null {@code delays} of the same length
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:11:40 AM Jul 20, 2017</i>
+     * 
+     * @param width
+     *            width of the animation
+     * @param height
+     *            height of the animation
+     * @param frames
+     *            packed frames
+     * @param delays
+     *            delay of each frame, in milliseconds
+     */
+    private Animation(final int width, final int height, final byte[][] frames, final int[] delays) {
+        this.width = width;
+        this.height = height;
+        this.pages = (height + 7) / 8;
+        this.frames = frames;
+        this.delays = delays;
+        deltas = new Region[frames.length];
+        for (int i = 0 ; i < frames.length ; i++) {
+            deltas[i] = Region.diff(frames[(i + frames.length - 1) % frames.length], frames[i], width);
+        }
+    }
+
+    /**
+     * Decode all frames of the image and pack them at the target size.
+     * <p><b>PRE-conditions:</b> non-null {@code input}, positive {@code width}, positive {@code height}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> {@code input} is read
+     * <br><b>Created on:</b> <i>11:12:30 AM Jul 20, 2017</i>
+     * 
+     * @param input
+     *            stream of encoded image in any format supported by {@link ImageIO}, is not closed by this method
+     * @param width
+     *            width of the animation on display
+     * @param height
+     *            height of the animation on display
+     * @return new {@link Animation} instance
+     * @throws IOException
+     *             if image format is not supported or image can not be decoded
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public static final Animation load(final InputStream input, final int width, final int height)
+        throws IOException {
+
+        LOG.traceEntry("input = [{}] ; width = [{}] ; height = [{}]", input, width, height);
+        isTrue(width > 0 && height > 0);
+
+        final ImageInputStream stream = ImageIO.createImageInputStream(input);
+        if (stream == null) {
+            throw LOG.throwing(new IOException("can not create image input stream"));
+        }
+        try {
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                throw LOG.throwing(new IOException("image format is not supported"));
+            }
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, false, false);
+                final Animation animation = decode(reader, width, height);
+                LOG.debug("animation loaded : frames = [%d] ; width = [%d] ; height = [%d]",
+                    animation.frames.length, width, height);
+                return notNull(LOG.traceExit(animation));
+            } finally {
+                reader.dispose();
+            }
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Decode, compose and pack all frames.
+     * <p><b>PRE-conditions:</b> non-null {@code reader} with input set, positive {@code width}, positive
+     * {@code height}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> input of the {@code reader} is read
+     * <br><b>Created on:</b> <i>11:14:10 AM Jul 20, 2017</i>
+     * 
+     * @param reader
+     *            image reader
+     * @param width
+     *            width of the animation on display
+     * @param height
+     *            height of the animation on display
+     * @return new {@link Animation} instance
+     * @throws IOException
+     *             if image can not be decoded
+     */
+    @SuppressWarnings("nls")
+    private static final Animation decode(final ImageReader reader, final int width, final int height)
+        throws IOException {
+
+        // GIF frames are placed on logical screen, other images have single size
+        final IIOMetadata streamMetadata = reader.getStreamMetadata();
+        final @Nullable IIOMetadataNode screen = (streamMetadata != null
+            && GIF_STREAM_METADATA_FORMAT.equals(streamMetadata.getNativeMetadataFormatName()))
+                ? child(streamMetadata.getAsTree(GIF_STREAM_METADATA_FORMAT), "LogicalScreenDescriptor")
+                : null;
+        final BufferedImage canvas = new BufferedImage(
+            Math.max(attribute(screen, "logicalScreenWidth", 0), reader.getWidth(0)),
+            Math.max(attribute(screen, "logicalScreenHeight", 0), reader.getHeight(0)),
+            BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D graphics = notNull(canvas.createGraphics());
+        final List<byte[]> frames = new ArrayList<>();
+        final List<Integer> delays = new ArrayList<>();
+        try {
+            for (int i = 0 ; i < reader.getNumImages(true) ; i++) {
+                final BufferedImage image = reader.read(i);
+                final IIOMetadata metadata = reader.getImageMetadata(i);
+                final @Nullable Node root = (metadata != null
+                    && GIF_METADATA_FORMAT.equals(metadata.getNativeMetadataFormatName()))
+                        ? metadata.getAsTree(GIF_METADATA_FORMAT)
+                        : null;
+                final @Nullable IIOMetadataNode descriptor = child(root, "ImageDescriptor");
+                final @Nullable IIOMetadataNode control = child(root, "GraphicControlExtension");
+                final int left = attribute(descriptor, "imageLeftPosition", 0);
+                final int top = attribute(descriptor, "imageTopPosition", 0);
+                final int delay = attribute(control, "delayTime", 0) * 10; // GIF delay is in 1/100 of a second
+                final String disposal = (control != null) ? control.getAttribute("disposalMethod") : "none";
+
+                final @Nullable BufferedImage previous = "restoreToPrevious".equals(disposal)
+                    ? copy(canvas)
+                    : null;
+                graphics.setComposite(AlphaComposite.SrcOver); // transparent pixels keep what is below
+                graphics.drawImage(image, left, top, null);
+                frames.add(Scaler.scale(canvas, width, height, Scaler.Filter.AREA, Display.MONOCHROME_THRESHOLD));
+                delays.add((delay < 20) ? DELAY_DEFAULT : delay);
+
+                if ("restoreToBackgroundColor".equals(disposal)) {
+                    graphics.setComposite(AlphaComposite.Clear);
+                    graphics.fillRect(left, top, image.getWidth(), image.getHeight());
+                } else if (previous != null) {
+                    graphics.setComposite(AlphaComposite.Src);
+                    graphics.drawImage(previous, 0, 0, null);
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+        final int[] delaysArray = new int[delays.size()];
+        for (int i = 0 ; i < delaysArray.length ; i++) {
+            delaysArray[i] = delays.get(i).intValue();
+        }
+        return new Animation(width, height, notNull(frames.toArray(new byte[frames.size()][])), delaysArray);
+    }
+
+    /**
+     * Get child metadata node by name.
+     * <p><b>PRE-conditions:</b> non-empty {@code name}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:15:45 AM Jul 20, 2017</i>
+     * 
+     * @param parent
+     *            parent node, may be null
+     * @param name
+     *            name of the child node
+     * @return child node, or null if parent is null or has no such child
+     */
+    private static final @Nullable IIOMetadataNode child(final @Nullable Node parent, final String name) {
+        if (parent == null) {
+            return null;
+        }
+        for (Node node = parent.getFirstChild() ; node != null ; node = node.getNextSibling()) {
+            if (name.equals(node.getNodeName())) {
+                return (IIOMetadataNode) node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get integer attribute of metadata node.
+     * <p><b>PRE-conditions:</b> non-empty {@code name}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:16:20 AM Jul 20, 2017</i>
+     * 
+     * @param node
+     *            metadata node, may be null
+     * @param name
+     *            name of the attribute
+     * @param dflt
+     *            value to be returned if node is null or has no such attribute
+     * @return attribute value
+     */
+    private static final int attribute(final @Nullable IIOMetadataNode node, final String name, final int dflt) {
+        if (node == null || !node.hasAttribute(name)) {
+            return dflt;
+        }
+        return Integer.parseInt(node.getAttribute(name));
+    }
+
+    /**
+     * Copy image.
+     * <p><b>PRE-conditions:</b> non-null {@code img} of {@link BufferedImage#TYPE_INT_ARGB} type
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:16:55 AM Jul 20, 2017</i>
+     * 
+     * @param img
+     *            image to copy
+     * @return new image with the same pixels
+     */
+    private static final BufferedImage copy(final BufferedImage img) {
+        return new BufferedImage(img.getColorModel(), img.copyData(null), img.isAlphaPremultiplied(), null);
+    }
+
+    /**
+     * Play the animation on display with its left top edge at ({@code x}, {@code y}). First frame is sent whole, each
+     * next frame sends only the window that differs from the previous frame. Frames are switched on the clock of frame
+     * delays, time spent on transfers is not added to the delays. This method blocks until all loops are played or
+     * {@link #stop()} is called.
+     * <p><b>PRE-conditions:</b> non-null {@code display}, {@code y % 8 == 0}, animation is inside of the display,
+     * non-negative {@code loops}; height does not have to be a multiple of 8, rows below the animation are kept
+     * <br><b>POST-conditions:</b> non-negative {@code result}
+     * <br><b>Side-effects:</b> display buffer and image are modified, GPIO I/O calls, this method blocks
+     * <br><b>Created on:</b> <i>11:18:30 AM Jul 20, 2017</i>
+     * 
+     * @param display
+     *            display to play animation on
+     * @param x
+     *            left coordinate of the animation
+     * @param y
+     *            top coordinate of the animation, multiple of 8
+     * @param loops
+     *            number of times the animation is played, 0 to play until stopped
+     * @return number of frames shown
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final long play(final Display display, final int x, final int y, final int loops) {
+        LOG.traceEntry("display = [{}] ; x = [{}] ; y = [{}] ; loops = [{}]", display, x, y, loops);
+        isTrue(y % 8 == 0 && loops >= 0);
+        isTrue(0 <= x && x + width <= display.width() && 0 <= y && y + height <= display.height());
+
+        isStopped = false;
+        final Region whole = Region.full(width, pages);
+        long shown = 0;
+        long deadline = System.nanoTime();
+        for (int loop = 0 ; (loops == 0 || loop < loops) && !isStopped ; loop++) {
+            for (int i = 0 ; i < frames.length && !isStopped ; i++) {
+                final @Nullable Region delta = (shown == 0) ? whole : deltas[i];
+                if (delta != null) {
+                    show(display, x, y / 8, frames[i], delta);
+                }
+                shown++;
+                if (loops != 0 && loop == loops - 1 && i == frames.length - 1) {
+                    break; // no need to wait after the last frame
+                }
+                deadline += TimeUnit.MILLISECONDS.toNanos(delays[i]);
+                long wait;
+                while ((wait = deadline - System.nanoTime()) > 0 && !isStopped) { // park may return early
+                    LockSupport.parkNanos(this, wait);
+                    if (Thread.currentThread().isInterrupted()) {
+                        LOG.warn("animation interrupted : shown = [%d]", shown);
+                        return LOG.traceExit(shown);
+                    }
+                }
+            }
+        }
+
+        return LOG.traceExit(shown);
+    }
+
+    /**
+     * Copy window of the frame to display buffer and image, and send it to the display. If height is not a multiple of
+     * 8, only rows of the animation are replaced in the last page, rows below it keep display content.
+     * <p><b>PRE-conditions:</b> non-null {@code display}, non-null {@code frame}, non-null {@code window} inside of
+     * the frame, frame is inside of the display
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> display buffer and image are modified, GPIO I/O calls
+     * <br><b>Created on:</b> <i>11:20:10 AM Jul 20, 2017</i>
+     * 
+     * @param display
+     *            display to show frame on
+     * @param x
+     *            left coordinate of the animation
+     * @param page
+     *            top page of the animation
+     * @param frame
+     *            packed frame
+     * @param window
+     *            window of the frame to show
+     */
+    private final void show(
+        final Display display,
+        final int x,
+        final int page,
+        final byte[] frame,
+        final Region window) {
+
+        final byte[] buffer = display.buffer();
+        final int displayWidth = display.width();
+        final int lastRows = height - (pages - 1) * 8; // rows of the animation in its last page
+        for (int p = window.pageStart() ; p <= window.pageEnd() ; p++) {
+            final int from = p * width + window.colStart();
+            final int to = (page + p) * displayWidth + x + window.colStart();
+            if (p < pages - 1 || lastRows == 8) {
+                System.arraycopy(frame, from, buffer, to, window.columns());
+            } else { // partial page is merged with display content below the animation
+                final int mask = (1 << lastRows) - 1;
+                for (int i = 0 ; i < window.columns() ; i++) {
+                    buffer[to + i] = (byte) ((buffer[to + i] & ~mask) | (frame[from + i] & mask));
+                }
+            }
+        }
+        final int top = window.pageStart() * 8;
+        Packer.unpackBinary(buffer, displayWidth, x + window.colStart(), page * 8 + top,
+            window.columns(), Math.min(window.pages() * 8, height - top), display.image());
+        display.flush(buffer, Region.of(x + window.colStart(), x + window.colEnd(),
+            page + window.pageStart(), page + window.pageEnd()));
+    }
+
+    /**
+     * Stop playing : {@link #play(Display, int, int, int)} returns after the frame being shown.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:21:05 AM Jul 20, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    public final Animation stop() {
+        LOG.traceEntry();
+
+        isStopped = true;
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Get number of frames.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:21:40 AM Jul 20, 2017</i>
+     * 
+     * @return number of frames
+     */
+    public final int frames() {
+        return frames.length;
+    }
+
+    /**
+     * Get duration of one loop of the animation.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:22:15 AM Jul 20, 2017</i>
+     * 
+     * @return duration of one loop
+     */
+    public final Duration duration() {
+        long millis = 0;
+        for (final int delay : delays) {
+            millis += delay;
+        }
+        return notNull(Duration.ofMillis(millis));
+    }
+
+    /**
+     * Get number of bytes sent to show frame after the previous one.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code index} &lt; {@link #frames()}
+     * <br><b>POST-conditions:</b> non-negative {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:22:50 AM Jul 20, 2017</i>
+     * 
+     * @param index
+     *            index of the frame
+     * @return number of bytes of the window that differs from the previous frame, 0 if frames are equal
+     */
+    public final int deltaSize(final int index) {
+        final @Nullable Region delta = deltas[index];
+        return (delta != null) ? delta.columns() * delta.pages() : 0;
+    }
+
+    /**
+     * Get width of the animation.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:23:25 AM Jul 20, 2017</i>
+     * 
+     * @return width
+     */
+    public final int width() {
+        return width;
+    }
+
+    /**
+     * Get height of the animation.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:24:00 AM Jul 20, 2017</i>
+     * 
+     * @return height
+     */
+    public final int height() {
+        return height;
+    }
+
+    /**
+     * Get string representation of this animation.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:24:35 AM Jul 20, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this animation
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{width=[").append(width).append(']')
+            .append(",height=[").append(height).append(']')
+            .append(",frames=[").append(frames.length).append(']')
+            .append(",duration=[").append(duration()).append(']')
+            .append('}')
+            .toString());
+    }
+
+}
@@ -0,0 +1,302 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.notNull;
+import static dburyak.pi.ssd1306.Util.runSync;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Priority arbiter of the physical bus. Every transaction on the bus should be performed while bus is owned. When bus is
+ * released, it is granted to the waiter of the highest {@link Priority}, so short urgent commands do not wait for long
+ * frame transfers : frames are sent in page-sized chunks with {@link Priority#BULK} priority, and the bus is released
+ * after each chunk.
+ * <p>There is one arbiter per bus id (see {@link SSD1306Connection#busId()}). Other devices that share the bus with
+ * displays (sensors etc.) should access it through the same arbiter :
+ * 
+ * <pre>
+ * BusArbiter.forBus("I2C-1").run(Priority.NORMAL, () -&gt; sensor.read(...));
+ * </pre>
+ * 
+ * <p>Ownership is reentrant : thread that owns the bus may run nested tasks of any priority without waiting. Order of
+ * waiters with the same priority is not defined.
+ * <p><b>Created on:</b> <i>3:12:40 PM May 12, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@ThreadSafe
+public final class BusArbiter {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>3:13:18 PM May 12, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(BusArbiter.class));
+
+    /**
+     * Arbiters of all known buses.
+     * <p><b>Created on:</b> <i>3:13:52 PM May 12, 2017</i>
+     */
+    private static final ConcurrentMap<String, BusArbiter> ARBITERS = new ConcurrentHashMap<>();
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Priority of the bus access. Declared from highest to lowest.
+     * <p><b>Created on:</b> <i>3:14:30 PM May 12, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    public static enum Priority {
+            /**
+             * Short critical commands : display on/off, contrast.
+             * <p><b>Created on:</b> <i>3:15:02 PM May 12, 2017</i>
+             */
+            URGENT,
+
+            /**
+             * Regular commands and foreign bus users.
+             * <p><b>Created on:</b> <i>3:15:31 PM May 12, 2017</i>
+             */
+            NORMAL,
+
+            /**
+             * Chunks of frame transfers.
+             * <p><b>Created on:</b> <i>3:15:58 PM May 12, 2017</i>
+             */
+            BULK
+    }
+
+
+    /**
+     * Id of the bus.
+     * <p><b>Created on:</b> <i>3:16:40 PM May 12, 2017</i>
+     */
+    private final String busId;
+
+    /**
+     * Lock for access synchronization to ownership state.
+     * <p><b>Created on:</b> <i>3:17:12 PM May 12, 2017</i>
+     */
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Signalled when bus is released.
+     * <p><b>Created on:</b> <i>3:17:45 PM May 12, 2017</i>
+     */
+    private final Condition released = notNull(lock.newCondition());
+
+    /**
+     * Thread that owns the bus, null if bus is free.
+     * <p><b>Created on:</b> <i>3:18:20 PM May 12, 2017</i>
+     */
+    @GuardedBy("lock")
+    private @Nullable Thread owner = null;
+
+    /**
+     * Number of nested acquisitions by the owner.
+     * <p><b>Created on:</b> <i>3:18:51 PM May 12, 2017</i>
+     */
+    @GuardedBy("lock")
+    private int holds = 0;
+
+    /**
+     * Number of waiters per priority, indexed by {@link Priority#ordinal()}.
+     * <p><b>Created on:</b> <i>3:19:27 PM May 12, 2017</i>
+     */
+    @GuardedBy("lock")
+    private final int[] waiting = new int[Priority.values().length];
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.BusArbiter.<p>
+     * <p><b>PRE-conditions:</b> non-empty {@code busId}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:20:04 PM May 12, 2017</i>
+     * 
+     * @param busId
+     *            id of the bus
+     */
+    private BusArbiter(final String busId) {
+        this.busId = busId;
+    }
+
+    /**
+     * Get arbiter of the bus. The same instance is returned for the same {@code busId}.
+     * <p><b>PRE-conditions:</b> non-empty {@code busId}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> arbiter is created on first access
+     * <br><b>Created on:</b> <i>3:21:10 PM May 12, 2017</i>
+     * 
+     * @param busId
+     *            id of the bus
+     * @return bus arbiter
+     */
+    public static final BusArbiter forBus(final String busId) {
+        return notNull(ARBITERS.computeIfAbsent(busId, BusArbiter::new));
+    }
+
+    /**
+     * Run task while owning the bus.
+     * <p><b>PRE-conditions:</b> non-null {@code priority}, non-null {@code task}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> task is run on current thread
+     * <br><b>Created on:</b> <i>3:22:35 PM May 12, 2017</i>
+     * 
+     * @param priority
+     *            priority of the access
+     * @param task
+     *            task to run
+     */
+    public final void run(final Priority priority, final Runnable task) {
+        acquire(priority);
+        try {
+            task.run();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Call value supplier function while owning the bus.
+     * <p><b>PRE-conditions:</b> non-null {@code priority}, non-null {@code supplier}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> supplier is called on current thread
+     * <br><b>Created on:</b> <i>3:23:48 PM May 12, 2017</i>
+     * 
+     * @param <R>
+     *            type of the {@code supplier} result
+     * @param priority
+     *            priority of the access
+     * @param supplier
+     *            result supplier to be called
+     * @return result produced by {@code supplier}
+     */
+    public final @Nullable <R> R call(final Priority priority, final Supplier<R> supplier) {
+        acquire(priority);
+        try {
+            return supplier.get();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Wait until bus is free and there are no waiters of higher priority, then take the ownership.
+     * <p><b>PRE-conditions:</b> non-null {@code priority}
+     * <br><b>POST-conditions:</b> current thread owns the bus
+     * <br><b>Side-effects:</b> current thread may be blocked
+     * <br><b>Created on:</b> <i>3:25:02 PM May 12, 2017</i>
+     * 
+     * @param priority
+     *            priority of the access
+     */
+    private final void acquire(final Priority priority) {
+        final Thread current = Thread.currentThread();
+        runSync(lock, () -> {
+            if (owner == current) {
+                holds++;
+                return;
+            }
+            final int rank = priority.ordinal();
+            waiting[rank]++;
+            while (owner != null || hasWaitersAbove(rank)) {
+                released.awaitUninterruptibly();
+            }
+            waiting[rank]--;
+            owner = current;
+            holds = 1;
+        });
+    }
+
+    /**
+     * Release one ownership hold. Bus is granted to the next waiter when the last hold is released.
+     * <p><b>PRE-conditions:</b> current thread owns the bus
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> waiters are woken up
+     * <br><b>Created on:</b> <i>3:26:31 PM May 12, 2017</i>
+     */
+    @SuppressWarnings("nls")
+    private final void release() {
+        runSync(lock, () -> {
+            if (owner != Thread.currentThread()) {
+                LOG.error("bus is released by non-owner thread : busId = [%s]", busId);
+                throw new IllegalStateException("bus is not owned by current thread");
+            }
+            if (--holds == 0) {
+                owner = null;
+                released.signalAll();
+            }
+        });
+    }
+
+    /**
+     * Check whether there are waiters with priority higher than specified one.
+     * <p><b>PRE-conditions:</b> {@code lock} is held
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:27:44 PM May 12, 2017</i>
+     * 
+     * @param rank
+     *            ordinal of the priority
+     * @return true if bus should be granted to somebody else first
+     */
+    @GuardedBy("lock")
+    private final boolean hasWaitersAbove(final int rank) {
+        for (int i = 0 ; i < rank ; i++) {
+            if (waiting[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get id of the bus.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:28:50 PM May 12, 2017</i>
+     * 
+     * @return bus id
+     */
+    public final String busId() {
+        return busId;
+    }
+
+    /**
+     * Get string representation of this arbiter.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:29:22 PM May 12, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this arbiter
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{busId=[").append(busId)
+            .append("]}")
+            .toString());
+    }
+
+}
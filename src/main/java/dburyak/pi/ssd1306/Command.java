@@ -78,6 +78,14 @@ public enum Command {
          */
         SET_SEGMENT_REMAP_127(asByte(0xA1)),
 
+        /**
+         * Set mapping between the display data column address and the segment driver: column address 0 is mapped to
+         * SEG0 (see SSD1306 datasheet for more info). Effectively, this command mirrors picture horizontally comparing
+         * to {@link #SET_SEGMENT_REMAP_127}.
+         * <p><b>Created on:</b> <i>9:40:15 AM Jun 29, 2017</i>
+         */
+        SET_SEGMENT_REMAP_0(asByte(0xA0)),
+
         /**
          * Configure "charge pump". This command <em>must</em> be followed by either {@link #CHARGE_PUMP_ENABLE} or
          * {@link #CHARGE_PUMP_DISABLE}.
@@ -104,6 +112,13 @@ public enum Command {
          */
         SET_COM_OUTPUT_SCAN_DIRECTION_REMAPPED(asByte(0xC8)),
 
+        /**
+         * Set scan direction of the COM output to "normal" (see SSD1306 datasheet) : from COM0 to COM[N-1]. Effectively,
+         * this command mirrors picture vertically comparing to {@link #SET_COM_OUTPUT_SCAN_DIRECTION_REMAPPED}.
+         * <p><b>Created on:</b> <i>9:41:02 AM Jun 29, 2017</i>
+         */
+        SET_COM_OUTPUT_SCAN_DIRECTION_NORMAL(asByte(0xC0)),
+
         /**
          * Set "COM" pins configuration. Configuration option is sent in next byte in command mode (see SDD1306
          * datasheet for more information).
@@ -167,6 +182,27 @@ public enum Command {
          */
         SET_PAGE_ADDR(asByte(0x22)),
 
+        /**
+         * Set page of the address pointer in "page" addressing mode to page 0. Page number (0 to 7) should be added to
+         * the command code to select other pages.
+         * <p><b>Created on:</b> <i>10:14:30 AM May 22, 2017</i>
+         */
+        SET_PAGE_START_0(asByte(0xB0)),
+
+        /**
+         * Set lower nibble of the address pointer column in "page" addressing mode to 0. Nibble value (0 to 15) should
+         * be added to the command code to set other values.
+         * <p><b>Created on:</b> <i>10:15:42 AM May 22, 2017</i>
+         */
+        SET_LOWER_COLUMN_START_0(asByte(0x00)),
+
+        /**
+         * Set higher nibble of the address pointer column in "page" addressing mode to 0. Nibble value (0 to 7) should
+         * be added to the command code to set other values.
+         * <p><b>Created on:</b> <i>10:16:20 AM May 22, 2017</i>
+         */
+        SET_HIGHER_COLUMN_START_0(asByte(0x10)),
+
         /**
          * Configure horizontal left scrolling.
          * <p><b>Created on:</b> <i>3:56:37 AM Apr 4, 2017</i>
@@ -208,6 +244,30 @@ public enum Command {
          * <p><b>Created on:</b> <i>10:05:10 AM Apr 5, 2017</i>
          */
         SET_VERTICAL_SCROLL_AREA(asByte(0xA3)),
+
+        /**
+         * Move content of display RAM one column right within specified area (content scroll setup). Must be followed
+         * by six bytes in command mode : dummy {@code 0x00}, start page, dummy {@code 0x01}, end page, start column and
+         * end column. Is supported by newer revisions of the controller only.
+         * <p><b>Created on:</b> <i>2:15:40 PM May 29, 2017</i>
+         */
+        CONTENT_SCROLL_RIGHT(asByte(0x2C)),
+
+        /**
+         * Move content of display RAM one column left within specified area (content scroll setup). Arguments are the
+         * same as for {@link #CONTENT_SCROLL_RIGHT}.
+         * <p><b>Created on:</b> <i>2:16:25 PM May 29, 2017</i>
+         */
+        CONTENT_SCROLL_LEFT(asByte(0x2D)),
+
+        /**
+         * Set fade out and blinking mode. Must be followed by one byte sent in command mode : bits 5-4 select the mode
+         * ({@code 00} - disabled, {@code 10} - fade out, {@code 11} - blink), bits 3-0 select the time interval of
+         * each contrast step ({@code (n + 1) * 8} frames). Contrast goes down to zero (fade out) or down and up in a
+         * loop (blink) without any further bus traffic.
+         * <p><b>Created on:</b> <i>10:05:40 AM Jun 22, 2017</i>
+         */
+        SET_FADE_BLINK(asByte(0x23)),
         ;
 
     /**
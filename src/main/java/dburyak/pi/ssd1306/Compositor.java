@@ -0,0 +1,624 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Display.OverlayType.FULL;
+import static dburyak.pi.ssd1306.Display.OverlayType.ON_PIXELS;
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dburyak.pi.ssd1306.Display.OverlayType;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Stack of layers composed into display buffer. Each layer is a packed bitmap with a mask of pixels it covers, and is
+ * composed over the layers below it with its {@link OverlayType} as bit operations on packed bytes (8 pixels at once).
+ * Each layer remembers the region it changed since last composition, and {@link #compose()} recomposes and sends only
+ * these regions. Showing and hiding popup costs only the popup area, content below it is kept in its own layer and
+ * does not have to be redrawn.
+ * <p>Compositor owns display buffer and image, they are overwritten in composed regions.
+ * <p><b>Created on:</b> <i>4:10:25 PM Jun 12, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class Compositor {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>4:11:02 PM Jun 12, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(Compositor.class));
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Layers of the compositor, from the bottom one to the top one.
+     * <p><b>Created on:</b> <i>4:11:40 PM Jun 12, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    public static enum Level {
+            /**
+             * Bottom layer, composed with {@link OverlayType#FULL} by default.
+             * <p><b>Created on:</b> <i>4:12:15 PM Jun 12, 2017</i>
+             */
+            BACKGROUND(FULL),
+
+            /**
+             * Main content, composed with {@link OverlayType#FULL} by default.
+             * <p><b>Created on:</b> <i>4:12:48 PM Jun 12, 2017</i>
+             */
+            CONTENT(FULL),
+
+            /**
+             * Decorations over content (cursors, status icons), composed with {@link OverlayType#ON_PIXELS} by
+             * default.
+             * <p><b>Created on:</b> <i>4:13:20 PM Jun 12, 2017</i>
+             */
+            OVERLAY(ON_PIXELS),
+
+            /**
+             * Transient popups, composed with {@link OverlayType#FULL} by default.
+             * <p><b>Created on:</b> <i>4:13:55 PM Jun 12, 2017</i>
+             */
+            POPUP(FULL);
+
+        /**
+         * Default overlay type of the layer.
+         * <p><b>Created on:</b> <i>4:14:30 PM Jun 12, 2017</i>
+         */
+        private final OverlayType overlayDefault;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Compositor.Level.<p>
+         * <p><b>PRE-conditions:</b> non-null {@code overlayDefault}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>4:15:02 PM Jun 12, 2017</i>
+         * 
+         * @param overlayDefault
+         *            default overlay type of the layer
+         */
+        private Level(final OverlayType overlayDefault) {
+            this.overlayDefault = overlayDefault;
+        }
+    }
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Single layer of the compositor. Pixels outside of the mask are transparent.
+     * <p><b>Created on:</b> <i>4:15:40 PM Jun 12, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    @NotThreadSafe
+    public static final class Layer {
+
+        /**
+         * Layer width.
+         * <p><b>Created on:</b> <i>4:16:15 PM Jun 12, 2017</i>
+         */
+        private final int width;
+
+        /**
+         * Layer height.
+         * <p><b>Created on:</b> <i>4:16:48 PM Jun 12, 2017</i>
+         */
+        private final int height;
+
+        /**
+         * Packed pixels of the layer.
+         * <p><b>Created on:</b> <i>4:17:20 PM Jun 12, 2017</i>
+         */
+        final byte[] pixels;
+
+        /**
+         * Packed mask of the layer, set bit means that layer covers the pixel.
+         * <p><b>Created on:</b> <i>4:17:52 PM Jun 12, 2017</i>
+         */
+        final byte[] mask;
+
+        /**
+         * Overlay type used to compose this layer over the layers below.
+         * <p><b>Created on:</b> <i>4:18:25 PM Jun 12, 2017</i>
+         */
+        OverlayType overlay;
+
+        /**
+         * Whether layer is composed.
+         * <p><b>Created on:</b> <i>4:18:58 PM Jun 12, 2017</i>
+         */
+        boolean isVisible = true;
+
+        /**
+         * Region changed since last composition, null if nothing changed.
+         * <p><b>Created on:</b> <i>4:19:30 PM Jun 12, 2017</i>
+         */
+        @Nullable Region dirty = null;
+
+        /**
+         * Region that covers all masked pixels of the layer, null if layer is empty.
+         * <p><b>Created on:</b> <i>4:20:02 PM Jun 12, 2017</i>
+         */
+        @Nullable Region covered = null;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Compositor.Layer.<p>
+         * <p><b>PRE-conditions:</b> positive {@code width} and {@code height}, non-null {@code overlay}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>4:20:40 PM Jun 12, 2017</i>
+         * 
+         * @param width
+         *            layer width
+         * @param height
+         *            layer height
+         * @param overlay
+         *            overlay type of the layer
+         */
+        Layer(final int width, final int height, final OverlayType overlay) {
+            this.width = width;
+            this.height = height;
+            this.overlay = overlay;
+            pixels = new byte[((height + 7) / 8) * width];
+            mask = new byte[pixels.length];
+        }
+
+        /**
+         * Draw image on the layer. Both on and off pixels of the image are drawn and become covered by the layer.
+         * Parts of the image outside of the layer are cut.
+         * <p><b>PRE-conditions:</b> non-null {@code img}
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> this layer is modified
+         * <br><b>Created on:</b> <i>4:22:05 PM Jun 12, 2017</i>
+         * 
+         * @param img
+         *            image to draw
+         * @param x
+         *            left coordinate of the image
+         * @param y
+         *            top coordinate of the image
+         * @return this instance (for call chaining)
+         */
+        public final Layer draw(final BufferedImage img, final int x, final int y) {
+            final int imgWidth = img.getWidth();
+            final byte[] src = Packer.pack(img);
+            final int left = Math.max(0, x);
+            final int right = Math.min(width, x + imgWidth);
+            final int top = Math.max(0, y);
+            final int bottom = Math.min(height, y + img.getHeight());
+            if (left >= right || top >= bottom) {
+                return this;
+            }
+            for (int col = left ; col < right ; col++) {
+                final int srcCol = col - x;
+                long bits = 0L;
+                for (int row = top ; row < bottom ; row++) {
+                    final int srcRow = row - y;
+                    bits |= (long) ((src[(srcRow >> 3) * imgWidth + srcCol] >> (srcRow & 7)) & 1) << row;
+                }
+                put(col, bits, rows(top, bottom), true);
+            }
+            touch(left, right, top, bottom);
+            return this;
+        }
+
+        /**
+         * Fill rectangle of the layer with on or off pixels. Rectangle becomes covered by the layer.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> this layer is modified
+         * <br><b>Created on:</b> <i>4:24:30 PM Jun 12, 2017</i>
+         * 
+         * @param x
+         *            left coordinate of the rectangle
+         * @param y
+         *            top coordinate of the rectangle
+         * @param w
+         *            rectangle width
+         * @param h
+         *            rectangle height
+         * @param on
+         *            true to fill with on pixels, false to fill with off pixels
+         * @return this instance (for call chaining)
+         */
+        public final Layer fill(final int x, final int y, final int w, final int h, final boolean on) {
+            return area(x, y, w, h, on, true);
+        }
+
+        /**
+         * Make rectangle of the layer transparent.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> this layer is modified
+         * <br><b>Created on:</b> <i>4:25:40 PM Jun 12, 2017</i>
+         * 
+         * @param x
+         *            left coordinate of the rectangle
+         * @param y
+         *            top coordinate of the rectangle
+         * @param w
+         *            rectangle width
+         * @param h
+         *            rectangle height
+         * @return this instance (for call chaining)
+         */
+        public final Layer clear(final int x, final int y, final int w, final int h) {
+            return area(x, y, w, h, false, false);
+        }
+
+        /**
+         * Make whole layer transparent.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> this layer is modified
+         * <br><b>Created on:</b> <i>4:26:15 PM Jun 12, 2017</i>
+         * 
+         * @return this instance (for call chaining)
+         */
+        public final Layer clear() {
+            touchCovered();
+            Arrays.fill(pixels, (byte) 0);
+            Arrays.fill(mask, (byte) 0);
+            covered = null;
+            return this;
+        }
+
+        /**
+         * Change overlay type of the layer.
+         * <p><b>PRE-conditions:</b> non-null {@code overlay}
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> this layer is modified
+         * <br><b>Created on:</b> <i>4:26:50 PM Jun 12, 2017</i>
+         * 
+         * @param overlay
+         *            overlay type
+         * @return this instance (for call chaining)
+         */
+        public final Layer overlay(final OverlayType overlay) {
+            if (this.overlay != overlay) {
+                this.overlay = overlay;
+                touchCovered();
+            }
+            return this;
+        }
+
+        /**
+         * Show or hide the layer. Layers below are shown in place of the hidden one without redrawing them.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> this layer is modified
+         * <br><b>Created on:</b> <i>4:27:25 PM Jun 12, 2017</i>
+         * 
+         * @param visible
+         *            true if layer should be composed
+         * @return this instance (for call chaining)
+         */
+        public final Layer visible(final boolean visible) {
+            if (isVisible != visible) {
+                isVisible = visible;
+                touchCovered();
+            }
+            return this;
+        }
+
+        /**
+         * Set or clear pixels of the rectangle.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> this layer is modified
+         * <br><b>Created on:</b> <i>4:28:40 PM Jun 12, 2017</i>
+         * 
+         * @param x
+         *            left coordinate of the rectangle
+         * @param y
+         *            top coordinate of the rectangle
+         * @param w
+         *            rectangle width
+         * @param h
+         *            rectangle height
+         * @param on
+         *            pixel state
+         * @param covers
+         *            true if rectangle becomes covered by the layer, false if it becomes transparent
+         * @return this instance (for call chaining)
+         */
+        private final Layer area(
+            final int x,
+            final int y,
+            final int w,
+            final int h,
+            final boolean on,
+            final boolean covers) {
+
+            final int left = Math.max(0, x);
+            final int right = Math.min(width, x + w);
+            final int top = Math.max(0, y);
+            final int bottom = Math.min(height, y + h);
+            if (left >= right || top >= bottom) {
+                return this;
+            }
+            final long rows = rows(top, bottom);
+            for (int col = left ; col < right ; col++) {
+                put(col, on ? rows : 0L, rows, covers);
+            }
+            touch(left, right, top, bottom);
+            return this;
+        }
+
+        /**
+         * Write bits of the column.
+         * <p><b>PRE-conditions:</b> column is inside of the layer
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> this layer is modified
+         * <br><b>Created on:</b> <i>4:30:05 PM Jun 12, 2017</i>
+         * 
+         * @param col
+         *            column
+         * @param bits
+         *            pixel bits of the column, bit {@code n} is row {@code n}
+         * @param rows
+         *            bits of the rows to be written
+         * @param covers
+         *            true if rows become covered by the layer, false if they become transparent
+         */
+        private final void put(final int col, final long bits, final long rows, final boolean covers) {
+            for (int page = 0 ; page * 8 < height ; page++) {
+                final int pageRows = (int) (rows >>> (page * 8)) & 0xFF;
+                if (pageRows == 0) {
+                    continue;
+                }
+                final int pageBits = (int) (bits >>> (page * 8)) & 0xFF;
+                final int index = page * width + col;
+                pixels[index] = (byte) ((pixels[index] & ~pageRows) | (pageBits & pageRows));
+                mask[index] = (byte) (covers ? (mask[index] | pageRows) : (mask[index] & ~pageRows));
+            }
+        }
+
+        /**
+         * Add rectangle to the changed region and to the covered region.
+         * <p><b>PRE-conditions:</b> non-empty rectangle inside of the layer
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> this layer is modified
+         * <br><b>Created on:</b> <i>4:31:30 PM Jun 12, 2017</i>
+         * 
+         * @param left
+         *            left column
+         * @param right
+         *            column after the last one
+         * @param top
+         *            top row
+         * @param bottom
+         *            row after the last one
+         */
+        private final void touch(final int left, final int right, final int top, final int bottom) {
+            final Region region = Region.of(left, right - 1, top / 8, (bottom - 1) / 8);
+            dirty = region.union(dirty);
+            covered = region.union(covered);
+        }
+
+        /**
+         * Mark whole covered region of the layer as changed.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> this layer is modified
+         * <br><b>Created on:</b> <i>4:32:05 PM Jun 12, 2017</i>
+         */
+        private final void touchCovered() {
+            final Region region = covered;
+            if (region != null) {
+                dirty = region.union(dirty);
+            }
+        }
+
+        /**
+         * Get bits of the rows range.
+         * <p><b>PRE-conditions:</b> 0 &lt;= {@code top} &lt; {@code bottom} &lt;= 64
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>4:32:40 PM Jun 12, 2017</i>
+         * 
+         * @param top
+         *            top row
+         * @param bottom
+         *            row after the last one
+         * @return bit {@code n} is set for each row {@code n} of the range
+         */
+        private static final long rows(final int top, final int bottom) {
+            final int count = bottom - top;
+            return ((count == Long.SIZE) ? -1L : (1L << count) - 1) << top;
+        }
+
+    }
+
+
+    /**
+     * Display to compose on.
+     * <p><b>Created on:</b> <i>4:33:30 PM Jun 12, 2017</i>
+     */
+    private final Display display;
+
+    /**
+     * Layers by their levels.
+     * <p><b>Created on:</b> <i>4:34:02 PM Jun 12, 2017</i>
+     */
+    private final Map<Level, Layer> layers = new EnumMap<>(Level.class);
+
+    /**
+     * Layers from the bottom one to the top one.
+     * <p><b>Created on:</b> <i>4:34:35 PM Jun 12, 2017</i>
+     */
+    private final Layer[] stack;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Compositor.<p>
+     * <p><b>PRE-conditions:</b> non-null {@code display}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:35:10 PM Jun 12, 2017</i>
+     * 
+     * @param display
+     *            display to compose on
+     */
+    private Compositor(final Display display) {
+        this.display = display;
+        final Level[] levels = Level.values();
+        stack = new Layer[levels.length];
+        for (int i = 0 ; i < levels.length ; i++) {
+            stack[i] = new Layer(display.width(), display.height(), levels[i].overlayDefault);
+            layers.put(levels[i], stack[i]);
+        }
+        stack[0].dirty = Region.full(display.width(), display.buffer().length / display.width());
+    }
+
+    /**
+     * Create new {@link Compositor} instance. All layers are empty, whole screen is composed on first
+     * {@link #compose()}.
+     * <p><b>PRE-conditions:</b> non-null {@code display}, display height is not more than 64
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:36:02 PM Jun 12, 2017</i>
+     * 
+     * @param display
+     *            display to compose on
+     * @return new {@link Compositor} instance
+     */
+    public static final Compositor newInstance(final Display display) {
+        isTrue(display.height() <= Display.RAM_ROWS);
+        return new Compositor(display);
+    }
+
+    /**
+     * Get layer of specified level.
+     * <p><b>PRE-conditions:</b> non-null {@code level}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:36:40 PM Jun 12, 2017</i>
+     * 
+     * @param level
+     *            layer level
+     * @return layer
+     */
+    public final Layer layer(final Level level) {
+        return notNull(layers.get(level));
+    }
+
+    /**
+     * Compose changed regions of the layers into display buffer and send them to the display. Overlapping changed
+     * regions are merged, so that each byte is composed and sent once.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> display buffer and image are modified, GPIO I/O calls
+     * <br><b>Created on:</b> <i>4:38:15 PM Jun 12, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings("nls")
+    public final Compositor compose() {
+        LOG.traceEntry();
+
+        final List<Region> regions = new ArrayList<>(stack.length);
+        for (final Layer layer : stack) {
+            Region region = layer.dirty;
+            layer.dirty = null;
+            if (region == null) {
+                continue;
+            }
+            boolean isMerged;
+            do { // merged region may overlap some other region
+                isMerged = false;
+                for (int i = 0 ; i < regions.size() ; i++) {
+                    if (regions.get(i).intersects(region)) {
+                        region = region.union(regions.remove(i));
+                        isMerged = true;
+                        break;
+                    }
+                }
+            } while (isMerged);
+            regions.add(region);
+        }
+        final byte[] buffer = display.buffer();
+        final int width = display.width();
+        for (final Region region : regions) {
+            compose(region, buffer, width);
+            final int top = region.pageStart() * 8;
+            final int bottom = Math.min(display.height(), (region.pageEnd() + 1) * 8);
+            Packer.unpackBinary(buffer, width, region.colStart(), top, region.columns(), bottom - top,
+                display.image());
+            display.flush(buffer, region);
+        }
+        LOG.debug("layers composed : regions = [%s]", regions);
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Compose region of all visible layers into packed buffer.
+     * <p><b>PRE-conditions:</b> non-null {@code region} inside of the display, non-null {@code dst}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@code dst} is modified
+     * <br><b>Created on:</b> <i>4:40:30 PM Jun 12, 2017</i>
+     * 
+     * @param region
+     *            region to compose
+     * @param dst
+     *            destination packed buffer
+     * @param width
+     *            number of columns (bytes per page) in destination buffer
+     */
+    private final void compose(final Region region, final byte[] dst, final int width) {
+        final PackerBackend backend = Packer.backend();
+        for (int page = region.pageStart() ; page <= region.pageEnd() ; page++) {
+            final int from = page * width + region.colStart();
+            final int to = from + region.columns();
+            Arrays.fill(dst, from, to, (byte) 0);
+            for (final Layer layer : stack) {
+                if (!layer.isVisible) {
+                    continue;
+                }
+                backend.compose(layer.overlay, layer.pixels, layer.mask, dst, from, to);
+            }
+        }
+    }
+
+    /**
+     * Get string representation of this compositor.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:42:05 PM Jun 12, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this compositor
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String toString() {
+        final StringBuilder sb = new StringBuilder().append("{display=[").append(display).append(']');
+        for (final Level level : Level.values()) {
+            final Layer layer = layer(level);
+            sb.append(',').append(level.name().toLowerCase()).append("=[")
+                .append(layer.isVisible ? layer.overlay : "hidden").append(']');
+        }
+        return notNull(sb.append('}').toString());
+    }
+
+}
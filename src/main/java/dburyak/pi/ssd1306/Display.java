@@ -3,6 +3,8 @@ package dburyak.pi.ssd1306;
 
 import static dburyak.pi.ssd1306.Command.CHARGE_PUMP_DISABLE;
 import static dburyak.pi.ssd1306.Command.CHARGE_PUMP_ENABLE;
+import static dburyak.pi.ssd1306.Command.CONTENT_SCROLL_LEFT;
+import static dburyak.pi.ssd1306.Command.CONTENT_SCROLL_RIGHT;
 import static dburyak.pi.ssd1306.Command.DISPLAY_OFF;
 import static dburyak.pi.ssd1306.Command.DISPLAY_ON;
 import static dburyak.pi.ssd1306.Command.DISPLAY_ON_RESUME;
@@ -16,19 +18,28 @@ import static dburyak.pi.ssd1306.Command.SCROLL_HORIZONTAL_RIGHT;
 import static dburyak.pi.ssd1306.Command.SET_CHARGE_PUMP;
 import static dburyak.pi.ssd1306.Command.SET_CLOCK_DIV;
 import static dburyak.pi.ssd1306.Command.SET_COLUMN_ADDR;
+import static dburyak.pi.ssd1306.Command.SET_COM_OUTPUT_SCAN_DIRECTION_NORMAL;
 import static dburyak.pi.ssd1306.Command.SET_COM_OUTPUT_SCAN_DIRECTION_REMAPPED;
 import static dburyak.pi.ssd1306.Command.SET_COM_PINS_CONFIGURATION;
 import static dburyak.pi.ssd1306.Command.SET_CONTRAST;
 import static dburyak.pi.ssd1306.Command.SET_DISPLAY_OFFSET;
 import static dburyak.pi.ssd1306.Command.SET_DISPLAY_START_LINE_0;
+import static dburyak.pi.ssd1306.Command.SET_FADE_BLINK;
+import static dburyak.pi.ssd1306.Command.SET_HIGHER_COLUMN_START_0;
 import static dburyak.pi.ssd1306.Command.SET_INVERSE_DISPLAY;
+import static dburyak.pi.ssd1306.Command.SET_LOWER_COLUMN_START_0;
 import static dburyak.pi.ssd1306.Command.SET_MEMORY_ADDRESSING_MODE;
 import static dburyak.pi.ssd1306.Command.SET_MULTIPLEX;
 import static dburyak.pi.ssd1306.Command.SET_NORMAL_DISPLAY;
+import static dburyak.pi.ssd1306.Command.SET_PAGE_START_0;
 import static dburyak.pi.ssd1306.Command.SET_PRECHARGE_PERIOD;
+import static dburyak.pi.ssd1306.Command.SET_SEGMENT_REMAP_0;
 import static dburyak.pi.ssd1306.Command.SET_SEGMENT_REMAP_127;
 import static dburyak.pi.ssd1306.Command.SET_VCOMH_DESELECT_LEVEL;
 import static dburyak.pi.ssd1306.Command.SET_VERTICAL_SCROLL_AREA;
+import static dburyak.pi.ssd1306.BusArbiter.Priority.BULK;
+import static dburyak.pi.ssd1306.BusArbiter.Priority.NORMAL;
+import static dburyak.pi.ssd1306.BusArbiter.Priority.URGENT;
 import static dburyak.pi.ssd1306.Display.Dimensions.W128_H32;
 import static dburyak.pi.ssd1306.Display.Dimensions.W128_H64;
 import static dburyak.pi.ssd1306.Display.Dimensions.W96_H16;
@@ -40,22 +51,25 @@ import static dburyak.pi.ssd1306.Display.OverlayType.ON_PIXELS;
 import static dburyak.pi.ssd1306.Display.ScrollFrequency.FRAMES_5;
 import static dburyak.pi.ssd1306.Display.VerticalDirection.UP;
 import static dburyak.pi.ssd1306.Util.asByte;
+import static dburyak.pi.ssd1306.Util.asUnsigned;
+import static dburyak.pi.ssd1306.Util.callSync;
 import static dburyak.pi.ssd1306.Util.hex;
 import static dburyak.pi.ssd1306.Util.isTrue;
 import static dburyak.pi.ssd1306.Util.notNull;
 import static dburyak.pi.ssd1306.Util.runSync;
 import static java.awt.Color.BLACK;
 import static java.awt.Color.WHITE;
-import static java.awt.image.AffineTransformOp.TYPE_BILINEAR;
 
-import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
+import java.awt.Rectangle;
 import java.awt.geom.Rectangle2D;
-import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -63,6 +77,8 @@ import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.NotThreadSafe;
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -98,19 +114,40 @@ public class Display {
     private static final Logger LOG = notNull(LogManager.getFormatterLogger(Display.class));
 
     /**
-     * Threshold for converting RGB pixel to monochrome one. If pixel's sum of REG + GREEN + BLUE exceeds this threshold
-     * then pixel is converted to WHITE. Otherwise, it is considered as BLACK.
+     * Threshold for converting RGB pixel to monochrome one. If luminance of the pixel (0-255, composed over black if
+     * pixel is translucent) exceeds this threshold then pixel is converted to WHITE. Otherwise, it is considered as
+     * BLACK (see {@link Packer#isLit(int, int)}).
      * <p>TODO : this needs to be fine tuned or even made available for configuration
      * <p><b>Created on:</b> <i>5:40:10 PM Apr 7, 2017</i>
      */
-    private static final int MONOCHROME_THRESHOLD = 64 + 64 + 64;
+    static final int MONOCHROME_THRESHOLD = 64;
+
+    /**
+     * Number of rows in display RAM (GDDRAM) of the controller. Does not depend on the number of rows of the panel.
+     * <p><b>Created on:</b> <i>11:32:05 AM May 16, 2017</i>
+     */
+    static final int RAM_ROWS = 64;
+
+    /**
+     * Number of pages in display RAM (GDDRAM) of the controller.
+     * <p><b>Created on:</b> <i>11:32:41 AM May 16, 2017</i>
+     */
+    static final int RAM_PAGES = RAM_ROWS / 8;
+
+    /**
+     * Time controller needs to complete content scroll (see {@link #contentScroll(boolean, Region)}), nanoseconds. Moved
+     * RAM must not be written and next move must not be issued earlier. Controller needs two frames to complete the
+     * move, this covers default frame rate with a margin.
+     * <p><b>Created on:</b> <i>10:14:20 AM Jul 24, 2017</i>
+     */
+    static final long CONTENT_SCROLL_INTERVAL_NANOS = 30_000_000L;
 
     /**
      * Default font for drawing text.
      * <p><b>Created on:</b> <i>1:07:38 AM Apr 9, 2017</i>
      */
     @SuppressWarnings("nls")
-    private static final Font FONT_DEFAULT = new Font("Monospaced", Font.PLAIN, 12);
+    static final Font FONT_DEFAULT = new Font("Monospaced", Font.PLAIN, 12);
 
     /**
      * Default scrolling frequency.
@@ -232,16 +269,23 @@ public class Display {
     private final boolean hasExternalVCC;
 
     /**
-     * Internal image to hold raster and associated {@link Graphics2D} object.
+     * Internal image to hold raster and associated {@link Graphics2D} object. Is replaced when orientation is changed
+     * to or from quarter turn.
      * <p><b>Created on:</b> <i>5:20:11 AM Mar 26, 2017</i>
      */
-    private final BufferedImage img;
+    private volatile BufferedImage img;
 
     /**
-     * Graphics to perform drawing.
+     * Graphics to perform drawing. Is replaced together with {@link #img}.
      * <p><b>Created on:</b> <i>5:20:27 AM Mar 26, 2017</i>
      */
-    private final Graphics2D graphics;
+    private volatile Graphics2D graphics;
+
+    /**
+     * Orientation of the picture on the panel.
+     * <p><b>Created on:</b> <i>10:20:44 AM Jun 29, 2017</i>
+     */
+    private volatile Orientation orientation = Orientation.ROTATE_0;
 
     /**
      * Display dimensions.
@@ -266,12 +310,18 @@ public class Display {
 
     /**
      * Output hardware device to write commands and data to. Is thread safe, but is guarded by extra {@code gpioLock} to
-     * not interfere communication command sequences.
+     * not interfere communication command sequences. Each transaction is performed while {@link #arbiter} is owned.
      * <p><b>Created on:</b> <i>10:09:17 AM Mar 28, 2017</i>
      */
     @GuardedBy("lockGpio")
     private final SSD1306Connection hwConn;
 
+    /**
+     * Arbiter of the bus the display is connected to. Is always acquired after {@link #lockGpio}, never before it.
+     * <p><b>Created on:</b> <i>4:02:15 PM May 12, 2017</i>
+     */
+    private final BusArbiter arbiter;
+
     /**
      * Buffer for holding display pixel matrix state. Each byte is a bit octet and represents 8 pixels column (page) on
      * the display matrix.
@@ -279,6 +329,12 @@ public class Display {
      */
     private final byte[] dispBuffer;
 
+    /**
+     * Region that covers whole display.
+     * <p><b>Created on:</b> <i>10:01:13 PM May 6, 2017</i>
+     */
+    private final Region fullRegion;
+
     /**
      * Lock for access synchronization to gpio-related resources.
      * <p><b>Created on:</b> <i>10:36:40 PM Apr 3, 2017</i>
@@ -291,6 +347,34 @@ public class Display {
      */
     private final AtomicInteger contrast = new AtomicInteger(0);
 
+    /**
+     * RAM row that is displayed on the top row of the panel.
+     * <p><b>Created on:</b> <i>11:34:20 AM May 16, 2017</i>
+     */
+    @GuardedBy("lockGpio")
+    private int startLine = 0;
+
+    /**
+     * Indicates whether frames are written to hidden part of display RAM and then shown by changing start line.
+     * <p><b>Created on:</b> <i>5:12:37 PM May 18, 2017</i>
+     */
+    @GuardedBy("lockGpio")
+    private boolean isFlipping = false;
+
+    /**
+     * Tracker of controller addressing state that chooses addressing mode for each update.
+     * <p><b>Created on:</b> <i>11:20:40 AM May 22, 2017</i>
+     */
+    @GuardedBy("lockGpio")
+    private final AddressPlanner planner = new AddressPlanner();
+
+    /**
+     * Buffer for reordering region bytes column by column in "vertical" addressing mode.
+     * <p><b>Created on:</b> <i>11:21:18 AM May 22, 2017</i>
+     */
+    @GuardedBy("lockGpio")
+    private final byte[] columnBuffer = new byte[AddressPlanner.RAM_COLUMNS];
+
 
     /**
      * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.OLEDDisplay.<p>
@@ -375,6 +459,8 @@ public class Display {
 
         pages = dim.height() / 8;
         dispBuffer = new byte[pages * dim.width()];
+        fullRegion = Region.full(dim.width(), pages);
+        arbiter = BusArbiter.forBus(hwConn.busId());
 
         img = new BufferedImage(dim.width(), dim.height(), BufferedImage.TYPE_BYTE_BINARY);
         graphics = notNull(img.createGraphics());
@@ -420,21 +506,40 @@ public class Display {
      * @return this instance (for call chaining)
      */
     /**
-     * Turn on data mode and send data buffer.
-     * <p><b>PRE-conditions:</b> non-null {@code buffer}
+     * Turn on data mode and send part of the data buffer.
+     * <p><b>PRE-conditions:</b> non-null {@code buffer}, valid {@code offset} and {@code length}
      * <br><b>POST-conditions:</b> non-null result
      * <br><b>Side-effects:</b> GPIO I/O call
      * <br><b>Created on:</b> <i>1:34:24 PM Mar 29, 2017</i>
      * 
      * @param buffer
      *            byte buffer to send
+     * @param offset
+     *            index of the first byte to send
+     * @param length
+     *            number of bytes to send
      * @return this instance (for call chaining)
      */
-    private final Display data(final byte[] buffer) {
-        hwConn.data(buffer);
+    private final Display data(final byte[] buffer, final int offset, final int length) {
+        hwConn.data(buffer, offset, length);
         return this;
     }
 
+    /**
+     * Run command sequence exclusively : other sequences of this display are not interleaved with it, and the bus is
+     * owned with {@link BusArbiter.Priority#NORMAL} priority for the whole sequence.
+     * <p><b>PRE-conditions:</b> non-null {@code task}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> task is run on current thread
+     * <br><b>Created on:</b> <i>4:05:40 PM May 12, 2017</i>
+     * 
+     * @param task
+     *            command sequence to run
+     */
+    private final void exclusive(final Runnable task) {
+        runSync(lockGpio, () -> arbiter.run(NORMAL, task));
+    }
+
     /**
      * Perform display initialization sequence (see SSD1306 datasheet for more information).
      * <p><b>PRE-conditions:</b> NONE
@@ -478,7 +583,7 @@ public class Display {
     private final void initDisplay(final byte multiplex, final byte compins, final byte ratio) {
         LOG.traceEntry("multiplex = [{}] ; compins = [{}] ; ratio = [{}]", hex(multiplex), hex(compins), hex(ratio));
 
-        runSync(lockGpio, () -> {
+        exclusive(() -> {
             command(DISPLAY_OFF);
             command(SET_CLOCK_DIV);
             command(ratio);
@@ -487,13 +592,15 @@ public class Display {
             command(SET_DISPLAY_OFFSET);
             command(asByte(0x0));
             command(SET_DISPLAY_START_LINE_0);
+            startLine = 0;
             command(SET_CHARGE_PUMP);
             command(hasExternalVCC ? CHARGE_PUMP_DISABLE : CHARGE_PUMP_ENABLE);
 
             command(SET_MEMORY_ADDRESSING_MODE);
             command(MEMORY_ADDRESSING_MODE_HORIZONTAL);
-            command(SET_SEGMENT_REMAP_127);
-            command(SET_COM_OUTPUT_SCAN_DIRECTION_REMAPPED);
+            planner.modeSet(AddressPlanner.Mode.HORIZONTAL);
+            command(orientation.segmentRemap());
+            command(orientation.comScanDirection());
             command(SET_COM_PINS_CONFIGURATION);
             command(compins);
 
@@ -524,7 +631,7 @@ public class Display {
     public final Display begin() {
         LOG.traceEntry();
 
-        runSync(lockGpio, () -> {
+        exclusive(() -> {
             hwReset();
             initDisplay();
             command(DISPLAY_ON);
@@ -574,13 +681,11 @@ public class Display {
      * <br><b>Created on:</b> <i>5:51:48 PM Apr 7, 2017</i>
      * 
      * @param rgb
-     *            packed rgb color value
+     *            packed argb color value
      * @return converted monochrome pixel state
      */
     private static final PixelState rgbToPixelState(final int rgb) {
-        final Color color = new Color(rgb);
-        final int rgbSum = color.getRed() + color.getGreen() + color.getBlue();
-        return (rgbSum > MONOCHROME_THRESHOLD) ? PixelState.ON : PixelState.OFF;
+        return Packer.isLit(rgb, MONOCHROME_THRESHOLD) ? PixelState.ON : PixelState.OFF;
     }
 
     /**
@@ -596,29 +701,414 @@ public class Display {
     public final Display sync() {
         LOG.traceEntry();
 
-        // convert image to display buffer pixel by pixel
+        pack();
+        present(dispBuffer, fullRegion);
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Convert current image state to display buffer. Display itself is not updated.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> display buffer is modified
+     * <br><b>Created on:</b> <i>7:05:48 PM May 2, 2017</i>
+     */
+    final void pack() {
         img.flush();
+        if (orientation.isTransposed()) { // image is always binary in this case
+            Packer.packBinaryRotated(img, dispBuffer, width());
+            return;
+        }
+        if (Packer.isBinary(img)) { // read pixel bits directly, it is much faster than going through color model
+            Packer.packBinary(img, 0, 0, width(), height(), dispBuffer, width());
+            return;
+        }
         for (int y = 0 ; y < height() ; y++) {
             for (int x = 0 ; x < width() ; x++) {
                 final PixelState pixel = rgbToPixelState(img.getRGB(x, y));
                 pixelToBuffer(x, y, pixel);
             }
         }
+    }
+
+    /**
+     * Send region of the packed frame to the display. Frame must have the same layout as display buffer. Only bytes
+     * inside of the {@code region} are sent. Frame is written to visible part of RAM, starting from the page of the
+     * current start line.
+     * <p>Region is sent page by page, and the bus is released between pages, so urgent commands and other bus users
+     * are not blocked for the whole frame transfer. Other command sequences of this display are not interleaved with
+     * the transfer, since they could move the memory address pointer.
+     * <p><b>PRE-conditions:</b> non-null {@code frame}, {@code frame.length == pages() * width()}, non-null
+     * {@code region} inside of the display bounds
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>9:58:40 PM May 6, 2017</i>
+     * 
+     * @param frame
+     *            packed frame
+     * @param region
+     *            region of the frame to be sent
+     */
+    final void flush(final byte[] frame, final Region region) {
+        runSync(lockGpio, () -> flush(frame, region, startLine / 8));
+    }
+
+    /**
+     * Show packed frame on the display. If page flipping is on (see {@link #pageFlipping(boolean)}), whole frame is
+     * written to the hidden part of display RAM and then shown with single start line command. Otherwise, only
+     * {@code region} of the frame is written to the visible part of display RAM. Connection logs failed writes and goes
+     * on, so failures are detected by connection failure counter (see {@link SSD1306Connection#failures()}) and
+     * reported by exception, which completes transfer future of {@link DisplayManager} exceptionally.
+     * <p><b>PRE-conditions:</b> non-null {@code frame}, {@code frame.length == pages() * width()}, non-null
+     * {@code region} inside of the display bounds
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>5:20:48 PM May 18, 2017</i>
+     * 
+     * @param frame
+     *            packed frame
+     * @param region
+     *            region of the frame that differs from the shown one
+     * @throws UncheckedIOException
+     *             if some write of the frame failed, so display content is not known
+     */
+    @SuppressWarnings({ "nls", "boxing" })
+    final void present(final byte[] frame, final Region region) {
+        final long failed = notNull(callSync(lockGpio, () -> {
+            final long failuresBefore = hwConn.failures();
+            if (isFlipping) { // hidden part holds some older frame, so region is not enough here
+                final int hiddenLine = ((startLine / 8) * 8 + height()) % RAM_ROWS;
+                flush(frame, fullRegion, hiddenLine / 8);
+                startLine(hiddenLine);
+            } else {
+                flush(frame, region);
+            }
+            return Long.valueOf(hwConn.failures() - failuresBefore);
+        })).longValue();
+        if (failed > 0L) {
+            throw new UncheckedIOException(new IOException(String.format(
+                "frame transfer failed : display = [%s] ; failed writes = [%d]", this, failed)));
+        }
+    }
+
+    /**
+     * Turn page flipping on or off. Panels that are shorter than display RAM (128x32 and 96x16) do not show part of
+     * RAM. When page flipping is on, next frame is written to that hidden part and then shown instantly by changing
+     * start line (see {@link #startLine(int)}), so frame switch does not tear and costs single command. Each frame is
+     * sent as a whole, since hidden part of RAM holds some older frame.
+     * <p><b>PRE-conditions:</b> display height is not more than half of display RAM rows if {@code enabled}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>5:25:10 PM May 18, 2017</i>
+     * 
+     * @param enabled
+     *            true if page flipping should be turned on, false otherwise
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final Display pageFlipping(final boolean enabled) {
+        LOG.traceEntry("enabled = [{}]", enabled);
+        isTrue(!enabled || height() * 2 <= RAM_ROWS);
+
+        runSync(lockGpio, () -> {
+            isFlipping = enabled;
+        });
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Send region of the packed frame to the display RAM shifted by specified number of pages. Page {@code p} of the
+     * frame is written to RAM page {@code (p + ramPageShift) % 8}, which makes it possible to write RAM pages that are
+     * not visible on the panel (see {@link #startLine(int)}).
+     * <p><b>PRE-conditions:</b> non-null {@code frame} that has at least {@code region.pageEnd() + 1} pages, non-null
+     * {@code region} inside of the display width, 0 &lt;= {@code ramPageShift} &lt; 8
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>11:40:52 AM May 16, 2017</i>
+     * 
+     * @param frame
+     *            packed frame
+     * @param region
+     *            region of the frame to be sent
+     * @param ramPageShift
+     *            number of pages to shift region by in display RAM
+     */
+    final void flush(final byte[] frame, final Region region, final int ramPageShift) {
+        assert (isTrue(frame.length >= (region.pageEnd() + 1) * width()));
+        assert (isTrue(region.colEnd() < width() && region.pageEnd() < RAM_PAGES));
+        assert (isTrue(0 <= ramPageShift && ramPageShift < RAM_PAGES));
 
         runSync(lockGpio, () -> {
+            final int wrapPage = RAM_PAGES - ramPageShift; // first frame page that goes to RAM page 0
+            if (region.pageStart() < wrapPage && wrapPage <= region.pageEnd()) { // region wraps around RAM end
+                flushPages(frame, region, region.pageStart(), wrapPage - 1, ramPageShift);
+                flushPages(frame, region, wrapPage, region.pageEnd(), ramPageShift);
+            } else {
+                flushPages(frame, region, region.pageStart(), region.pageEnd(), ramPageShift);
+            }
+        });
+    }
+
+    /**
+     * Send pages of the frame region that are written to consecutive RAM pages. Addressing mode that costs least bus
+     * bytes is chosen by {@link AddressPlanner}.
+     * <p><b>PRE-conditions:</b> {@code lockGpio} is held, pages from {@code first} to {@code last} do not wrap around
+     * RAM end after shifting
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>11:45:17 AM May 16, 2017</i>
+     * 
+     * @param frame
+     *            packed frame
+     * @param region
+     *            region of the frame to be sent
+     * @param first
+     *            first frame page to send
+     * @param last
+     *            last frame page to send (inclusive)
+     * @param ramPageShift
+     *            number of pages to shift pages by in display RAM
+     */
+    @SuppressWarnings("nls")
+    @GuardedBy("lockGpio")
+    private final void flushPages(
+        final byte[] frame,
+        final Region region,
+        final int first,
+        final int last,
+        final int ramPageShift) {
+
+        final int colStart = region.colStart();
+        final int colEnd = region.colEnd();
+        final int ramFirst = (first + ramPageShift) % RAM_PAGES;
+        final int ramLast = (last + ramPageShift) % RAM_PAGES;
+        final AddressPlanner.Mode mode = planner.choose(colStart, colEnd, ramFirst, ramLast);
+        try {
+            arbiter.run(BULK, () -> address(mode, colStart, colEnd, ramFirst, ramLast));
+            switch (mode) {
+                case VERTICAL:
+                    flushColumns(frame, region, first, last);
+                    break;
+                case PAGE:
+                    for (int page = first ; page <= last ; page++) {
+                        final int offset = page * width() + colStart;
+                        final int ramPage = (page + ramPageShift) % RAM_PAGES;
+                        arbiter.run(BULK, () -> {
+                            pointer(colStart, ramPage);
+                            data(frame, offset, region.columns());
+                            planner.advance(region.columns());
+                        });
+                    }
+                    break;
+                case HORIZONTAL:
+                default:
+                    // address pointer wraps to the region start column after each page, so one chunk per page
+                    for (int page = first ; page <= last ; page++) {
+                        final int offset = page * width() + colStart;
+                        arbiter.run(BULK, () -> {
+                            data(frame, offset, region.columns());
+                            planner.advance(region.columns());
+                        });
+                    }
+                    break;
+            }
+        } catch (final RuntimeException e) {
+            LOG.error("region transfer failed, addressing state is unknown now : region = [%s]", region, e);
+            planner.invalidate();
+            throw e;
+        }
+    }
+
+    /**
+     * Switch addressing mode and set address window if needed, so that region can be written in specified mode.
+     * <p><b>PRE-conditions:</b> {@code lockGpio} is held, bus is owned, non-null {@code mode}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>11:30:12 AM May 22, 2017</i>
+     * 
+     * @param mode
+     *            addressing mode
+     * @param colStart
+     *            first column of the region
+     * @param colEnd
+     *            last column of the region (inclusive)
+     * @param pageStart
+     *            first RAM page of the region
+     * @param pageEnd
+     *            last RAM page of the region (inclusive)
+     */
+    @GuardedBy("lockGpio")
+    private final void address(
+        final AddressPlanner.Mode mode,
+        final int colStart,
+        final int colEnd,
+        final int pageStart,
+        final int pageEnd) {
+
+        if (planner.mode() != mode) {
+            command(SET_MEMORY_ADDRESSING_MODE);
+            command(mode.command());
+            planner.modeSet(mode);
+        }
+        if (mode != AddressPlanner.Mode.PAGE && !planner.isWindowReady(mode, colStart, colEnd, pageStart, pageEnd)) {
+            final int windowColEnd = AddressPlanner.windowColumnEnd(mode, colEnd);
             command(SET_COLUMN_ADDR);
-            command(asByte(0x00)); // column addr range start
-            command(asByte(dimensions.width() - 1)); // column addr range end
+            command(asByte(colStart)); // column addr range start
+            command(asByte(windowColEnd)); // column addr range end
             command(Command.SET_PAGE_ADDR);
-            command(asByte(0x00)); // page addr range start
-            command(asByte(pages - 1)); // page addr range end
+            command(asByte(pageStart)); // page addr range start
+            command(asByte(pageEnd)); // page addr range end
+            planner.windowSet(colStart, windowColEnd, pageStart, pageEnd);
+        }
+    }
+
+    /**
+     * Move address pointer in "page" addressing mode. Only parts of the pointer that differ are set.
+     * <p><b>PRE-conditions:</b> {@code lockGpio} is held, bus is owned, controller is in "page" addressing mode
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>11:34:40 AM May 22, 2017</i>
+     * 
+     * @param column
+     *            target column
+     * @param page
+     *            target RAM page
+     */
+    @GuardedBy("lockGpio")
+    private final void pointer(final int column, final int page) {
+        final int fromColumn = planner.column();
+        if (planner.page() != page) {
+            command(asByte(asUnsigned(SET_PAGE_START_0.code()) | page));
+        }
+        if (!AddressPlanner.isLowerColumnReady(fromColumn, column)) {
+            command(asByte(asUnsigned(SET_LOWER_COLUMN_START_0.code()) | (column & 0x0F)));
+        }
+        if (!AddressPlanner.isHigherColumnReady(fromColumn, column)) {
+            command(asByte(asUnsigned(SET_HIGHER_COLUMN_START_0.code()) | (column >> 4)));
+        }
+        planner.pointerSet(column, page);
+    }
+
+    /**
+     * Send pages of the frame region column by column in "vertical" addressing mode. Each data transaction is not
+     * much longer than one page.
+     * <p><b>PRE-conditions:</b> {@code lockGpio} is held, controller is in "vertical" addressing mode with window set
+     * for the region
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>11:38:02 AM May 22, 2017</i>
+     * 
+     * @param frame
+     *            packed frame
+     * @param region
+     *            region of the frame to be sent
+     * @param first
+     *            first frame page to send
+     * @param last
+     *            last frame page to send (inclusive)
+     */
+    @GuardedBy("lockGpio")
+    private final void flushColumns(final byte[] frame, final Region region, final int first, final int last) {
+        final int chunk = AddressPlanner.verticalChunk(last - first + 1);
+        for (int col = region.colStart() ; col <= region.colEnd() ; col += chunk) {
+            final int chunkStart = col;
+            final int chunkEnd = Math.min(col + chunk - 1, region.colEnd());
+            arbiter.run(BULK, () -> {
+                int length = 0;
+                for (int x = chunkStart ; x <= chunkEnd ; x++) {
+                    for (int page = first ; page <= last ; page++) {
+                        columnBuffer[length++] = frame[page * width() + x];
+                    }
+                }
+                data(columnBuffer, 0, length);
+                planner.advance(length);
+            });
+        }
+    }
+
+    /**
+     * Set RAM row that is displayed on the top row of the panel. Rows of the panel are taken from RAM rows one after
+     * another starting from {@code line}, wrapping around RAM end. Content of the display RAM is not changed, so
+     * picture is moved vertically by a single command without any data transfer.
+     * <p>Note that {@link #sync()} writes buffer to RAM starting from the page of the start line, so picture drawn on
+     * {@link #graphics()} is shifted if start line is not a multiple of 8.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code line} &lt; 64
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>11:51:30 AM May 16, 2017</i>
+     * 
+     * @param line
+     *            RAM row to be displayed on the top of the panel
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final Display startLine(final int line) {
+        LOG.traceEntry("line = [{}]", line);
+        isTrue(0 <= line && line < RAM_ROWS);
 
-            data(dispBuffer);
+        exclusive(() -> {
+            command(asByte(asUnsigned(SET_DISPLAY_START_LINE_0.code()) | line));
+            startLine = line;
         });
 
         return notNull(LOG.traceExit(this));
     }
 
+    /**
+     * Get RAM row that is displayed on the top row of the panel.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> 0 &lt;= {@code result} &lt; 64
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:53:04 AM May 16, 2017</i>
+     * 
+     * @return current start line
+     */
+    public final int startLine() {
+        return notNull(callSync(lockGpio, () -> Integer.valueOf(startLine))).intValue();
+    }
+
+    /**
+     * Get display buffer which holds packed pixels of the last {@link #sync()}. Each byte is a bit octet and
+     * represents 8 pixels column (page), pages go one after another.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>7:14:02 PM May 2, 2017</i>
+     * 
+     * @return display buffer (not a copy)
+     */
+    final byte[] buffer() {
+        return dispBuffer;
+    }
+
+    /**
+     * Get hardware connection of this display.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>7:15:37 PM May 2, 2017</i>
+     * 
+     * @return hardware connection
+     */
+    final SSD1306Connection connection() {
+        return hwConn;
+    }
+
+    /**
+     * Get image that is drawn with {@link #graphics()}. Image is 1-bit black and white.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:40:12 PM May 25, 2017</i>
+     * 
+     * @return display image (not a copy)
+     */
+    final BufferedImage image() {
+        return img;
+    }
+
     /**
      * Clear current image state. Note that display is <em>not</em> updated, use {@link #sync()} to update the display.
      * <p><b>PRE-conditions:</b> NONE
@@ -632,7 +1122,7 @@ public class Display {
         LOG.traceEntry();
 
         graphics().setColor(BLACK);
-        graphics().fillRect(0, 0, dimensions.width(), dimensions.height());
+        graphics().fillRect(0, 0, image().getWidth(), image().getHeight());
 
         return notNull(LOG.traceExit(this));
     }
@@ -688,7 +1178,7 @@ public class Display {
     }
 
     /**
-     * Set display contrast.
+     * Set display contrast. Command is sent with urgent bus priority, so it is not delayed by frame transfer in progress.
      * <p><b>PRE-conditions:</b> NONE
      * <br><b>POST-conditions:</b> NONE
      * <br><b>Side-effects:</b> GPIO I/O calls
@@ -697,8 +1187,8 @@ public class Display {
      * @param contrastByte
      *            contrast byte value
      */
-    private final void contrast(final byte contrastByte) {
-        runSync(lockGpio, () -> {
+    final void contrast(final byte contrastByte) {
+        arbiter.run(URGENT, () -> {
             command(SET_CONTRAST);
             command(contrastByte);
         });
@@ -724,6 +1214,71 @@ public class Display {
         return notNull(LOG.traceExit(this));
     }
 
+    /**
+     * Get contrast set by {@link #contrast(double)}. Contrast changes made by {@link #dim(boolean)} and by fading are
+     * not reflected.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> 0 &lt;= {@code result} &lt;= 255
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:08:12 AM Jun 22, 2017</i>
+     * 
+     * @return contrast level
+     */
+    final int contrastLevel() {
+        return contrast.get();
+    }
+
+    /**
+     * Start or stop hardware fade out or blinking (see {@link Command#SET_FADE_BLINK}). Controller changes contrast on
+     * its own, nothing is sent over the bus until the mode is changed again. Contrast set by
+     * {@link #contrast(double)} is restored by controller when fading is stopped.
+     * <p><b>PRE-conditions:</b> non-null {@code mode}, 0 &lt;= {@code interval} &lt;= 15
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>10:10:40 AM Jun 22, 2017</i>
+     * 
+     * @param mode
+     *            fade mode
+     * @param interval
+     *            time interval of each contrast step, {@code (interval + 1) * 8} frames
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final Display fade(final FadeMode mode, final int interval) {
+        LOG.traceEntry("mode = [{}] ; interval = [{}]", mode, interval);
+        isTrue(0 <= interval && interval <= 0x0F);
+
+        arbiter.run(URGENT, () -> {
+            command(SET_FADE_BLINK);
+            command(asByte(asUnsigned(mode.code()) | interval));
+        });
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Turn display panel on or off. Display memory is retained while panel is off. Command is sent with urgent bus
+     * priority, so it is not delayed by frame transfer in progress.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>4:20:33 PM May 12, 2017</i>
+     * 
+     * @param on
+     *            true if panel should be turned on, false otherwise
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final Display power(final boolean on) {
+        LOG.traceEntry("on = [{}]", on);
+
+        arbiter.run(URGENT, () -> {
+            command(on ? DISPLAY_ON : DISPLAY_OFF);
+        });
+
+        return notNull(LOG.traceExit(this));
+    }
+
     /**
      * Set "inverted" display mode on/off.
      * <p><b>PRE-conditions:</b> NONE
@@ -739,13 +1294,70 @@ public class Display {
     public final Display invert(final boolean inverse) {
         LOG.traceEntry("inverse = [{}]", inverse);
 
-        runSync(lockGpio, () -> {
+        exclusive(() -> {
             command(inverse ? SET_INVERSE_DISPLAY : SET_NORMAL_DISPLAY);
         });
 
         return notNull(LOG.traceExit(this));
     }
 
+    /**
+     * Set orientation of the picture on the panel. Flips and half turn are done by the controller (segment remap and
+     * COM scan direction), so they cost nothing per frame. Quarter turns are done in {@link #sync()} while packing the
+     * image, then image has swapped dimensions : it is {@link #height()} pixels wide and {@link #width()} pixels high.
+     * <p>Controller applies segment remap only to data written after it, so display buffer is re-sent right after the
+     * orientation commands, and the panel shows the whole picture in the new orientation at once.
+     * <p>When orientation is changed to or from quarter turn, {@link #graphics()} and the image are replaced with new
+     * blank ones, so graphics object obtained before this call should not be used anymore. Display is cleared then, and
+     * the caller must draw the picture again and call {@link #sync()}. Helpers that work with packed display buffer
+     * directly ({@link Terminal}, {@link Field}, {@link Compositor}, {@link SpriteEngine} and others) lay out content
+     * in panel coordinates and should not be used with quarter turns.
+     * <p><b>PRE-conditions:</b> non-null {@code orientation}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls, image and graphics may be replaced
+     * <br><b>Created on:</b> <i>10:24:37 AM Jun 29, 2017</i>
+     * 
+     * @param orientation
+     *            new orientation
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "hiding", "nls" })
+    public final Display orientation(final Orientation orientation) {
+        LOG.traceEntry("orientation = [{}]", orientation);
+
+        if (orientation.isTransposed() != this.orientation.isTransposed()) {
+            final BufferedImage imgNew = orientation.isTransposed()
+                ? new BufferedImage(dimensions.height(), dimensions.width(), BufferedImage.TYPE_BYTE_BINARY)
+                : new BufferedImage(dimensions.width(), dimensions.height(), BufferedImage.TYPE_BYTE_BINARY);
+            final Graphics2D graphicsOld = graphics;
+            img = imgNew;
+            graphics = notNull(imgNew.createGraphics());
+            graphicsOld.dispose();
+            Arrays.fill(dispBuffer, (byte) 0); // buffer matches new blank image
+        }
+        this.orientation = orientation;
+        exclusive(() -> {
+            command(orientation.segmentRemap());
+            command(orientation.comScanDirection());
+            flush(dispBuffer, fullRegion);
+        });
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Get orientation of the picture on the panel.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:26:05 AM Jun 29, 2017</i>
+     * 
+     * @return current orientation
+     */
+    public final Orientation orientation() {
+        return orientation;
+    }
+
 
     /**
      * Project : pi_java_ssd1306<p>
@@ -791,6 +1403,192 @@ public class Display {
             DOWN;
     }
 
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Hardware fade mode (see {@link #fade(FadeMode, int)}).
+     * <p><b>Created on:</b> <i>10:12:05 AM Jun 22, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    public static enum FadeMode {
+            /**
+             * Fading and blinking are disabled.
+             * <p><b>Created on:</b> <i>10:12:40 AM Jun 22, 2017</i>
+             */
+            OFF(asByte(0b00_0000)),
+
+            /**
+             * Contrast goes down to zero once and stays there.
+             * <p><b>Created on:</b> <i>10:13:12 AM Jun 22, 2017</i>
+             */
+            FADE_OUT(asByte(0b10_0000)),
+
+            /**
+             * Contrast goes down to zero and back up in a loop.
+             * <p><b>Created on:</b> <i>10:13:45 AM Jun 22, 2017</i>
+             */
+            BLINK(asByte(0b11_0000));
+
+        /**
+         * Byte code of the fade mode.
+         * <p><b>Created on:</b> <i>10:14:18 AM Jun 22, 2017</i>
+         */
+        private final byte code;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.FadeMode.<p>
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:14:50 AM Jun 22, 2017</i>
+         * 
+         * @param code
+         *            byte code of the fade mode
+         */
+        private FadeMode(final byte code) {
+            this.code = code;
+        }
+
+        /**
+         * Get byte code of this fade mode.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:15:22 AM Jun 22, 2017</i>
+         * 
+         * @return byte code of this fade mode
+         */
+        public final byte code() {
+            return code;
+        }
+    }
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Orientation of the picture on the panel (see {@link #orientation(Orientation)}). Turns are clockwise.
+     * <p><b>Created on:</b> <i>10:28:12 AM Jun 29, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    public static enum Orientation {
+            /**
+             * Picture is not rotated.
+             * <p><b>Created on:</b> <i>10:28:40 AM Jun 29, 2017</i>
+             */
+            ROTATE_0(SET_SEGMENT_REMAP_127, SET_COM_OUTPUT_SCAN_DIRECTION_REMAPPED, false),
+
+            /**
+             * Picture is rotated by 90 degrees. Rotation is done while packing the image.
+             * <p><b>Created on:</b> <i>10:29:05 AM Jun 29, 2017</i>
+             */
+            ROTATE_90(SET_SEGMENT_REMAP_127, SET_COM_OUTPUT_SCAN_DIRECTION_REMAPPED, true),
+
+            /**
+             * Picture is rotated by 180 degrees. Rotation is done by controller.
+             * <p><b>Created on:</b> <i>10:29:31 AM Jun 29, 2017</i>
+             */
+            ROTATE_180(SET_SEGMENT_REMAP_0, SET_COM_OUTPUT_SCAN_DIRECTION_NORMAL, false),
+
+            /**
+             * Picture is rotated by 270 degrees : rotated by 90 degrees while packing the image and by 180 degrees by
+             * controller.
+             * <p><b>Created on:</b> <i>10:29:58 AM Jun 29, 2017</i>
+             */
+            ROTATE_270(SET_SEGMENT_REMAP_0, SET_COM_OUTPUT_SCAN_DIRECTION_NORMAL, true),
+
+            /**
+             * Picture is mirrored horizontally (left and right are swapped). Mirroring is done by controller.
+             * <p><b>Created on:</b> <i>10:30:22 AM Jun 29, 2017</i>
+             */
+            MIRROR_HORIZONTAL(SET_SEGMENT_REMAP_0, SET_COM_OUTPUT_SCAN_DIRECTION_REMAPPED, false),
+
+            /**
+             * Picture is mirrored vertically (top and bottom are swapped). Mirroring is done by controller.
+             * <p><b>Created on:</b> <i>10:30:47 AM Jun 29, 2017</i>
+             */
+            MIRROR_VERTICAL(SET_SEGMENT_REMAP_127, SET_COM_OUTPUT_SCAN_DIRECTION_NORMAL, false);
+
+        /**
+         * Segment remap command for this orientation.
+         * <p><b>Created on:</b> <i>10:31:15 AM Jun 29, 2017</i>
+         */
+        private final Command segmentRemap;
+
+        /**
+         * COM output scan direction command for this orientation.
+         * <p><b>Created on:</b> <i>10:31:40 AM Jun 29, 2017</i>
+         */
+        private final Command comScanDirection;
+
+        /**
+         * Indicates whether image is rotated by 90 degrees while packing.
+         * <p><b>Created on:</b> <i>10:32:04 AM Jun 29, 2017</i>
+         */
+        private final boolean isTransposed;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Orientation.<p>
+         * <p><b>PRE-conditions:</b> non-null {@code segmentRemap}, non-null {@code comScanDirection}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:32:30 AM Jun 29, 2017</i>
+         * 
+         * @param segmentRemap
+         *            segment remap command
+         * @param comScanDirection
+         *            COM output scan direction command
+         * @param isTransposed
+         *            true if image is rotated by 90 degrees while packing
+         */
+        private Orientation(final Command segmentRemap, final Command comScanDirection, final boolean isTransposed) {
+            this.segmentRemap = segmentRemap;
+            this.comScanDirection = comScanDirection;
+            this.isTransposed = isTransposed;
+        }
+
+        /**
+         * Get segment remap command for this orientation.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:33:01 AM Jun 29, 2017</i>
+         * 
+         * @return segment remap command
+         */
+        final Command segmentRemap() {
+            return segmentRemap;
+        }
+
+        /**
+         * Get COM output scan direction command for this orientation.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:33:27 AM Jun 29, 2017</i>
+         * 
+         * @return COM output scan direction command
+         */
+        final Command comScanDirection() {
+            return comScanDirection;
+        }
+
+        /**
+         * Check whether image is rotated by 90 degrees while packing, so it has swapped dimensions.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:33:52 AM Jun 29, 2017</i>
+         * 
+         * @return true if image has swapped dimensions
+         */
+        public final boolean isTransposed() {
+            return isTransposed;
+        }
+    }
+
+
     /**
      * Project : pi_java_ssd1306<p>
      * Scrolling frequency in terms of frames. For instance, {@link ScrollFrequency#FRAMES_5} means that one scrolling
@@ -952,7 +1750,7 @@ public class Display {
         isTrue(0 <= startPage && startPage < pages);
         isTrue(startPage <= endPage && endPage < pages);
 
-        runSync(lockGpio, () -> {
+        exclusive(() -> {
             stopScroll(); // stop previous scrolling and restore display state according to the buffer
             command(direction == LEFT ? SCROLL_HORIZONTAL_LEFT : SCROLL_HORIZONTAL_RIGHT);
             command(asByte(0x00)); // dummy byte
@@ -1094,7 +1892,7 @@ public class Display {
         isTrue(startPage <= endPage && endPage < pages);
         isTrue(0 <= verticalOffset && verticalOffset < width());
 
-        runSync(lockGpio, () -> {
+        exclusive(() -> {
             stopScroll(); // stop previous scrolling and restore display state according to the buffer
             command(SET_VERTICAL_SCROLL_AREA);
             command(asByte(rowsFixed));
@@ -1124,7 +1922,7 @@ public class Display {
     public final Display stopScroll() {
         LOG.traceEntry();
 
-        runSync(lockGpio, () -> {
+        exclusive(() -> {
             command(SCROLL_DEACTIVATE);
             sync();
         });
@@ -1132,6 +1930,43 @@ public class Display {
         return notNull(LOG.traceExit(this));
     }
 
+    /**
+     * Move content of display RAM one column left or right within the region (see {@link Command#CONTENT_SCROLL_LEFT}).
+     * Display buffer is not changed. Controller needs about two frames to complete the move, so RAM of the region
+     * should not be written and next move should not be issued for {@link #CONTENT_SCROLL_INTERVAL_NANOS}. Command takes single page range, so region that
+     * wraps around the end of display RAM (because of non-zero start line) can not be moved; nothing is sent then, and
+     * caller should re-send the region instead.
+     * <p><b>PRE-conditions:</b> non-null {@code region} inside of the display bounds
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>2:25:10 PM May 29, 2017</i>
+     * 
+     * @param left
+     *            true if content should be moved left, false if right
+     * @param region
+     *            region to move content within
+     * @return true if content was moved, false if region wraps around display RAM
+     */
+    final boolean contentScroll(final boolean left, final Region region) {
+        return notNull(callSync(lockGpio, () -> {
+            final int shift = startLine / 8;
+            if ((region.pageStart() + shift) % RAM_PAGES > (region.pageEnd() + shift) % RAM_PAGES) {
+                return Boolean.FALSE;
+            }
+            arbiter.run(NORMAL, () -> {
+                command(left ? CONTENT_SCROLL_LEFT : CONTENT_SCROLL_RIGHT);
+                command(asByte(0x00)); // dummy byte
+                command(asByte((region.pageStart() + shift) % RAM_PAGES));
+                command(asByte(0x01)); // dummy byte
+                command(asByte((region.pageEnd() + shift) % RAM_PAGES));
+                command(asByte(region.colStart()));
+                command(asByte(region.colEnd()));
+                planner.invalidate(); // it is not documented whether address pointer survives this command
+            });
+            return Boolean.TRUE;
+        })).booleanValue();
+    }
+
     /**
      * Get display width.
      * <p><b>PRE-conditions:</b> NONE
@@ -1418,26 +2253,11 @@ public class Display {
         if (overlay != NONE) {
             final int width = rightBottom.x() - leftTop.x();
             final int height = rightBottom.y() - leftTop.y();
-            final BufferedImage scaled = scale(img, width, height);
-            // draw pixel by pixel depending on overlay strategy
-            // this may be not the most efficient way to draw image, but flexibility of the overlay strategies is more
-            // important
-            for (int x = 0 ; x < width ; x++) {
-                for (int y = 0 ; y < height ; y++) {
-                    final int xAbs = x + leftTop.x();
-                    final int yAbs = y + leftTop.y();
-                    // draw only if pixel absolute position is inside the visible area (display pixel matrix)
-                    if ((0 <= xAbs && xAbs < width()) && (0 <= yAbs && yAbs < height())) {
-                        final PixelState pixel = rgbToPixelState(scaled.getRGB(x, y));
-                        if (pixel == PixelState.ON && (overlay == FULL || overlay == ON_PIXELS)) {
-                            graphics().setColor(WHITE);
-                            graphics().drawLine(xAbs, yAbs, xAbs, yAbs); // draw WHITE point
-                        } else if (pixel == PixelState.OFF && (overlay == FULL || overlay == OFF_PIXELS)) {
-                            graphics().setColor(BLACK);
-                            graphics().drawLine(xAbs, yAbs, xAbs, yAbs); // draw BLACK point
-                        }
-                    }
-                }
+            final Rectangle part = visiblePart(leftTop, width, height);
+            if (!part.isEmpty()) {
+                // scale and convert to black and white in one pass over the source
+                draw(Scaler.scale(img, width, height, part, Scaler.Filter.AREA, MONOCHROME_THRESHOLD),
+                    leftTop, part, overlay);
             }
         }
 
@@ -1445,28 +2265,159 @@ public class Display {
     }
 
     /**
-     * Scale image to fit in provided {@code width} and {@code height}.
-     * <p><b>PRE-conditions:</b> non-null {@code img}, positive {@code width}, positive {@code height}
+     * Decode image from the stream, scale and place it on display. Given image overlays ({@link OverlayType#FULL})
+     * current display image content in rectangle between {@code leftTop} and {@code rightBottom}.
+     * <p>Unlike {@link #image(BufferedImage, Position, Position)}, the whole source image is never held in memory :
+     * only the source region that gets to the visible part of the rectangle is decoded, at resolution reduced to about
+     * the size of the rectangle (see {@link Scaler#decode(ImageInputStream, int, int, Rectangle, Scaler.Filter, int)}).
+     * This should be used for large images like photos.
+     * <p>NOTE: this method only changes internal state of this object, updated image is not transmitted to the display.
+     * To sync internal state with display use {@link #sync()}.
+     * <p><b>PRE-conditions:</b> non-null {@code input}, non-null {@code leftTop}, non-null {@code rightBottom}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> this object state is modified, graphics object is modified, {@code input} is read
+     * <br><b>Created on:</b> <i>3:40:05 PM Jul 13, 2017</i>
+     * 
+     * @param input
+     *            stream of encoded image in any format supported by {@link ImageIO}, is not closed by this method
+     * @param leftTop
+     *            left top edge position of the scaled image borders rectangle on the display
+     * @param rightBottom
+     *            right bottom position of the scaled image borders rectangle on the display
+     * @return this instance (for call chaining)
+     * @throws IOException
+     *             if image format is not supported or image can not be decoded
+     */
+    @SuppressWarnings("nls")
+    public final Display image(final InputStream input, final Position leftTop, final Position rightBottom)
+        throws IOException {
+
+        LOG.traceEntry("input = [{}] ; leftTop = [{}] ; rightBottom = [{}]", input, leftTop, rightBottom);
+        return notNull(LOG.traceExit(
+            image(input, leftTop, rightBottom, FULL)));
+    }
+
+    /**
+     * Decode image from the stream, scale and place it on display using provided overlay strategy (see
+     * {@link #image(BufferedImage, Position, Position, OverlayType)} and
+     * {@link #image(InputStream, Position, Position)}). Nothing is decoded if overlay is {@link OverlayType#NONE} or
+     * rectangle is outside of the display.
+     * <p>NOTE: this method only changes internal state of this object, updated image is not transmitted to the display.
+     * To sync internal state with display use {@link #sync()}.
+     * <p><b>PRE-conditions:</b> non-null {@code input}, non-null {@code leftTop}, non-null {@code rightBottom}, non-null
+     * {@code overlay}
      * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> this object is modified, graphics object is modified, {@code input} is read
+     * <br><b>Created on:</b> <i>3:42:30 PM Jul 13, 2017</i>
+     * 
+     * @param input
+     *            stream of encoded image in any format supported by {@link ImageIO}, is not closed by this method
+     * @param leftTop
+     *            target position of the left top edge of the image
+     * @param rightBottom
+     *            target position of the right bottom edge of the image
+     * @param overlay
+     *            overlay type
+     * @return this instance (for call chaining)
+     * @throws IOException
+     *             if image format is not supported or image can not be decoded
+     */
+    @SuppressWarnings("nls")
+    public final Display image(
+        final InputStream input,
+        final Position leftTop,
+        final Position rightBottom,
+        final OverlayType overlay) throws IOException {
+
+        LOG.traceEntry("input = [{}] ; leftTop = [{}] ; rightBottom = [{}] ; overlay = [{}]",
+            input, leftTop, rightBottom, overlay);
+        isTrue(leftTop.x() < rightBottom.x());
+        isTrue(leftTop.y() < rightBottom.y());
+
+        if (overlay != NONE) {
+            final int width = rightBottom.x() - leftTop.x();
+            final int height = rightBottom.y() - leftTop.y();
+            final Rectangle part = visiblePart(leftTop, width, height);
+            if (!part.isEmpty()) {
+                final ImageInputStream stream = ImageIO.createImageInputStream(input);
+                if (stream == null) {
+                    throw LOG.throwing(new IOException("can not create image input stream"));
+                }
+                try {
+                    draw(Scaler.decode(stream, width, height, part, Scaler.Filter.AREA, MONOCHROME_THRESHOLD),
+                        leftTop, part, overlay);
+                } finally {
+                    stream.close();
+                }
+            }
+        }
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Get part of the image rectangle that is inside of the display image. Part is relative to the left top edge of
+     * the rectangle.
+     * <p><b>PRE-conditions:</b> non-null {@code leftTop}, positive {@code width}, positive {@code height}
+     * <br><b>POST-conditions:</b> non-null {@code result}, empty if rectangle is outside of the display image
      * <br><b>Side-effects:</b> NONE
-     * <br><b>Created on:</b> <i>2:55:17 AM Apr 7, 2017</i>
+     * <br><b>Created on:</b> <i>3:44:12 PM Jul 13, 2017</i>
      * 
-     * @param img
-     *            image to scale
+     * @param leftTop
+     *            position of the left top edge of the rectangle
      * @param width
-     *            target image width
+     *            rectangle width
      * @param height
-     *            target image height
-     * @return scaled image
+     *            rectangle height
+     * @return visible part of the rectangle
+     */
+    private final Rectangle visiblePart(final Position leftTop, final int width, final int height) {
+        final Rectangle visible = new Rectangle(-leftTop.x(), -leftTop.y(), image().getWidth(), image().getHeight());
+        return notNull(visible.intersection(new Rectangle(width, height)));
+    }
+
+    /**
+     * Draw packed part of the scaled image on display image with overlay strategy.
+     * <p><b>PRE-conditions:</b> non-null {@code packed} of {@code part.width} columns, non-null {@code leftTop},
+     * non-null {@code part} inside of the display image, non-null {@code overlay}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> graphics object is modified
+     * <br><b>Created on:</b> <i>3:45:50 PM Jul 13, 2017</i>
+     * 
+     * @param packed
+     *            packed pixels of the part
+     * @param leftTop
+     *            position of the left top edge of the scaled image
+     * @param part
+     *            part of the scaled image, relative to {@code leftTop}
+     * @param overlay
+     *            overlay type
      */
-    private static final BufferedImage scale(final BufferedImage img, final int width, final int height) {
-        final double widthOrig = img.getWidth();
-        final double heightOrig = img.getHeight();
-        final double sx = width / widthOrig;
-        final double sy = height / heightOrig;
-        final AffineTransform trns = AffineTransform.getScaleInstance(sx, sy);
-        final AffineTransformOp scale = new AffineTransformOp(trns, TYPE_BILINEAR);
-        return notNull(scale.filter(img, new BufferedImage(width, height, img.getType())));
+    private final void draw(
+        final byte[] packed,
+        final Position leftTop,
+        final Rectangle part,
+        final OverlayType overlay) {
+
+        // draw pixel by pixel depending on overlay strategy
+        // this may be not the most efficient way to draw image, but flexibility of the overlay strategies is more
+        // important
+        for (int x = 0 ; x < part.width ; x++) {
+            for (int y = 0 ; y < part.height ; y++) {
+                final int xAbs = leftTop.x() + part.x + x;
+                final int yAbs = leftTop.y() + part.y + y;
+                final PixelState pixel = (((packed[(y >> 3) * part.width + x] >> (y & 7)) & 1) != 0)
+                    ? PixelState.ON
+                    : PixelState.OFF;
+                if (pixel == PixelState.ON && (overlay == FULL || overlay == ON_PIXELS)) {
+                    graphics().setColor(WHITE);
+                    graphics().drawLine(xAbs, yAbs, xAbs, yAbs); // draw WHITE point
+                } else if (pixel == PixelState.OFF && (overlay == FULL || overlay == OFF_PIXELS)) {
+                    graphics().setColor(BLACK);
+                    graphics().drawLine(xAbs, yAbs, xAbs, yAbs); // draw BLACK point
+                }
+            }
+        }
     }
 
     /**
@@ -1639,7 +2590,7 @@ public class Display {
     public final Display stop() {
         LOG.traceEntry();
 
-        runSync(lockGpio, () -> {
+        exclusive(() -> {
             stopScroll();
             invert(false);
             dim(false);
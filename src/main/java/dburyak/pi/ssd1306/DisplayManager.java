@@ -0,0 +1,673 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.callSync;
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+import static dburyak.pi.ssd1306.Util.runSync;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Manager of multiple displays that coordinates frame transfers. Displays are grouped by physical bus of their
+ * connections (see {@link SSD1306Connection#busId()}). Transfers within one bus are serialized, while different buses
+ * are served in parallel, each one by its own worker thread. So aggregate frame throughput scales with the number of
+ * buses, not with the number of client threads.
+ * <p>Frames are packed on the caller thread and queued for transfer. Each display has at most one pending frame : newer
+ * frame replaces the pending one that was not sent yet. Displays of one bus are served in round-robin order, so busy
+ * display can not starve other displays of the same bus. Displays whose connections are selected already (for instance,
+ * active channel of {@link TCA9548A} multiplexer) are served first to minimize bus switching.
+ * <p><b>Created on:</b> <i>7:32:15 PM May 2, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@ThreadSafe
+public final class DisplayManager {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>7:33:02 PM May 2, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(DisplayManager.class));
+
+
+    /**
+     * Lock for registration of displays and bus workers.
+     * <p><b>Created on:</b> <i>7:34:40 PM May 2, 2017</i>
+     */
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Bus workers mapped by bus identifier.
+     * <p><b>Created on:</b> <i>7:35:11 PM May 2, 2017</i>
+     */
+    @GuardedBy("lock")
+    private final Map<String, BusWorker> workers = new HashMap<>();
+
+    /**
+     * Transfer slots of registered displays.
+     * <p><b>Created on:</b> <i>7:36:27 PM May 2, 2017</i>
+     */
+    @GuardedBy("lock")
+    private final Map<Display, Slot> slots = new HashMap<>();
+
+    /**
+     * Indicates whether this manager was shut down.
+     * <p><b>Created on:</b> <i>7:37:50 PM May 2, 2017</i>
+     */
+    @GuardedBy("lock")
+    private boolean isShutdown = false;
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Transfer slot of one display : pending frame and frame being sent. Is guarded by lock of the bus worker the
+     * display belongs to.
+     * <p><b>Created on:</b> <i>7:41:05 PM May 2, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    private static final class Slot {
+
+        /**
+         * Display of this slot.
+         * <p><b>Created on:</b> <i>7:41:44 PM May 2, 2017</i>
+         */
+        private final Display display;
+
+        /**
+         * Bus worker serving this slot.
+         * <p><b>Created on:</b> <i>7:42:10 PM May 2, 2017</i>
+         */
+        private final BusWorker worker;
+
+        /**
+         * Frame waiting to be sent.
+         * <p><b>Created on:</b> <i>7:42:38 PM May 2, 2017</i>
+         */
+        private byte[] pending;
+
+        /**
+         * Frame being sent by bus worker. Swapped with {@link #pending} when transfer starts, so no frame copies are
+         * allocated.
+         * <p><b>Created on:</b> <i>7:43:21 PM May 2, 2017</i>
+         */
+        private byte[] sending;
+
+        /**
+         * Region of the pending frame to be sent, null if there is no pending frame.
+         * <p><b>Created on:</b> <i>10:07:31 PM May 6, 2017</i>
+         */
+        private @Nullable Region pendingRegion = null;
+
+        /**
+         * Region of the frame being sent.
+         * <p><b>Created on:</b> <i>10:08:02 PM May 6, 2017</i>
+         */
+        private @Nullable Region sendingRegion = null;
+
+        /**
+         * Future of the pending frame, null if there is no pending frame.
+         * <p><b>Created on:</b> <i>7:44:56 PM May 2, 2017</i>
+         */
+        private @Nullable CompletableFuture<Void> pendingFuture = null;
+
+        /**
+         * Future of the frame being sent, null if there is no transfer in progress.
+         * <p><b>Created on:</b> <i>7:45:02 PM May 2, 2017</i>
+         */
+        private @Nullable CompletableFuture<Void> sendingFuture = null;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.DisplayManager.Slot.<p>
+         * <p><b>PRE-conditions:</b> non-null {@code display}, non-null {@code worker}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>7:45:30 PM May 2, 2017</i>
+         * 
+         * @param display
+         *            display of this slot
+         * @param worker
+         *            bus worker serving this slot
+         */
+        Slot(final Display display, final BusWorker worker) {
+            this.display = display;
+            this.worker = worker;
+            pending = new byte[display.buffer().length];
+            sending = new byte[display.buffer().length];
+        }
+    }
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Worker thread that serves all displays of one physical bus.
+     * <p><b>Created on:</b> <i>7:48:12 PM May 2, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    private static final class BusWorker implements Runnable {
+
+        /**
+         * Identifier of the bus served by this worker.
+         * <p><b>Created on:</b> <i>7:48:50 PM May 2, 2017</i>
+         */
+        private final String busId;
+
+        /**
+         * Lock guarding state of this worker and its slots.
+         * <p><b>Created on:</b> <i>7:49:27 PM May 2, 2017</i>
+         */
+        private final Lock lock = new ReentrantLock();
+
+        /**
+         * Signalled when new frame is pending or worker is stopped.
+         * <p><b>Created on:</b> <i>7:50:01 PM May 2, 2017</i>
+         */
+        private final Condition hasWork = notNull(lock.newCondition());
+
+        /**
+         * Slots of displays on this bus, in round-robin order.
+         * <p><b>Created on:</b> <i>7:50:44 PM May 2, 2017</i>
+         */
+        @GuardedBy("lock")
+        private final List<Slot> slots = new ArrayList<>();
+
+        /**
+         * Index of the slot to start searching next pending frame from.
+         * <p><b>Created on:</b> <i>7:51:32 PM May 2, 2017</i>
+         */
+        @GuardedBy("lock")
+        private int next = 0;
+
+        /**
+         * Number of consecutive out-of-order picks of slots with selected connections.
+         * <p><b>Created on:</b> <i>5:02:19 PM May 4, 2017</i>
+         */
+        @GuardedBy("lock")
+        private int batched = 0;
+
+        /**
+         * Number of pending frames.
+         * <p><b>Created on:</b> <i>7:52:05 PM May 2, 2017</i>
+         */
+        @GuardedBy("lock")
+        private int pendingCount = 0;
+
+        /**
+         * Indicates whether this worker should stop once pending frames are sent.
+         * <p><b>Created on:</b> <i>7:52:48 PM May 2, 2017</i>
+         */
+        @GuardedBy("lock")
+        private boolean isStopped = false;
+
+        /**
+         * Start of the utilization measurement period, {@link System#nanoTime()} value.
+         * <p><b>Created on:</b> <i>7:53:36 PM May 2, 2017</i>
+         */
+        @GuardedBy("lock")
+        private long statsStart = System.nanoTime();
+
+        /**
+         * Time spent on transfers since {@link #statsStart}, in nanoseconds.
+         * <p><b>Created on:</b> <i>7:54:10 PM May 2, 2017</i>
+         */
+        @GuardedBy("lock")
+        private long busyNanos = 0L;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.DisplayManager.BusWorker.<p>
+         * <p><b>PRE-conditions:</b> non-empty {@code busId}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>7:54:47 PM May 2, 2017</i>
+         * 
+         * @param busId
+         *            identifier of the bus served by this worker
+         */
+        BusWorker(final String busId) {
+            this.busId = busId;
+        }
+
+        /**
+         * Take next pending slot and swap its frames, so pending frame becomes the one being sent. Blocks until there is
+         * pending frame or the worker is stopped.
+         * <p>Slots are picked in round-robin order, except that slots whose connection is already selected (see
+         * {@link SSD1306Connection#isSelected()}) are preferred, so frames of displays behind one multiplexer channel
+         * are sent in a batch. To keep picking fair, number of consecutive out-of-order picks is limited by the number
+         * of slots on the bus.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> state of this worker and picked slot are modified
+         * <br><b>Created on:</b> <i>7:56:20 PM May 2, 2017</i>
+         * 
+         * @return picked slot, or null if worker is stopped and there are no pending frames
+         * @throws InterruptedException
+         *             if worker thread was interrupted while waiting
+         */
+        @SuppressWarnings("nls")
+        private final @Nullable Slot take() throws InterruptedException {
+            lock.lock();
+            try {
+                while (pendingCount == 0 && !isStopped) {
+                    hasWork.await();
+                }
+                if (pendingCount == 0) {
+                    return null;
+                }
+                final int size = slots.size();
+                int firstIndex = -1;
+                int pickedIndex = -1;
+                for (int i = 0 ; i < size && pickedIndex < 0 ; i++) {
+                    final int index = (next + i) % size;
+                    final Slot slot = slots.get(index);
+                    if (slot.pendingFuture != null) {
+                        if (firstIndex < 0) {
+                            firstIndex = index;
+                        }
+                        if (batched >= size || slot.display.connection().isSelected()) {
+                            pickedIndex = index;
+                        }
+                    }
+                }
+                if (firstIndex < 0) {
+                    throw new AssertionError("pending frames count is out of sync");
+                }
+                if (pickedIndex < 0 || pickedIndex == firstIndex) { // regular round-robin pick
+                    pickedIndex = firstIndex;
+                    next = (firstIndex + 1) % size;
+                    batched = 0;
+                } else { // out-of-order pick of selected connection, round-robin position is kept
+                    batched++;
+                }
+
+                final Slot slot = slots.get(pickedIndex);
+                final byte[] frame = slot.sending;
+                slot.sending = slot.pending;
+                slot.pending = frame;
+                slot.sendingFuture = slot.pendingFuture;
+                slot.pendingFuture = null;
+                slot.sendingRegion = slot.pendingRegion;
+                slot.pendingRegion = null;
+                pendingCount--;
+                return slot;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Serve pending frames of the bus until stopped.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> GPIO I/O calls
+         * <br><b>Created on:</b> <i>7:58:43 PM May 2, 2017</i>
+         * 
+         * @see java.lang.Runnable#run()
+         */
+        @SuppressWarnings("nls")
+        @Override
+        public final void run() {
+            LOG.debug("bus worker started : busId = [%s]", busId);
+            try {
+                Slot slot;
+                while ((slot = take()) != null) {
+                    final CompletableFuture<Void> future = notNull(slot.sendingFuture);
+                    final long start = System.nanoTime();
+                    try {
+                        slot.display.present(slot.sending, notNull(slot.sendingRegion));
+                        future.complete(null);
+                    } catch (final RuntimeException e) {
+                        LOG.error("frame transfer failed : busId = [%s] ; display = [%s]", busId, slot.display, e);
+                        future.completeExceptionally(e);
+                    }
+                    final long elapsed = System.nanoTime() - start;
+                    runSync(lock, () -> busyNanos += elapsed);
+                }
+            } catch (final InterruptedException e) {
+                LOG.error("unexpected bus worker interruption : busId = [%s]", busId, e);
+                Thread.currentThread().interrupt();
+            }
+            LOG.debug("bus worker stopped : busId = [%s]", busId);
+        }
+
+        /**
+         * Get fraction of time this worker spent on transfers since start of the measurement period.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> 0.0 &lt;= {@code result} &lt;= 1.0
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>8:03:17 PM May 2, 2017</i>
+         * 
+         * @return bus utilization
+         */
+        final double utilization() {
+            lock.lock();
+            try {
+                final long period = System.nanoTime() - statsStart;
+                return (period <= 0L) ? 0.0D : Math.min(1.0D, (double) busyNanos / period);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Start new utilization measurement period.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> utilization statistics are reset
+         * <br><b>Created on:</b> <i>8:04:50 PM May 2, 2017</i>
+         */
+        final void resetUtilization() {
+            runSync(lock, () -> {
+                statsStart = System.nanoTime();
+                busyNanos = 0L;
+            });
+        }
+
+        /**
+         * Stop this worker once all pending frames are sent.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> worker thread is notified
+         * <br><b>Created on:</b> <i>8:05:33 PM May 2, 2017</i>
+         */
+        final void stop() {
+            runSync(lock, () -> {
+                isStopped = true;
+                hasWork.signalAll();
+            });
+        }
+    }
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.DisplayManager.<p>
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>8:07:12 PM May 2, 2017</i>
+     */
+    private DisplayManager() {
+        // nothing to initialize
+    }
+
+    /**
+     * Create new {@link DisplayManager} instance without registered displays.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>8:07:45 PM May 2, 2017</i>
+     * 
+     * @return new {@link DisplayManager} instance
+     */
+    public static final DisplayManager newInstance() {
+        return new DisplayManager();
+    }
+
+    /**
+     * Register display in this manager. Worker for the display bus is started if this is the first display on its bus.
+     * Registering the same display again has no effect.
+     * <p><b>PRE-conditions:</b> non-null {@code display}, manager is not shut down
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> worker thread may be started
+     * <br><b>Created on:</b> <i>8:09:31 PM May 2, 2017</i>
+     * 
+     * @param display
+     *            display to be registered
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings("nls")
+    public final DisplayManager add(final Display display) {
+        LOG.traceEntry("display = [{}]", display);
+
+        runSync(lock, () -> {
+            isTrue(!isShutdown);
+            if (!slots.containsKey(display)) {
+                final String busId = display.connection().busId();
+                BusWorker worker = workers.get(busId);
+                if (worker == null) {
+                    worker = new BusWorker(busId);
+                    workers.put(busId, worker);
+                    final Thread thread = new Thread(worker, "ssd1306-bus-" + busId);
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+                final Slot slot = new Slot(display, worker);
+                final BusWorker workerSafe = worker;
+                runSync(worker.lock, () -> workerSafe.slots.add(slot));
+                slots.put(display, slot);
+            }
+        });
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Get transfer slot of registered display.
+     * <p><b>PRE-conditions:</b> non-null {@code display}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>8:13:07 PM May 2, 2017</i>
+     * 
+     * @param display
+     *            registered display
+     * @return transfer slot of the display
+     * @throws IllegalArgumentException
+     *             if display is not registered in this manager
+     */
+    @SuppressWarnings("nls")
+    private final Slot slot(final Display display) {
+        return notNull(callSync(lock, () -> {
+            final Slot slot = slots.get(display);
+            if (slot == null) {
+                throw new IllegalArgumentException("display is not registered : display = [" + display + "]");
+            }
+            return slot;
+        }));
+    }
+
+    /**
+     * Sync current image state of the display asynchronously. Image is packed on the current thread, so it is safe to
+     * continue drawing on {@link Display#graphics()} right after this method returns. Frame is sent by the worker of the
+     * display bus. If previous frame of this display was not sent yet, it is replaced by this one.
+     * <p><b>PRE-conditions:</b> non-null {@code display}, {@code display} is registered
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> display buffer is modified, frame is queued for transfer
+     * <br><b>Created on:</b> <i>8:15:44 PM May 2, 2017</i>
+     * 
+     * @param display
+     *            display to be synced
+     * @return future that is completed when this frame (or newer one) is sent to the display, or completed
+     *         exceptionally if some write of the transfer failed
+     */
+    @SuppressWarnings("nls")
+    public final CompletableFuture<Void> sync(final Display display) {
+        LOG.traceEntry("display = [{}]", display);
+
+        display.pack();
+        final CompletableFuture<Void> future = submit(display, display.buffer(),
+            Region.full(display.width(), display.pages()));
+
+        return notNull(LOG.traceExit(future));
+    }
+
+    /**
+     * Queue region of the packed frame for transfer to the display. Frame is copied, so caller may reuse it right after
+     * this method returns. If previous frame of this display was not sent yet, it is replaced by this one, and regions
+     * of both frames are sent.
+     * <p><b>PRE-conditions:</b> non-null {@code display}, {@code display} is registered, non-null {@code frame} of the
+     * display buffer layout, non-null {@code region}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> frame is queued for transfer
+     * <br><b>Created on:</b> <i>10:12:45 PM May 6, 2017</i>
+     * 
+     * @param display
+     *            display to send frame to
+     * @param frame
+     *            packed frame
+     * @param region
+     *            region of the frame to be sent
+     * @return future that is completed when this frame (or newer one) is sent to the display, or completed
+     *         exceptionally if some write of the transfer failed
+     */
+    final CompletableFuture<Void> submit(final Display display, final byte[] frame, final Region region) {
+        final Slot slot = slot(display);
+        final BusWorker worker = slot.worker;
+        return notNull(callSync(worker.lock, () -> {
+            isTrue(!worker.isStopped);
+            System.arraycopy(frame, 0, slot.pending, 0, slot.pending.length);
+            slot.pendingRegion = region.union(slot.pendingRegion);
+            CompletableFuture<Void> f = slot.pendingFuture;
+            if (f == null) {
+                f = new CompletableFuture<>();
+                slot.pendingFuture = f;
+                worker.pendingCount++;
+                worker.hasWork.signalAll();
+            }
+            return f;
+        }));
+    }
+
+    /**
+     * Get future of the last frame queued for the display.
+     * <p><b>PRE-conditions:</b> non-null {@code display}, {@code display} is registered
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>1:05:30 PM May 22, 2017</i>
+     * 
+     * @param display
+     *            display to check
+     * @return future that is completed when all frames queued so far are sent to the display
+     */
+    final CompletableFuture<Void> settled(final Display display) {
+        final Slot slot = slot(display);
+        return notNull(callSync(slot.worker.lock, () -> {
+            if (slot.pendingFuture != null) {
+                return slot.pendingFuture;
+            }
+            return (slot.sendingFuture != null)
+                ? slot.sendingFuture
+                : CompletableFuture.<Void> completedFuture(null);
+        }));
+    }
+
+    /**
+     * Get identifiers of all buses that have registered displays.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>8:19:02 PM May 2, 2017</i>
+     * 
+     * @return unmodifiable list of bus identifiers
+     */
+    public final List<String> buses() {
+        return notNull(callSync(lock, () -> Collections.unmodifiableList(new ArrayList<>(workers.keySet()))));
+    }
+
+    /**
+     * Get utilization of specified bus : fraction of time spent on transfers since the bus worker was started or since
+     * last {@link #resetUtilization()}.
+     * <p><b>PRE-conditions:</b> non-empty {@code busId}
+     * <br><b>POST-conditions:</b> 0.0 &lt;= {@code result} &lt;= 1.0
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>8:20:37 PM May 2, 2017</i>
+     * 
+     * @param busId
+     *            bus identifier
+     * @return bus utilization, {@code 0.0} if there are no displays on specified bus
+     */
+    public final double utilization(final String busId) {
+        final BusWorker worker = callSync(lock, () -> workers.get(busId));
+        return (worker == null) ? 0.0D : worker.utilization();
+    }
+
+    /**
+     * Get utilization of all buses.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>8:22:14 PM May 2, 2017</i>
+     * 
+     * @see #utilization(String)
+     * @return utilization of each bus mapped by bus identifier
+     */
+    public final Map<String, Double> utilization() {
+        final Map<String, Double> result = new TreeMap<>();
+        for (final String busId : buses()) {
+            result.put(busId, Double.valueOf(utilization(busId)));
+        }
+        return result;
+    }
+
+    /**
+     * Start new utilization measurement period for all buses.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> utilization statistics are reset
+     * <br><b>Created on:</b> <i>8:23:40 PM May 2, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    public final DisplayManager resetUtilization() {
+        runSync(lock, () -> workers.values().forEach(BusWorker::resetUtilization));
+        return this;
+    }
+
+    /**
+     * Shut down this manager. Frames that are already queued are still sent, then bus workers terminate. New frames
+     * and displays are not accepted after shutdown.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> bus workers are stopped
+     * <br><b>Created on:</b> <i>8:25:18 PM May 2, 2017</i>
+     */
+    public final void shutdown() {
+        LOG.traceEntry();
+
+        runSync(lock, () -> {
+            isShutdown = true;
+            workers.values().forEach(BusWorker::stop);
+        });
+
+        LOG.traceExit();
+    }
+
+    /**
+     * Get string representation of this manager.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>8:26:51 PM May 2, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this manager
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{buses=[").append(buses())
+            .append("]}")
+            .toString());
+    }
+
+}
@@ -0,0 +1,109 @@
+package dburyak.pi.ssd1306;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Easing functions for {@link Timeline} tracks. Each function maps animation progress from 0 to 1 to the value
+ * progress from 0 to 1. All functions are monotonic, which lets timeline find the moment of the next visible change
+ * by bisection.
+ * <p><b>Created on:</b> <i>3:05:10 PM Jun 19, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+public enum Easing {
+        /**
+         * Constant speed.
+         * <p><b>Created on:</b> <i>3:05:45 PM Jun 19, 2017</i>
+         */
+        LINEAR {
+            @Override
+            public final double apply(final double t) {
+                return t;
+            }
+        },
+
+        /**
+         * Starts slow, accelerates.
+         * <p><b>Created on:</b> <i>3:06:18 PM Jun 19, 2017</i>
+         */
+        QUAD_IN {
+            @Override
+            public final double apply(final double t) {
+                return t * t;
+            }
+        },
+
+        /**
+         * Starts fast, decelerates.
+         * <p><b>Created on:</b> <i>3:06:50 PM Jun 19, 2017</i>
+         */
+        QUAD_OUT {
+            @Override
+            public final double apply(final double t) {
+                return t * (2.0D - t);
+            }
+        },
+
+        /**
+         * Accelerates in the first half, decelerates in the second half.
+         * <p><b>Created on:</b> <i>3:07:22 PM Jun 19, 2017</i>
+         */
+        QUAD_IN_OUT {
+            @Override
+            public final double apply(final double t) {
+                return (t < 0.5D) ? 2.0D * t * t : -1.0D + (4.0D - 2.0D * t) * t;
+            }
+        },
+
+        /**
+         * Smoother acceleration and deceleration than {@link #QUAD_IN_OUT}.
+         * <p><b>Created on:</b> <i>3:07:55 PM Jun 19, 2017</i>
+         */
+        CUBIC_IN_OUT {
+            @Override
+            public final double apply(final double t) {
+                if (t < 0.5D) {
+                    return 4.0D * t * t * t;
+                }
+                final double u = 2.0D * t - 2.0D;
+                return 1.0D + u * u * u / 2.0D;
+            }
+        },
+
+        /**
+         * Sine shaped acceleration and deceleration.
+         * <p><b>Created on:</b> <i>3:08:28 PM Jun 19, 2017</i>
+         */
+        SINE_IN_OUT {
+            @Override
+            public final double apply(final double t) {
+                return (1.0D - Math.cos(Math.PI * t)) / 2.0D;
+            }
+        },
+
+        /**
+         * Value jumps to the end at the end of the track. Useful for visibility toggles.
+         * <p><b>Created on:</b> <i>3:09:00 PM Jun 19, 2017</i>
+         */
+        STEP {
+            @Override
+            public final double apply(final double t) {
+                return (t >= 1.0D) ? 1.0D : 0.0D;
+            }
+        };
+
+    /**
+     * Map animation progress to value progress.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code t} &lt;= 1
+     * <br><b>POST-conditions:</b> 0 &lt;= {@code result} &lt;= 1, {@code apply(0) == 0}, {@code apply(1) == 1}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:10:05 PM Jun 19, 2017</i>
+     * 
+     * @param t
+     *            animation progress
+     * @return value progress
+     */
+    public abstract double apply(final double t);
+
+}
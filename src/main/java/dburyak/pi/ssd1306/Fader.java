@@ -0,0 +1,210 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.asByte;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.time.Duration;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Brightness transitions made of contrast ramps. Only contrast commands (two bytes per step) are sent during the
+ * transition, frames are not retransmitted. Ramps are played with {@link Timeline}, so one step is sent per visible
+ * contrast change and thread sleeps in between.
+ * <p>Note that lowest contrast is dim, but not black on most panels. For transitions that do not need to be timed on
+ * the host side see {@link Display#fade(Display.FadeMode, int)}.
+ * <p><b>Created on:</b> <i>10:25:30 AM Jun 22, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class Fader {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>10:26:05 AM Jun 22, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(Fader.class));
+
+
+    /**
+     * Display to fade.
+     * <p><b>Created on:</b> <i>10:26:40 AM Jun 22, 2017</i>
+     */
+    private final Display display;
+
+    /**
+     * Easing of the contrast ramps.
+     * <p><b>Created on:</b> <i>10:27:12 AM Jun 22, 2017</i>
+     */
+    private final Easing easing;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Fader.<p>
+     * <p><b>PRE-conditions:</b> non-null {@code display}, non-null {@code easing}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:27:45 AM Jun 22, 2017</i>
+     * 
+     * @param display
+     *            display to fade
+     * @param easing
+     *            easing of the contrast ramps
+     */
+    private Fader(final Display display, final Easing easing) {
+        this.display = display;
+        this.easing = easing;
+    }
+
+    /**
+     * Create new {@link Fader} instance with linear contrast ramps.
+     * <p><b>PRE-conditions:</b> non-null {@code display}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:28:20 AM Jun 22, 2017</i>
+     * 
+     * @param display
+     *            display to fade
+     * @return new {@link Fader} instance
+     */
+    public static final Fader newInstance(final Display display) {
+        return newInstance(display, Easing.LINEAR);
+    }
+
+    /**
+     * Create new {@link Fader} instance.
+     * <p><b>PRE-conditions:</b> non-null {@code display}, non-null {@code easing}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:28:55 AM Jun 22, 2017</i>
+     * 
+     * @param display
+     *            display to fade
+     * @param easing
+     *            easing of the contrast ramps
+     * @return new {@link Fader} instance
+     */
+    public static final Fader newInstance(final Display display, final Easing easing) {
+        return new Fader(display, easing);
+    }
+
+    /**
+     * Fade display out from its contrast (see {@link Display#contrast(double)}) to the lowest contrast. This method
+     * blocks until the transition is finished.
+     * <p><b>PRE-conditions:</b> non-negative {@code duration}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls, this method blocks
+     * <br><b>Created on:</b> <i>10:30:10 AM Jun 22, 2017</i>
+     * 
+     * @param duration
+     *            transition duration
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings("nls")
+    public final Fader fadeOut(final Duration duration) {
+        LOG.traceEntry("duration = [{}]", duration);
+
+        ramp(display.contrastLevel(), 0, duration);
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Fade display in from the lowest contrast to its contrast (see {@link Display#contrast(double)}). This method
+     * blocks until the transition is finished.
+     * <p><b>PRE-conditions:</b> non-negative {@code duration}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls, this method blocks
+     * <br><b>Created on:</b> <i>10:31:25 AM Jun 22, 2017</i>
+     * 
+     * @param duration
+     *            transition duration
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings("nls")
+    public final Fader fadeIn(final Duration duration) {
+        LOG.traceEntry("duration = [{}]", duration);
+
+        ramp(0, display.contrastLevel(), duration);
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Cross-fade to new content : fade out, swap content once at the lowest contrast, fade in. Swap action should
+     * draw new content and send it, for instance with {@link Display#sync()}. This method blocks until the transition
+     * is finished.
+     * <p><b>PRE-conditions:</b> non-null {@code swap}, non-negative {@code duration}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls, {@code swap} is run, this method blocks
+     * <br><b>Created on:</b> <i>10:33:02 AM Jun 22, 2017</i>
+     * 
+     * @param swap
+     *            action that shows new content
+     * @param duration
+     *            duration of the whole transition, half of it for each of fade out and fade in
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings("nls")
+    public final Fader crossFade(final Runnable swap, final Duration duration) {
+        LOG.traceEntry("swap = [{}] ; duration = [{}]", swap, duration);
+
+        final Duration half = duration.dividedBy(2L);
+        final int level = display.contrastLevel();
+        ramp(level, 0, half);
+        swap.run();
+        ramp(0, level, half);
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Play contrast ramp. Remembered display contrast is not changed.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code from}, {@code to} &lt;= 255, non-negative {@code duration}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O calls, this method blocks
+     * <br><b>Created on:</b> <i>10:35:15 AM Jun 22, 2017</i>
+     * 
+     * @param from
+     *            start contrast level
+     * @param to
+     *            end contrast level
+     * @param duration
+     *            ramp duration
+     */
+    private final void ramp(final int from, final int to, final Duration duration) {
+        Timeline.newInstance(() -> {
+            // contrast is sent by the track itself, there is no frame to show
+        })
+            .track(level -> display.contrast(asByte(level)), from, to, Duration.ZERO, duration, easing)
+            .play();
+    }
+
+    /**
+     * Get string representation of this fader.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:36:30 AM Jun 22, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this fader
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{display=[").append(display)
+            .append("],easing=[").append(easing)
+            .append("]}")
+            .toString());
+    }
+
+}
@@ -0,0 +1,475 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Fixed-length text field for frequently changing values (temperature, uptime, etc.). Values are formatted into reused
+ * char buffer without creating strings, compared with the characters that are shown, and only glyph cells that changed
+ * are drawn with {@link PackedFont} and sent to the display. Updating a value does not create garbage images or
+ * strings, and costs only the changed cells on the bus.
+ * <p>Display buffer and image are kept in sync, so {@link Display#sync()} keeps the field as is.
+ * <p><b>Created on:</b> <i>2:10:15 PM Jun 5, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class Field {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>2:10:50 PM Jun 5, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(Field.class));
+
+    /**
+     * Character that fills the field when number does not fit.
+     * <p><b>Created on:</b> <i>2:11:25 PM Jun 5, 2017</i>
+     */
+    private static final char OVERFLOW = '#';
+
+    /**
+     * Blank character.
+     * <p><b>Created on:</b> <i>2:11:58 PM Jun 5, 2017</i>
+     */
+    private static final char BLANK = ' ';
+
+    /**
+     * Character that is never shown, used to mark cells that should be drawn.
+     * <p><b>Created on:</b> <i>2:12:30 PM Jun 5, 2017</i>
+     */
+    private static final char UNKNOWN = '\0';
+
+    /**
+     * Maximum number of decimal places.
+     * <p><b>Created on:</b> <i>2:13:02 PM Jun 5, 2017</i>
+     */
+    private static final int DECIMALS_MAX = 9;
+
+    /**
+     * Powers of ten for scaling fractional numbers.
+     * <p><b>Created on:</b> <i>2:13:35 PM Jun 5, 2017</i>
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9
+    };
+
+    /**
+     * Text shown for {@link Double#NaN}.
+     * <p><b>Created on:</b> <i>2:14:08 PM Jun 5, 2017</i>
+     */
+    @SuppressWarnings("nls")
+    private static final String NAN = "NaN";
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Alignment of the value inside of the field.
+     * <p><b>Created on:</b> <i>2:14:40 PM Jun 5, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    public static enum Align {
+            /**
+             * Value starts at the first cell.
+             * <p><b>Created on:</b> <i>2:15:12 PM Jun 5, 2017</i>
+             */
+            LEFT,
+
+            /**
+             * Value ends at the last cell.
+             * <p><b>Created on:</b> <i>2:15:45 PM Jun 5, 2017</i>
+             */
+            RIGHT
+    }
+
+
+    /**
+     * Display to draw on.
+     * <p><b>Created on:</b> <i>2:16:18 PM Jun 5, 2017</i>
+     */
+    private final Display display;
+
+    /**
+     * Font of the field.
+     * <p><b>Created on:</b> <i>2:16:50 PM Jun 5, 2017</i>
+     */
+    private final PackedFont font;
+
+    /**
+     * Left coordinate of the field.
+     * <p><b>Created on:</b> <i>2:17:22 PM Jun 5, 2017</i>
+     */
+    private final int x;
+
+    /**
+     * Top page of the field.
+     * <p><b>Created on:</b> <i>2:17:55 PM Jun 5, 2017</i>
+     */
+    private final int page;
+
+    /**
+     * Alignment of the value.
+     * <p><b>Created on:</b> <i>2:18:28 PM Jun 5, 2017</i>
+     */
+    private final Align align;
+
+    /**
+     * Characters of the current value.
+     * <p><b>Created on:</b> <i>2:19:00 PM Jun 5, 2017</i>
+     */
+    private final char[] chars;
+
+    /**
+     * Characters that are shown on the display.
+     * <p><b>Created on:</b> <i>2:19:32 PM Jun 5, 2017</i>
+     */
+    private final char[] shown;
+
+    /**
+     * Buffer for formatting numbers, digits are written from the end.
+     * <p><b>Created on:</b> <i>2:20:05 PM Jun 5, 2017</i>
+     */
+    private final char[] scratch = new char[32];
+
+    /**
+     * Regions of all runs of cells, run from cell {@code first} to cell {@code last} is at index
+     * {@code first * length + last}. Built once, so that update does not allocate.
+     * <p><b>Created on:</b> <i>11:02:30 AM Jul 24, 2017</i>
+     */
+    private final Region[] runs;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Field.<p>
+     * <p><b>PRE-conditions:</b> see {@link #newInstance(Display, PackedFont, int, int, int, Align)}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:20:40 PM Jun 5, 2017</i>
+     * 
+     * @param display
+     *            display to draw on
+     * @param font
+     *            font of the field
+     * @param x
+     *            left coordinate of the field
+     * @param y
+     *            top coordinate of the field
+     * @param length
+     *            number of characters in the field
+     * @param align
+     *            alignment of the value
+     */
+    private Field(
+        final Display display,
+        final PackedFont font,
+        final int x,
+        final int y,
+        final int length,
+        final Align align) {
+
+        this.display = display;
+        this.font = font;
+        this.x = x;
+        this.align = align;
+        page = y / 8;
+        chars = new char[length];
+        shown = new char[length];
+        Arrays.fill(chars, BLANK);
+        Arrays.fill(shown, UNKNOWN);
+        runs = new Region[length * length];
+        for (int first = 0 ; first < length ; first++) {
+            for (int last = first ; last < length ; last++) {
+                runs[first * length + last] = Region.of(x + first * font.cellWidth(),
+                    x + (last + 1) * font.cellWidth() - 1, page, page + font.cellPages() - 1);
+            }
+        }
+    }
+
+    /**
+     * Create new {@link Field} instance. Field is not drawn until first value is set.
+     * <p><b>PRE-conditions:</b> non-null {@code display}, non-null {@code font}, {@code y} is a multiple of 8, positive
+     * {@code length}, field is inside of the display, non-null {@code align}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:22:15 PM Jun 5, 2017</i>
+     * 
+     * @param display
+     *            display to draw on
+     * @param font
+     *            font of the field
+     * @param x
+     *            left coordinate of the field
+     * @param y
+     *            top coordinate of the field
+     * @param length
+     *            number of characters in the field
+     * @param align
+     *            alignment of the value
+     * @return new {@link Field} instance
+     */
+    public static final Field newInstance(
+        final Display display,
+        final PackedFont font,
+        final int x,
+        final int y,
+        final int length,
+        final Align align) {
+
+        isTrue(length > 0 && y % 8 == 0);
+        isTrue(x >= 0 && x + length * font.cellWidth() <= display.width());
+        isTrue(y >= 0 && y + font.cellHeight() <= display.height());
+        return new Field(display, font, x, y, length, align);
+    }
+
+    /**
+     * Show integer value. Field is filled with {@code '#'} if value does not fit.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> display buffer and image are modified, GPIO I/O calls
+     * <br><b>Created on:</b> <i>2:24:02 PM Jun 5, 2017</i>
+     * 
+     * @param value
+     *            value to show
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final Field set(final long value) {
+        if (LOG.isTraceEnabled()) { // arguments are not boxed on hot path
+            LOG.traceEntry("value = [{}]", value);
+        }
+
+        place(format(value, 0));
+        update();
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Show fractional value with fixed number of decimal places. Value is rounded half up. Field is filled with
+     * {@code '#'} if value does not fit or is infinite.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code decimals} &lt;= 9
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> display buffer and image are modified, GPIO I/O calls
+     * <br><b>Created on:</b> <i>2:25:40 PM Jun 5, 2017</i>
+     * 
+     * @param value
+     *            value to show
+     * @param decimals
+     *            number of decimal places
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final Field set(final double value, final int decimals) {
+        if (LOG.isTraceEnabled()) { // arguments are not boxed on hot path
+            LOG.traceEntry("value = [{}] ; decimals = [{}]", value, decimals);
+        }
+        isTrue(0 <= decimals && decimals <= DECIMALS_MAX);
+
+        if (Double.isNaN(value)) {
+            place(NAN);
+        } else {
+            final double scaled = Math.abs(value) * POWERS_OF_TEN[decimals];
+            if (scaled >= Long.MAX_VALUE) {
+                Arrays.fill(chars, OVERFLOW);
+            } else {
+                final long rounded = Math.round(scaled);
+                place(format((value < 0) ? -rounded : rounded, decimals));
+            }
+        }
+        update();
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Show text. Text that does not fit is cut.
+     * <p><b>PRE-conditions:</b> non-null {@code text}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> display buffer and image are modified, GPIO I/O calls
+     * <br><b>Created on:</b> <i>2:27:15 PM Jun 5, 2017</i>
+     * 
+     * @param text
+     *            text to show
+     * @return this instance (for call chaining)
+     */
+    public final Field set(final CharSequence text) {
+        if (LOG.isTraceEnabled()) {
+            LOG.traceEntry("text = [{}]", text);
+        }
+
+        place(text);
+        update();
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Draw all cells of the field again, regardless of what is shown.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> display buffer and image are modified, GPIO I/O calls
+     * <br><b>Created on:</b> <i>2:28:50 PM Jun 5, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    public final Field redraw() {
+        LOG.traceEntry();
+
+        Arrays.fill(shown, UNKNOWN);
+        update();
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Format number into {@link #scratch} from its end.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code decimals} &lt;= 9
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@link #scratch} is modified
+     * <br><b>Created on:</b> <i>2:30:25 PM Jun 5, 2017</i>
+     * 
+     * @param value
+     *            number scaled by {@code 10^decimals}
+     * @param decimals
+     *            number of decimal places
+     * @return index of the first formatted character in {@link #scratch}
+     */
+    private final int format(final long value, final int decimals) {
+        int pos = scratch.length;
+        long rest = value;
+        int digits = 0;
+        do { // negative remainders are used, so that Long.MIN_VALUE is formatted too
+            if (digits == decimals && decimals > 0) {
+                scratch[--pos] = '.';
+            }
+            scratch[--pos] = (char) ('0' + Math.abs(rest % 10));
+            rest /= 10;
+            digits++;
+        } while (rest != 0 || digits <= decimals);
+        if (value < 0) {
+            scratch[--pos] = '-';
+        }
+        return pos;
+    }
+
+    /**
+     * Place formatted number from {@link #scratch} into {@link #chars}.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@link #chars} is modified
+     * <br><b>Created on:</b> <i>2:32:02 PM Jun 5, 2017</i>
+     * 
+     * @param from
+     *            index of the first formatted character in {@link #scratch}
+     */
+    private final void place(final int from) {
+        final int length = scratch.length - from;
+        if (length > chars.length) {
+            Arrays.fill(chars, OVERFLOW);
+            return;
+        }
+        Arrays.fill(chars, BLANK);
+        final int offset = (align == Align.RIGHT) ? chars.length - length : 0;
+        System.arraycopy(scratch, from, chars, offset, length);
+    }
+
+    /**
+     * Place text into {@link #chars}.
+     * <p><b>PRE-conditions:</b> non-null {@code text}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@link #chars} is modified
+     * <br><b>Created on:</b> <i>2:33:40 PM Jun 5, 2017</i>
+     * 
+     * @param text
+     *            text to place
+     */
+    private final void place(final CharSequence text) {
+        final int length = Math.min(text.length(), chars.length);
+        final int offset = (align == Align.RIGHT) ? chars.length - length : 0;
+        Arrays.fill(chars, BLANK);
+        for (int i = 0 ; i < length ; i++) {
+            chars[offset + i] = text.charAt(i);
+        }
+    }
+
+    /**
+     * Draw cells that differ from the shown ones and send them to the display. Run of cells from the first changed one
+     * to the last changed one is sent as single region. Nothing is allocated here, except for what
+     * {@link Display#flush(byte[], Region)} needs.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> display buffer and image are modified, GPIO I/O calls
+     * <br><b>Created on:</b> <i>2:35:15 PM Jun 5, 2017</i>
+     */
+    private final void update() {
+        int first = -1;
+        int last = -1;
+        final byte[] buffer = display.buffer();
+        final int width = display.width();
+        for (int i = 0 ; i < chars.length ; i++) {
+            if (chars[i] != shown[i]) {
+                font.copy(chars[i], false, buffer, width, page, x + i * font.cellWidth());
+                shown[i] = chars[i];
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+            }
+        }
+        if (first < 0) {
+            return;
+        }
+        final int colStart = x + first * font.cellWidth();
+        final int columns = (last - first + 1) * font.cellWidth();
+        Packer.unpackBinary(buffer, width, colStart, page * 8, columns, font.cellHeight(), display.image());
+        display.flush(buffer, runs[first * chars.length + last]);
+    }
+
+    /**
+     * Get number of characters in the field.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:37:30 PM Jun 5, 2017</i>
+     * 
+     * @return field length
+     */
+    public final int length() {
+        return chars.length;
+    }
+
+    /**
+     * Get string representation of this field.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:38:05 PM Jun 5, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this field
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{position=[").append(x).append(',').append(page * 8)
+            .append("],length=[").append(chars.length)
+            .append("],align=[").append(align)
+            .append("],value=[").append(chars)
+            .append("]}")
+            .toString());
+    }
+
+}
@@ -0,0 +1,286 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Group of displays that show identical content. Content is drawn once on the leader display (see {@link #display()}),
+ * packed once, and then the same packed frame is pushed to every member display. Transfers are performed by
+ * {@link DisplayManager}, so members on different buses are updated in parallel.
+ * <p>Group tracks shadow state of each member (content that member panel shows), so only the changed region is sent to
+ * each member. Member that missed some updates or was reset gets exactly the region it needs after
+ * {@link #invalidate(Display)}.
+ * <p>Like {@link Display}, this class is not thread safe : drawing and {@link #sync()} should be performed on the same
+ * thread.
+ * <p><b>Created on:</b> <i>10:20:14 PM May 6, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class MirrorGroup {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>10:20:51 PM May 6, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(MirrorGroup.class));
+
+
+    /**
+     * Manager that performs transfers.
+     * <p><b>Created on:</b> <i>10:21:30 PM May 6, 2017</i>
+     */
+    private final DisplayManager manager;
+
+    /**
+     * Leader display, content is drawn on it.
+     * <p><b>Created on:</b> <i>10:22:02 PM May 6, 2017</i>
+     */
+    private final Display leader;
+
+    /**
+     * All members of the group, including leader.
+     * <p><b>Created on:</b> <i>10:22:35 PM May 6, 2017</i>
+     */
+    private final List<Member> members;
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Member display of the group together with its shadow state.
+     * <p><b>Created on:</b> <i>10:23:11 PM May 6, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    private static final class Member {
+
+        /**
+         * Member display.
+         * <p><b>Created on:</b> <i>10:23:48 PM May 6, 2017</i>
+         */
+        private final Display display;
+
+        /**
+         * Packed content that member panel shows (or will show once queued transfers are finished).
+         * <p><b>Created on:</b> <i>10:24:26 PM May 6, 2017</i>
+         */
+        private final byte[] shadow;
+
+        /**
+         * Indicates whether {@link #shadow} reflects panel content. If not, full frame is sent on next sync. Reset when
+         * transfer fails.
+         * <p><b>Created on:</b> <i>10:25:03 PM May 6, 2017</i>
+         */
+        private volatile boolean isShadowValid = false;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.MirrorGroup.Member.<p>
+         * <p><b>PRE-conditions:</b> non-null {@code display}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:25:40 PM May 6, 2017</i>
+         * 
+         * @param display
+         *            member display
+         */
+        Member(final Display display) {
+            this.display = display;
+            shadow = new byte[display.buffer().length];
+        }
+    }
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.MirrorGroup.<p>
+     * <p><b>PRE-conditions:</b> non-null {@code manager}, non-null {@code leader}, non-null {@code members}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:26:31 PM May 6, 2017</i>
+     * 
+     * @param manager
+     *            manager that performs transfers
+     * @param leader
+     *            leader display
+     * @param members
+     *            all members of the group, including leader
+     */
+    private MirrorGroup(final DisplayManager manager, final Display leader, final List<Member> members) {
+        this.manager = manager;
+        this.leader = leader;
+        this.members = members;
+    }
+
+    /**
+     * Create new {@link MirrorGroup} instance. All displays must have the same dimensions. Displays are registered in
+     * {@code manager}.
+     * <p><b>PRE-conditions:</b> non-null {@code manager}, non-null {@code leader}, non-null {@code mirrors} of the same
+     * dimensions as {@code leader}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> displays are registered in {@code manager}
+     * <br><b>Created on:</b> <i>10:28:14 PM May 6, 2017</i>
+     * 
+     * @param manager
+     *            manager that performs transfers
+     * @param leader
+     *            display that content is drawn on, it is a member of the group as well
+     * @param mirrors
+     *            other displays that show the same content
+     * @return new {@link MirrorGroup} instance
+     */
+    public static final MirrorGroup newInstance(
+        final DisplayManager manager,
+        final Display leader,
+        final Display... mirrors) {
+
+        final List<Member> members = new ArrayList<>(mirrors.length + 1);
+        members.add(new Member(leader));
+        manager.add(leader);
+        for (final Display mirror : mirrors) {
+            isTrue(mirror.width() == leader.width() && mirror.height() == leader.height());
+            isTrue(mirror != leader);
+            members.add(new Member(mirror));
+            manager.add(mirror);
+        }
+        return new MirrorGroup(manager, leader, Collections.unmodifiableList(members));
+    }
+
+    /**
+     * Get display to draw content of the group on. Do not use {@link Display#sync()} of this display, use
+     * {@link #sync()} of the group instead.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:30:22 PM May 6, 2017</i>
+     * 
+     * @return leader display
+     */
+    public final Display display() {
+        return leader;
+    }
+
+    /**
+     * Init and turn on all displays of the group. All displays are cleared, so shadow state of each member is known
+     * after this call.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>10:31:40 PM May 6, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    public final MirrorGroup begin() {
+        LOG.traceEntry();
+
+        for (final Member member : members) {
+            member.display.begin();
+            member.display.pack(); // display is cleared, so buffer holds what panel shows
+            System.arraycopy(member.display.buffer(), 0, member.shadow, 0, member.shadow.length);
+            member.isShadowValid = true;
+        }
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Pack content of the leader display once and send it to all members. Each member receives only the region that
+     * differs from its shadow state.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> leader display buffer is modified, frames are queued for transfer
+     * <br><b>Created on:</b> <i>10:33:57 PM May 6, 2017</i>
+     * 
+     * @return future that is completed when all members show this frame (or newer one)
+     */
+    @SuppressWarnings("nls")
+    public final CompletableFuture<Void> sync() {
+        LOG.traceEntry();
+
+        leader.pack();
+        final byte[] frame = leader.buffer();
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(members.size());
+        for (final Member member : members) {
+            final @Nullable Region region = member.isShadowValid
+                ? Region.diff(member.shadow, frame, leader.width())
+                : Region.full(leader.width(), leader.pages());
+            if (region != null) {
+                LOG.trace("mirroring region : display = [%s] ; region = [%s]", member.display, region);
+                System.arraycopy(frame, 0, member.shadow, 0, frame.length);
+                member.isShadowValid = true;
+                futures.add(manager.submit(member.display, frame, region).whenComplete((v, e) -> {
+                    if (e != null) { // panel did not receive the frame, its content is unknown now
+                        member.isShadowValid = false;
+                    }
+                }));
+            } else { // nothing changed, but previous frame may still be in flight
+                futures.add(manager.settled(member.display));
+            }
+        }
+        final CompletableFuture<Void> result = CompletableFuture.allOf(
+            futures.toArray(new CompletableFuture<?>[futures.size()]));
+
+        return notNull(LOG.traceExit(result));
+    }
+
+    /**
+     * Forget shadow state of the member, so full frame is sent to it on next {@link #sync()}. Should be used when
+     * member panel content is changed outside of this group (for instance, panel was reset or re-connected).
+     * <p><b>PRE-conditions:</b> non-null {@code member}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:37:12 PM May 6, 2017</i>
+     * 
+     * @param member
+     *            member display
+     * @return this instance (for call chaining)
+     * @throws IllegalArgumentException
+     *             if display is not a member of this group
+     */
+    @SuppressWarnings("nls")
+    public final MirrorGroup invalidate(final Display member) {
+        LOG.traceEntry("member = [{}]", member);
+
+        for (final Member m : members) {
+            if (m.display == member) {
+                m.isShadowValid = false;
+                return notNull(LOG.traceExit(this));
+            }
+        }
+        throw new IllegalArgumentException("display is not a member of the group : display = [" + member + "]");
+    }
+
+    /**
+     * Get string representation of this group.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:38:45 PM May 6, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this group
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{leader=[").append(leader)
+            .append("],members=[").append(members.size())
+            .append("]}")
+            .toString());
+    }
+
+}
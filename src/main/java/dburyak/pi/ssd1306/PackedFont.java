@@ -0,0 +1,297 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+import static java.awt.Color.BLACK;
+import static java.awt.Color.WHITE;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import javax.annotation.concurrent.Immutable;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Fixed-width bitmap font with glyphs pre-rendered from AWT font and packed in display buffer layout. Each glyph
+ * occupies a cell of the same size; cell height is rounded up to whole pages, so glyph cells can be copied to page
+ * aligned positions of the display buffer as plain byte runs.
+ * <p>Characters outside of the font range are rendered as {@code '?'}.
+ * <p><b>Created on:</b> <i>10:12:35 AM Jun 1, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@Immutable
+public final class PackedFont {
+
+    /**
+     * First printable ASCII character.
+     * <p><b>Created on:</b> <i>10:13:10 AM Jun 1, 2017</i>
+     */
+    private static final char FIRST_DFLT = ' ';
+
+    /**
+     * Last printable ASCII character.
+     * <p><b>Created on:</b> <i>10:13:42 AM Jun 1, 2017</i>
+     */
+    private static final char LAST_DFLT = '~';
+
+    /**
+     * Character used for characters outside of the font range.
+     * <p><b>Created on:</b> <i>10:14:15 AM Jun 1, 2017</i>
+     */
+    private static final char REPLACEMENT = '?';
+
+
+    /**
+     * First character of the font.
+     * <p><b>Created on:</b> <i>10:14:50 AM Jun 1, 2017</i>
+     */
+    private final char first;
+
+    /**
+     * Last character of the font.
+     * <p><b>Created on:</b> <i>10:15:22 AM Jun 1, 2017</i>
+     */
+    private final char last;
+
+    /**
+     * Cell width in pixels.
+     * <p><b>Created on:</b> <i>10:15:55 AM Jun 1, 2017</i>
+     */
+    private final int cellWidth;
+
+    /**
+     * Cell height in pages.
+     * <p><b>Created on:</b> <i>10:16:28 AM Jun 1, 2017</i>
+     */
+    private final int cellPages;
+
+    /**
+     * Packed glyphs one after another. Each glyph is {@link #cellPages} pages of {@link #cellWidth} bytes.
+     * <p><b>Created on:</b> <i>10:17:02 AM Jun 1, 2017</i>
+     */
+    private final byte[] glyphs;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.PackedFont.<p>
+     * <p><b>PRE-conditions:</b> {@code first <= last}, positive {@code cellWidth} and {@code cellPages}, non-null
+     * {@code glyphs} of matching size
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:17:40 AM Jun 1, 2017</i>
+     * 
+     * @param first
+     *            first character of the font
+     * @param last
+     *            last character of the font
+     * @param cellWidth
+     *            cell width in pixels
+     * @param cellPages
+     *            cell height in pages
+     * @param glyphs
+     *            packed glyphs
+     */
+    private PackedFont(
+        final char first,
+        final char last,
+        final int cellWidth,
+        final int cellPages,
+        final byte[] glyphs) {
+
+        this.first = first;
+        this.last = last;
+        this.cellWidth = cellWidth;
+        this.cellPages = cellPages;
+        this.glyphs = glyphs;
+    }
+
+    /**
+     * Create new {@link PackedFont} instance with printable ASCII characters.
+     * <p><b>PRE-conditions:</b> non-null {@code font}, font is monospaced
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:19:05 AM Jun 1, 2017</i>
+     * 
+     * @param font
+     *            AWT font to render glyphs with
+     * @return new {@link PackedFont} instance
+     */
+    public static final PackedFont newInstance(final Font font) {
+        return newInstance(font, FIRST_DFLT, LAST_DFLT);
+    }
+
+    /**
+     * Create new {@link PackedFont} instance with specified range of characters. Cell width is the advance of
+     * {@code 'M'}, cell height is font height rounded up to whole pages.
+     * <p><b>PRE-conditions:</b> non-null {@code font}, font is monospaced, {@code first <= '?' <= last}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:21:30 AM Jun 1, 2017</i>
+     * 
+     * @param font
+     *            AWT font to render glyphs with
+     * @param first
+     *            first character of the font
+     * @param last
+     *            last character of the font
+     * @return new {@link PackedFont} instance
+     */
+    public static final PackedFont newInstance(final Font font, final char first, final char last) {
+        isTrue(first <= REPLACEMENT && REPLACEMENT <= last);
+
+        final BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_BINARY);
+        final Graphics2D probeGraphics = probe.createGraphics();
+        final FontMetrics metrics = probeGraphics.getFontMetrics(font);
+        probeGraphics.dispose();
+        final int cellWidth = Math.max(1, metrics.charWidth('M'));
+        final int cellPages = Math.max(1, (metrics.getHeight() + 7) / 8);
+        final int cellHeight = cellPages * 8;
+        final int glyphSize = cellWidth * cellPages;
+
+        final byte[] glyphs = new byte[(last - first + 1) * glyphSize];
+        final BufferedImage cell = new BufferedImage(cellWidth, cellHeight, BufferedImage.TYPE_BYTE_BINARY);
+        final Graphics2D g = cell.createGraphics();
+        try {
+            g.setFont(font);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+            final char[] chars = new char[1];
+            for (char ch = first ; ch <= last ; ch++) {
+                g.setBackground(BLACK);
+                g.clearRect(0, 0, cellWidth, cellHeight);
+                g.setColor(WHITE);
+                chars[0] = ch;
+                g.drawChars(chars, 0, 1, 0, metrics.getAscent());
+                final byte[] glyph = new byte[glyphSize];
+                Packer.packBinary(cell, 0, 0, cellWidth, cellHeight, glyph, cellWidth);
+                System.arraycopy(glyph, 0, glyphs, (ch - first) * glyphSize, glyphSize);
+                if (ch == Character.MAX_VALUE) {
+                    break;
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        return new PackedFont(first, last, cellWidth, cellPages, glyphs);
+    }
+
+    /**
+     * Get cell width.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:25:10 AM Jun 1, 2017</i>
+     * 
+     * @return cell width in pixels
+     */
+    public final int cellWidth() {
+        return cellWidth;
+    }
+
+    /**
+     * Get cell height.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> positive multiple of 8
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:25:42 AM Jun 1, 2017</i>
+     * 
+     * @return cell height in pixels
+     */
+    public final int cellHeight() {
+        return cellPages * 8;
+    }
+
+    /**
+     * Get cell height in pages.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:26:15 AM Jun 1, 2017</i>
+     * 
+     * @return cell height in pages
+     */
+    public final int cellPages() {
+        return cellPages;
+    }
+
+    /**
+     * Copy glyph of the character into packed buffer. Glyph cell is written starting from specified page and column.
+     * <p><b>PRE-conditions:</b> non-null {@code dst}, cell fits into {@code dst}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@code dst} is modified
+     * <br><b>Created on:</b> <i>10:28:30 AM Jun 1, 2017</i>
+     * 
+     * @param ch
+     *            character
+     * @param inverse
+     *            true if glyph should be inverted
+     * @param dst
+     *            destination packed buffer
+     * @param dstWidth
+     *            number of columns (bytes per page) in destination buffer
+     * @param page
+     *            destination page of the cell top
+     * @param col
+     *            destination column of the cell left side
+     */
+    final void copy(
+        final char ch,
+        final boolean inverse,
+        final byte[] dst,
+        final int dstWidth,
+        final int page,
+        final int col) {
+
+        final char shown = (first <= ch && ch <= last) ? ch : REPLACEMENT;
+        final int mask = inverse ? 0xFF : 0x00;
+        int src = (shown - first) * cellWidth * cellPages;
+        for (int p = 0 ; p < cellPages ; p++) {
+            final int offset = (page + p) * dstWidth + col;
+            for (int x = 0 ; x < cellWidth ; x++) {
+                dst[offset + x] = (byte) (glyphs[src++] ^ mask);
+            }
+        }
+    }
+
+    /**
+     * Get string representation of this font.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:30:02 AM Jun 1, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this font
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{cell=[").append(cellWidth).append('x').append(cellHeight())
+            .append("],chars=[").append(hex(first)).append("..").append(hex(last))
+            .append("]}")
+            .toString());
+    }
+
+    /**
+     * Format character code as hex string.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:30:40 AM Jun 1, 2017</i>
+     * 
+     * @param ch
+     *            character
+     * @return hex code of the character
+     */
+    @SuppressWarnings("nls")
+    private static final String hex(final char ch) {
+        return notNull(String.format("0x%04X", Integer.valueOf(ch)));
+    }
+
+}
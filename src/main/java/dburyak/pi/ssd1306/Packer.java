@@ -0,0 +1,752 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dburyak.pi.ssd1306.Display.OverlayType;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Conversion of raster images to packed display buffer layout : each byte is a bit octet that represents 8 pixels
+ * column (page), pages go one after another.
+ * <p><b>Created on:</b> <i>6:05:37 PM May 9, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+final class Packer {
+
+    /**
+     * Logger.
+     * <p><b>Created on:</b> <i>11:20:12 AM Jul 3, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(Packer.class));
+
+    /**
+     * Name of the system property to force packer backend by its name (see {@link PackerBackend#name()}).
+     * <p><b>Created on:</b> <i>11:20:45 AM Jul 3, 2017</i>
+     */
+    @SuppressWarnings("nls")
+    static final String BACKEND_PROPERTY = "dburyak.pi.ssd1306.packer";
+
+    /**
+     * Name of the system property that turns on checking of backend candidates against scalar backend on test patterns
+     * before one is chosen. Check is off by default, built-in backends are covered by unit tests.
+     * <p><b>Created on:</b> <i>2:10:15 PM Jul 24, 2017</i>
+     */
+    @SuppressWarnings("nls")
+    static final String VERIFY_PROPERTY = "dburyak.pi.ssd1306.packer.verify";
+
+    /**
+     * Seed of the test patterns used to check backend candidates. Fixed, so check is reproducible.
+     * <p><b>Created on:</b> <i>11:21:18 AM Jul 3, 2017</i>
+     */
+    private static final long CHECK_SEED = 0x5D1306L;
+
+    /**
+     * Backend that runs packing and composing loops.
+     * <p><b>Created on:</b> <i>11:21:50 AM Jul 3, 2017</i>
+     */
+    private static final PackerBackend BACKEND = chooseBackend();
+
+    /**
+     * Lookup table of bit-reversed octets : {@code REVERSED[b]} has bits of {@code b} in reverse order.
+     * <p><b>Created on:</b> <i>10:02:31 AM Jun 29, 2017</i>
+     */
+    private static final byte[] REVERSED = new byte[256];
+
+    static {
+        for (int b = 0 ; b < 256 ; b++) {
+            REVERSED[b] = (byte) (Integer.reverse(b) >>> 24);
+        }
+    }
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Packer.<p>
+     * Should never be called.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>6:06:10 PM May 9, 2017</i>
+     */
+    @SuppressWarnings("nls")
+    private Packer() {
+        throw new AssertionError("not supposed to be called");
+    }
+
+    /**
+     * Get backend that runs packing and composing loops.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:22:30 AM Jul 3, 2017</i>
+     * 
+     * @return packer backend
+     */
+    static final PackerBackend backend() {
+        return BACKEND;
+    }
+
+    /**
+     * Choose backend : forced by {@link #BACKEND_PROPERTY} if set, otherwise the first of preferred registered providers
+     * (see {@link PackerBackend#isPreferred()}) and built-in backends. If {@link #VERIFY_PROPERTY} is set, candidates
+     * that produce output different from scalar backend are skipped.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> providers are loaded with {@link ServiceLoader}
+     * <br><b>Created on:</b> <i>11:23:15 AM Jul 3, 2017</i>
+     * 
+     * @return chosen backend
+     */
+    @SuppressWarnings("nls")
+    private static final PackerBackend chooseBackend() {
+        final PackerBackend scalar = new ScalarBackend();
+        final List<PackerBackend> candidates = new ArrayList<>();
+        try {
+            for (final PackerBackend provider : ServiceLoader.load(PackerBackend.class)) {
+                candidates.add(provider);
+            }
+        } catch (final ServiceConfigurationError e) {
+            LOG.warn("failed to load packer backend providers", e);
+        }
+        candidates.add(new SwarBackend());
+        candidates.add(scalar);
+
+        final String forced = System.getProperty(BACKEND_PROPERTY);
+        final boolean isVerified = Boolean.getBoolean(VERIFY_PROPERTY);
+        for (final PackerBackend candidate : candidates) {
+            if (forced != null ? !forced.equals(candidate.name()) : !candidate.isPreferred()) {
+                continue;
+            }
+            if (candidate == scalar || !isVerified || isConsistent(candidate, scalar)) {
+                LOG.info("packer backend chosen : name = [%s]", candidate.name());
+                return candidate;
+            }
+        }
+        LOG.warn("packer backend is not available, using scalar one : name = [%s]", forced);
+        return scalar;
+    }
+
+    /**
+     * Check that backend produces exactly the same output as reference backend on test patterns. Patterns cover
+     * unaligned bit offsets, widths that are not multiple of 8 and all overlay types.
+     * <p><b>PRE-conditions:</b> non-null {@code candidate}, non-null {@code reference}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:25:02 AM Jul 3, 2017</i>
+     * 
+     * @param candidate
+     *            backend to be checked
+     * @param reference
+     *            backend that is known to be correct
+     * @return true if outputs are bit-identical
+     */
+    @SuppressWarnings("nls")
+    private static final boolean isConsistent(final PackerBackend candidate, final PackerBackend reference) {
+        final Random random = new Random(CHECK_SEED);
+        try {
+            for (final int width : new int[] { 1, 7, 8, 9, 63, 64, 128, 133 }) {
+                for (final int bitOffset : new int[] { 0, 3, 8, 13 }) {
+                    for (int pages = 1 ; pages <= 3 ; pages++) {
+                        final int stride = (bitOffset + width + 7) / 8 + 1;
+                        final byte[] src = new byte[stride * (pages * 8 + 1)];
+                        random.nextBytes(src);
+                        final byte[] expected = new byte[pages * (width + 2)];
+                        random.nextBytes(expected);
+                        final byte[] actual = expected.clone();
+                        reference.packBinary(src, stride, stride, bitOffset, width, pages, expected, width + 2);
+                        candidate.packBinary(src, stride, stride, bitOffset, width, pages, actual, width + 2);
+                        if (!Arrays.equals(expected, actual)) {
+                            LOG.warn("packer backend output differs : name = [%s] ; width = [%d] ; bitOffset = [%d]",
+                                candidate.name(), width, bitOffset);
+                            return false;
+                        }
+                    }
+                }
+            }
+            for (final OverlayType overlay : OverlayType.values()) {
+                final byte[] pixels = new byte[133];
+                final byte[] mask = new byte[pixels.length];
+                final byte[] expected = new byte[pixels.length];
+                random.nextBytes(pixels);
+                random.nextBytes(mask);
+                random.nextBytes(expected);
+                final byte[] actual = expected.clone();
+                reference.compose(overlay, pixels, mask, expected, 3, pixels.length - 1);
+                candidate.compose(overlay, pixels, mask, actual, 3, pixels.length - 1);
+                if (!Arrays.equals(expected, actual)) {
+                    LOG.warn("packer backend output differs : name = [%s] ; overlay = [%s]", candidate.name(), overlay);
+                    return false;
+                }
+            }
+        } catch (final RuntimeException | LinkageError e) {
+            LOG.warn("packer backend failed : name = [%s]", candidate.name(), e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check whether image is a 1-bit black and white image that can be packed with
+     * {@link #packBinary(BufferedImage, int, int, int, int, byte[], int)}.
+     * <p><b>PRE-conditions:</b> non-null {@code img}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>6:08:45 PM May 9, 2017</i>
+     * 
+     * @param img
+     *            image to be checked
+     * @return true if image raster can be read directly as 1-bit pixels
+     */
+    static final boolean isBinary(final BufferedImage img) {
+        final Raster raster = img.getRaster();
+        return img.getType() == BufferedImage.TYPE_BYTE_BINARY
+            && raster.getSampleModel() instanceof MultiPixelPackedSampleModel
+            && ((MultiPixelPackedSampleModel) raster.getSampleModel()).getPixelBitStride() == 1
+            && raster.getDataBuffer() instanceof DataBufferByte
+            && img.getColorModel().getRGB(1) == 0xFFFFFFFF // pixel value 1 is white
+            && img.getColorModel().getRGB(0) == 0xFF000000; // pixel value 0 is black
+    }
+
+    /**
+     * Pack rectangle of the 1-bit black and white image into packed display buffer. Pixel bits are read directly from
+     * the image raster, color model is not involved. Rectangle height must be multiple of 8, so whole pages are
+     * written.
+     * <p><b>PRE-conditions:</b> {@link #isBinary(BufferedImage)} is true for {@code img}, rectangle is inside of the
+     * image, {@code height % 8 == 0}, {@code dst} has at least {@code height / 8} pages of {@code dstWidth} columns,
+     * {@code width <= dstWidth}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@code dst} is modified
+     * <br><b>Created on:</b> <i>6:12:20 PM May 9, 2017</i>
+     * 
+     * @param img
+     *            source 1-bit image
+     * @param x
+     *            left coordinate of the rectangle
+     * @param y
+     *            top coordinate of the rectangle
+     * @param width
+     *            rectangle width
+     * @param height
+     *            rectangle height
+     * @param dst
+     *            destination packed buffer, rectangle is written starting from its first page and first column
+     * @param dstWidth
+     *            number of columns (bytes per page) in destination buffer
+     */
+    static final void packBinary(
+        final BufferedImage img,
+        final int x,
+        final int y,
+        final int width,
+        final int height,
+        final byte[] dst,
+        final int dstWidth) {
+
+        assert (isTrue(height % 8 == 0 && width <= dstWidth));
+        final Raster raster = img.getRaster();
+        final MultiPixelPackedSampleModel model = (MultiPixelPackedSampleModel) raster.getSampleModel();
+        final byte[] src = ((DataBufferByte) raster.getDataBuffer()).getData();
+        final int stride = model.getScanlineStride();
+        // child rasters may be translated and have non-zero bit offset
+        final int bitOffset = model.getDataBitOffset() + (x - raster.getSampleModelTranslateX());
+        final int rowOffset = y - raster.getSampleModelTranslateY();
+
+        BACKEND.packBinary(src, rowOffset * stride, stride, bitOffset, width, height / 8, dst, dstWidth);
+    }
+
+    /**
+     * Pack 1-bit black and white image rotated by 90 degrees clockwise into packed display buffer. Image is
+     * {@code dstWidth} pixels high, and its width is the number of destination pages multiplied by 8.
+     * <p>After rotation, 8 pixels of the display page column come from 8 horizontally adjacent pixels of the image row,
+     * which are a single raster byte when they are byte aligned. So rotation is folded into packing : each destination
+     * byte is one raster byte with its bits reversed (raster byte starts from the leftmost pixel, page starts from the
+     * topmost one), no pixel-by-pixel transpose and no intermediate rotated image are needed.
+     * <p><b>PRE-conditions:</b> {@link #isBinary(BufferedImage)} is true for {@code img}, {@code img.getWidth() % 8 == 0},
+     * {@code img.getHeight() == dstWidth}, {@code dst} has at least {@code img.getWidth() / 8} pages of
+     * {@code dstWidth} columns
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@code dst} is modified
+     * <br><b>Created on:</b> <i>10:05:14 AM Jun 29, 2017</i>
+     * 
+     * @param img
+     *            source 1-bit image
+     * @param dst
+     *            destination packed buffer
+     * @param dstWidth
+     *            number of columns (bytes per page) in destination buffer
+     */
+    static final void packBinaryRotated(final BufferedImage img, final byte[] dst, final int dstWidth) {
+        assert (isTrue(img.getWidth() % 8 == 0 && img.getHeight() == dstWidth));
+        final Raster raster = img.getRaster();
+        final MultiPixelPackedSampleModel model = (MultiPixelPackedSampleModel) raster.getSampleModel();
+        final byte[] src = ((DataBufferByte) raster.getDataBuffer()).getData();
+        final int stride = model.getScanlineStride();
+        // child rasters may be translated and have non-zero bit offset
+        final int bitOffset = model.getDataBitOffset() - raster.getSampleModelTranslateX();
+        final int rowOffset = -raster.getSampleModelTranslateY();
+
+        final int pages = img.getWidth() / 8;
+        for (int col = 0 ; col < dstWidth ; col++) {
+            // leftmost display column is the bottom image row
+            final int rowStart = (rowOffset + dstWidth - 1 - col) * stride;
+            for (int page = 0 ; page < pages ; page++) {
+                final int srcBit = bitOffset + page * 8;
+                final int index = rowStart + (srcBit >> 3);
+                final int shift = srcBit & 7;
+                final int octet = (shift == 0)
+                    ? src[index] & 0xFF
+                    : ((src[index] << shift) | ((src[index + 1] & 0xFF) >>> (8 - shift))) & 0xFF;
+                dst[page * dstWidth + col] = REVERSED[octet];
+            }
+        }
+    }
+
+    /**
+     * Check whether ARGB pixel is lit : luminance of the pixel composed over black background exceeds threshold (see
+     * {@link #luminance(int)}).
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code threshold} &lt;= 255
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:10:24 PM Jul 6, 2017</i>
+     * 
+     * @param argb
+     *            pixel in default ARGB color model
+     * @param threshold
+     *            luminance threshold
+     * @return true if pixel is lit
+     */
+    static final boolean isLit(final int argb, final int threshold) {
+        return luminance(argb) > threshold;
+    }
+
+    /**
+     * Compute luminance of ARGB pixel composed over black background. Luminance is computed in integers with ITU-R
+     * BT.601 weights : {@code (77 * R + 150 * G + 29 * B) / 256}, then it is multiplied by alpha and rounded up, so
+     * fully transparent pixel is always black and any visible pixel is not.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> 0 &lt;= {@code result} &lt;= 255
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:11:02 PM Jul 6, 2017</i>
+     * 
+     * @param argb
+     *            pixel in default ARGB color model
+     * @return luminance of the pixel
+     */
+    static final int luminance(final int argb) {
+        final int opaque = (77 * ((argb >> 16) & 0xFF) + 150 * ((argb >> 8) & 0xFF) + 29 * (argb & 0xFF)) >> 8;
+        final int alpha = argb >>> 24;
+        return (alpha == 0xFF) ? opaque : (opaque * alpha + 254) / 255;
+    }
+
+    /**
+     * Read luminance of the image row (see {@link #luminance(int)}). Pixels are read directly from the raster for
+     * {@link BufferedImage#TYPE_INT_ARGB}, {@link BufferedImage#TYPE_INT_RGB}, {@link BufferedImage#TYPE_BYTE_GRAY}
+     * and black and white images, gray level is used as luminance for gray images. Other types are read through
+     * {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)}.
+     * <p><b>PRE-conditions:</b> non-null {@code img}, 0 &lt;= {@code y} &lt; {@code img.getHeight()},
+     * {@code dst.length >= img.getWidth()}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@code dst} is modified
+     * <br><b>Created on:</b> <i>9:15:30 AM Jul 10, 2017</i>
+     * 
+     * @param img
+     *            source image
+     * @param y
+     *            row to read
+     * @param dst
+     *            destination for luminance values (0-255) of the row pixels
+     */
+    static final void luminanceRow(final BufferedImage img, final int y, final int[] dst) {
+        final int width = img.getWidth();
+        final Raster raster = img.getRaster();
+        final int type = img.getType();
+
+        if ((type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_RGB)
+            && raster.getSampleModel() instanceof SinglePixelPackedSampleModel
+            && raster.getDataBuffer() instanceof DataBufferInt) {
+            final DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+            final int[] src = buffer.getData();
+            final int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+            final int rowStart = buffer.getOffset()
+                + (y - raster.getSampleModelTranslateY()) * stride - raster.getSampleModelTranslateX();
+            final int opaque = (type == BufferedImage.TYPE_INT_RGB) ? 0xFF000000 : 0;
+            for (int x = 0 ; x < width ; x++) {
+                dst[x] = luminance(src[rowStart + x] | opaque);
+            }
+        } else if (type == BufferedImage.TYPE_BYTE_GRAY
+            && raster.getSampleModel() instanceof ComponentSampleModel
+            && raster.getDataBuffer() instanceof DataBufferByte) {
+            final DataBufferByte buffer = (DataBufferByte) raster.getDataBuffer();
+            final byte[] src = buffer.getData();
+            final ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+            final int stride = model.getScanlineStride();
+            final int pixelStride = model.getPixelStride();
+            final int rowStart = buffer.getOffset() + model.getBandOffsets()[0]
+                + (y - raster.getSampleModelTranslateY()) * stride - raster.getSampleModelTranslateX() * pixelStride;
+            for (int x = 0 ; x < width ; x++) {
+                dst[x] = src[rowStart + x * pixelStride] & 0xFF;
+            }
+        } else if (isBinary(img)) {
+            final MultiPixelPackedSampleModel model = (MultiPixelPackedSampleModel) raster.getSampleModel();
+            final byte[] src = ((DataBufferByte) raster.getDataBuffer()).getData();
+            final int rowStart = (y - raster.getSampleModelTranslateY()) * model.getScanlineStride();
+            final int bitOffset = model.getDataBitOffset() - raster.getSampleModelTranslateX();
+            for (int x = 0 ; x < width ; x++) {
+                final int srcBit = bitOffset + x;
+                dst[x] = ((src[rowStart + (srcBit >> 3)] >> (7 - (srcBit & 7))) & 1) * 0xFF;
+            }
+        } else {
+            img.getRGB(0, y, width, 1, dst, 0, width);
+            for (int x = 0 ; x < width ; x++) {
+                dst[x] = luminance(dst[x]);
+            }
+        }
+    }
+
+    /**
+     * Convert image of any type to black and white and pack it. Pixel is lit if its luminance exceeds
+     * {@link Display#MONOCHROME_THRESHOLD} (see {@link #luminanceRow(BufferedImage, int, int[])}), so image is
+     * converted the same way as by {@link Display#image(BufferedImage, Display.Position, Display.Position)}. Height of
+     * the packed image is rounded up to whole pages, extra rows are blank.
+     * <p><b>PRE-conditions:</b> non-null {@code img}
+     * <br><b>POST-conditions:</b> non-null {@code result} of {@code img.getWidth()} columns
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:50:20 PM May 25, 2017</i>
+     * 
+     * @param img
+     *            image to be packed
+     * @return new packed buffer
+     */
+    static final byte[] pack(final BufferedImage img) {
+        final int width = img.getWidth();
+        final int height = img.getHeight();
+        final byte[] packed = new byte[((height + 7) / 8) * width];
+        if (isBinary(img) && height % 8 == 0) { // bits are lit exactly when luminance is above threshold
+            packBinary(img, 0, 0, width, height, packed, width);
+            return packed;
+        }
+        final int[] row = new int[width];
+        for (int y = 0 ; y < height ; y++) {
+            luminanceRow(img, y, row);
+            final int dstOffset = (y >> 3) * width;
+            final int bit = 1 << (y & 7);
+            for (int x = 0 ; x < width ; x++) {
+                if (row[x] > Display.MONOCHROME_THRESHOLD) {
+                    packed[dstOffset + x] |= bit;
+                }
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Write rectangle of the packed buffer back to the 1-bit black and white image. This is inverse of
+     * {@link #packBinary(BufferedImage, int, int, int, int, byte[], int)}, but rectangle does not need to be page
+     * aligned. Rectangle has the same coordinates in the buffer and in the image.
+     * <p><b>PRE-conditions:</b> {@link #isBinary(BufferedImage)} is true for {@code img}, rectangle is inside of both
+     * image and buffer
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@code img} is modified
+     * <br><b>Created on:</b> <i>3:44:50 PM May 25, 2017</i>
+     * 
+     * @param src
+     *            source packed buffer
+     * @param srcWidth
+     *            number of columns (bytes per page) in source buffer
+     * @param x
+     *            left coordinate of the rectangle
+     * @param y
+     *            top coordinate of the rectangle
+     * @param width
+     *            rectangle width
+     * @param height
+     *            rectangle height
+     * @param img
+     *            destination 1-bit image
+     */
+    static final void unpackBinary(
+        final byte[] src,
+        final int srcWidth,
+        final int x,
+        final int y,
+        final int width,
+        final int height,
+        final BufferedImage img) {
+
+        final WritableRaster raster = img.getRaster();
+        final MultiPixelPackedSampleModel model = (MultiPixelPackedSampleModel) raster.getSampleModel();
+        final byte[] dst = ((DataBufferByte) raster.getDataBuffer()).getData();
+        final int stride = model.getScanlineStride();
+        final int bitOffset = model.getDataBitOffset() + (x - raster.getSampleModelTranslateX());
+        final int rowOffset = y - raster.getSampleModelTranslateY();
+
+        for (int row = 0 ; row < height ; row++) {
+            final int srcOffset = ((y + row) >> 3) * srcWidth + x;
+            final int bit = (y + row) & 7;
+            final int rowStart = (rowOffset + row) * stride;
+            for (int col = 0 ; col < width ; col++) {
+                final int dstBit = bitOffset + col;
+                final int dstIndex = rowStart + (dstBit >> 3);
+                final int mask = 0x80 >> (dstBit & 7);
+                if (((src[srcOffset + col] >> bit) & 1) != 0) {
+                    dst[dstIndex] |= mask;
+                } else {
+                    dst[dstIndex] &= ~mask;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Backend that uses default scalar implementations of {@link PackerBackend}.
+     * <p><b>Created on:</b> <i>11:27:40 AM Jul 3, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    static final class ScalarBackend implements PackerBackend {
+
+        /**
+         * Get name of this backend.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-empty {@code result}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>11:28:05 AM Jul 3, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.PackerBackend#name()
+         * @return name of this backend
+         */
+        @SuppressWarnings("nls")
+        @Override
+        public final String name() {
+            return "scalar";
+        }
+    }
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Backend that packs 8x8 pixel blocks at once : 8 raster bytes of the block are loaded into one {@code long}, bit
+     * matrix is transposed with 3 shift-and-mask steps, and 8 packed bytes are taken from the result. Runs on any JVM,
+     * pixel-by-pixel scalar loop is used only for unaligned rows and for columns after the last whole block. Block and
+     * column loops are shared with backends that handle only the bulk of the row themselves.
+     * <p><b>Created on:</b> <i>11:29:10 AM Jul 3, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    static final class SwarBackend implements PackerBackend {
+
+        /**
+         * Get name of this backend.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-empty {@code result}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>11:29:45 AM Jul 3, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.PackerBackend#name()
+         * @return name of this backend
+         */
+        @SuppressWarnings("nls")
+        @Override
+        public final String name() {
+            return "swar";
+        }
+
+        /**
+         * Pack pages of 1-bit raster into packed display buffer block by block.
+         * <p><b>PRE-conditions:</b> see {@link PackerBackend#packBinary(byte[], int, int, int, int, int, byte[], int)}
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> {@code dst} is modified
+         * <br><b>Created on:</b> <i>11:30:20 AM Jul 3, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.PackerBackend#packBinary(byte[], int, int, int, int, int, byte[], int)
+         * @param src
+         *            raster bytes
+         * @param srcOffset
+         *            index of the first byte of the first row
+         * @param stride
+         *            number of bytes in raster row
+         * @param bitOffset
+         *            number of the bit of the leftmost pixel, counted from the start of the row
+         * @param width
+         *            number of pixels in row
+         * @param pages
+         *            number of pages to pack
+         * @param dst
+         *            destination packed buffer
+         * @param dstWidth
+         *            number of columns (bytes per page) in destination buffer
+         */
+        @Override
+        public final void packBinary(
+            final byte[] src,
+            final int srcOffset,
+            final int stride,
+            final int bitOffset,
+            final int width,
+            final int pages,
+            final byte[] dst,
+            final int dstWidth) {
+
+            if ((bitOffset & 7) != 0) { // blocks are not byte aligned
+                PackerBackend.super.packBinary(src, srcOffset, stride, bitOffset, width, pages, dst, dstWidth);
+                return;
+            }
+            packBlocks(src, srcOffset, stride, bitOffset, 0, width / 8, pages, dst, dstWidth);
+            packColumns(src, srcOffset, stride, bitOffset, (width / 8) * 8, width, pages, dst, dstWidth);
+        }
+
+        /**
+         * Pack whole 8x8 blocks of byte aligned raster one by one.
+         * <p><b>PRE-conditions:</b> see {@link PackerBackend#packBinary(byte[], int, int, int, int, int, byte[], int)},
+         * {@code bitOffset} is a multiple of 8
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> {@code dst} is modified
+         * <br><b>Created on:</b> <i>2:12:40 PM Jul 24, 2017</i>
+         * 
+         * @param src
+         *            raster bytes
+         * @param srcOffset
+         *            index of the first byte of the first row
+         * @param stride
+         *            number of bytes in raster row
+         * @param bitOffset
+         *            number of the bit of the leftmost pixel, counted from the start of the row
+         * @param fromBlock
+         *            first block to pack, block {@code N} covers columns {@code 8 * N} to {@code 8 * N + 7}
+         * @param toBlock
+         *            block after the last one to pack (exclusive)
+         * @param pages
+         *            number of pages to pack
+         * @param dst
+         *            destination packed buffer
+         * @param dstWidth
+         *            number of columns (bytes per page) in destination buffer
+         */
+        static final void packBlocks(
+            final byte[] src,
+            final int srcOffset,
+            final int stride,
+            final int bitOffset,
+            final int fromBlock,
+            final int toBlock,
+            final int pages,
+            final byte[] dst,
+            final int dstWidth) {
+
+            final int byteOffset = bitOffset >> 3;
+            for (int page = 0 ; page < pages ; page++) {
+                final int pageStart = srcOffset + page * 8 * stride + byteOffset;
+                final int dstOffset = page * dstWidth;
+                for (int block = fromBlock ; block < toBlock ; block++) {
+                    // byte N of the matrix is raster row N, bit (7 - M) of the byte is pixel M of the row
+                    long matrix = 0;
+                    for (int row = 0 ; row < 8 ; row++) {
+                        matrix |= (src[pageStart + row * stride + block] & 0xFFL) << (row * 8);
+                    }
+                    matrix = transpose(matrix);
+                    // now byte (7 - M) of the matrix is pixel column M of the page
+                    final int col = dstOffset + block * 8;
+                    for (int i = 0 ; i < 8 ; i++) {
+                        dst[col + i] = (byte) (matrix >>> ((7 - i) * 8));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Pack columns pixel by pixel.
+         * <p><b>PRE-conditions:</b> see {@link PackerBackend#packBinary(byte[], int, int, int, int, int, byte[], int)}
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> {@code dst} is modified
+         * <br><b>Created on:</b> <i>2:14:05 PM Jul 24, 2017</i>
+         * 
+         * @param src
+         *            raster bytes
+         * @param srcOffset
+         *            index of the first byte of the first row
+         * @param stride
+         *            number of bytes in raster row
+         * @param bitOffset
+         *            number of the bit of the leftmost pixel, counted from the start of the row
+         * @param fromCol
+         *            first column to pack
+         * @param toCol
+         *            column after the last one to pack (exclusive)
+         * @param pages
+         *            number of pages to pack
+         * @param dst
+         *            destination packed buffer
+         * @param dstWidth
+         *            number of columns (bytes per page) in destination buffer
+         */
+        static final void packColumns(
+            final byte[] src,
+            final int srcOffset,
+            final int stride,
+            final int bitOffset,
+            final int fromCol,
+            final int toCol,
+            final int pages,
+            final byte[] dst,
+            final int dstWidth) {
+
+            for (int page = 0 ; page < pages ; page++) {
+                for (int col = fromCol ; col < toCol ; col++) {
+                    final int srcBit = bitOffset + col;
+                    int octet = 0;
+                    for (int bit = 0 ; bit < 8 ; bit++) {
+                        final int rowStart = srcOffset + (page * 8 + bit) * stride;
+                        octet |= ((src[rowStart + (srcBit >> 3)] >> (7 - (srcBit & 7))) & 1) << bit;
+                    }
+                    dst[page * dstWidth + col] = (byte) octet;
+                }
+            }
+        }
+
+        /**
+         * Transpose 8x8 bit matrix : bit {@code 8 * i + j} is swapped with bit {@code 8 * j + i}. Bits are moved in
+         * 2x2, 4x4 and 8x8 blocks.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>11:31:35 AM Jul 3, 2017</i>
+         * 
+         * @param matrix
+         *            bit matrix, byte {@code i} is row {@code i}
+         * @return transposed matrix
+         */
+        static final long transpose(final long matrix) {
+            long x = matrix;
+            long t = (x ^ (x >>> 7)) & 0x00AA00AA00AA00AAL;
+            x = x ^ t ^ (t << 7);
+            t = (x ^ (x >>> 14)) & 0x0000CCCC0000CCCCL;
+            x = x ^ t ^ (t << 14);
+            t = (x ^ (x >>> 28)) & 0x00000000F0F0F0F0L;
+            return x ^ t ^ (t << 28);
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+package dburyak.pi.ssd1306;
+
+
+import dburyak.pi.ssd1306.Display.OverlayType;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Implementation of the hot loops of packing and composing : conversion of 1-bit raster rows to packed display pages
+ * and masked blits of packed buffers. Default methods are plain scalar implementations.
+ * <p>Backend is chosen once by {@link Packer} : providers registered in
+ * {@code META-INF/services/dburyak.pi.ssd1306.PackerBackend} that report themselves faster than built-in backends on
+ * this machine (see {@link #isPreferred()}) are tried first, then built-in ones. With
+ * {@code dburyak.pi.ssd1306.packer.verify} system property set, each candidate is checked against scalar implementation
+ * on test patterns before being used, candidate that throws or produces different output is skipped. Backend may be
+ * forced by name with {@code dburyak.pi.ssd1306.packer} system property. This allows to plug in implementation that
+ * needs newer JDK without changing this library, for instance Vector API backend built from {@code vector} source set
+ * for JDK 16+.
+ * <p>Implementations must be stateless and thread safe.
+ * <p><b>Created on:</b> <i>11:12:40 AM Jul 3, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+public interface PackerBackend {
+
+    /**
+     * Get name of this backend. Is used for logging and for choosing backend with system property.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:13:25 AM Jul 3, 2017</i>
+     * 
+     * @return name of this backend
+     */
+    public String name();
+
+    /**
+     * Check whether this backend is expected to be faster than built-in {@code swar} backend on this machine. Provider
+     * that is not preferred is used only when forced by name. By default backend is preferred.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:10:25 PM Jul 26, 2017</i>
+     * 
+     * @return true if backend should be chosen over built-in ones
+     */
+    default public boolean isPreferred() {
+        return true;
+    }
+
+    /**
+     * Pack pages of 1-bit raster into packed display buffer. Raster row is a sequence of bits, the most significant
+     * bit of the byte is the leftmost pixel. Bit 0 of packed byte is the top pixel of the page. Pages are written
+     * starting from the first page and the first column of {@code dst}.
+     * <p><b>PRE-conditions:</b> non-null {@code src}, rectangle of {@code width} x {@code pages * 8} pixels is inside
+     * of {@code src}, non-null {@code dst} that has at least {@code pages} pages of {@code dstWidth} columns,
+     * {@code width <= dstWidth}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@code dst} is modified
+     * <br><b>Created on:</b> <i>11:14:10 AM Jul 3, 2017</i>
+     * 
+     * @param src
+     *            raster bytes
+     * @param srcOffset
+     *            index of the first byte of the first row
+     * @param stride
+     *            number of bytes in raster row
+     * @param bitOffset
+     *            number of the bit of the leftmost pixel, counted from the start of the row
+     * @param width
+     *            number of pixels in row
+     * @param pages
+     *            number of pages to pack
+     * @param dst
+     *            destination packed buffer
+     * @param dstWidth
+     *            number of columns (bytes per page) in destination buffer
+     */
+    default public void packBinary(
+        final byte[] src,
+        final int srcOffset,
+        final int stride,
+        final int bitOffset,
+        final int width,
+        final int pages,
+        final byte[] dst,
+        final int dstWidth) {
+
+        for (int page = 0 ; page < pages ; page++) {
+            final int dstOffset = page * dstWidth;
+            for (int col = 0 ; col < width ; col++) {
+                dst[dstOffset + col] = 0;
+            }
+            for (int bit = 0 ; bit < 8 ; bit++) {
+                final int rowStart = srcOffset + (page * 8 + bit) * stride;
+                for (int col = 0 ; col < width ; col++) {
+                    final int srcBit = bitOffset + col;
+                    final int pixel = (src[rowStart + (srcBit >> 3)] >> (7 - (srcBit & 7))) & 1;
+                    dst[dstOffset + col] |= pixel << bit;
+                }
+            }
+        }
+    }
+
+    /**
+     * Blit run of packed bytes onto destination using overlay strategy : {@link OverlayType#FULL} replaces masked
+     * pixels, {@link OverlayType#ON_PIXELS} lights masked lit pixels, {@link OverlayType#OFF_PIXELS} clears masked
+     * unlit pixels, {@link OverlayType#NONE} does nothing. Source, mask and destination have the same layout.
+     * <p><b>PRE-conditions:</b> non-null {@code overlay}, non-null {@code pixels}, {@code mask} and {@code dst},
+     * {@code from <= to}, run is inside of all three arrays
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@code dst} is modified
+     * <br><b>Created on:</b> <i>11:16:05 AM Jul 3, 2017</i>
+     * 
+     * @param overlay
+     *            overlay strategy
+     * @param pixels
+     *            source pixels
+     * @param mask
+     *            source mask, only pixels with mask bit set are blitted
+     * @param dst
+     *            destination buffer
+     * @param from
+     *            index of the first byte of the run (inclusive)
+     * @param to
+     *            index of the last byte of the run (exclusive)
+     */
+    default public void compose(
+        final OverlayType overlay,
+        final byte[] pixels,
+        final byte[] mask,
+        final byte[] dst,
+        final int from,
+        final int to) {
+
+        switch (overlay) {
+            case FULL:
+                for (int i = from ; i < to ; i++) {
+                    dst[i] = (byte) ((dst[i] & ~mask[i]) | (pixels[i] & mask[i]));
+                }
+                break;
+            case ON_PIXELS:
+                for (int i = from ; i < to ; i++) {
+                    dst[i] |= pixels[i] & mask[i];
+                }
+                break;
+            case OFF_PIXELS:
+                for (int i = from ; i < to ; i++) {
+                    dst[i] &= ~(mask[i] & ~pixels[i]);
+                }
+                break;
+            case NONE:
+            default:
+                break;
+        }
+    }
+
+}
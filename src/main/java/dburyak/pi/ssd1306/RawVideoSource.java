@@ -0,0 +1,431 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Source of raw video frames read from a channel, for instance from the standard input
+ * ({@code Channels.newChannel(System.in)}) or from a named pipe ({@code FileChannel.open(path)}), where frames are
+ * written by external process like {@code ffmpeg -f rawvideo -pix_fmt gray -s 128x64 -}. Frames have size of the
+ * display and go one after another without any headers.
+ * <p>Each frame is read into the same buffer, packed into the same packed frame and queued for transfer with
+ * {@link DisplayManager}, so frames are read as fast as the source produces them and no buffers are allocated per
+ * frame. When bus falls behind, queued frame that was not sent yet is replaced by the newer one (see
+ * {@link DisplayManager#sync(Display)}), so display shows the latest frame and stale ones are dropped.
+ * <p>Display should be registered in the manager. {@link #play()} runs on the caller thread, {@link #stop()} may be
+ * called from any thread.
+ * <p><b>Created on:</b> <i>4:10:20 PM Jul 17, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class RawVideoSource {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>4:11:02 PM Jul 17, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(RawVideoSource.class));
+
+    /**
+     * Default threshold of {@link Format#GRAY} pixels.
+     * <p><b>Created on:</b> <i>4:11:40 PM Jul 17, 2017</i>
+     */
+    private static final int THRESHOLD_DEFAULT = 127;
+
+
+    /**
+     * Manager that sends frames.
+     * <p><b>Created on:</b> <i>4:12:15 PM Jul 17, 2017</i>
+     */
+    private final DisplayManager manager;
+
+    /**
+     * Display to show frames on.
+     * <p><b>Created on:</b> <i>4:12:48 PM Jul 17, 2017</i>
+     */
+    private final Display display;
+
+    /**
+     * Channel to read frames from.
+     * <p><b>Created on:</b> <i>4:13:20 PM Jul 17, 2017</i>
+     */
+    private final ReadableByteChannel channel;
+
+    /**
+     * Format of the frames.
+     * <p><b>Created on:</b> <i>4:13:55 PM Jul 17, 2017</i>
+     */
+    private final Format format;
+
+    /**
+     * Buffer of the raw frame, is reused for all frames.
+     * <p><b>Created on:</b> <i>4:14:30 PM Jul 17, 2017</i>
+     */
+    private final ByteBuffer raw;
+
+    /**
+     * Packed frame, is reused for all frames.
+     * <p><b>Created on:</b> <i>4:15:02 PM Jul 17, 2017</i>
+     */
+    private final byte[] packed;
+
+    /**
+     * Region of the whole frame.
+     * <p><b>Created on:</b> <i>4:15:35 PM Jul 17, 2017</i>
+     */
+    private final Region region;
+
+    /**
+     * {@link Format#GRAY} pixel is lit if its value is greater than threshold.
+     * <p><b>Created on:</b> <i>4:16:08 PM Jul 17, 2017</i>
+     */
+    private int threshold = THRESHOLD_DEFAULT;
+
+    /**
+     * Indicates whether playing should be stopped.
+     * <p><b>Created on:</b> <i>4:16:40 PM Jul 17, 2017</i>
+     */
+    private volatile boolean isStopped = false;
+
+    /**
+     * Number of frames read.
+     * <p><b>Created on:</b> <i>4:17:12 PM Jul 17, 2017</i>
+     */
+    private volatile long frames = 0L;
+
+    /**
+     * Number of frames replaced by newer ones before they were sent.
+     * <p><b>Created on:</b> <i>4:17:45 PM Jul 17, 2017</i>
+     */
+    private volatile long dropped = 0L;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.RawVideoSource.<p>
+     * <p><b>PRE-conditions:</b> non-null {@code manager}, non-null {@code display}, non-null {@code channel}, non-null
+     * {@code format}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:18:20 PM Jul 17, 2017</i>
+     * 
+     * @param manager
+     *            manager that sends frames
+     * @param display
+     *            display to show frames on
+     * @param channel
+     *            channel to read frames from
+     * @param format
+     *            format of the frames
+     */
+    private RawVideoSource(
+        final DisplayManager manager,
+        final Display display,
+        final ReadableByteChannel channel,
+        final Format format) {
+
+        this.manager = manager;
+        this.display = display;
+        this.channel = channel;
+        this.format = format;
+        raw = notNull(ByteBuffer.allocate(format.frameSize(display.width(), display.height())));
+        packed = new byte[display.buffer().length];
+        region = Region.full(display.width(), display.pages());
+    }
+
+    /**
+     * Create new {@link RawVideoSource} instance.
+     * <p><b>PRE-conditions:</b> non-null {@code manager}, non-null {@code display} registered in {@code manager},
+     * non-null {@code channel}, non-null {@code format}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:19:05 PM Jul 17, 2017</i>
+     * 
+     * @param manager
+     *            manager that sends frames
+     * @param display
+     *            display to show frames on
+     * @param channel
+     *            channel to read frames from, is not closed by this source
+     * @param format
+     *            format of the frames
+     * @return new {@link RawVideoSource} instance
+     */
+    public static final RawVideoSource newInstance(
+        final DisplayManager manager,
+        final Display display,
+        final ReadableByteChannel channel,
+        final Format format) {
+
+        return new RawVideoSource(manager, display, channel, format);
+    }
+
+    /**
+     * Set threshold of {@link Format#GRAY} pixels : pixel is lit if its value is greater than threshold. Default is
+     * 127.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code threshold} &lt;= 255
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:19:50 PM Jul 17, 2017</i>
+     * 
+     * @param threshold
+     *            gray level threshold
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "hiding", "nls" })
+    public final RawVideoSource threshold(final int threshold) {
+        LOG.traceEntry("threshold = [{}]", threshold);
+        isTrue(0 <= threshold && threshold <= 0xFF);
+
+        this.threshold = threshold;
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Read frames and show them on display until the end of the channel or until {@link #stop()} is called. Partial
+     * frame at the end of the channel is ignored. This method blocks, and returns when the last frame read is sent to
+     * the display.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> channel is read, frames are queued for transfer, this method blocks
+     * <br><b>Created on:</b> <i>4:21:15 PM Jul 17, 2017</i>
+     * 
+     * @return number of frames read
+     * @throws IOException
+     *             if channel can not be read
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final long play() throws IOException {
+        LOG.traceEntry();
+
+        isStopped = false;
+        final long framesBefore = frames;
+        @Nullable CompletableFuture<Void> last = null;
+        while (!isStopped && readFrame()) {
+            format.pack(raw.array(), display.width(), display.pages(), threshold, packed);
+            final CompletableFuture<Void> future = manager.submit(display, packed, region);
+            if (future == last) { // previous frame was still queued and is replaced by this one
+                dropped++;
+            }
+            last = future;
+            frames++;
+        }
+        if (last != null) {
+            last.join();
+        }
+
+        return LOG.traceExit(frames - framesBefore);
+    }
+
+    /**
+     * Read whole frame into {@link #raw} buffer.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> channel is read, {@link #raw} is modified
+     * <br><b>Created on:</b> <i>4:22:40 PM Jul 17, 2017</i>
+     * 
+     * @return true if whole frame was read, false if the end of the channel is reached
+     * @throws IOException
+     *             if channel can not be read
+     */
+    private final boolean readFrame() throws IOException {
+        raw.clear();
+        while (raw.hasRemaining()) {
+            if (channel.read(raw) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stop playing : {@link #play()} returns after the frame being read. If the source produces no more frames, the
+     * channel should be closed to unblock reading.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:23:30 PM Jul 17, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    public final RawVideoSource stop() {
+        LOG.traceEntry();
+
+        isStopped = true;
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Get total number of frames read.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-negative {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:24:05 PM Jul 17, 2017</i>
+     * 
+     * @return number of frames read
+     */
+    public final long frames() {
+        return frames;
+    }
+
+    /**
+     * Get total number of frames that were replaced by newer ones before they were sent, because bus was busy.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-negative {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:24:40 PM Jul 17, 2017</i>
+     * 
+     * @return number of dropped frames
+     */
+    public final long dropped() {
+        return dropped;
+    }
+
+    /**
+     * Get string representation of this source.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:25:15 PM Jul 17, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this source
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{display=[").append(display).append(']')
+            .append(",format=[").append(format).append(']')
+            .append(",frames=[").append(frames).append(']')
+            .append(",dropped=[").append(dropped).append(']')
+            .append('}')
+            .toString());
+    }
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Pixel format of raw frames.
+     * <p><b>Created on:</b> <i>4:26:00 PM Jul 17, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    public static enum Format {
+            /**
+             * One byte per pixel, gray level from 0 (black) to 255 (white). Is {@code gray} pixel format of ffmpeg.
+             * <p><b>Created on:</b> <i>4:26:35 PM Jul 17, 2017</i>
+             */
+            GRAY {
+                @Override
+                final int frameSize(final int width, final int height) {
+                    return width * height;
+                }
+
+                @Override
+                final void pack(
+                    final byte[] src,
+                    final int width,
+                    final int pages,
+                    final int threshold,
+                    final byte[] dst) {
+
+                    Arrays.fill(dst, (byte) 0);
+                    final int height = pages * 8;
+                    for (int y = 0 ; y < height ; y++) {
+                        final int rowStart = y * width;
+                        final int dstOffset = (y >> 3) * width;
+                        final int bit = 1 << (y & 7);
+                        for (int x = 0 ; x < width ; x++) {
+                            if ((src[rowStart + x] & 0xFF) > threshold) {
+                                dst[dstOffset + x] |= bit;
+                            }
+                        }
+                    }
+                }
+            },
+
+            /**
+             * One bit per pixel, 1 is white, rows start on byte boundary, the most significant bit of the byte is the
+             * leftmost pixel. Is {@code monob} pixel format of ffmpeg.
+             * <p><b>Created on:</b> <i>4:27:10 PM Jul 17, 2017</i>
+             */
+            MONO {
+                @Override
+                final int frameSize(final int width, final int height) {
+                    return ((width + 7) / 8) * height;
+                }
+
+                @Override
+                final void pack(
+                    final byte[] src,
+                    final int width,
+                    final int pages,
+                    final int threshold,
+                    final byte[] dst) {
+
+                    Packer.backend().packBinary(src, 0, (width + 7) / 8, 0, width, pages, dst, width);
+                }
+            };
+
+        /**
+         * Get size of the raw frame.
+         * <p><b>PRE-conditions:</b> positive {@code width}, positive {@code height}
+         * <br><b>POST-conditions:</b> positive {@code result}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>4:27:50 PM Jul 17, 2017</i>
+         * 
+         * @param width
+         *            frame width
+         * @param height
+         *            frame height
+         * @return number of bytes in raw frame
+         */
+        abstract int frameSize(final int width, final int height);
+
+        /**
+         * Pack raw frame into display buffer layout.
+         * <p><b>PRE-conditions:</b> non-null {@code src} of {@link #frameSize(int, int)} bytes, non-null {@code dst} of
+         * {@code pages} pages of {@code width} columns
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> {@code dst} is modified
+         * <br><b>Created on:</b> <i>4:28:30 PM Jul 17, 2017</i>
+         * 
+         * @param src
+         *            raw frame
+         * @param width
+         *            frame width
+         * @param pages
+         *            number of pages in frame
+         * @param threshold
+         *            gray level threshold
+         * @param dst
+         *            packed frame
+         */
+        abstract void pack(
+            final byte[] src,
+            final int width,
+            final int pages,
+            final int threshold,
+            final byte[] dst);
+    }
+
+}
@@ -0,0 +1,343 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Rectangular region of the display memory in terms of columns and pages. One page is a 8-leds vertical column, so
+ * region always covers whole pages. Both start and end addresses are inclusive, the same way as they are sent with
+ * {@link Command#SET_COLUMN_ADDR} and {@link Command#SET_PAGE_ADDR} commands.
+ * <p><b>Created on:</b> <i>9:14:22 PM May 6, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@Immutable
+public final class Region {
+
+    /**
+     * First column of the region.
+     * <p><b>Created on:</b> <i>9:15:03 PM May 6, 2017</i>
+     */
+    private final int colStart;
+
+    /**
+     * Last column of the region (inclusive).
+     * <p><b>Created on:</b> <i>9:15:30 PM May 6, 2017</i>
+     */
+    private final int colEnd;
+
+    /**
+     * First page of the region.
+     * <p><b>Created on:</b> <i>9:15:58 PM May 6, 2017</i>
+     */
+    private final int pageStart;
+
+    /**
+     * Last page of the region (inclusive).
+     * <p><b>Created on:</b> <i>9:16:21 PM May 6, 2017</i>
+     */
+    private final int pageEnd;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Region.<p>
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code colStart} &lt;= {@code colEnd}, 0 &lt;= {@code pageStart} &lt;=
+     * {@code pageEnd}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:16:55 PM May 6, 2017</i>
+     * 
+     * @param colStart
+     *            first column
+     * @param colEnd
+     *            last column (inclusive)
+     * @param pageStart
+     *            first page
+     * @param pageEnd
+     *            last page (inclusive)
+     */
+    private Region(final int colStart, final int colEnd, final int pageStart, final int pageEnd) {
+        this.colStart = colStart;
+        this.colEnd = colEnd;
+        this.pageStart = pageStart;
+        this.pageEnd = pageEnd;
+    }
+
+    /**
+     * Factory method for producing {@link Region} instances.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code colStart} &lt;= {@code colEnd}, 0 &lt;= {@code pageStart} &lt;=
+     * {@code pageEnd}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:18:12 PM May 6, 2017</i>
+     * 
+     * @param colStart
+     *            first column
+     * @param colEnd
+     *            last column (inclusive)
+     * @param pageStart
+     *            first page
+     * @param pageEnd
+     *            last page (inclusive)
+     * @return new {@link Region} instance
+     */
+    public static final Region of(final int colStart, final int colEnd, final int pageStart, final int pageEnd) {
+        isTrue(0 <= colStart && colStart <= colEnd);
+        isTrue(0 <= pageStart && pageStart <= pageEnd);
+        return new Region(colStart, colEnd, pageStart, pageEnd);
+    }
+
+    /**
+     * Get region that covers whole display memory of specified size.
+     * <p><b>PRE-conditions:</b> positive {@code width}, positive {@code pages}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:19:40 PM May 6, 2017</i>
+     * 
+     * @param width
+     *            number of columns
+     * @param pages
+     *            number of pages
+     * @return region of whole display memory
+     */
+    public static final Region full(final int width, final int pages) {
+        return of(0, width - 1, 0, pages - 1);
+    }
+
+    /**
+     * Find the smallest region that covers all bytes which differ in two packed buffers of the same layout.
+     * <p><b>PRE-conditions:</b> non-null {@code a}, non-null {@code b}, {@code a.length == b.length}, {@code a.length}
+     * is multiple of {@code width}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:21:33 PM May 6, 2017</i>
+     * 
+     * @param a
+     *            first packed buffer
+     * @param b
+     *            second packed buffer
+     * @param width
+     *            number of columns (bytes per page) in both buffers
+     * @return region of changed bytes, or null if buffers are equal
+     */
+    public static final @Nullable Region diff(final byte[] a, final byte[] b, final int width) {
+        isTrue(a.length == b.length);
+        final int pages = a.length / width;
+        int colStart = width;
+        int colEnd = -1;
+        int pageStart = pages;
+        int pageEnd = -1;
+        for (int page = 0 ; page < pages ; page++) {
+            final int offset = page * width;
+            int first = 0;
+            while (first < width && a[offset + first] == b[offset + first]) {
+                first++;
+            }
+            if (first < width) { // page has changes
+                int last = width - 1;
+                while (a[offset + last] == b[offset + last]) {
+                    last--;
+                }
+                colStart = Math.min(colStart, first);
+                colEnd = Math.max(colEnd, last);
+                pageStart = Math.min(pageStart, page);
+                pageEnd = page;
+            }
+        }
+        return (pageEnd < 0) ? null : new Region(colStart, colEnd, pageStart, pageEnd);
+    }
+
+    /**
+     * Get the smallest region that covers both this and other region.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:25:48 PM May 6, 2017</i>
+     * 
+     * @param other
+     *            other region, may be null
+     * @return union region, or this region if {@code other} is null
+     */
+    public final Region union(final @Nullable Region other) {
+        if (other == null || other.equals(this)) {
+            return this;
+        }
+        return new Region(
+            Math.min(colStart, other.colStart), Math.max(colEnd, other.colEnd),
+            Math.min(pageStart, other.pageStart), Math.max(pageEnd, other.pageEnd));
+    }
+
+    /**
+     * Check if this region has common cells with other region.
+     * <p><b>PRE-conditions:</b> non-null {@code other}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:05:12 PM Jun 12, 2017</i>
+     * 
+     * @param other
+     *            other region
+     * @return true if regions overlap
+     */
+    public final boolean intersects(final Region other) {
+        return colStart <= other.colEnd && other.colStart <= colEnd
+            && pageStart <= other.pageEnd && other.pageStart <= pageEnd;
+    }
+
+    /**
+     * Get first column of this region.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> {@code result} &gt;= 0
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:27:10 PM May 6, 2017</i>
+     * 
+     * @return first column
+     */
+    public final int colStart() {
+        return colStart;
+    }
+
+    /**
+     * Get last column of this region.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> {@code result} &gt;= {@link #colStart()}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:27:38 PM May 6, 2017</i>
+     * 
+     * @return last column (inclusive)
+     */
+    public final int colEnd() {
+        return colEnd;
+    }
+
+    /**
+     * Get first page of this region.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> {@code result} &gt;= 0
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:28:04 PM May 6, 2017</i>
+     * 
+     * @return first page
+     */
+    public final int pageStart() {
+        return pageStart;
+    }
+
+    /**
+     * Get last page of this region.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> {@code result} &gt;= {@link #pageStart()}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:28:31 PM May 6, 2017</i>
+     * 
+     * @return last page (inclusive)
+     */
+    public final int pageEnd() {
+        return pageEnd;
+    }
+
+    /**
+     * Get number of columns in this region.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:29:02 PM May 6, 2017</i>
+     * 
+     * @return number of columns
+     */
+    public final int columns() {
+        return colEnd - colStart + 1;
+    }
+
+    /**
+     * Get number of pages in this region.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:29:30 PM May 6, 2017</i>
+     * 
+     * @return number of pages
+     */
+    public final int pages() {
+        return pageEnd - pageStart + 1;
+    }
+
+    /**
+     * Get number of display memory bytes covered by this region.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:30:05 PM May 6, 2017</i>
+     * 
+     * @return number of bytes
+     */
+    public final int size() {
+        return columns() * pages();
+    }
+
+    /**
+     * Check whether this region equals to other object.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:31:12 PM May 6, 2017</i>
+     * 
+     * @see java.lang.Object#equals(java.lang.Object)
+     * @param obj
+     *            object to compare with
+     * @return true if {@code obj} is region with the same bounds
+     */
+    @Override
+    public final boolean equals(final @Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Region)) {
+            return false;
+        }
+        final Region other = (Region) obj;
+        return colStart == other.colStart && colEnd == other.colEnd
+            && pageStart == other.pageStart && pageEnd == other.pageEnd;
+    }
+
+    /**
+     * Get hash code of this region.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:32:40 PM May 6, 2017</i>
+     * 
+     * @see java.lang.Object#hashCode()
+     * @return hash code
+     */
+    @Override
+    public final int hashCode() {
+        return ((colStart * 31 + colEnd) * 31 + pageStart) * 31 + pageEnd;
+    }
+
+    /**
+     * Get string representation of this region.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:33:18 PM May 6, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this region
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{cols=[").append(colStart).append("..").append(colEnd)
+            .append("],pages=[").append(pageStart).append("..").append(pageEnd)
+            .append("]}")
+            .toString());
+    }
+
+}
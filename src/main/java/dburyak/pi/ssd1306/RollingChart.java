@@ -0,0 +1,421 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.awt.Rectangle;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Rolling chart (sparkline) of sensor samples that is updated incrementally. Each sample is one column of the chart.
+ * Samples are kept in a primitive ring buffer, and each new sample is sent as a single column, so it costs a handful of
+ * bus bytes instead of a full frame :
+ * <ul>
+ * <li>{@link Mode#SCROLL} : chart content is moved one column left by controller (see
+ * {@link Command#CONTENT_SCROLL_LEFT}) and the newest column is written on the right edge once the move is complete,
+ * so {@link #add(double)} blocks for about two display frames; if chart can not be moved as single range of pages, the
+ * whole chart is sent instead</li>
+ * <li>{@link Mode#SWEEP} : chart is not moved, the newest column overwrites the oldest one and the cursor sweeps from
+ * left to right; consecutive columns are written without any address commands</li>
+ * </ul>
+ * Display buffer and image are kept in sync, so {@link Display#sync()} keeps the chart as is.
+ * <p><b>Created on:</b> <i>3:02:18 PM May 29, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class RollingChart {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>3:02:55 PM May 29, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(RollingChart.class));
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * How the chart is moved when new sample is added.
+     * <p><b>Created on:</b> <i>3:03:30 PM May 29, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    public static enum Mode {
+            /**
+             * Chart is moved left by controller content scroll, newest sample is on the right edge. Chart area must be
+             * aligned to pages. Requires controller revision that supports content scroll.
+             * <p><b>Created on:</b> <i>3:04:12 PM May 29, 2017</i>
+             */
+            SCROLL,
+
+            /**
+             * Chart stays in place, newest sample overwrites the oldest one.
+             * <p><b>Created on:</b> <i>3:04:50 PM May 29, 2017</i>
+             */
+            SWEEP
+    }
+
+
+    /**
+     * Display to draw on.
+     * <p><b>Created on:</b> <i>3:05:25 PM May 29, 2017</i>
+     */
+    private final Display display;
+
+    /**
+     * Chart mode.
+     * <p><b>Created on:</b> <i>3:05:58 PM May 29, 2017</i>
+     */
+    private final Mode mode;
+
+    /**
+     * Left coordinate of the chart.
+     * <p><b>Created on:</b> <i>3:06:30 PM May 29, 2017</i>
+     */
+    private final int x;
+
+    /**
+     * Top coordinate of the chart.
+     * <p><b>Created on:</b> <i>3:07:02 PM May 29, 2017</i>
+     */
+    private final int y;
+
+    /**
+     * Chart height.
+     * <p><b>Created on:</b> <i>3:07:35 PM May 29, 2017</i>
+     */
+    private final int height;
+
+    /**
+     * Sample value shown on the bottom row.
+     * <p><b>Created on:</b> <i>3:08:08 PM May 29, 2017</i>
+     */
+    private final double min;
+
+    /**
+     * Sample value shown on the top row.
+     * <p><b>Created on:</b> <i>3:08:40 PM May 29, 2017</i>
+     */
+    private final double max;
+
+    /**
+     * Bits of the chart rows in column of the display, bit {@code n} is row {@code n}.
+     * <p><b>Created on:</b> <i>3:09:15 PM May 29, 2017</i>
+     */
+    private final long rowsMask;
+
+    /**
+     * Region of the display memory that covers the chart.
+     * <p><b>Created on:</b> <i>3:09:50 PM May 29, 2017</i>
+     */
+    private final Region region;
+
+    /**
+     * Number of chart columns.
+     * <p><b>Created on:</b> <i>3:10:02 PM May 29, 2017</i>
+     */
+    private final int columns;
+
+    /**
+     * Ring buffer of samples, one sample per chart column plus the one before the oldest shown sample (it is needed to
+     * draw line segment of the first column).
+     * <p><b>Created on:</b> <i>3:10:25 PM May 29, 2017</i>
+     */
+    private final double[] samples;
+
+    /**
+     * Index of the next sample in {@link #samples}.
+     * <p><b>Created on:</b> <i>3:10:58 PM May 29, 2017</i>
+     */
+    private int next = 0;
+
+    /**
+     * Total number of added samples.
+     * <p><b>Created on:</b> <i>3:11:30 PM May 29, 2017</i>
+     */
+    private long count = 0;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.RollingChart.<p>
+     * <p><b>PRE-conditions:</b> see {@link #newInstance(Display, Rectangle, double, double, Mode)}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:12:10 PM May 29, 2017</i>
+     * 
+     * @param display
+     *            display to draw on
+     * @param area
+     *            chart area
+     * @param min
+     *            sample value shown on the bottom row
+     * @param max
+     *            sample value shown on the top row
+     * @param mode
+     *            chart mode
+     */
+    private RollingChart(
+        final Display display,
+        final Rectangle area,
+        final double min,
+        final double max,
+        final Mode mode) {
+
+        this.display = display;
+        this.min = min;
+        this.max = max;
+        this.mode = mode;
+        x = area.x;
+        y = area.y;
+        height = area.height;
+        rowsMask = ((height == Long.SIZE) ? -1L : (1L << height) - 1) << y;
+        region = Region.of(x, x + area.width - 1, y / 8, (y + height - 1) / 8);
+        columns = area.width;
+        samples = new double[columns + 1];
+    }
+
+    /**
+     * Create new {@link RollingChart} instance.
+     * <p><b>PRE-conditions:</b> non-null {@code display}, non-empty {@code area} inside of the display,
+     * {@code min < max}, non-null {@code mode}, {@code area} is aligned to pages for {@link Mode#SCROLL}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:14:40 PM May 29, 2017</i>
+     * 
+     * @param display
+     *            display to draw on
+     * @param area
+     *            chart area
+     * @param min
+     *            sample value shown on the bottom row
+     * @param max
+     *            sample value shown on the top row
+     * @param mode
+     *            chart mode
+     * @return new {@link RollingChart} instance
+     */
+    public static final RollingChart newInstance(
+        final Display display,
+        final Rectangle area,
+        final double min,
+        final double max,
+        final Mode mode) {
+
+        isTrue(area.width > 0 && area.height > 0);
+        isTrue(area.x >= 0 && area.x + area.width <= display.width());
+        isTrue(area.y >= 0 && area.y + area.height <= display.height());
+        isTrue(Double.compare(min, max) < 0);
+        isTrue(mode != Mode.SCROLL || (area.y % 8 == 0 && area.height % 8 == 0));
+        return new RollingChart(display, area, min, max, mode);
+    }
+
+    /**
+     * Add new sample and update the chart on the display. {@link Double#NaN} is shown as a gap.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> display buffer and image are modified, GPIO I/O calls, blocks until controller moves
+     * content in {@link Mode#SCROLL}
+     * <br><b>Created on:</b> <i>3:17:02 PM May 29, 2017</i>
+     * 
+     * @param value
+     *            sample value
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final RollingChart add(final double value) {
+        LOG.traceEntry("value = [{}]", value);
+
+        final double previous = (count > 0) ? samples[Math.floorMod(next - 1, samples.length)] : Double.NaN;
+        samples[next] = value;
+        next = (next + 1) % samples.length;
+        count++;
+
+        if (mode == Mode.SCROLL) {
+            final int col = region.colEnd();
+            final byte[] buffer = display.buffer();
+            final int width = display.width();
+            for (int page = region.pageStart() ; page <= region.pageEnd() ; page++) {
+                final int offset = page * width + region.colStart();
+                System.arraycopy(buffer, offset + 1, buffer, offset, region.columns() - 1);
+            }
+            drawColumn(col, previous, value);
+            Packer.unpackBinary(display.buffer(), display.width(), region.colStart(), y, region.columns(), height,
+                display.image());
+            if (display.contentScroll(true, region)) {
+                awaitMove(System.nanoTime()); // column written during the move would be moved or wrapped too
+                display.flush(display.buffer(), Region.of(col, col, region.pageStart(), region.pageEnd()));
+            } else {
+                display.flush(display.buffer(), region);
+            }
+        } else {
+            final int col = region.colStart() + (int) ((count - 1) % columns);
+            drawColumn(col, previous, value);
+            Packer.unpackBinary(display.buffer(), display.width(), col, y, 1, height, display.image());
+            display.flush(display.buffer(), Region.of(col, col, region.pageStart(), region.pageEnd()));
+        }
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Draw all samples and send the whole chart to the display.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> display buffer and image are modified, GPIO I/O calls
+     * <br><b>Created on:</b> <i>3:20:15 PM May 29, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    public final RollingChart redraw() {
+        LOG.traceEntry();
+
+        for (int i = 0 ; i < columns ; i++) {
+            final long shown = (mode == Mode.SCROLL)
+                ? count - columns + i // newest sample is in the last column
+                : (count - 1) - Math.floorMod(count - 1 - i, columns); // column holds sample with number i modulo size
+            drawColumn(region.colStart() + i, sampleAt(shown - 1), sampleAt(shown));
+        }
+        Packer.unpackBinary(display.buffer(), display.width(), region.colStart(), y, region.columns(), height,
+            display.image());
+        display.flush(display.buffer(), region);
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Wait until controller completes content move, so that display RAM of the chart may be written again. Interruption
+     * does not cut the wait short, interrupt status is restored after the wait.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> this method blocks
+     * <br><b>Created on:</b> <i>11:05:40 AM Jul 26, 2017</i>
+     * 
+     * @param start
+     *            time when move command was sent, {@link System#nanoTime()} value
+     */
+    private final void awaitMove(final long start) {
+        final long deadline = start + Display.CONTENT_SCROLL_INTERVAL_NANOS;
+        boolean isInterrupted = false;
+        long wait;
+        while ((wait = deadline - System.nanoTime()) > 0) { // park may return early
+            LockSupport.parkNanos(this, wait);
+            isInterrupted |= Thread.interrupted();
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get sample by its number.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:22:30 PM May 29, 2017</i>
+     * 
+     * @param sample
+     *            sample number, counting from the first added one
+     * @return sample value, {@link Double#NaN} if sample is not in the ring buffer
+     */
+    private final double sampleAt(final long sample) {
+        if (sample < 0 || sample < count - samples.length || sample >= count) {
+            return Double.NaN;
+        }
+        return samples[(int) (sample % samples.length)];
+    }
+
+    /**
+     * Draw single sample column into display buffer. Column has vertical segment from the previous sample row to the
+     * sample row, so that the chart line is continuous.
+     * <p><b>PRE-conditions:</b> column is inside of the chart
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> display buffer is modified
+     * <br><b>Created on:</b> <i>3:24:15 PM May 29, 2017</i>
+     * 
+     * @param col
+     *            display column
+     * @param previous
+     *            previous sample value
+     * @param value
+     *            sample value
+     */
+    private final void drawColumn(final int col, final double previous, final double value) {
+        long bits = 0L;
+        if (!Double.isNaN(value)) {
+            final int row = row(value);
+            final int from = Double.isNaN(previous) ? row : row(previous);
+            final int top = Math.min(row, from);
+            final int bottom = Math.max(row, from);
+            bits = ((bottom - top == Long.SIZE - 1) ? -1L : (1L << (bottom - top + 1)) - 1) << top;
+        }
+        final byte[] buffer = display.buffer();
+        final int width = display.width();
+        for (int page = region.pageStart() ; page <= region.pageEnd() ; page++) {
+            final int index = page * width + col;
+            final int pageMask = (int) (rowsMask >>> (page * 8)) & 0xFF;
+            final int pageBits = (int) (bits >>> (page * 8)) & 0xFF;
+            buffer[index] = (byte) ((buffer[index] & ~pageMask) | pageBits);
+        }
+    }
+
+    /**
+     * Convert sample value to display row. Values out of range are clamped.
+     * <p><b>PRE-conditions:</b> {@code value} is not {@link Double#NaN}
+     * <br><b>POST-conditions:</b> {@code result} is inside of the chart
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:26:40 PM May 29, 2017</i>
+     * 
+     * @param value
+     *            sample value
+     * @return display row
+     */
+    private final int row(final double value) {
+        final double norm = Math.max(0.0D, Math.min(1.0D, (value - min) / (max - min)));
+        return y + (height - 1) - (int) Math.round(norm * (height - 1));
+    }
+
+    /**
+     * Get number of samples added so far.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> {@code result} &gt;= 0
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:28:02 PM May 29, 2017</i>
+     * 
+     * @return number of samples
+     */
+    public final long count() {
+        return count;
+    }
+
+    /**
+     * Get string representation of this chart.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:28:40 PM May 29, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this chart
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{mode=[").append(mode)
+            .append("],region=[").append(region)
+            .append("],range=[").append(min).append("..").append(max)
+            .append("],count=[").append(count)
+            .append("]}")
+            .toString());
+    }
+
+}
@@ -1,6 +1,11 @@
 package dburyak.pi.ssd1306;
 
 
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.util.Arrays;
+
+
 /**
  * Project : pi_java_ssd1306<p>
  * SSD1306 device that can be written to.
@@ -61,4 +66,68 @@ public interface SSD1306Connection {
      */
     public void data(final byte[] buffer);
 
+    /**
+     * Write part of the buffer of data to device.
+     * <p><b>PRE-conditions:</b> non-null {@code buffer}, 0 &lt;= {@code offset}, 0 &lt;= {@code length},
+     * {@code offset + length} &lt;= {@code buffer.length}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> UNKNOWN
+     * <br><b>Created on:</b> <i>9:41:27 PM May 6, 2017</i>
+     * 
+     * @param buffer
+     *            data buffer
+     * @param offset
+     *            index of the first byte to be written
+     * @param length
+     *            number of bytes to be written
+     */
+    default public void data(final byte[] buffer, final int offset, final int length) {
+        data(notNull(Arrays.copyOfRange(buffer, offset, offset + length)));
+    }
+
+    /**
+     * Get identifier of the physical bus this connection communicates over. Connections that report equal identifiers
+     * share one physical bus, so transfers over them can not be performed in parallel. By default every connection is
+     * considered to have its own bus.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>6:41:12 PM May 2, 2017</i>
+     * 
+     * @return physical bus identifier
+     */
+    default public String busId() {
+        return notNull(toString());
+    }
+
+    /**
+     * Check whether this connection can be written to right now without extra bus transactions, like switching channel
+     * of I2C multiplexer. Transfer schedulers use this to batch transfers and minimize switching. By default connection
+     * is always selected.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:12:36 PM May 4, 2017</i>
+     * 
+     * @return true if no extra bus transactions are needed to write to this connection
+     */
+    default public boolean isSelected() {
+        return true;
+    }
+
+    /**
+     * Get number of writes to device that failed. Connections log I/O errors of single writes and go on, so callers
+     * that need to know whether whole transfer reached the device (like {@link DisplayManager}) compare this counter
+     * before and after the transfer. By default connection does not count failures.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> {@code result} &gt;= 0
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:40:12 PM Jul 26, 2017</i>
+     * 
+     * @return number of failed writes
+     */
+    default public long failures() {
+        return 0L;
+    }
+
 }
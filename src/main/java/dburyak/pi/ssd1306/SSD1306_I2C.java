@@ -88,6 +88,14 @@ public final class SSD1306_I2C implements SSD1306Connection {
     @GuardedBy("lock")
     private final byte[] dataBytes = new byte[2];
 
+    /**
+     * Buffer for sending parts of data buffers : first byte is data "register", the rest is payload. Is reused for all
+     * writes and grows when longer part is written, one display page fits without growing.
+     * <p><b>Created on:</b> <i>4:02:15 PM Jul 24, 2017</i>
+     */
+    @GuardedBy("lock")
+    private byte[] partBytes = new byte[128 + 1];
+
     /**
      * Lock for underlying I2C device access synchronization.
      * <p><b>Created on:</b> <i>12:18:32 PM Mar 28, 2017</i>
@@ -106,6 +114,12 @@ public final class SSD1306_I2C implements SSD1306Connection {
      */
     private final int addr;
 
+    /**
+     * Number of failed writes. Is written under {@link #lock}, but may be read without it.
+     * <p><b>Created on:</b> <i>2:42:30 PM Jul 26, 2017</i>
+     */
+    private volatile long failures = 0L;
+
 
     /**
      * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.SSD1306I2COutput.<p>
@@ -126,6 +140,7 @@ public final class SSD1306_I2C implements SSD1306Connection {
         this.addr = addr;
         cmdBytes[0] = ADDR_COMMAND;
         dataBytes[0] = ADDR_DATA;
+        partBytes[0] = ADDR_DATA;
     }
 
     /**
@@ -232,6 +247,29 @@ public final class SSD1306_I2C implements SSD1306Connection {
             i2c.write(buffer);
         } catch (final IOException e) {
             LOG.error("I2C device write failed", e);
+            failures++;
+        }
+    }
+
+    /**
+     * Write first bytes of the buffer to underlying Pi4J device and handle exceptions.
+     * <p><b>PRE-conditions:</b> non-null {@code buffer}, {@code size <= buffer.length}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O call
+     * <br><b>Created on:</b> <i>4:03:40 PM Jul 24, 2017</i>
+     * 
+     * @param buffer
+     *            bytes to be written
+     * @param size
+     *            number of bytes to be written
+     */
+    @SuppressWarnings("nls")
+    private final void writeBufferSafe(final byte[] buffer, final int size) {
+        try {
+            i2c.write(buffer, 0, size);
+        } catch (final IOException e) {
+            LOG.error("I2C device write failed", e);
+            failures++;
         }
     }
 
@@ -325,6 +363,74 @@ public final class SSD1306_I2C implements SSD1306Connection {
         });
     }
 
+    /**
+     * Write part of the data buffer to this SSD1306 device.
+     * <p><b>PRE-conditions:</b> non-null {@code buffer}, valid {@code offset} and {@code length}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O call
+     * <br><b>Created on:</b> <i>9:45:10 PM May 6, 2017</i>
+     * 
+     * @see dburyak.pi.ssd1306.SSD1306Connection#data(byte[], int, int)
+     * @param buffer
+     *            data buffer
+     * @param offset
+     *            index of the first byte to be written
+     * @param length
+     *            number of bytes to be written
+     */
+    @SuppressWarnings({ "nls", "boxing" })
+    @Override
+    public final void data(final byte[] buffer, final int offset, final int length) {
+        if (LOG.isTraceEnabled()) { // arguments are not boxed on frame transfer path
+            LOG.trace("sending buffer part to SSD1306 I2C : i2c = [%d:%s] ; offset = [%d] ; length = [%d]",
+                bus, hex(asByte(addr)), offset, length);
+        }
+
+        lock.lock(); // not runSync, so that nothing is allocated per page chunk
+        try {
+            if (partBytes.length < length + 1) {
+                partBytes = new byte[length + 1];
+                partBytes[0] = ADDR_DATA;
+            }
+            System.arraycopy(buffer, offset, partBytes, 1, length); // first byte is address, the rest is payload
+            writeBufferSafe(partBytes, length + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get number of writes to this device that failed.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> {@code result} &gt;= 0
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:43:15 PM Jul 26, 2017</i>
+     * 
+     * @see dburyak.pi.ssd1306.SSD1306Connection#failures()
+     * @return number of failed writes
+     */
+    @Override
+    public final long failures() {
+        return failures;
+    }
+
+    /**
+     * Get identifier of the I2C bus of this connection. All connections on the same I2C bus number share one physical
+     * bus regardless of their addresses.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>6:47:30 PM May 2, 2017</i>
+     * 
+     * @see dburyak.pi.ssd1306.SSD1306Connection#busId()
+     * @return I2C bus identifier
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String busId() {
+        return "I2C-" + bus;
+    }
+
     /**
      * Get string representation of this I2C hardware connection.
      * <p><b>PRE-conditions:</b> NONE
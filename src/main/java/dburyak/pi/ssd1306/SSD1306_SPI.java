@@ -60,6 +60,12 @@ public final class SSD1306_SPI implements SSD1306Connection {
      */
     private final Lock lock = new ReentrantLock();
 
+    /**
+     * Number of failed writes. Is written under {@link #lock}, but may be read without it.
+     * <p><b>Created on:</b> <i>2:45:02 PM Jul 26, 2017</i>
+     */
+    private volatile long failures = 0L;
+
 
     /**
      * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.SSD1306SPIOutput.<p>
@@ -110,6 +116,7 @@ public final class SSD1306_SPI implements SSD1306Connection {
             spi.write(singleByte);
         } catch (final IOException e) {
             LOG.error("SPI device single byte write failed", e);
+            failures++;
         }
     }
 
@@ -129,6 +136,31 @@ public final class SSD1306_SPI implements SSD1306Connection {
             spi.write(buffer);
         } catch (final IOException e) {
             LOG.error("SPI device buffer write failed", e);
+            failures++;
+        }
+    }
+
+    /**
+     * Write part of the byte buffer to associated SPI device and handle exception.
+     * <p><b>PRE-conditions:</b> non-null {@code buffer}, valid {@code offset} and {@code length}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O call
+     * <br><b>Created on:</b> <i>9:48:33 PM May 6, 2017</i>
+     * 
+     * @param buffer
+     *            byte buffer
+     * @param offset
+     *            index of the first byte to be written
+     * @param length
+     *            number of bytes to be written
+     */
+    @SuppressWarnings("nls")
+    private final void writeSafe(final byte[] buffer, final int offset, final int length) {
+        try {
+            spi.write(buffer, offset, length);
+        } catch (final IOException e) {
+            LOG.error("SPI device buffer write failed", e);
+            failures++;
         }
     }
 
@@ -216,6 +248,66 @@ public final class SSD1306_SPI implements SSD1306Connection {
         });
     }
 
+    /**
+     * Write part of the data buffer to this device.
+     * <p><b>PRE-conditions:</b> non-null {@code buffer}, valid {@code offset} and {@code length}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O call
+     * <br><b>Created on:</b> <i>9:50:02 PM May 6, 2017</i>
+     * 
+     * @see dburyak.pi.ssd1306.SSD1306Connection#data(byte[], int, int)
+     * @param buffer
+     *            data buffer
+     * @param offset
+     *            index of the first byte to be written
+     * @param length
+     *            number of bytes to be written
+     */
+    @SuppressWarnings({ "nls", "boxing" })
+    @Override
+    public final void data(final byte[] buffer, final int offset, final int length) {
+        if (LOG.isTraceEnabled()) { // arguments are not boxed on frame transfer path
+            LOG.trace("sending buffer part to SSD1306 SPI : spi = [%s] ; offset = [%d] ; length = [%d]",
+                spi, offset, length);
+        }
+        runSync(lock, () -> {
+            dcPin.setState(HIGH);
+            writeSafe(buffer, offset, length);
+        });
+    }
+
+    /**
+     * Get number of writes to this device that failed.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> {@code result} &gt;= 0
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:45:48 PM Jul 26, 2017</i>
+     * 
+     * @see dburyak.pi.ssd1306.SSD1306Connection#failures()
+     * @return number of failed writes
+     */
+    @Override
+    public final long failures() {
+        return failures;
+    }
+
+    /**
+     * Get identifier of the SPI bus of this connection. Raspberry Pi exposes single SPI bus for displays (chip select
+     * lines only pick device on that bus), so all SPI connections are considered to share it.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>6:52:04 PM May 2, 2017</i>
+     * 
+     * @see dburyak.pi.ssd1306.SSD1306Connection#busId()
+     * @return SPI bus identifier
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String busId() {
+        return "SPI";
+    }
+
     /**
      * Get string representation of this SPI communication device.
      * <p><b>PRE-conditions:</b> NONE
@@ -0,0 +1,357 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Scaling of images of any type straight to packed black and white buffer. Source is read row by row (see
+ * {@link Packer#luminanceRow(BufferedImage, int, int[])}) in a single pass, pixel positions are computed in 16.16 fixed
+ * point, no intermediate image is created. Encoded images may be decoded at reduced resolution right before scaling.
+ * <p><b>Created on:</b> <i>9:40:12 AM Jul 10, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+final class Scaler {
+
+    /**
+     * Number of fraction bits of fixed point pixel positions.
+     * <p><b>Created on:</b> <i>9:41:05 AM Jul 10, 2017</i>
+     */
+    private static final int FRACTION_BITS = 16;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Scaler.<p>
+     * Should never be called.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:41:30 AM Jul 10, 2017</i>
+     */
+    @SuppressWarnings("nls")
+    private Scaler() {
+        throw new AssertionError("not supposed to be called");
+    }
+
+    /**
+     * Scale image to {@code width} x {@code height} and pack it. Height of the packed image is rounded up to whole
+     * pages, extra rows are blank. Pixel is lit if its luminance (or average luminance of the box for
+     * {@link Filter#AREA}) exceeds {@code threshold}.
+     * <p><b>PRE-conditions:</b> non-null {@code img}, positive {@code width}, positive {@code height}, non-null
+     * {@code filter}, 0 &lt;= {@code threshold} &lt;= 255
+     * <br><b>POST-conditions:</b> non-null {@code result} of {@code width} columns
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:42:15 AM Jul 10, 2017</i>
+     * 
+     * @param img
+     *            source image
+     * @param width
+     *            width of the scaled image
+     * @param height
+     *            height of the scaled image
+     * @param filter
+     *            scaling filter
+     * @param threshold
+     *            luminance threshold
+     * @return new packed buffer
+     */
+    static final byte[] scale(
+        final BufferedImage img,
+        final int width,
+        final int height,
+        final Filter filter,
+        final int threshold) {
+
+        return scale(img, width, height, new Rectangle(width, height), filter, threshold);
+    }
+
+    /**
+     * Scale image to {@code width} x {@code height} and pack only {@code part} of the scaled image. Source rows and
+     * columns that are not scaled to the {@code part} are not read. Height of the packed part is rounded up to whole
+     * pages, extra rows are blank. Pixel is lit if its luminance (or average luminance of the box for
+     * {@link Filter#AREA}) exceeds {@code threshold}.
+     * <p><b>PRE-conditions:</b> non-null {@code img}, positive {@code width}, positive {@code height}, non-empty
+     * {@code part} inside of {@code width} x {@code height} rectangle, non-null {@code filter}, 0 &lt;=
+     * {@code threshold} &lt;= 255
+     * <br><b>POST-conditions:</b> non-null {@code result} of {@code part.width} columns
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:20:40 PM Jul 13, 2017</i>
+     * 
+     * @param img
+     *            source image
+     * @param width
+     *            width of the scaled image
+     * @param height
+     *            height of the scaled image
+     * @param part
+     *            part of the scaled image to pack
+     * @param filter
+     *            scaling filter
+     * @param threshold
+     *            luminance threshold
+     * @return new packed buffer
+     */
+    static final byte[] scale(
+        final BufferedImage img,
+        final int width,
+        final int height,
+        final Rectangle part,
+        final Filter filter,
+        final int threshold) {
+
+        isTrue(width > 0 && height > 0 && !part.isEmpty());
+        isTrue(new Rectangle(width, height).contains(part));
+        final int srcWidth = img.getWidth();
+        final int srcHeight = img.getHeight();
+        final int partWidth = part.width;
+        final int partHeight = part.height;
+        final byte[] packed = new byte[((partHeight + 7) / 8) * partWidth];
+        final int[] row = new int[srcWidth];
+
+        if (filter == Filter.NEAREST) {
+            final int[] cols = slice(centers(srcWidth, width), part.x, partWidth);
+            final int[] rows = slice(centers(srcHeight, height), part.y, partHeight);
+            int loaded = -1;
+            for (int y = 0 ; y < partHeight ; y++) {
+                if (rows[y] != loaded) { // source row is read once for all destination rows it is scaled to
+                    loaded = rows[y];
+                    Packer.luminanceRow(img, loaded, row);
+                }
+                final int dstOffset = (y >> 3) * partWidth;
+                final int bit = 1 << (y & 7);
+                for (int x = 0 ; x < partWidth ; x++) {
+                    if (row[cols[x]] > threshold) {
+                        packed[dstOffset + x] |= bit;
+                    }
+                }
+            }
+        } else {
+            final int[] colStartsAll = starts(srcWidth, width);
+            final int[] rowStartsAll = starts(srcHeight, height);
+            final int[] colStarts = slice(colStartsAll, part.x, partWidth);
+            final int[] colEnds = slice(ends(srcWidth, width, colStartsAll), part.x, partWidth);
+            final int[] rowStarts = slice(rowStartsAll, part.y, partHeight);
+            final int[] rowEnds = slice(ends(srcHeight, height, rowStartsAll), part.y, partHeight);
+            final long[] sums = new long[partWidth];
+            for (int y = 0 ; y < partHeight ; y++) {
+                Arrays.fill(sums, 0L);
+                for (int srcY = rowStarts[y] ; srcY < rowEnds[y] ; srcY++) {
+                    Packer.luminanceRow(img, srcY, row);
+                    for (int x = 0 ; x < partWidth ; x++) {
+                        long sum = 0;
+                        for (int srcX = colStarts[x] ; srcX < colEnds[x] ; srcX++) {
+                            sum += row[srcX];
+                        }
+                        sums[x] += sum;
+                    }
+                }
+                final int dstOffset = (y >> 3) * partWidth;
+                final int bit = 1 << (y & 7);
+                final int rowsInBox = rowEnds[y] - rowStarts[y];
+                for (int x = 0 ; x < partWidth ; x++) {
+                    // average exceeds threshold, compared without division
+                    if (sums[x] > (long) threshold * rowsInBox * (colEnds[x] - colStarts[x])) {
+                        packed[dstOffset + x] |= bit;
+                    }
+                }
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Decode image from the stream, scale it to {@code width} x {@code height} and pack only {@code part} of the
+     * scaled image (see {@link #scale(BufferedImage, int, int, Rectangle, Filter, int)}). Only source region that is
+     * scaled to the {@code part} is decoded, and it is subsampled by the decoder down to no less than size of the
+     * {@code part}, so memory needed does not depend on the resolution of the source image.
+     * <p>Region is decoded with single read : image readers decode image from its beginning on each read, so reading
+     * region in bands would decode the image once per band.
+     * <p><b>PRE-conditions:</b> non-null {@code input}, positive {@code width}, positive {@code height}, non-empty
+     * {@code part} inside of {@code width} x {@code height} rectangle, non-null {@code filter}, 0 &lt;=
+     * {@code threshold} &lt;= 255
+     * <br><b>POST-conditions:</b> non-null {@code result} of {@code part.width} columns
+     * <br><b>Side-effects:</b> {@code input} is read
+     * <br><b>Created on:</b> <i>3:24:10 PM Jul 13, 2017</i>
+     * 
+     * @param input
+     *            stream of encoded image in any format supported by {@link ImageIO}
+     * @param width
+     *            width of the scaled image
+     * @param height
+     *            height of the scaled image
+     * @param part
+     *            part of the scaled image to pack
+     * @param filter
+     *            scaling filter
+     * @param threshold
+     *            luminance threshold
+     * @return new packed buffer
+     * @throws IOException
+     *             if image format is not supported or image can not be decoded
+     */
+    @SuppressWarnings("nls")
+    static final byte[] decode(
+        final ImageInputStream input,
+        final int width,
+        final int height,
+        final Rectangle part,
+        final Filter filter,
+        final int threshold) throws IOException {
+
+        isTrue(width > 0 && height > 0 && !part.isEmpty());
+        final Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            throw new IOException("image format is not supported");
+        }
+        final ImageReader reader = readers.next();
+        try {
+            reader.setInput(input, true, true);
+            final int srcWidth = reader.getWidth(0);
+            final int srcHeight = reader.getHeight(0);
+            // source region covering the part, widened to whole pixels
+            final int srcX = (int) ((long) part.x * srcWidth / width);
+            final int srcY = (int) ((long) part.y * srcHeight / height);
+            final int srcEndX = (int) (((long) (part.x + part.width) * srcWidth + width - 1) / width);
+            final int srcEndY = (int) (((long) (part.y + part.height) * srcHeight + height - 1) / height);
+            final int regionWidth = Math.max(srcEndX - srcX, 1);
+            final int regionHeight = Math.max(srcEndY - srcY, 1);
+
+            final ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceRegion(new Rectangle(srcX, srcY, regionWidth, regionHeight));
+            param.setSourceSubsampling(
+                Math.max(regionWidth / part.width, 1), Math.max(regionHeight / part.height, 1), 0, 0);
+            final BufferedImage region = reader.read(0, param);
+            return scale(region, part.width, part.height, filter, threshold);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Get part of the array.
+     * <p><b>PRE-conditions:</b> non-null {@code array}, part is inside of the array
+     * <br><b>POST-conditions:</b> non-null {@code result} of {@code length} elements
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:26:45 PM Jul 13, 2017</i>
+     * 
+     * @param array
+     *            whole array
+     * @param from
+     *            index of the first element of the part
+     * @param length
+     *            number of elements in the part
+     * @return new array with elements of the part
+     */
+    private static final int[] slice(final int[] array, final int from, final int length) {
+        return (from == 0 && length == array.length) ? array : Arrays.copyOfRange(array, from, from + length);
+    }
+
+    /**
+     * Get source pixel nearest to the center of each destination pixel.
+     * <p><b>PRE-conditions:</b> positive {@code srcSize}, positive {@code dstSize}
+     * <br><b>POST-conditions:</b> non-null {@code result} of {@code dstSize} elements
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:44:02 AM Jul 10, 2017</i>
+     * 
+     * @param srcSize
+     *            number of source pixels
+     * @param dstSize
+     *            number of destination pixels
+     * @return source pixel index for each destination pixel
+     */
+    private static final int[] centers(final int srcSize, final int dstSize) {
+        final int[] centers = new int[dstSize];
+        for (int i = 0 ; i < dstSize ; i++) { // computed per pixel, truncated step would drift over the row
+            final long position = (((2L * i + 1) * srcSize) << FRACTION_BITS) / (2L * dstSize);
+            centers[i] = (int) Math.min(position >> FRACTION_BITS, srcSize - 1);
+        }
+        return centers;
+    }
+
+    /**
+     * Get first source pixel of the box of each destination pixel.
+     * <p><b>PRE-conditions:</b> positive {@code srcSize}, positive {@code dstSize}
+     * <br><b>POST-conditions:</b> non-null {@code result} of {@code dstSize} elements
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:44:40 AM Jul 10, 2017</i>
+     * 
+     * @param srcSize
+     *            number of source pixels
+     * @param dstSize
+     *            number of destination pixels
+     * @return index of the first source pixel (inclusive) for each destination pixel
+     */
+    private static final int[] starts(final int srcSize, final int dstSize) {
+        final int[] starts = new int[dstSize];
+        for (int i = 0 ; i < dstSize ; i++) { // computed per pixel, truncated step would drift over the row
+            final long position = (((long) i * srcSize) << FRACTION_BITS) / dstSize;
+            starts[i] = (int) Math.min(position >> FRACTION_BITS, srcSize - 1);
+        }
+        return starts;
+    }
+
+    /**
+     * Get end of the box of each destination pixel : start of the next box, or the end of the source for the last one.
+     * Box has at least one pixel, so boxes overlap when image is enlarged.
+     * <p><b>PRE-conditions:</b> positive {@code srcSize}, positive {@code dstSize}, non-null {@code starts} returned
+     * by {@link #starts(int, int)} for the same sizes
+     * <br><b>POST-conditions:</b> non-null {@code result} of {@code dstSize} elements
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>9:45:20 AM Jul 10, 2017</i>
+     * 
+     * @param srcSize
+     *            number of source pixels
+     * @param dstSize
+     *            number of destination pixels
+     * @param starts
+     *            first source pixel of each box
+     * @return index of the last source pixel (exclusive) for each destination pixel
+     */
+    private static final int[] ends(final int srcSize, final int dstSize, final int[] starts) {
+        final int[] ends = new int[dstSize];
+        for (int i = 0 ; i < dstSize ; i++) {
+            final int next = (i + 1 < dstSize) ? starts[i + 1] : srcSize;
+            ends[i] = Math.max(next, starts[i] + 1);
+        }
+        return ends;
+    }
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Scaling filter.
+     * <p><b>Created on:</b> <i>9:46:10 AM Jul 10, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    static enum Filter {
+            /**
+             * Each pixel takes luminance of the nearest source pixel. Is the fastest, but drops thin details when
+             * image is shrunk.
+             * <p><b>Created on:</b> <i>9:46:40 AM Jul 10, 2017</i>
+             */
+            NEAREST,
+
+            /**
+             * Each pixel takes average luminance of the source pixels it covers (box filter). Keeps thin lines and
+             * text readable when image is shrunk. Box is a single source pixel when image is enlarged.
+             * <p><b>Created on:</b> <i>9:47:05 AM Jul 10, 2017</i>
+             */
+            AREA;
+    }
+
+}
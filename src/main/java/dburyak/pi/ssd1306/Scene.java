@@ -0,0 +1,1063 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+import static java.awt.Color.BLACK;
+import static java.awt.Color.WHITE;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Retained scene of nodes (text, image, rectangle, group) drawn on the display. Changing node property marks node as
+ * dirty. On {@link #commit()} screen areas covered by dirty nodes before and after the change are collected, and only
+ * these areas are rendered again and sent to the display, so independent widgets do not cost full-screen rendering
+ * and full frame on the bus.
+ * <p>Scene owns display image and buffer, drawing on {@link Display#graphics()} directly is overwritten by the scene
+ * in areas it renders (see {@link #invalidate()}).
+ * <p><b>Created on:</b> <i>10:20:35 AM Jun 8, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class Scene {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>10:21:10 AM Jun 8, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(Scene.class));
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Node of the scene. Node position is relative to its parent group.
+     * <p><b>Created on:</b> <i>10:21:45 AM Jun 8, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    @NotThreadSafe
+    public static abstract class Node {
+
+        /**
+         * Scene this node belongs to.
+         * <p><b>Created on:</b> <i>10:22:20 AM Jun 8, 2017</i>
+         */
+        final Scene scene;
+
+        /**
+         * Group this node is added to, null if node is not added to any group.
+         * <p><b>Created on:</b> <i>10:22:52 AM Jun 8, 2017</i>
+         */
+        @Nullable GroupNode parent = null;
+
+        /**
+         * Left coordinate relative to the parent.
+         * <p><b>Created on:</b> <i>10:23:25 AM Jun 8, 2017</i>
+         */
+        private int x = 0;
+
+        /**
+         * Top coordinate relative to the parent.
+         * <p><b>Created on:</b> <i>10:23:58 AM Jun 8, 2017</i>
+         */
+        private int y = 0;
+
+        /**
+         * Whether node is visible.
+         * <p><b>Created on:</b> <i>10:24:30 AM Jun 8, 2017</i>
+         */
+        private boolean isVisible = true;
+
+        /**
+         * Whether node changed since last commit.
+         * <p><b>Created on:</b> <i>10:25:02 AM Jun 8, 2017</i>
+         */
+        boolean isDirty = true;
+
+        /**
+         * Screen bounds of the node as of last commit, null if node is not shown.
+         * <p><b>Created on:</b> <i>10:25:35 AM Jun 8, 2017</i>
+         */
+        @Nullable Rectangle shownBounds = null;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Scene.Node.<p>
+         * <p><b>PRE-conditions:</b> non-null {@code scene}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:26:10 AM Jun 8, 2017</i>
+         * 
+         * @param scene
+         *            scene this node belongs to
+         */
+        Node(final Scene scene) {
+            this.scene = scene;
+        }
+
+        /**
+         * Move node to specified position relative to the parent.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> node is marked dirty
+         * <br><b>Created on:</b> <i>10:27:02 AM Jun 8, 2017</i>
+         * 
+         * @param x
+         *            left coordinate
+         * @param y
+         *            top coordinate
+         * @return this instance (for call chaining)
+         */
+        public final Node position(final int x, final int y) {
+            if (this.x != x || this.y != y) {
+                this.x = x;
+                this.y = y;
+                isDirty = true;
+            }
+            return this;
+        }
+
+        /**
+         * Show or hide node.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> node is marked dirty
+         * <br><b>Created on:</b> <i>10:28:15 AM Jun 8, 2017</i>
+         * 
+         * @param visible
+         *            true if node should be shown
+         * @return this instance (for call chaining)
+         */
+        public final Node visible(final boolean visible) {
+            if (isVisible != visible) {
+                isVisible = visible;
+                isDirty = true;
+            }
+            return this;
+        }
+
+        /**
+         * Get left coordinate relative to the parent.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:29:02 AM Jun 8, 2017</i>
+         * 
+         * @return left coordinate
+         */
+        public final int x() {
+            return x;
+        }
+
+        /**
+         * Get top coordinate relative to the parent.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:29:35 AM Jun 8, 2017</i>
+         * 
+         * @return top coordinate
+         */
+        public final int y() {
+            return y;
+        }
+
+        /**
+         * Check if node is visible. Node is not shown if any of its parents is not visible.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:30:08 AM Jun 8, 2017</i>
+         * 
+         * @return true if node is visible
+         */
+        public final boolean isVisible() {
+            return isVisible;
+        }
+
+        /**
+         * Get node bounds on the screen.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:30:40 AM Jun 8, 2017</i>
+         * 
+         * @param left
+         *            left coordinate of the node on the screen
+         * @param top
+         *            top coordinate of the node on the screen
+         * @return node bounds, null if node draws nothing
+         */
+        abstract @Nullable Rectangle bounds(final int left, final int top);
+
+        /**
+         * Paint node inside of its shown bounds.
+         * <p><b>PRE-conditions:</b> non-null {@code g}, {@link #shownBounds} is not null
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> {@code g} is modified
+         * <br><b>Created on:</b> <i>10:31:25 AM Jun 8, 2017</i>
+         * 
+         * @param g
+         *            graphics to paint on
+         */
+        abstract void paint(final Graphics2D g);
+
+    }
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Single line of text.
+     * <p><b>Created on:</b> <i>10:32:10 AM Jun 8, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    @NotThreadSafe
+    public static final class TextNode extends Node {
+
+        /**
+         * Text to show.
+         * <p><b>Created on:</b> <i>10:32:45 AM Jun 8, 2017</i>
+         */
+        private String text;
+
+        /**
+         * Font of the text.
+         * <p><b>Created on:</b> <i>10:33:18 AM Jun 8, 2017</i>
+         */
+        private Font font = Display.FONT_DEFAULT;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Scene.TextNode.<p>
+         * <p><b>PRE-conditions:</b> non-null {@code scene}, non-null {@code text}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:33:50 AM Jun 8, 2017</i>
+         * 
+         * @param scene
+         *            scene this node belongs to
+         * @param text
+         *            text to show
+         */
+        TextNode(final Scene scene, final String text) {
+            super(scene);
+            this.text = text;
+        }
+
+        /**
+         * Change text.
+         * <p><b>PRE-conditions:</b> non-null {@code text}
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> node is marked dirty
+         * <br><b>Created on:</b> <i>10:34:25 AM Jun 8, 2017</i>
+         * 
+         * @param text
+         *            text to show
+         * @return this instance (for call chaining)
+         */
+        public final TextNode text(final String text) {
+            if (!this.text.equals(text)) {
+                this.text = text;
+                isDirty = true;
+            }
+            return this;
+        }
+
+        /**
+         * Change font.
+         * <p><b>PRE-conditions:</b> non-null {@code font}
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> node is marked dirty
+         * <br><b>Created on:</b> <i>10:35:02 AM Jun 8, 2017</i>
+         * 
+         * @param font
+         *            font of the text
+         * @return this instance (for call chaining)
+         */
+        public final TextNode font(final Font font) {
+            if (!this.font.equals(font)) {
+                this.font = font;
+                isDirty = true;
+            }
+            return this;
+        }
+
+        /**
+         * Get text.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:35:40 AM Jun 8, 2017</i>
+         * 
+         * @return shown text
+         */
+        public final String text() {
+            return text;
+        }
+
+        /**
+         * Get bounds of the text line.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:36:05 AM Jun 8, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.Scene.Node#bounds(int, int)
+         * @param left
+         *            left coordinate of the node on the screen
+         * @param top
+         *            top coordinate of the node on the screen
+         * @return node bounds, null if node draws nothing
+         */
+        @Override
+        final @Nullable Rectangle bounds(final int left, final int top) {
+            if (text.isEmpty()) {
+                return null;
+            }
+            final FontMetrics metrics = scene.display.graphics().getFontMetrics(font);
+            return new Rectangle(left, top, metrics.stringWidth(text), metrics.getHeight());
+        }
+
+        /**
+         * Paint text with its font.
+         * <p><b>PRE-conditions:</b> non-null {@code g}
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> {@code g} is modified
+         * <br><b>Created on:</b> <i>10:36:40 AM Jun 8, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.Scene.Node#paint(java.awt.Graphics2D)
+         * @param g
+         *            graphics to paint on
+         */
+        @Override
+        final void paint(final Graphics2D g) {
+            final Rectangle bounds = notNull(shownBounds);
+            g.setFont(font);
+            g.drawString(text, bounds.x, bounds.y + g.getFontMetrics().getAscent());
+        }
+
+    }
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Rectangle, either filled or outlined.
+     * <p><b>Created on:</b> <i>10:37:15 AM Jun 8, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    @NotThreadSafe
+    public static final class RectNode extends Node {
+
+        /**
+         * Rectangle width.
+         * <p><b>Created on:</b> <i>10:37:50 AM Jun 8, 2017</i>
+         */
+        private int width;
+
+        /**
+         * Rectangle height.
+         * <p><b>Created on:</b> <i>10:38:22 AM Jun 8, 2017</i>
+         */
+        private int height;
+
+        /**
+         * Whether rectangle is filled.
+         * <p><b>Created on:</b> <i>10:38:55 AM Jun 8, 2017</i>
+         */
+        private boolean isFilled;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Scene.RectNode.<p>
+         * <p><b>PRE-conditions:</b> non-null {@code scene}, non-negative {@code width} and {@code height}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:39:30 AM Jun 8, 2017</i>
+         * 
+         * @param scene
+         *            scene this node belongs to
+         * @param width
+         *            rectangle width
+         * @param height
+         *            rectangle height
+         * @param filled
+         *            true if rectangle is filled, false if only outline is drawn
+         */
+        RectNode(final Scene scene, final int width, final int height, final boolean filled) {
+            super(scene);
+            this.width = width;
+            this.height = height;
+            isFilled = filled;
+        }
+
+        /**
+         * Change rectangle size.
+         * <p><b>PRE-conditions:</b> non-negative {@code width} and {@code height}
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> node is marked dirty
+         * <br><b>Created on:</b> <i>10:40:15 AM Jun 8, 2017</i>
+         * 
+         * @param width
+         *            rectangle width
+         * @param height
+         *            rectangle height
+         * @return this instance (for call chaining)
+         */
+        public final RectNode size(final int width, final int height) {
+            isTrue(width >= 0 && height >= 0);
+            if (this.width != width || this.height != height) {
+                this.width = width;
+                this.height = height;
+                isDirty = true;
+            }
+            return this;
+        }
+
+        /**
+         * Change fill of the rectangle.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> node is marked dirty
+         * <br><b>Created on:</b> <i>10:41:02 AM Jun 8, 2017</i>
+         * 
+         * @param filled
+         *            true if rectangle is filled, false if only outline is drawn
+         * @return this instance (for call chaining)
+         */
+        public final RectNode filled(final boolean filled) {
+            if (isFilled != filled) {
+                isFilled = filled;
+                isDirty = true;
+            }
+            return this;
+        }
+
+        /**
+         * Get bounds of the rectangle.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:41:35 AM Jun 8, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.Scene.Node#bounds(int, int)
+         * @param left
+         *            left coordinate of the node on the screen
+         * @param top
+         *            top coordinate of the node on the screen
+         * @return node bounds, null if node draws nothing
+         */
+        @Override
+        final @Nullable Rectangle bounds(final int left, final int top) {
+            return (width > 0 && height > 0) ? new Rectangle(left, top, width, height) : null;
+        }
+
+        /**
+         * Paint filled or outlined rectangle.
+         * <p><b>PRE-conditions:</b> non-null {@code g}
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> {@code g} is modified
+         * <br><b>Created on:</b> <i>10:42:02 AM Jun 8, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.Scene.Node#paint(java.awt.Graphics2D)
+         * @param g
+         *            graphics to paint on
+         */
+        @Override
+        final void paint(final Graphics2D g) {
+            final Rectangle bounds = notNull(shownBounds);
+            if (isFilled) {
+                g.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+            } else { // outline is one pixel wider than specified size in AWT
+                g.drawRect(bounds.x, bounds.y, bounds.width - 1, bounds.height - 1);
+            }
+        }
+
+    }
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Image drawn as is.
+     * <p><b>Created on:</b> <i>10:42:30 AM Jun 8, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    @NotThreadSafe
+    public static final class ImageNode extends Node {
+
+        /**
+         * Image to show.
+         * <p><b>Created on:</b> <i>10:43:05 AM Jun 8, 2017</i>
+         */
+        private BufferedImage image;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Scene.ImageNode.<p>
+         * <p><b>PRE-conditions:</b> non-null {@code scene}, non-null {@code image}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:43:38 AM Jun 8, 2017</i>
+         * 
+         * @param scene
+         *            scene this node belongs to
+         * @param image
+         *            image to show
+         */
+        ImageNode(final Scene scene, final BufferedImage image) {
+            super(scene);
+            this.image = image;
+        }
+
+        /**
+         * Change image. Image is referenced, not copied, so if image content is changed later this method should be
+         * called again to mark node dirty.
+         * <p><b>PRE-conditions:</b> non-null {@code image}
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> node is marked dirty
+         * <br><b>Created on:</b> <i>10:44:20 AM Jun 8, 2017</i>
+         * 
+         * @param image
+         *            image to show
+         * @return this instance (for call chaining)
+         */
+        public final ImageNode image(final BufferedImage image) {
+            this.image = image;
+            isDirty = true;
+            return this;
+        }
+
+        /**
+         * Get bounds of the image.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:44:50 AM Jun 8, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.Scene.Node#bounds(int, int)
+         * @param left
+         *            left coordinate of the node on the screen
+         * @param top
+         *            top coordinate of the node on the screen
+         * @return node bounds, null if node draws nothing
+         */
+        @Override
+        final @Nullable Rectangle bounds(final int left, final int top) {
+            return new Rectangle(left, top, image.getWidth(), image.getHeight());
+        }
+
+        /**
+         * Paint image.
+         * <p><b>PRE-conditions:</b> non-null {@code g}
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> {@code g} is modified
+         * <br><b>Created on:</b> <i>10:45:12 AM Jun 8, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.Scene.Node#paint(java.awt.Graphics2D)
+         * @param g
+         *            graphics to paint on
+         */
+        @Override
+        final void paint(final Graphics2D g) {
+            final Rectangle bounds = notNull(shownBounds);
+            g.drawImage(image, bounds.x, bounds.y, null);
+        }
+
+    }
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Group of nodes. Children are positioned relative to the group and painted in the order they were added. Moving or
+     * hiding the group moves or hides all of its children.
+     * <p><b>Created on:</b> <i>10:45:35 AM Jun 8, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    @NotThreadSafe
+    public static final class GroupNode extends Node {
+
+        /**
+         * Children of the group in paint order.
+         * <p><b>Created on:</b> <i>10:46:10 AM Jun 8, 2017</i>
+         */
+        final List<Node> children = new ArrayList<>();
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Scene.GroupNode.<p>
+         * <p><b>PRE-conditions:</b> non-null {@code scene}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:46:42 AM Jun 8, 2017</i>
+         * 
+         * @param scene
+         *            scene this node belongs to
+         */
+        GroupNode(final Scene scene) {
+            super(scene);
+        }
+
+        /**
+         * Add node to the group. Node is painted over the nodes that were added before it.
+         * <p><b>PRE-conditions:</b> non-null {@code node} of the same scene, node is not added to any group
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> node is marked dirty
+         * <br><b>Created on:</b> <i>10:47:20 AM Jun 8, 2017</i>
+         * 
+         * @param node
+         *            node to be added
+         * @return this instance (for call chaining)
+         */
+        public final GroupNode add(final Node node) {
+            isTrue(node.scene == scene && node.parent == null && node != scene.root);
+            children.add(node);
+            node.parent = this;
+            node.isDirty = true;
+            return this;
+        }
+
+        /**
+         * Remove node from the group. Screen area of the node and all of its children is cleared on next commit.
+         * <p><b>PRE-conditions:</b> non-null {@code node} that is added to this group
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:48:05 AM Jun 8, 2017</i>
+         * 
+         * @param node
+         *            node to be removed
+         * @return this instance (for call chaining)
+         */
+        public final GroupNode remove(final Node node) {
+            isTrue(node.parent == this);
+            children.remove(node);
+            node.parent = null;
+            scene.hide(node);
+            return this;
+        }
+
+        /**
+         * Get number of children.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> {@code result} &gt;= 0
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:48:40 AM Jun 8, 2017</i>
+         * 
+         * @return number of children
+         */
+        public final int size() {
+            return children.size();
+        }
+
+        /**
+         * Group draws nothing by itself, its children have their own bounds.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>10:49:05 AM Jun 8, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.Scene.Node#bounds(int, int)
+         * @param left
+         *            left coordinate of the node on the screen
+         * @param top
+         *            top coordinate of the node on the screen
+         * @return node bounds, null if node draws nothing
+         */
+        @Override
+        final @Nullable Rectangle bounds(final int left, final int top) {
+            return null; // children have their own bounds
+        }
+
+        /**
+         * Group draws nothing by itself, its children are painted on their own.
+         * <p><b>PRE-conditions:</b> non-null {@code g}
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> {@code g} is modified
+         * <br><b>Created on:</b> <i>10:49:30 AM Jun 8, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.Scene.Node#paint(java.awt.Graphics2D)
+         * @param g
+         *            graphics to paint on
+         */
+        @Override
+        final void paint(final Graphics2D g) {
+            // children are painted on their own
+        }
+
+    }
+
+
+    /**
+     * Display to draw on.
+     * <p><b>Created on:</b> <i>10:50:02 AM Jun 8, 2017</i>
+     */
+    final Display display;
+
+    /**
+     * Root group of the scene.
+     * <p><b>Created on:</b> <i>10:50:35 AM Jun 8, 2017</i>
+     */
+    final GroupNode root;
+
+    /**
+     * Screen areas that should be rendered on next commit.
+     * <p><b>Created on:</b> <i>10:51:08 AM Jun 8, 2017</i>
+     */
+    private final List<Rectangle> damage = new ArrayList<>();
+
+    /**
+     * Screen bounds.
+     * <p><b>Created on:</b> <i>10:51:40 AM Jun 8, 2017</i>
+     */
+    private final Rectangle screen;
+
+    /**
+     * Packed pages of the rendered area before they are copied into display buffer.
+     * <p><b>Created on:</b> <i>10:52:12 AM Jun 8, 2017</i>
+     */
+    private final byte[] packed;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Scene.<p>
+     * <p><b>PRE-conditions:</b> non-null {@code display}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:52:45 AM Jun 8, 2017</i>
+     * 
+     * @param display
+     *            display to draw on
+     */
+    private Scene(final Display display) {
+        this.display = display;
+        root = new GroupNode(this);
+        screen = new Rectangle(0, 0, display.width(), display.height());
+        packed = new byte[display.buffer().length];
+        damage.add(new Rectangle(screen));
+    }
+
+    /**
+     * Create new {@link Scene} instance. Whole screen is rendered on the first commit.
+     * <p><b>PRE-conditions:</b> non-null {@code display}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:53:30 AM Jun 8, 2017</i>
+     * 
+     * @param display
+     *            display to draw on
+     * @return new {@link Scene} instance
+     */
+    public static final Scene newInstance(final Display display) {
+        return new Scene(display);
+    }
+
+    /**
+     * Get root group of the scene.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:54:05 AM Jun 8, 2017</i>
+     * 
+     * @return root group
+     */
+    public final GroupNode root() {
+        return root;
+    }
+
+    /**
+     * Create text node. Node is not shown until it is added to some group of the scene.
+     * <p><b>PRE-conditions:</b> non-null {@code text}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:54:40 AM Jun 8, 2017</i>
+     * 
+     * @param text
+     *            text to show
+     * @return new text node
+     */
+    public final TextNode text(final String text) {
+        return new TextNode(this, text);
+    }
+
+    /**
+     * Create rectangle node. Node is not shown until it is added to some group of the scene.
+     * <p><b>PRE-conditions:</b> non-negative {@code width} and {@code height}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:55:15 AM Jun 8, 2017</i>
+     * 
+     * @param width
+     *            rectangle width
+     * @param height
+     *            rectangle height
+     * @param filled
+     *            true if rectangle is filled, false if only outline is drawn
+     * @return new rectangle node
+     */
+    public final RectNode rect(final int width, final int height, final boolean filled) {
+        isTrue(width >= 0 && height >= 0);
+        return new RectNode(this, width, height, filled);
+    }
+
+    /**
+     * Create image node. Node is not shown until it is added to some group of the scene.
+     * <p><b>PRE-conditions:</b> non-null {@code image}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:55:50 AM Jun 8, 2017</i>
+     * 
+     * @param image
+     *            image to show
+     * @return new image node
+     */
+    public final ImageNode image(final BufferedImage image) {
+        return new ImageNode(this, image);
+    }
+
+    /**
+     * Create group node. Node is not shown until it is added to some group of the scene.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:56:25 AM Jun 8, 2017</i>
+     * 
+     * @return new group node
+     */
+    public final GroupNode group() {
+        return new GroupNode(this);
+    }
+
+    /**
+     * Mark whole screen to be rendered on next commit. Should be used if display image was changed not through the
+     * scene.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>10:57:02 AM Jun 8, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    public final Scene invalidate() {
+        damage.add(new Rectangle(screen));
+        return this;
+    }
+
+    /**
+     * Render changed areas and send them to the display. Old and new bounds of every dirty node are collected, merged
+     * into page aligned areas, and each area is cleared, painted with all nodes that overlap it, packed into display
+     * buffer and sent.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> display buffer and image are modified, GPIO I/O calls
+     * <br><b>Created on:</b> <i>10:58:20 AM Jun 8, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final Scene commit() {
+        LOG.traceEntry();
+
+        collect(root, 0, 0, true, false);
+        final List<Rectangle> areas = merge();
+        damage.clear();
+        if (!areas.isEmpty()) {
+            final BufferedImage img = display.image();
+            final byte[] buffer = display.buffer();
+            final int width = display.width();
+            final Graphics2D g = img.createGraphics();
+            try {
+                for (final Rectangle area : areas) {
+                    g.setClip(area);
+                    g.setColor(BLACK);
+                    g.fill(area);
+                    g.setColor(WHITE);
+                    paint(g, root, area);
+                    Packer.packBinary(img, area.x, area.y, area.width, area.height, packed, width);
+                    final int pageStart = area.y / 8;
+                    final int pages = area.height / 8;
+                    for (int page = 0 ; page < pages ; page++) {
+                        System.arraycopy(packed, page * width, buffer, (pageStart + page) * width + area.x,
+                            area.width);
+                    }
+                    display.flush(buffer,
+                        Region.of(area.x, area.x + area.width - 1, pageStart, pageStart + pages - 1));
+                }
+            } finally {
+                g.dispose();
+            }
+            LOG.debug("scene areas sent : areas = [%s]", areas);
+        }
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Collect damage of dirty nodes and update their shown bounds.
+     * <p><b>PRE-conditions:</b> non-null {@code node}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@link #damage} is modified, shown bounds of nodes are updated
+     * <br><b>Created on:</b> <i>11:01:30 AM Jun 8, 2017</i>
+     * 
+     * @param node
+     *            node to start from
+     * @param left
+     *            left coordinate of the parent on the screen
+     * @param top
+     *            top coordinate of the parent on the screen
+     * @param visible
+     *            true if all parents are visible
+     * @param parentDirty
+     *            true if some parent is dirty
+     */
+    private final void collect(
+        final Node node,
+        final int left,
+        final int top,
+        final boolean visible,
+        final boolean parentDirty) {
+
+        final boolean dirty = node.isDirty || parentDirty;
+        final boolean shown = visible && node.isVisible();
+        if (dirty) {
+            final Rectangle old = node.shownBounds;
+            if (old != null) {
+                damage.add(old);
+            }
+            final Rectangle bounds = shown ? node.bounds(left + node.x(), top + node.y()) : null;
+            if (bounds != null) {
+                damage.add(bounds);
+            }
+            node.shownBounds = bounds;
+            node.isDirty = false;
+        }
+        if (node instanceof GroupNode) {
+            for (final Node child : ((GroupNode) node).children) {
+                collect(child, left + node.x(), top + node.y(), shown, dirty);
+            }
+        }
+    }
+
+    /**
+     * Clear screen area of the removed node and all of its children.
+     * <p><b>PRE-conditions:</b> non-null {@code node}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@link #damage} is modified, node is marked dirty
+     * <br><b>Created on:</b> <i>11:03:15 AM Jun 8, 2017</i>
+     * 
+     * @param node
+     *            removed node
+     */
+    final void hide(final Node node) {
+        final Rectangle old = node.shownBounds;
+        if (old != null) {
+            damage.add(old);
+        }
+        node.shownBounds = null;
+        node.isDirty = true;
+        if (node instanceof GroupNode) {
+            for (final Node child : ((GroupNode) node).children) {
+                hide(child);
+            }
+        }
+    }
+
+    /**
+     * Paint nodes that overlap specified area, in paint order.
+     * <p><b>PRE-conditions:</b> non-null {@code g}, non-null {@code node}, non-null {@code area}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@code g} is modified
+     * <br><b>Created on:</b> <i>11:04:40 AM Jun 8, 2017</i>
+     * 
+     * @param g
+     *            graphics to paint on
+     * @param node
+     *            node to start from
+     * @param area
+     *            area being rendered
+     */
+    private final void paint(final Graphics2D g, final Node node, final Rectangle area) {
+        final Rectangle bounds = node.shownBounds;
+        if (bounds != null && bounds.intersects(area)) {
+            node.paint(g);
+        }
+        if (node instanceof GroupNode) {
+            for (final Node child : ((GroupNode) node).children) {
+                paint(g, child, area);
+            }
+        }
+    }
+
+    /**
+     * Align collected damage to pages, clip it to the screen and merge overlapping areas.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result} of areas that do not overlap
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:06:10 AM Jun 8, 2017</i>
+     * 
+     * @return areas to be rendered
+     */
+    private final List<Rectangle> merge() {
+        final List<Rectangle> areas = new ArrayList<>(damage.size());
+        for (final Rectangle rect : damage) {
+            final Rectangle clipped = rect.intersection(screen);
+            if (clipped.isEmpty()) {
+                continue;
+            }
+            final int top = (clipped.y / 8) * 8;
+            final int bottom = Math.min(screen.height, ((clipped.y + clipped.height + 7) / 8) * 8);
+            Rectangle area = new Rectangle(clipped.x, top, clipped.width, bottom - top);
+            boolean isMerged;
+            do { // merging two areas may make result overlap some other area
+                isMerged = false;
+                for (int i = 0 ; i < areas.size() ; i++) {
+                    if (areas.get(i).intersects(area)) {
+                        area = area.union(areas.remove(i));
+                        isMerged = true;
+                        break;
+                    }
+                }
+            } while (isMerged);
+            areas.add(area);
+        }
+        return areas;
+    }
+
+    /**
+     * Get string representation of this scene.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:08:02 AM Jun 8, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this scene
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{display=[").append(display)
+            .append("],nodes=[").append(root.size())
+            .append("],damage=[").append(damage.size())
+            .append("]}")
+            .toString());
+    }
+
+}
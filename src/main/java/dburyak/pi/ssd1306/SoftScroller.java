@@ -0,0 +1,488 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Software scrolling of any rectangular area of the display, for tickers and marquees. Unlike hardware scrolling (see
+ * {@link Display#scrollHorizontal(Display.HorizontalDirection)}), view may be moved by any number of pixels in any
+ * direction, and it always stops at known position, so scrolling may be paused and resumed exactly.
+ * <p>Area shows part of the content image, view position is the content point shown in the top left corner of the
+ * area. On each step pixels of the packed display buffer are moved (column shifts are byte moves, row shifts are bit
+ * shifts with carry between pages), only exposed pixels are taken from content, and only the pages of the area are
+ * sent to the display. Without content, exposed pixels are blank, so moving the view just moves whatever is drawn in
+ * the area. Content may wrap around for endless marquees.
+ * <p>Display image is updated as well, so {@link Display#sync()} keeps scrolled area as is.
+ * <p><b>Created on:</b> <i>4:05:12 PM May 25, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class SoftScroller {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>4:05:50 PM May 25, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(SoftScroller.class));
+
+
+    /**
+     * Display to scroll on.
+     * <p><b>Created on:</b> <i>4:06:25 PM May 25, 2017</i>
+     */
+    private final Display display;
+
+    /**
+     * Left coordinate of the area.
+     * <p><b>Created on:</b> <i>4:06:58 PM May 25, 2017</i>
+     */
+    private final int x;
+
+    /**
+     * Top coordinate of the area.
+     * <p><b>Created on:</b> <i>4:07:30 PM May 25, 2017</i>
+     */
+    private final int y;
+
+    /**
+     * Area width.
+     * <p><b>Created on:</b> <i>4:08:01 PM May 25, 2017</i>
+     */
+    private final int width;
+
+    /**
+     * Area height.
+     * <p><b>Created on:</b> <i>4:08:33 PM May 25, 2017</i>
+     */
+    private final int height;
+
+    /**
+     * Bits of the area rows in column of the display, bit {@code n} is row {@code n}.
+     * <p><b>Created on:</b> <i>4:09:10 PM May 25, 2017</i>
+     */
+    private final long rowsMask;
+
+    /**
+     * Region of the display memory that covers the area.
+     * <p><b>Created on:</b> <i>4:09:45 PM May 25, 2017</i>
+     */
+    private final Region region;
+
+    /**
+     * Packed content, null if there is no content.
+     * <p><b>Created on:</b> <i>4:10:20 PM May 25, 2017</i>
+     */
+    private final @Nullable byte[] content;
+
+    /**
+     * Content width.
+     * <p><b>Created on:</b> <i>4:10:52 PM May 25, 2017</i>
+     */
+    private final int contentWidth;
+
+    /**
+     * Content height.
+     * <p><b>Created on:</b> <i>4:11:25 PM May 25, 2017</i>
+     */
+    private final int contentHeight;
+
+    /**
+     * Indicates whether content wraps around.
+     * <p><b>Created on:</b> <i>4:11:58 PM May 25, 2017</i>
+     */
+    private final boolean isWrapping;
+
+    /**
+     * Area columns before the step, bit {@code n} is row {@code n}.
+     * <p><b>Created on:</b> <i>4:12:33 PM May 25, 2017</i>
+     */
+    private final long[] before;
+
+    /**
+     * Area columns after the step, bit {@code n} is row {@code n}.
+     * <p><b>Created on:</b> <i>4:13:05 PM May 25, 2017</i>
+     */
+    private final long[] after;
+
+    /**
+     * Content X coordinate shown in the left column of the area.
+     * <p><b>Created on:</b> <i>4:13:40 PM May 25, 2017</i>
+     */
+    private int viewX = 0;
+
+    /**
+     * Content Y coordinate shown in the top row of the area.
+     * <p><b>Created on:</b> <i>4:14:12 PM May 25, 2017</i>
+     */
+    private int viewY = 0;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.SoftScroller.<p>
+     * <p><b>PRE-conditions:</b> non-null {@code display}, non-empty {@code area} inside of the display
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:15:02 PM May 25, 2017</i>
+     * 
+     * @param display
+     *            display to scroll on
+     * @param area
+     *            scrolled area
+     * @param content
+     *            packed content, may be null
+     * @param contentWidth
+     *            content width
+     * @param contentHeight
+     *            content height
+     * @param isWrapping
+     *            true if content wraps around
+     */
+    private SoftScroller(
+        final Display display,
+        final Rectangle area,
+        final @Nullable byte[] content,
+        final int contentWidth,
+        final int contentHeight,
+        final boolean isWrapping) {
+
+        this.display = display;
+        this.content = content;
+        this.contentWidth = contentWidth;
+        this.contentHeight = contentHeight;
+        this.isWrapping = isWrapping;
+        x = area.x;
+        y = area.y;
+        width = area.width;
+        height = area.height;
+        rowsMask = ((height == Long.SIZE) ? -1L : (1L << height) - 1) << y;
+        region = Region.of(x, x + width - 1, y / 8, (y + height - 1) / 8);
+        before = new long[width];
+        after = new long[width];
+    }
+
+    /**
+     * Create new {@link SoftScroller} instance without content : moving the view moves pixels that are already drawn,
+     * exposed pixels are blank.
+     * <p><b>PRE-conditions:</b> non-null {@code display}, non-empty {@code area} inside of the display
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:17:30 PM May 25, 2017</i>
+     * 
+     * @param display
+     *            display to scroll on
+     * @param area
+     *            scrolled area
+     * @return new {@link SoftScroller} instance
+     */
+    public static final SoftScroller newInstance(final Display display, final Rectangle area) {
+        checkArea(display, area);
+        return new SoftScroller(display, area, null, 0, 0, false);
+    }
+
+    /**
+     * Create new {@link SoftScroller} instance that shows the content image. Content is converted to black and white
+     * and packed once. View starts at the top left corner of the content, call {@link #redraw()} to show it.
+     * <p><b>PRE-conditions:</b> non-null {@code display}, non-empty {@code area} inside of the display, non-null
+     * {@code content}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:19:12 PM May 25, 2017</i>
+     * 
+     * @param display
+     *            display to scroll on
+     * @param area
+     *            scrolled area
+     * @param content
+     *            content image
+     * @param wrap
+     *            true if content should wrap around (endless marquee), false if there is blank space around content
+     * @return new {@link SoftScroller} instance
+     */
+    public static final SoftScroller newInstance(
+        final Display display,
+        final Rectangle area,
+        final BufferedImage content,
+        final boolean wrap) {
+
+        checkArea(display, area);
+        return new SoftScroller(display, area, Packer.pack(content), content.getWidth(), content.getHeight(), wrap);
+    }
+
+    /**
+     * Check that area is not empty and is inside of the display.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:20:40 PM May 25, 2017</i>
+     * 
+     * @param display
+     *            display
+     * @param area
+     *            area to be checked
+     */
+    private static final void checkArea(final Display display, final Rectangle area) {
+        isTrue(area.width > 0 && area.height > 0);
+        isTrue(area.x >= 0 && area.x + area.width <= display.width());
+        isTrue(area.y >= 0 && area.y + area.height <= display.height());
+    }
+
+    /**
+     * Move view by specified number of pixels. Pixels in the area move in opposite direction : positive {@code dx}
+     * moves them left, positive {@code dy} moves them up.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>4:22:05 PM May 25, 2017</i>
+     * 
+     * @param dx
+     *            horizontal view move
+     * @param dy
+     *            vertical view move
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final SoftScroller scrollBy(final int dx, final int dy) {
+        LOG.traceEntry("dx = [{}] ; dy = [{}]", dx, dy);
+
+        if (dx != 0 || dy != 0) {
+            viewX += dx;
+            viewY += dy;
+            step(-dx, -dy);
+        }
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Move view to specified content position.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>4:23:40 PM May 25, 2017</i>
+     * 
+     * @param newViewX
+     *            content X coordinate to be shown in the left column of the area
+     * @param newViewY
+     *            content Y coordinate to be shown in the top row of the area
+     * @return this instance (for call chaining)
+     */
+    public final SoftScroller scrollTo(final int newViewX, final int newViewY) {
+        return scrollBy(newViewX - viewX, newViewY - viewY);
+    }
+
+    /**
+     * Draw whole area from content at current view position (blank area if there is no content).
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>4:25:02 PM May 25, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    public final SoftScroller redraw() {
+        LOG.traceEntry();
+
+        step(width, 0); // moving pixels by the whole area width exposes all of them
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Get content X coordinate shown in the left column of the area.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:26:15 PM May 25, 2017</i>
+     * 
+     * @return view X position
+     */
+    public final int viewX() {
+        return viewX;
+    }
+
+    /**
+     * Get content Y coordinate shown in the top row of the area.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:26:48 PM May 25, 2017</i>
+     * 
+     * @return view Y position
+     */
+    public final int viewY() {
+        return viewY;
+    }
+
+    /**
+     * Move pixels of the area, fill exposed pixels from content at current view and send the area to the display.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> display buffer and image are modified, GPIO I/O calls
+     * <br><b>Created on:</b> <i>4:28:30 PM May 25, 2017</i>
+     * 
+     * @param moveX
+     *            horizontal pixels move, positive is to the right
+     * @param moveY
+     *            vertical pixels move, positive is down
+     */
+    private final void step(final int moveX, final int moveY) {
+        final byte[] buffer = display.buffer();
+        final int bufferWidth = display.width();
+        for (int col = 0 ; col < width ; col++) {
+            before[col] = column(buffer, bufferWidth, x + col) & rowsMask;
+        }
+        final long keptRows = shift(rowsMask, moveY) & rowsMask;
+        for (int col = 0 ; col < width ; col++) {
+            final int srcCol = col - moveX;
+            final boolean isKept = (0 <= srcCol && srcCol < width);
+            final long moved = isKept ? shift(before[srcCol], moveY) & keptRows : 0L;
+            final long exposed = isKept ? rowsMask & ~keptRows : rowsMask;
+            after[col] = moved | exposedPixels(col, exposed);
+        }
+        for (int col = 0 ; col < width ; col++) {
+            for (int page = region.pageStart() ; page <= region.pageEnd() ; page++) {
+                final int index = page * bufferWidth + x + col;
+                final int pageMask = (int) (rowsMask >>> (page * 8)) & 0xFF;
+                final int bits = (int) (after[col] >>> (page * 8)) & 0xFF;
+                buffer[index] = (byte) ((buffer[index] & ~pageMask) | bits);
+            }
+        }
+        Packer.unpackBinary(buffer, bufferWidth, x, y, width, height, display.image());
+        display.flush(buffer, region);
+    }
+
+    /**
+     * Read column of the packed buffer pages covered by the area.
+     * <p><b>PRE-conditions:</b> non-null {@code buffer}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:31:02 PM May 25, 2017</i>
+     * 
+     * @param buffer
+     *            packed buffer
+     * @param bufferWidth
+     *            number of columns in buffer
+     * @param col
+     *            column to read
+     * @return column bits, bit {@code n} is row {@code n}
+     */
+    private final long column(final byte[] buffer, final int bufferWidth, final int col) {
+        long bits = 0L;
+        for (int page = region.pageStart() ; page <= region.pageEnd() ; page++) {
+            bits |= (buffer[page * bufferWidth + col] & 0xFFL) << (page * 8);
+        }
+        return bits;
+    }
+
+    /**
+     * Shift column bits, positive {@code rows} shift them down (to higher rows).
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:32:30 PM May 25, 2017</i>
+     * 
+     * @param bits
+     *            column bits
+     * @param rows
+     *            number of rows to shift by
+     * @return shifted bits
+     */
+    private static final long shift(final long bits, final int rows) {
+        if (rows >= Long.SIZE || rows <= -Long.SIZE) {
+            return 0L;
+        }
+        return (rows >= 0) ? bits << rows : bits >>> -rows;
+    }
+
+    /**
+     * Get content pixels for exposed rows of the area column at current view.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code col} &lt; area width
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:34:12 PM May 25, 2017</i>
+     * 
+     * @param col
+     *            area column
+     * @param exposed
+     *            exposed rows of the column, bit {@code n} is row {@code n}
+     * @return content bits of exposed rows
+     */
+    private final long exposedPixels(final int col, final long exposed) {
+        final byte[] packed = content;
+        if (packed == null || exposed == 0L) {
+            return 0L;
+        }
+        long bits = 0L;
+        long rows = exposed;
+        while (rows != 0L) {
+            final int row = Long.numberOfTrailingZeros(rows);
+            rows &= rows - 1;
+            if (isContentPixelOn(packed, viewX + col, viewY + row - y)) {
+                bits |= 1L << row;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Check whether content pixel is on.
+     * <p><b>PRE-conditions:</b> non-null {@code packed}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:36:40 PM May 25, 2017</i>
+     * 
+     * @param packed
+     *            packed content
+     * @param contentX
+     *            content X coordinate
+     * @param contentY
+     *            content Y coordinate
+     * @return true if pixel is on, false if it is off or is outside of not wrapping content
+     */
+    private final boolean isContentPixelOn(final byte[] packed, final int contentX, final int contentY) {
+        int cx = contentX;
+        int cy = contentY;
+        if (isWrapping) {
+            cx = Math.floorMod(cx, contentWidth);
+            cy = Math.floorMod(cy, contentHeight);
+        } else if (cx < 0 || cx >= contentWidth || cy < 0 || cy >= contentHeight) {
+            return false;
+        }
+        return ((packed[(cy >> 3) * contentWidth + cx] >> (cy & 7)) & 1) != 0;
+    }
+
+    /**
+     * Get string representation of this scroller.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:38:20 PM May 25, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this scroller
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{area=[").append(x).append(',').append(y).append(' ').append(width).append('x').append(height)
+            .append("],view=[").append(viewX).append(',').append(viewY)
+            .append("],wrap=[").append(isWrapping)
+            .append("]}")
+            .toString());
+    }
+
+}
@@ -0,0 +1,283 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.awt.image.BufferedImage;
+
+import javax.annotation.concurrent.Immutable;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Small packed image with a mask, ready to be blitted at any position (see {@link SpriteEngine}). Display buffer
+ * pages are 8 rows high, so sprite at arbitrary vertical position spans pages with its bits shifted. To avoid shifting
+ * on every move, sprite keeps 8 pre-shifted variants of its pixels and mask, one for each row offset inside of page.
+ * <p><b>Created on:</b> <i>11:15:20 AM Jun 15, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@Immutable
+public final class Sprite {
+
+    /**
+     * Number of pre-shifted variants.
+     * <p><b>Created on:</b> <i>11:15:58 AM Jun 15, 2017</i>
+     */
+    private static final int SHIFTS = 8;
+
+
+    /**
+     * Sprite width.
+     * <p><b>Created on:</b> <i>11:16:30 AM Jun 15, 2017</i>
+     */
+    private final int width;
+
+    /**
+     * Sprite height.
+     * <p><b>Created on:</b> <i>11:17:02 AM Jun 15, 2017</i>
+     */
+    private final int height;
+
+    /**
+     * Number of pages of each shifted variant.
+     * <p><b>Created on:</b> <i>11:17:35 AM Jun 15, 2017</i>
+     */
+    private final int[] pages = new int[SHIFTS];
+
+    /**
+     * Packed pixels of each shifted variant.
+     * <p><b>Created on:</b> <i>11:18:08 AM Jun 15, 2017</i>
+     */
+    private final byte[][] pixels = new byte[SHIFTS][];
+
+    /**
+     * Packed mask of each shifted variant, set bit means that sprite covers the pixel.
+     * <p><b>Created on:</b> <i>11:18:40 AM Jun 15, 2017</i>
+     */
+    private final byte[][] masks = new byte[SHIFTS][];
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Sprite.<p>
+     * <p><b>PRE-conditions:</b> non-null {@code image} and {@code mask} of the same size, not higher than 64 rows
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:19:20 AM Jun 15, 2017</i>
+     * 
+     * @param image
+     *            sprite pixels
+     * @param mask
+     *            sprite mask, on pixels are covered by the sprite
+     */
+    private Sprite(final BufferedImage image, final BufferedImage mask) {
+        width = image.getWidth();
+        height = image.getHeight();
+        final byte[] packedPixels = Packer.pack(image);
+        final byte[] packedMask = Packer.pack(mask);
+        for (int shift = 0 ; shift < SHIFTS ; shift++) {
+            pages[shift] = (height + shift + 7) / 8;
+            pixels[shift] = new byte[pages[shift] * width];
+            masks[shift] = new byte[pages[shift] * width];
+            for (int col = 0 ; col < width ; col++) {
+                final long columnPixels = column(packedPixels, col) & column(packedMask, col);
+                final long columnMask = column(packedMask, col);
+                for (int page = 0 ; page < pages[shift] ; page++) { // sprite is not higher than 64 rows, so 9 pages
+                    final int index = page * width + col;
+                    pixels[shift][index] = shiftedByte(columnPixels, shift, page);
+                    masks[shift][index] = shiftedByte(columnMask, shift, page);
+                }
+            }
+        }
+    }
+
+    /**
+     * Create new {@link Sprite} instance. Pixels with alpha of at least half are covered by the sprite, images
+     * without alpha channel cover their whole bounds.
+     * <p><b>PRE-conditions:</b> non-null {@code image} not higher than 64 rows
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:21:40 AM Jun 15, 2017</i>
+     * 
+     * @param image
+     *            sprite image
+     * @return new {@link Sprite} instance
+     */
+    public static final Sprite newInstance(final BufferedImage image) {
+        isTrue(image.getHeight() <= Display.RAM_ROWS);
+        final int w = image.getWidth();
+        final int h = image.getHeight();
+        final BufferedImage mask = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_BINARY);
+        final boolean hasAlpha = image.getColorModel().hasAlpha();
+        for (int y = 0 ; y < h ; y++) {
+            for (int x = 0 ; x < w ; x++) {
+                if (!hasAlpha || (image.getRGB(x, y) >>> 24) >= 0x80) {
+                    mask.setRGB(x, y, 0xFFFFFFFF);
+                }
+            }
+        }
+        return new Sprite(image, mask);
+    }
+
+    /**
+     * Create new {@link Sprite} instance with explicit mask.
+     * <p><b>PRE-conditions:</b> non-null {@code image} and {@code mask} of the same size, not higher than 64 rows
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:23:05 AM Jun 15, 2017</i>
+     * 
+     * @param image
+     *            sprite image
+     * @param mask
+     *            sprite mask, on pixels are covered by the sprite
+     * @return new {@link Sprite} instance
+     */
+    public static final Sprite newInstance(final BufferedImage image, final BufferedImage mask) {
+        isTrue(image.getHeight() <= Display.RAM_ROWS);
+        isTrue(image.getWidth() == mask.getWidth() && image.getHeight() == mask.getHeight());
+        return new Sprite(image, mask);
+    }
+
+    /**
+     * Get bits of packed column, bit {@code n} is row {@code n}.
+     * <p><b>PRE-conditions:</b> non-null {@code packed} of {@link #width} columns, not more than 8 pages
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:24:30 AM Jun 15, 2017</i>
+     * 
+     * @param packed
+     *            packed image
+     * @param col
+     *            column
+     * @return column bits
+     */
+    private final long column(final byte[] packed, final int col) {
+        long bits = 0L;
+        for (int page = 0 ; page * width < packed.length ; page++) {
+            bits |= (packed[page * width + col] & 0xFFL) << (page * 8);
+        }
+        return bits;
+    }
+
+    /**
+     * Get page byte of column shifted down by specified number of rows.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code shift} &lt; 8
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:25:50 AM Jun 15, 2017</i>
+     * 
+     * @param bits
+     *            column bits
+     * @param shift
+     *            number of rows to shift by
+     * @param page
+     *            page of the shifted column
+     * @return page byte
+     */
+    private static final byte shiftedByte(final long bits, final int shift, final int page) {
+        // shifted column may be up to 71 rows high, so page is taken from the unshifted bits
+        final int row = page * 8 - shift; // row of the unshifted column that goes to the page top
+        final long part = (row >= 0) ? (bits >>> row) : (bits << -row);
+        return (byte) part;
+    }
+
+    /**
+     * Get sprite width.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:27:15 AM Jun 15, 2017</i>
+     * 
+     * @return sprite width
+     */
+    public final int width() {
+        return width;
+    }
+
+    /**
+     * Get sprite height.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:27:48 AM Jun 15, 2017</i>
+     * 
+     * @return sprite height
+     */
+    public final int height() {
+        return height;
+    }
+
+    /**
+     * Blit sprite into packed buffer, clipped to the window. Covered pixels are replaced :
+     * {@code dst = (dst & ~mask) | pixels}.
+     * <p><b>PRE-conditions:</b> non-null {@code dst}, window is inside of {@code dst}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@code dst} is modified
+     * <br><b>Created on:</b> <i>11:29:20 AM Jun 15, 2017</i>
+     * 
+     * @param dst
+     *            destination packed buffer
+     * @param dstWidth
+     *            number of columns (bytes per page) in destination buffer
+     * @param x
+     *            left coordinate of the sprite
+     * @param y
+     *            top coordinate of the sprite
+     * @param colStart
+     *            first column of the window
+     * @param colEnd
+     *            last column of the window (inclusive)
+     * @param pageStart
+     *            first page of the window
+     * @param pageEnd
+     *            last page of the window (inclusive)
+     */
+    final void blit(
+        final byte[] dst,
+        final int dstWidth,
+        final int x,
+        final int y,
+        final int colStart,
+        final int colEnd,
+        final int pageStart,
+        final int pageEnd) {
+
+        final int shift = Math.floorMod(y, 8);
+        final int top = Math.floorDiv(y, 8);
+        final byte[] src = pixels[shift];
+        final byte[] mask = masks[shift];
+        final int first = Math.max(colStart, x);
+        final int last = Math.min(colEnd, x + width - 1);
+        final int pageFirst = Math.max(pageStart, top);
+        final int pageLast = Math.min(pageEnd, top + pages[shift] - 1);
+        for (int page = pageFirst ; page <= pageLast ; page++) {
+            final int srcOffset = (page - top) * width - x;
+            final int dstOffset = page * dstWidth;
+            for (int col = first ; col <= last ; col++) {
+                final int index = srcOffset + col;
+                dst[dstOffset + col] = (byte) ((dst[dstOffset + col] & ~mask[index]) | src[index]);
+            }
+        }
+    }
+
+    /**
+     * Get string representation of this sprite.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:31:02 AM Jun 15, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this sprite
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{size=[").append(width).append('x').append(height)
+            .append("]}")
+            .toString());
+    }
+
+}
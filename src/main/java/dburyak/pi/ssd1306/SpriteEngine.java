@@ -0,0 +1,524 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Sprites moving over a static background. Background is kept in packed form, so moving a sprite restores background
+ * under its old position by copying bytes, and blits the sprite at the new position with pre-shifted masks (see
+ * {@link Sprite}). Only windows damaged by moved sprites are composed and sent on {@link #commit()}, overlapping
+ * windows are merged. Moving sprites and tracking damage does not allocate memory, so dozens of sprites can be moved
+ * every frame.
+ * <p>Sprite engine owns display buffer and image, background drawn on {@link Display#graphics()} should be taken with
+ * {@link #background(BufferedImage)}.
+ * <p><b>Created on:</b> <i>11:40:10 AM Jun 15, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class SpriteEngine {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>11:40:48 AM Jun 15, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(SpriteEngine.class));
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Sprite placed on the screen. Entries are drawn in the order they were added.
+     * <p><b>Created on:</b> <i>11:41:25 AM Jun 15, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    @NotThreadSafe
+    public static final class Entry {
+
+        /**
+         * Sprite of the entry.
+         * <p><b>Created on:</b> <i>11:42:02 AM Jun 15, 2017</i>
+         */
+        final Sprite sprite;
+
+        /**
+         * Left coordinate.
+         * <p><b>Created on:</b> <i>11:42:35 AM Jun 15, 2017</i>
+         */
+        int x;
+
+        /**
+         * Top coordinate.
+         * <p><b>Created on:</b> <i>11:43:08 AM Jun 15, 2017</i>
+         */
+        int y;
+
+        /**
+         * Whether sprite is shown.
+         * <p><b>Created on:</b> <i>11:43:40 AM Jun 15, 2017</i>
+         */
+        boolean isVisible = true;
+
+        /**
+         * Left coordinate as of last commit.
+         * <p><b>Created on:</b> <i>11:44:12 AM Jun 15, 2017</i>
+         */
+        int shownX;
+
+        /**
+         * Top coordinate as of last commit.
+         * <p><b>Created on:</b> <i>11:44:45 AM Jun 15, 2017</i>
+         */
+        int shownY;
+
+        /**
+         * Whether sprite was shown as of last commit.
+         * <p><b>Created on:</b> <i>11:45:18 AM Jun 15, 2017</i>
+         */
+        boolean wasVisible = false;
+
+        /**
+         * Whether entry changed since last commit.
+         * <p><b>Created on:</b> <i>11:45:50 AM Jun 15, 2017</i>
+         */
+        boolean isDirty = true;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.SpriteEngine.Entry.<p>
+         * <p><b>PRE-conditions:</b> non-null {@code sprite}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>11:46:25 AM Jun 15, 2017</i>
+         * 
+         * @param sprite
+         *            sprite of the entry
+         * @param x
+         *            left coordinate
+         * @param y
+         *            top coordinate
+         */
+        Entry(final Sprite sprite, final int x, final int y) {
+            this.sprite = sprite;
+            this.x = x;
+            this.y = y;
+        }
+
+        /**
+         * Move sprite. Position may be partially or fully outside of the screen.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> entry is marked dirty
+         * <br><b>Created on:</b> <i>11:47:10 AM Jun 15, 2017</i>
+         * 
+         * @param x
+         *            left coordinate
+         * @param y
+         *            top coordinate
+         * @return this instance (for call chaining)
+         */
+        public final Entry move(final int x, final int y) {
+            if (this.x != x || this.y != y) {
+                this.x = x;
+                this.y = y;
+                isDirty = true;
+            }
+            return this;
+        }
+
+        /**
+         * Show or hide sprite.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-null {@code result}
+         * <br><b>Side-effects:</b> entry is marked dirty
+         * <br><b>Created on:</b> <i>11:48:02 AM Jun 15, 2017</i>
+         * 
+         * @param visible
+         *            true if sprite should be shown
+         * @return this instance (for call chaining)
+         */
+        public final Entry visible(final boolean visible) {
+            if (isVisible != visible) {
+                isVisible = visible;
+                isDirty = true;
+            }
+            return this;
+        }
+
+        /**
+         * Get left coordinate.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>11:48:40 AM Jun 15, 2017</i>
+         * 
+         * @return left coordinate
+         */
+        public final int x() {
+            return x;
+        }
+
+        /**
+         * Get top coordinate.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>11:49:12 AM Jun 15, 2017</i>
+         * 
+         * @return top coordinate
+         */
+        public final int y() {
+            return y;
+        }
+
+    }
+
+
+    /**
+     * Display to draw on.
+     * <p><b>Created on:</b> <i>11:50:02 AM Jun 15, 2017</i>
+     */
+    private final Display display;
+
+    /**
+     * Display width.
+     * <p><b>Created on:</b> <i>11:50:35 AM Jun 15, 2017</i>
+     */
+    private final int width;
+
+    /**
+     * Number of display pages.
+     * <p><b>Created on:</b> <i>11:51:08 AM Jun 15, 2017</i>
+     */
+    private final int pages;
+
+    /**
+     * Packed background.
+     * <p><b>Created on:</b> <i>11:51:40 AM Jun 15, 2017</i>
+     */
+    private final byte[] background;
+
+    /**
+     * Sprites in drawing order.
+     * <p><b>Created on:</b> <i>11:52:12 AM Jun 15, 2017</i>
+     */
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Damaged windows, four values per window : first column, last column, first page, last page.
+     * <p><b>Created on:</b> <i>11:52:45 AM Jun 15, 2017</i>
+     */
+    private int[] windows = new int[4 * 4];
+
+    /**
+     * Number of damaged windows.
+     * <p><b>Created on:</b> <i>11:53:18 AM Jun 15, 2017</i>
+     */
+    private int windowsCount = 0;
+
+    /**
+     * Number of windows sent on last commit.
+     * <p><b>Created on:</b> <i>11:53:50 AM Jun 15, 2017</i>
+     */
+    private int sentCount = 0;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.SpriteEngine.<p>
+     * <p><b>PRE-conditions:</b> non-null {@code display}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:54:25 AM Jun 15, 2017</i>
+     * 
+     * @param display
+     *            display to draw on
+     */
+    private SpriteEngine(final Display display) {
+        this.display = display;
+        width = display.width();
+        background = display.buffer().clone();
+        pages = background.length / width;
+    }
+
+    /**
+     * Create new {@link SpriteEngine} instance. Current display buffer is taken as background.
+     * <p><b>PRE-conditions:</b> non-null {@code display}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:55:10 AM Jun 15, 2017</i>
+     * 
+     * @param display
+     *            display to draw on
+     * @return new {@link SpriteEngine} instance
+     */
+    public static final SpriteEngine newInstance(final Display display) {
+        return new SpriteEngine(display);
+    }
+
+    /**
+     * Replace background. Whole screen is composed and sent on next commit.
+     * <p><b>PRE-conditions:</b> non-null {@code img} of the display size
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:56:02 AM Jun 15, 2017</i>
+     * 
+     * @param img
+     *            background image
+     * @return this instance (for call chaining)
+     */
+    public final SpriteEngine background(final BufferedImage img) {
+        isTrue(img.getWidth() == width && img.getHeight() == display.height());
+        final byte[] packed = Packer.pack(img);
+        System.arraycopy(packed, 0, background, 0, background.length);
+        damage(0, width - 1, 0, pages - 1);
+        return this;
+    }
+
+    /**
+     * Place sprite on the screen. Sprite is shown on next commit.
+     * <p><b>PRE-conditions:</b> non-null {@code sprite}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:57:15 AM Jun 15, 2017</i>
+     * 
+     * @param sprite
+     *            sprite to place
+     * @param x
+     *            left coordinate
+     * @param y
+     *            top coordinate
+     * @return new entry of the sprite
+     */
+    public final Entry add(final Sprite sprite, final int x, final int y) {
+        final Entry entry = new Entry(sprite, x, y);
+        entries.add(entry);
+        ensureWindows();
+        return entry;
+    }
+
+    /**
+     * Remove sprite from the screen. Background is restored under it on next commit.
+     * <p><b>PRE-conditions:</b> non-null {@code entry} of this engine
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:58:20 AM Jun 15, 2017</i>
+     * 
+     * @param entry
+     *            entry to remove
+     * @return this instance (for call chaining)
+     */
+    public final SpriteEngine remove(final Entry entry) {
+        isTrue(entries.remove(entry));
+        if (entry.wasVisible) {
+            damageSprite(entry.sprite, entry.shownX, entry.shownY);
+        }
+        return this;
+    }
+
+    /**
+     * Compose damaged windows and send them to the display. Window of each changed sprite before and after the change
+     * is damaged; background is restored in damaged windows and all sprites that overlap them are blitted in order.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> display buffer and image are modified, GPIO I/O calls
+     * <br><b>Created on:</b> <i>12:00:05 PM Jun 15, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final SpriteEngine commit() {
+        LOG.traceEntry();
+
+        for (int i = 0 ; i < entries.size() ; i++) {
+            final Entry entry = entries.get(i);
+            if (!entry.isDirty) {
+                continue;
+            }
+            if (entry.wasVisible) {
+                damageSprite(entry.sprite, entry.shownX, entry.shownY);
+            }
+            if (entry.isVisible) {
+                damageSprite(entry.sprite, entry.x, entry.y);
+            }
+            entry.shownX = entry.x;
+            entry.shownY = entry.y;
+            entry.wasVisible = entry.isVisible;
+            entry.isDirty = false;
+        }
+
+        final byte[] buffer = display.buffer();
+        for (int w = 0 ; w < windowsCount ; w++) {
+            final int colStart = windows[w * 4];
+            final int colEnd = windows[w * 4 + 1];
+            final int pageStart = windows[w * 4 + 2];
+            final int pageEnd = windows[w * 4 + 3];
+            for (int page = pageStart ; page <= pageEnd ; page++) {
+                final int offset = page * width + colStart;
+                System.arraycopy(background, offset, buffer, offset, colEnd - colStart + 1);
+            }
+            for (int i = 0 ; i < entries.size() ; i++) {
+                final Entry entry = entries.get(i);
+                if (entry.wasVisible) {
+                    entry.sprite.blit(buffer, width, entry.shownX, entry.shownY, colStart, colEnd, pageStart,
+                        pageEnd);
+                }
+            }
+            final int top = pageStart * 8;
+            final int bottom = Math.min(display.height(), (pageEnd + 1) * 8);
+            Packer.unpackBinary(buffer, width, colStart, top, colEnd - colStart + 1, bottom - top, display.image());
+            display.flush(buffer, Region.of(colStart, colEnd, pageStart, pageEnd));
+        }
+        sentCount = windowsCount;
+        windowsCount = 0;
+        LOG.debug("sprite windows sent : count = [%d]", sentCount);
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Get number of windows sent on last commit.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> {@code result} &gt;= 0
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>12:02:30 PM Jun 15, 2017</i>
+     * 
+     * @return number of windows
+     */
+    public final int windows() {
+        return sentCount;
+    }
+
+    /**
+     * Get window sent on last commit.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code index} &lt; {@link #windows()}, no sprite changes since last commit
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>12:03:05 PM Jun 15, 2017</i>
+     * 
+     * @param index
+     *            window index
+     * @return sent window
+     */
+    public final Region window(final int index) {
+        isTrue(0 <= index && index < sentCount && windowsCount == 0);
+        return Region.of(windows[index * 4], windows[index * 4 + 1], windows[index * 4 + 2], windows[index * 4 + 3]);
+    }
+
+    /**
+     * Damage window covered by sprite at specified position.
+     * <p><b>PRE-conditions:</b> non-null {@code sprite}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> damaged windows are modified
+     * <br><b>Created on:</b> <i>12:04:20 PM Jun 15, 2017</i>
+     * 
+     * @param sprite
+     *            sprite
+     * @param x
+     *            left coordinate of the sprite
+     * @param y
+     *            top coordinate of the sprite
+     */
+    private final void damageSprite(final Sprite sprite, final int x, final int y) {
+        final int colStart = Math.max(0, x);
+        final int colEnd = Math.min(width - 1, x + sprite.width() - 1);
+        final int pageStart = Math.max(0, Math.floorDiv(y, 8));
+        final int pageEnd = Math.min(pages - 1, Math.floorDiv(y + sprite.height() - 1, 8));
+        if (colStart <= colEnd && pageStart <= pageEnd) {
+            damage(colStart, colEnd, pageStart, pageEnd);
+        }
+    }
+
+    /**
+     * Add damaged window, merging it with windows it overlaps.
+     * <p><b>PRE-conditions:</b> window is inside of the screen
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> damaged windows are modified
+     * <br><b>Created on:</b> <i>12:05:40 PM Jun 15, 2017</i>
+     * 
+     * @param colStart
+     *            first column
+     * @param colEnd
+     *            last column (inclusive)
+     * @param pageStart
+     *            first page
+     * @param pageEnd
+     *            last page (inclusive)
+     */
+    private final void damage(final int colStart, final int colEnd, final int pageStart, final int pageEnd) {
+        int c0 = colStart;
+        int c1 = colEnd;
+        int p0 = pageStart;
+        int p1 = pageEnd;
+        int w = 0;
+        while (w < windowsCount) {
+            final int base = w * 4;
+            if (c0 <= windows[base + 1] && windows[base] <= c1 && p0 <= windows[base + 3] && windows[base + 2] <= p1) {
+                c0 = Math.min(c0, windows[base]);
+                c1 = Math.max(c1, windows[base + 1]);
+                p0 = Math.min(p0, windows[base + 2]);
+                p1 = Math.max(p1, windows[base + 3]);
+                windowsCount--; // last window takes place of the merged one
+                System.arraycopy(windows, windowsCount * 4, windows, base, 4);
+                w = 0; // grown window may overlap windows that were checked already
+            } else {
+                w++;
+            }
+        }
+        ensureWindows();
+        final int base = windowsCount * 4;
+        windows[base] = c0;
+        windows[base + 1] = c1;
+        windows[base + 2] = p0;
+        windows[base + 3] = p1;
+        windowsCount++;
+    }
+
+    /**
+     * Make sure that damaged windows array has room for windows of all sprites, removed sprites and background.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> damaged windows array may be replaced
+     * <br><b>Created on:</b> <i>12:07:15 PM Jun 15, 2017</i>
+     */
+    private final void ensureWindows() {
+        final int needed = Math.max(2 * entries.size(), windowsCount) + 2;
+        if (windows.length < needed * 4) {
+            windows = Arrays.copyOf(windows, needed * 8);
+        }
+    }
+
+    /**
+     * Get string representation of this sprite engine.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>12:08:02 PM Jun 15, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this sprite engine
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{display=[").append(display)
+            .append("],sprites=[").append(entries.size())
+            .append("],damaged=[").append(windowsCount)
+            .append("]}")
+            .toString());
+    }
+
+}
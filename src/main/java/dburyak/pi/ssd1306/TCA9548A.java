@@ -0,0 +1,546 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.asByte;
+import static dburyak.pi.ssd1306.Util.hex;
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+import static dburyak.pi.ssd1306.Util.runSync;
+
+import java.io.IOException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.pi4j.io.i2c.I2CDevice;
+import com.pi4j.io.i2c.I2CFactory;
+import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * TCA9548A 8-channel I2C multiplexer. Makes it possible to connect several SSD1306 displays with the same I2C address
+ * to one I2C bus, each display on its own multiplexer channel.
+ * <p>Multiplexer remembers its active channel, so channel is switched (which costs extra I2C transaction) only when
+ * target channel differs from the active one. Connections of displays behind multiplexer report whether their channel
+ * is active (see {@link SSD1306Connection#isSelected()}), so {@link DisplayManager} sends pending frames of the active
+ * channel first and thus batches frames per channel.
+ * <p><b>Created on:</b> <i>4:20:07 PM May 4, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@ThreadSafe
+public final class TCA9548A {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>4:20:41 PM May 4, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(TCA9548A.class));
+
+    /**
+     * Default I2C address of the multiplexer (all address pins are pulled low).
+     * <p><b>Created on:</b> <i>4:21:15 PM May 4, 2017</i>
+     */
+    private static final int I2C_ADDR_DFLT = 0x70;
+
+    /**
+     * Number of multiplexer channels.
+     * <p><b>Created on:</b> <i>4:21:58 PM May 4, 2017</i>
+     */
+    public static final int CHANNELS = 8;
+
+    /**
+     * Marker of unknown active channel (not selected yet, or last selection failed).
+     * <p><b>Created on:</b> <i>4:22:40 PM May 4, 2017</i>
+     */
+    private static final int CHANNEL_UNKNOWN = -1;
+
+
+    /**
+     * Underlying Pi4J I2C device of the multiplexer.
+     * <p><b>Created on:</b> <i>4:23:19 PM May 4, 2017</i>
+     */
+    @GuardedBy("lock")
+    private final I2CDevice mux;
+
+    /**
+     * I2C bus of the multiplexer.
+     * <p><b>Created on:</b> <i>4:23:51 PM May 4, 2017</i>
+     */
+    private final int bus;
+
+    /**
+     * I2C address of the multiplexer.
+     * <p><b>Created on:</b> <i>4:24:20 PM May 4, 2017</i>
+     */
+    private final int addr;
+
+    /**
+     * Lock for multiplexer access. Is held during channel selection together with the following write to the channel
+     * device, so other channel can not be selected in between.
+     * <p><b>Created on:</b> <i>4:25:02 PM May 4, 2017</i>
+     */
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Currently active channel. Is written under {@link #lock}, but may be read without it.
+     * <p><b>Created on:</b> <i>4:25:47 PM May 4, 2017</i>
+     */
+    private volatile int activeChannel = CHANNEL_UNKNOWN;
+
+    /**
+     * Number of performed channel switches.
+     * <p><b>Created on:</b> <i>4:26:30 PM May 4, 2017</i>
+     */
+    @GuardedBy("lock")
+    private long switches = 0L;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.TCA9548A.<p>
+     * <p><b>PRE-conditions:</b> non-null {@code mux}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:27:11 PM May 4, 2017</i>
+     * 
+     * @param mux
+     *            underlying Pi4J I2C device of the multiplexer
+     * @param bus
+     *            I2C bus of the multiplexer
+     * @param addr
+     *            I2C address of the multiplexer
+     */
+    private TCA9548A(final I2CDevice mux, final int bus, final int addr) {
+        this.mux = mux;
+        this.bus = bus;
+        this.addr = addr;
+    }
+
+    /**
+     * Create new {@link TCA9548A} instance with specified I2C bus and <em>default</em> I2C address.
+     * <p><b>PRE-conditions:</b> valid I2C {@code bus}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O I2C configuration calls
+     * <br><b>Created on:</b> <i>4:28:03 PM May 4, 2017</i>
+     * 
+     * @param bus
+     *            I2C bus
+     * @return new {@link TCA9548A} instance
+     * @throws IOException
+     *             if I/O exception occurred when accessing specified I2C {@code bus} and default I2C address
+     * @throws UnsupportedBusNumberException
+     *             if illegal I2C {@code bus} specified
+     */
+    public static final TCA9548A newInstance(final int bus) throws IOException, UnsupportedBusNumberException {
+        return newInstance(bus, I2C_ADDR_DFLT);
+    }
+
+    /**
+     * Create new {@link TCA9548A} instance with specified I2C bus and I2C address.
+     * <p><b>PRE-conditions:</b> valid I2C {@code bus}, valid I2C {@code addr}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O I2C configuration calls
+     * <br><b>Created on:</b> <i>4:29:36 PM May 4, 2017</i>
+     * 
+     * @param bus
+     *            I2C bus
+     * @param addr
+     *            I2C address of the multiplexer
+     * @return new {@link TCA9548A} instance
+     * @throws IOException
+     *             if I/O exception occurred when accessing specified I2C {@code bus} and I2C {@code addr}
+     * @throws UnsupportedBusNumberException
+     *             if illegal I2C {@code bus} specified
+     */
+    @SuppressWarnings({ "nls", "boxing" })
+    public static final TCA9548A newInstance(final int bus, final int addr)
+        throws IOException, UnsupportedBusNumberException {
+
+        try {
+            final I2CDevice mux = notNull(I2CFactory.getInstance(bus).getDevice(addr));
+            return newInstance(mux, bus, addr);
+        } catch (final IOException e) {
+            LOG.error("IO exception when accessing I2C multiplexer : bus = [%d] ; addr = [%d]", bus, addr, e);
+            throw e;
+        } catch (final UnsupportedBusNumberException e) {
+            LOG.error("wrong I2C bus number : bus = [%d] ; addr = [%d]", bus, addr, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Create new {@link TCA9548A} instance with specified I2C device.
+     * <p><b>PRE-conditions:</b> non-null {@code mux}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:31:10 PM May 4, 2017</i>
+     * 
+     * @param mux
+     *            I2C device of the multiplexer
+     * @param bus
+     *            I2C bus of the multiplexer
+     * @param addr
+     *            I2C address of the multiplexer
+     * @return new {@link TCA9548A} instance
+     */
+    public static final TCA9548A newInstance(final I2CDevice mux, final int bus, final int addr) {
+        return new TCA9548A(mux, bus, addr);
+    }
+
+    /**
+     * Make specified channel active, if it is not active already. Must be called under {@link #lock}. When switch
+     * fails, multiplexer may still have other channel selected, so write to the channel device must be skipped, or it
+     * would go to the device with the same address on that other channel.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code channel} &lt; {@link #CHANNELS}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O call if channel is switched
+     * <br><b>Created on:</b> <i>4:33:48 PM May 4, 2017</i>
+     * 
+     * @param channel
+     *            channel to be selected
+     * @return true if specified channel is active, false if switch failed
+     */
+    @SuppressWarnings({ "nls", "boxing" })
+    private final boolean select(final int channel) {
+        if (activeChannel != channel) {
+            LOG.trace("switching I2C multiplexer channel : mux = [%d:%s] ; from = [%d] ; to = [%d]",
+                bus, hex(asByte(addr)), activeChannel, channel);
+            try {
+                mux.write(asByte(1 << channel));
+                activeChannel = channel;
+                switches++;
+            } catch (final IOException e) {
+                LOG.error("I2C multiplexer channel switch failed : channel = [%d]", channel, e);
+                activeChannel = CHANNEL_UNKNOWN; // force re-selection on next write
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Create connection to SSD1306 device on specified multiplexer channel.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code channel} &lt; {@link #CHANNELS}, non-null {@code conn}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:37:15 PM May 4, 2017</i>
+     * 
+     * @param channel
+     *            multiplexer channel the device is connected to
+     * @param conn
+     *            connection to the device, usually created with {@link SSD1306_I2C#newInstance(I2CDevice, int, int)}
+     * @return connection that selects multiplexer channel before each write
+     */
+    public final SSD1306Connection connection(final int channel, final SSD1306Connection conn) {
+        isTrue(0 <= channel && channel < CHANNELS);
+        return new Channel(channel, conn);
+    }
+
+    /**
+     * Create connection to SSD1306 device on specified multiplexer channel.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code channel} &lt; {@link #CHANNELS}, non-null {@code i2c}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:39:42 PM May 4, 2017</i>
+     * 
+     * @param channel
+     *            multiplexer channel the device is connected to
+     * @param i2c
+     *            I2C device of the display (on the same bus as multiplexer)
+     * @param displayAddr
+     *            I2C address of the display
+     * @return connection that selects multiplexer channel before each write
+     */
+    public final SSD1306Connection connection(final int channel, final I2CDevice i2c, final int displayAddr) {
+        return connection(channel, SSD1306_I2C.newInstance(i2c, bus, displayAddr));
+    }
+
+    /**
+     * Get currently active channel.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> -1 &lt;= {@code result} &lt; {@link #CHANNELS}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:41:20 PM May 4, 2017</i>
+     * 
+     * @return active channel, or {@code -1} if it is not known
+     */
+    public final int activeChannel() {
+        return activeChannel;
+    }
+
+    /**
+     * Get number of channel switches performed by this multiplexer.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> {@code result} &gt;= 0
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:42:05 PM May 4, 2017</i>
+     * 
+     * @return number of channel switches
+     */
+    public final long switches() {
+        lock.lock();
+        try {
+            return switches;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get string representation of this multiplexer.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:43:31 PM May 4, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this object
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{bus=[").append(bus)
+            .append("],addr=[").append(addr)
+            .append("],activeChannel=[").append(activeChannel)
+            .append("]}")
+            .toString());
+    }
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Connection to SSD1306 device on one multiplexer channel. Selects the channel (only if it is not active) before
+     * each write to the device. Write is skipped if channel could not be selected.
+     * <p><b>Created on:</b> <i>4:45:02 PM May 4, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    @ThreadSafe
+    private final class Channel implements SSD1306Connection {
+
+        /**
+         * Multiplexer channel of the device.
+         * <p><b>Created on:</b> <i>4:45:40 PM May 4, 2017</i>
+         */
+        private final int channel;
+
+        /**
+         * Connection to the device itself.
+         * <p><b>Created on:</b> <i>4:46:11 PM May 4, 2017</i>
+         */
+        private final SSD1306Connection conn;
+
+        /**
+         * Number of writes skipped because channel could not be selected. Is written under multiplexer lock, but may
+         * be read without it.
+         * <p><b>Created on:</b> <i>2:47:20 PM Jul 26, 2017</i>
+         */
+        private volatile long skipped = 0L;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.TCA9548A.Channel.<p>
+         * <p><b>PRE-conditions:</b> 0 &lt;= {@code channel} &lt; {@link TCA9548A#CHANNELS}, non-null {@code conn}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>4:46:50 PM May 4, 2017</i>
+         * 
+         * @param channel
+         *            multiplexer channel of the device
+         * @param conn
+         *            connection to the device
+         */
+        Channel(final int channel, final SSD1306Connection conn) {
+            this.channel = channel;
+            this.conn = conn;
+        }
+
+        /**
+         * Select channel and send command to the device.
+         * <p><b>PRE-conditions:</b> non-null {@code cmd}
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> GPIO I/O calls
+         * <br><b>Created on:</b> <i>4:48:03 PM May 4, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.SSD1306Connection#command(dburyak.pi.ssd1306.Command)
+         * @param cmd
+         *            command to be sent
+         */
+        @Override
+        public final void command(final Command cmd) {
+            runSync(lock, () -> {
+                if (select(channel)) { // write to other channel is worse than lost write
+                    conn.command(cmd);
+                } else {
+                    skipped++;
+                }
+            });
+        }
+
+        /**
+         * Select channel and send single byte in command mode to the device.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> GPIO I/O calls
+         * <br><b>Created on:</b> <i>4:49:17 PM May 4, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.SSD1306Connection#command(byte)
+         * @param value
+         *            byte value to be sent
+         */
+        @Override
+        public final void command(final byte value) {
+            runSync(lock, () -> {
+                if (select(channel)) {
+                    conn.command(value);
+                } else {
+                    skipped++;
+                }
+            });
+        }
+
+        /**
+         * Select channel and write single data byte to the device.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> GPIO I/O calls
+         * <br><b>Created on:</b> <i>4:50:26 PM May 4, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.SSD1306Connection#data(byte)
+         * @param singleByte
+         *            single byte to be written
+         */
+        @Override
+        public final void data(final byte singleByte) {
+            runSync(lock, () -> {
+                if (select(channel)) {
+                    conn.data(singleByte);
+                } else {
+                    skipped++;
+                }
+            });
+        }
+
+        /**
+         * Select channel and write data buffer to the device.
+         * <p><b>PRE-conditions:</b> non-null {@code buffer}
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> GPIO I/O calls
+         * <br><b>Created on:</b> <i>4:51:38 PM May 4, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.SSD1306Connection#data(byte[])
+         * @param buffer
+         *            data buffer to be written
+         */
+        @Override
+        public final void data(final byte[] buffer) {
+            runSync(lock, () -> {
+                if (select(channel)) {
+                    conn.data(buffer);
+                } else {
+                    skipped++;
+                }
+            });
+        }
+
+        /**
+         * Select channel and write part of the data buffer to the device.
+         * <p><b>PRE-conditions:</b> non-null {@code buffer}, valid {@code offset} and {@code length}
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> GPIO I/O calls
+         * <br><b>Created on:</b> <i>9:52:16 PM May 6, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.SSD1306Connection#data(byte[], int, int)
+         * @param buffer
+         *            data buffer
+         * @param offset
+         *            index of the first byte to be written
+         * @param length
+         *            number of bytes to be written
+         */
+        @Override
+        public final void data(final byte[] buffer, final int offset, final int length) {
+            runSync(lock, () -> {
+                if (select(channel)) {
+                    conn.data(buffer, offset, length);
+                } else {
+                    skipped++;
+                }
+            });
+        }
+
+        /**
+         * Get number of failed writes to the device, including writes skipped because channel could not be selected.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> {@code result} &gt;= 0
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>2:48:05 PM Jul 26, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.SSD1306Connection#failures()
+         * @return number of failed writes
+         */
+        @Override
+        public final long failures() {
+            return skipped + conn.failures();
+        }
+
+        /**
+         * Get identifier of the bus of the device, which is the bus of the multiplexer.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-empty {@code result}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>4:52:44 PM May 4, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.SSD1306Connection#busId()
+         * @return bus identifier
+         */
+        @Override
+        public final String busId() {
+            return conn.busId();
+        }
+
+        /**
+         * Check whether channel of this connection is the active multiplexer channel.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>4:53:50 PM May 4, 2017</i>
+         * 
+         * @see dburyak.pi.ssd1306.SSD1306Connection#isSelected()
+         * @return true if channel of this connection is active
+         */
+        @Override
+        public final boolean isSelected() {
+            return activeChannel == channel && conn.isSelected();
+        }
+
+        /**
+         * Get string representation of this connection.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> non-empty {@code result}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>4:54:57 PM May 4, 2017</i>
+         * 
+         * @see java.lang.Object#toString()
+         * @return string representation of this object
+         */
+        @SuppressWarnings("nls")
+        @Override
+        public final String toString() {
+            return notNull(new StringBuilder()
+                .append("{mux=[").append(TCA9548A.this)
+                .append("],channel=[").append(channel)
+                .append("],conn=[").append(conn)
+                .append("]}")
+                .toString());
+        }
+    }
+
+}
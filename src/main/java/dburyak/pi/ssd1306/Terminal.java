@@ -0,0 +1,551 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Character-cell terminal on top of the display. Screen is a grid of characters with attributes, each character is
+ * drawn with {@link PackedFont} into a page aligned cell. Only cells that differ from what is shown are sent on
+ * {@link #flush()}, so typing single character costs one glyph cell on the bus.
+ * <p>Lines are kept in a ring that covers display RAM rows. Line feed on the bottom line moves display start line (see
+ * {@link Display#startLine(int)}) by one cell height instead of redrawing the whole screen. If cell height does not
+ * divide display RAM height, lines are moved in the terminal and changed cells are sent.
+ * <p>Terminal writes display RAM directly and does not use display buffer and image, so {@link Display#sync()} and
+ * page flipping should not be used while terminal is shown.
+ * <p><b>Created on:</b> <i>11:05:20 AM Jun 1, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class Terminal {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>11:05:58 AM Jun 1, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(Terminal.class));
+
+    /**
+     * Attribute : character is drawn inverted.
+     * <p><b>Created on:</b> <i>11:06:30 AM Jun 1, 2017</i>
+     */
+    public static final int INVERSE = 0x01;
+
+    /**
+     * Attribute : character is underlined.
+     * <p><b>Created on:</b> <i>11:07:02 AM Jun 1, 2017</i>
+     */
+    public static final int UNDERLINE = 0x02;
+
+    /**
+     * Blank character.
+     * <p><b>Created on:</b> <i>11:07:35 AM Jun 1, 2017</i>
+     */
+    private static final char BLANK = ' ';
+
+    /**
+     * Tab stop width.
+     * <p><b>Created on:</b> <i>11:08:08 AM Jun 1, 2017</i>
+     */
+    private static final int TAB = 8;
+
+
+    /**
+     * Display to draw on.
+     * <p><b>Created on:</b> <i>11:08:40 AM Jun 1, 2017</i>
+     */
+    private final Display display;
+
+    /**
+     * Font of the terminal.
+     * <p><b>Created on:</b> <i>11:09:12 AM Jun 1, 2017</i>
+     */
+    private final PackedFont font;
+
+    /**
+     * Number of characters in line.
+     * <p><b>Created on:</b> <i>11:09:45 AM Jun 1, 2017</i>
+     */
+    private final int columns;
+
+    /**
+     * Number of visible lines.
+     * <p><b>Created on:</b> <i>11:10:18 AM Jun 1, 2017</i>
+     */
+    private final int rows;
+
+    /**
+     * Number of lines in the ring.
+     * <p><b>Created on:</b> <i>11:10:50 AM Jun 1, 2017</i>
+     */
+    private final int ringLines;
+
+    /**
+     * Whether line feed is done by moving display start line.
+     * <p><b>Created on:</b> <i>11:11:22 AM Jun 1, 2017</i>
+     */
+    private final boolean isHardwareScroll;
+
+    /**
+     * Characters of the ring lines, line after line.
+     * <p><b>Created on:</b> <i>11:11:55 AM Jun 1, 2017</i>
+     */
+    private final char[] chars;
+
+    /**
+     * Attributes of the ring lines, line after line.
+     * <p><b>Created on:</b> <i>11:12:28 AM Jun 1, 2017</i>
+     */
+    private final byte[] attrs;
+
+    /**
+     * Characters that are shown in display RAM.
+     * <p><b>Created on:</b> <i>11:13:00 AM Jun 1, 2017</i>
+     */
+    private final char[] shownChars;
+
+    /**
+     * Attributes that are shown in display RAM.
+     * <p><b>Created on:</b> <i>11:13:32 AM Jun 1, 2017</i>
+     */
+    private final byte[] shownAttrs;
+
+    /**
+     * Image of the display RAM that changed cells are rendered into.
+     * <p><b>Created on:</b> <i>11:14:05 AM Jun 1, 2017</i>
+     */
+    private final byte[] ram;
+
+    /**
+     * Ring line that is shown on the top of the screen.
+     * <p><b>Created on:</b> <i>11:14:38 AM Jun 1, 2017</i>
+     */
+    private int top = 0;
+
+    /**
+     * Cursor column.
+     * <p><b>Created on:</b> <i>11:15:10 AM Jun 1, 2017</i>
+     */
+    private int cursorCol = 0;
+
+    /**
+     * Cursor line (visible line number).
+     * <p><b>Created on:</b> <i>11:15:42 AM Jun 1, 2017</i>
+     */
+    private int cursorRow = 0;
+
+    /**
+     * Attributes of printed characters.
+     * <p><b>Created on:</b> <i>11:16:15 AM Jun 1, 2017</i>
+     */
+    private byte attributes = 0;
+
+    /**
+     * Whether display RAM content is unknown and should be sent as a whole on next flush.
+     * <p><b>Created on:</b> <i>11:16:48 AM Jun 1, 2017</i>
+     */
+    private boolean isFresh = true;
+
+    /**
+     * Start line that is set on the display, -1 if not set yet.
+     * <p><b>Created on:</b> <i>11:17:20 AM Jun 1, 2017</i>
+     */
+    private int shownStartLine = -1;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Terminal.<p>
+     * <p><b>PRE-conditions:</b> see {@link #newInstance(Display, PackedFont)}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:18:02 AM Jun 1, 2017</i>
+     * 
+     * @param display
+     *            display to draw on
+     * @param font
+     *            font of the terminal
+     */
+    private Terminal(final Display display, final PackedFont font) {
+        this.display = display;
+        this.font = font;
+        columns = display.width() / font.cellWidth();
+        rows = display.height() / font.cellHeight();
+        isHardwareScroll = (Display.RAM_ROWS % font.cellHeight() == 0);
+        ringLines = isHardwareScroll ? Display.RAM_ROWS / font.cellHeight() : rows;
+        chars = new char[ringLines * columns];
+        attrs = new byte[ringLines * columns];
+        shownChars = new char[chars.length];
+        shownAttrs = new byte[attrs.length];
+        ram = new byte[Display.RAM_PAGES * display.width()];
+        Arrays.fill(chars, BLANK);
+    }
+
+    /**
+     * Create new {@link Terminal} instance.
+     * <p><b>PRE-conditions:</b> non-null {@code display}, non-null {@code font}, at least one character cell fits into
+     * the display
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:19:30 AM Jun 1, 2017</i>
+     * 
+     * @param display
+     *            display to draw on
+     * @param font
+     *            font of the terminal
+     * @return new {@link Terminal} instance
+     */
+    public static final Terminal newInstance(final Display display, final PackedFont font) {
+        isTrue(font.cellWidth() <= display.width() && font.cellHeight() <= display.height());
+        return new Terminal(display, font);
+    }
+
+    /**
+     * Print text at the cursor position. Cursor is moved after the printed text. Lines that do not fit are wrapped,
+     * {@code '\n'} moves cursor to the start of next line, {@code '\r'} moves cursor to the start of current line,
+     * {@code '\t'} moves cursor to the next tab stop. Screen content is moved up when cursor goes below the bottom
+     * line.
+     * <p><b>PRE-conditions:</b> non-null {@code text}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:21:05 AM Jun 1, 2017</i>
+     * 
+     * @param text
+     *            text to print
+     * @return this instance (for call chaining)
+     */
+    public final Terminal print(final CharSequence text) {
+        LOG.traceEntry("text = [{}]", text);
+
+        for (int i = 0 ; i < text.length() ; i++) {
+            final char ch = text.charAt(i);
+            if (ch == '\n') {
+                cursorCol = 0;
+                lineFeed();
+            } else if (ch == '\r') {
+                cursorCol = 0;
+            } else if (ch == '\t') {
+                cursorCol = Math.min(columns - 1, (cursorCol / TAB + 1) * TAB);
+            } else {
+                if (cursorCol == columns) { // wrap is done lazily, so that full line does not leave empty line below
+                    cursorCol = 0;
+                    lineFeed();
+                }
+                final int index = index(cursorRow, cursorCol);
+                chars[index] = ch;
+                attrs[index] = attributes;
+                cursorCol++;
+            }
+        }
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Print text and move cursor to the start of next line.
+     * <p><b>PRE-conditions:</b> non-null {@code text}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:22:40 AM Jun 1, 2017</i>
+     * 
+     * @param text
+     *            text to print
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings("nls")
+    public final Terminal println(final CharSequence text) {
+        return print(text).print("\n");
+    }
+
+    /**
+     * Put character into specified cell. Cursor is not moved.
+     * <p><b>PRE-conditions:</b> cell is inside of the screen
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:24:15 AM Jun 1, 2017</i>
+     * 
+     * @param col
+     *            cell column
+     * @param row
+     *            cell line
+     * @param ch
+     *            character
+     * @param attributes
+     *            character attributes, combination of {@link #INVERSE} and {@link #UNDERLINE}
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final Terminal put(final int col, final int row, final char ch, final int attributes) {
+        LOG.traceEntry("col = [{}] ; row = [{}] ; ch = [{}] ; attributes = [{}]", col, row, ch, attributes);
+        isTrue(0 <= col && col < columns && 0 <= row && row < rows);
+
+        final int index = index(row, col);
+        chars[index] = ch;
+        attrs[index] = (byte) attributes;
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Move cursor to specified cell.
+     * <p><b>PRE-conditions:</b> cell is inside of the screen
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:25:50 AM Jun 1, 2017</i>
+     * 
+     * @param col
+     *            cell column
+     * @param row
+     *            cell line
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final Terminal cursor(final int col, final int row) {
+        LOG.traceEntry("col = [{}] ; row = [{}]", col, row);
+        isTrue(0 <= col && col < columns && 0 <= row && row < rows);
+
+        cursorCol = col;
+        cursorRow = row;
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Set attributes of characters printed after this call.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:27:12 AM Jun 1, 2017</i>
+     * 
+     * @param attributes
+     *            combination of {@link #INVERSE} and {@link #UNDERLINE}
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final Terminal attributes(final int attributes) {
+        LOG.traceEntry("attributes = [{}]", attributes);
+
+        this.attributes = (byte) attributes;
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Clear the screen and move cursor to the top left cell. Whole display RAM is rewritten on next {@link #flush()}.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:28:45 AM Jun 1, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    public final Terminal clear() {
+        LOG.traceEntry();
+
+        Arrays.fill(chars, BLANK);
+        Arrays.fill(attrs, (byte) 0);
+        top = 0;
+        cursorCol = 0;
+        cursorRow = 0;
+        isFresh = true;
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Send changed cells to the display. For each ring line only the run of cells from the first changed one to the
+     * last changed one is sent. Display start line is updated after the cells, so that new bottom line is shown
+     * already drawn.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>11:30:20 AM Jun 1, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    public final Terminal flush() {
+        LOG.traceEntry();
+
+        final int width = display.width();
+        if (isFresh) { // display RAM content is unknown, including margins that are not covered by cells
+            Arrays.fill(ram, (byte) 0);
+            for (int line = 0 ; line < ringLines ; line++) {
+                render(line, 0, columns - 1);
+            }
+            display.flush(ram, Region.full(width, Display.RAM_PAGES), 0);
+            System.arraycopy(chars, 0, shownChars, 0, chars.length);
+            System.arraycopy(attrs, 0, shownAttrs, 0, attrs.length);
+            isFresh = false;
+        } else {
+            for (int line = 0 ; line < ringLines ; line++) {
+                final int offset = line * columns;
+                int first = -1;
+                int last = -1;
+                for (int col = 0 ; col < columns ; col++) {
+                    final int index = offset + col;
+                    if (chars[index] != shownChars[index] || attrs[index] != shownAttrs[index]) {
+                        if (first < 0) {
+                            first = col;
+                        }
+                        last = col;
+                    }
+                }
+                if (first >= 0) {
+                    render(line, first, last);
+                    final int pageStart = line * font.cellPages();
+                    display.flush(ram, Region.of(first * font.cellWidth(), (last + 1) * font.cellWidth() - 1,
+                        pageStart, pageStart + font.cellPages() - 1), 0);
+                    System.arraycopy(chars, offset + first, shownChars, offset + first, last - first + 1);
+                    System.arraycopy(attrs, offset + first, shownAttrs, offset + first, last - first + 1);
+                }
+            }
+        }
+        final int startLine = top * font.cellHeight();
+        if (startLine != shownStartLine) {
+            display.startLine(startLine);
+            shownStartLine = startLine;
+        }
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Render cells of the ring line into {@link #ram}.
+     * <p><b>PRE-conditions:</b> line is inside of the ring, {@code first <= last} are inside of the line
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@link #ram} is modified
+     * <br><b>Created on:</b> <i>11:33:05 AM Jun 1, 2017</i>
+     * 
+     * @param line
+     *            ring line
+     * @param first
+     *            first cell column
+     * @param last
+     *            last cell column (inclusive)
+     */
+    private final void render(final int line, final int first, final int last) {
+        final int width = display.width();
+        final int page = line * font.cellPages();
+        final int underline = (page + font.cellPages() - 1) * width; // bottom row of the cell
+        for (int col = first ; col <= last ; col++) {
+            final int index = line * columns + col;
+            final int x = col * font.cellWidth();
+            font.copy(chars[index], (attrs[index] & INVERSE) != 0, ram, width, page, x);
+            if ((attrs[index] & UNDERLINE) != 0) {
+                for (int i = 0 ; i < font.cellWidth() ; i++) {
+                    ram[underline + x + i] ^= 0x80;
+                }
+            }
+        }
+    }
+
+    /**
+     * Move cursor to the next line. If cursor is on the bottom line, screen content is moved up by one line.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:35:30 AM Jun 1, 2017</i>
+     */
+    private final void lineFeed() {
+        if (cursorRow < rows - 1) {
+            cursorRow++;
+        } else if (isHardwareScroll) { // line below the bottom one may hold old text, it is cleared when shown
+            top = (top + 1) % ringLines;
+            clearLine((top + rows - 1) % ringLines);
+        } else {
+            System.arraycopy(chars, columns, chars, 0, (ringLines - 1) * columns);
+            System.arraycopy(attrs, columns, attrs, 0, (ringLines - 1) * columns);
+            clearLine(ringLines - 1);
+        }
+    }
+
+    /**
+     * Fill ring line with blanks.
+     * <p><b>PRE-conditions:</b> line is inside of the ring
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:36:58 AM Jun 1, 2017</i>
+     * 
+     * @param line
+     *            ring line
+     */
+    private final void clearLine(final int line) {
+        Arrays.fill(chars, line * columns, (line + 1) * columns, BLANK);
+        Arrays.fill(attrs, line * columns, (line + 1) * columns, (byte) 0);
+    }
+
+    /**
+     * Get index of the visible cell in the ring.
+     * <p><b>PRE-conditions:</b> cell is inside of the screen
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:38:20 AM Jun 1, 2017</i>
+     * 
+     * @param row
+     *            visible line
+     * @param col
+     *            cell column
+     * @return index of the cell
+     */
+    private final int index(final int row, final int col) {
+        return ((top + row) % ringLines) * columns + col;
+    }
+
+    /**
+     * Get number of characters in line.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:39:45 AM Jun 1, 2017</i>
+     * 
+     * @return number of columns
+     */
+    public final int columns() {
+        return columns;
+    }
+
+    /**
+     * Get number of visible lines.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:40:20 AM Jun 1, 2017</i>
+     * 
+     * @return number of lines
+     */
+    public final int rows() {
+        return rows;
+    }
+
+    /**
+     * Get string representation of this terminal.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>11:41:02 AM Jun 1, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this terminal
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{size=[").append(columns).append('x').append(rows)
+            .append("],font=[").append(font)
+            .append("],hwScroll=[").append(isHardwareScroll)
+            .append("],cursor=[").append(cursorCol).append(',').append(cursorRow)
+            .append("]}")
+            .toString());
+    }
+
+}
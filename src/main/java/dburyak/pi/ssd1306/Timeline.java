@@ -0,0 +1,467 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Animation timeline. Each track drives single property (position, contrast, visibility, scroll offset, etc.) from
+ * one value to another with an {@link Easing} function on monotonic clock ({@link System#nanoTime()}). Property
+ * values are quantized (integers by default), and frame is produced only when at least one quantized value changes.
+ * Between frames timeline parks the thread until the moment of the next visible change, so there is no CPU or bus
+ * activity while nothing changes on the screen.
+ * <p>Typical use :
+ * <pre>
+ * Timeline.newInstance(display::sync)
+ *     .track(x -&gt; node.position(x, 10), 0, 100, Duration.ZERO, Duration.ofSeconds(2), Easing.QUAD_OUT)
+ *     .track(v -&gt; display.contrast(v / 255.0D), 255, 0, Duration.ofSeconds(2), Duration.ofSeconds(1), Easing.LINEAR)
+ *     .play();
+ * </pre>
+ * <p><b>Created on:</b> <i>3:15:20 PM Jun 19, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class Timeline {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>3:15:58 PM Jun 19, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(Timeline.class));
+
+    /**
+     * Marker of the time when track does not change anymore.
+     * <p><b>Created on:</b> <i>3:16:30 PM Jun 19, 2017</i>
+     */
+    private static final long NEVER = Long.MAX_VALUE;
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Single property track.
+     * <p><b>Created on:</b> <i>3:17:02 PM Jun 19, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    private static final class Track {
+
+        /**
+         * Property setter.
+         * <p><b>Created on:</b> <i>3:17:35 PM Jun 19, 2017</i>
+         */
+        private final DoubleConsumer target;
+
+        /**
+         * Start value.
+         * <p><b>Created on:</b> <i>3:18:08 PM Jun 19, 2017</i>
+         */
+        private final double from;
+
+        /**
+         * Number of quanta from the start value to the end value, negative if value decreases.
+         * <p><b>Created on:</b> <i>3:18:40 PM Jun 19, 2017</i>
+         */
+        private final double quanta;
+
+        /**
+         * Value quantum.
+         * <p><b>Created on:</b> <i>3:19:12 PM Jun 19, 2017</i>
+         */
+        private final double quantum;
+
+        /**
+         * Track start, nanoseconds since timeline start.
+         * <p><b>Created on:</b> <i>3:19:45 PM Jun 19, 2017</i>
+         */
+        private final long start;
+
+        /**
+         * Track end, nanoseconds since timeline start.
+         * <p><b>Created on:</b> <i>3:20:18 PM Jun 19, 2017</i>
+         */
+        private final long end;
+
+        /**
+         * Easing function.
+         * <p><b>Created on:</b> <i>3:20:50 PM Jun 19, 2017</i>
+         */
+        private final Easing easing;
+
+        /**
+         * Number of quanta of the applied value, {@link Long#MIN_VALUE} if nothing is applied yet.
+         * <p><b>Created on:</b> <i>3:21:22 PM Jun 19, 2017</i>
+         */
+        private long applied = Long.MIN_VALUE;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Timeline.Track.<p>
+         * <p><b>PRE-conditions:</b> non-null {@code target}, positive {@code quantum}, {@code start <= end},
+         * non-null {@code easing}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>3:22:05 PM Jun 19, 2017</i>
+         * 
+         * @param target
+         *            property setter
+         * @param from
+         *            start value
+         * @param to
+         *            end value
+         * @param quantum
+         *            value quantum
+         * @param start
+         *            track start, nanoseconds since timeline start
+         * @param end
+         *            track end, nanoseconds since timeline start
+         * @param easing
+         *            easing function
+         */
+        Track(
+            final DoubleConsumer target,
+            final double from,
+            final double to,
+            final double quantum,
+            final long start,
+            final long end,
+            final Easing easing) {
+
+            this.target = target;
+            this.from = from;
+            this.quantum = quantum;
+            this.start = start;
+            this.end = end;
+            this.easing = easing;
+            quanta = (to - from) / quantum;
+        }
+
+        /**
+         * Get number of quanta of the value at specified time.
+         * <p><b>PRE-conditions:</b> {@code time >= start}
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>3:23:30 PM Jun 19, 2017</i>
+         * 
+         * @param time
+         *            nanoseconds since timeline start
+         * @return number of quanta
+         */
+        final long step(final long time) {
+            final double t = (time >= end) ? 1.0D : (double) (time - start) / (end - start);
+            return Math.round(quanta * easing.apply(t));
+        }
+
+        /**
+         * Apply value of the track at specified time, if it differs from the applied one.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> property may be changed
+         * <br><b>Created on:</b> <i>3:24:45 PM Jun 19, 2017</i>
+         * 
+         * @param time
+         *            nanoseconds since timeline start
+         * @return true if value was applied
+         */
+        final boolean apply(final long time) {
+            if (time < start) {
+                return false;
+            }
+            final long step = step(time);
+            if (step == applied) {
+                return false;
+            }
+            applied = step;
+            target.accept(from + step * quantum);
+            return true;
+        }
+
+        /**
+         * Find the first moment after specified time when value of the track changes. Easing functions are monotonic,
+         * so the moment is found by bisection.
+         * <p><b>PRE-conditions:</b> value at {@code time} is applied
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>3:26:10 PM Jun 19, 2017</i>
+         * 
+         * @param time
+         *            nanoseconds since timeline start
+         * @return nanoseconds since timeline start, {@link Timeline#NEVER} if value does not change anymore
+         */
+        final long nextChange(final long time) {
+            if (time < start) {
+                return start;
+            }
+            if (time >= end || step(end) == applied) {
+                return NEVER;
+            }
+            long lo = time; // value at lo is applied
+            long hi = end; // value at hi differs
+            while (hi - lo > 1) {
+                final long mid = lo + (hi - lo) / 2;
+                if (step(mid) == applied) {
+                    lo = mid;
+                } else {
+                    hi = mid;
+                }
+            }
+            return hi;
+        }
+
+    }
+
+
+    /**
+     * Action that shows the frame after properties are changed, usually {@link Display#sync()}.
+     * <p><b>Created on:</b> <i>3:28:02 PM Jun 19, 2017</i>
+     */
+    private final Runnable onFrame;
+
+    /**
+     * Tracks of the timeline.
+     * <p><b>Created on:</b> <i>3:28:35 PM Jun 19, 2017</i>
+     */
+    private final List<Track> tracks = new ArrayList<>();
+
+    /**
+     * Minimum time between frames in nanoseconds.
+     * <p><b>Created on:</b> <i>3:29:08 PM Jun 19, 2017</i>
+     */
+    private long frameIntervalMin = 0L;
+
+    /**
+     * Number of frames shown on last play.
+     * <p><b>Created on:</b> <i>3:29:40 PM Jun 19, 2017</i>
+     */
+    private long frames = 0L;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Timeline.<p>
+     * <p><b>PRE-conditions:</b> non-null {@code onFrame}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:30:15 PM Jun 19, 2017</i>
+     * 
+     * @param onFrame
+     *            action that shows the frame
+     */
+    private Timeline(final Runnable onFrame) {
+        this.onFrame = onFrame;
+    }
+
+    /**
+     * Create new {@link Timeline} instance.
+     * <p><b>PRE-conditions:</b> non-null {@code onFrame}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:30:50 PM Jun 19, 2017</i>
+     * 
+     * @param onFrame
+     *            action that shows the frame after properties are changed, usually {@link Display#sync()}
+     * @return new {@link Timeline} instance
+     */
+    public static final Timeline newInstance(final Runnable onFrame) {
+        return new Timeline(onFrame);
+    }
+
+    /**
+     * Add track of integer property.
+     * <p><b>PRE-conditions:</b> non-null {@code target}, non-negative {@code delay} and {@code duration}, non-null
+     * {@code easing}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:32:05 PM Jun 19, 2017</i>
+     * 
+     * @param target
+     *            property setter
+     * @param from
+     *            start value
+     * @param to
+     *            end value
+     * @param delay
+     *            time from timeline start to track start
+     * @param duration
+     *            track duration
+     * @param easing
+     *            easing function
+     * @return this instance (for call chaining)
+     */
+    public final Timeline track(
+        final IntConsumer target,
+        final int from,
+        final int to,
+        final Duration delay,
+        final Duration duration,
+        final Easing easing) {
+
+        return track(value -> target.accept((int) Math.round(value)), from, to, 1.0D, delay, duration, easing);
+    }
+
+    /**
+     * Add track of fractional property. Value is changed in steps of {@code quantum}, so that frames are not produced
+     * for changes that are not visible.
+     * <p><b>PRE-conditions:</b> non-null {@code target}, positive {@code quantum}, non-negative {@code delay} and
+     * {@code duration}, non-null {@code easing}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:34:20 PM Jun 19, 2017</i>
+     * 
+     * @param target
+     *            property setter
+     * @param from
+     *            start value
+     * @param to
+     *            end value
+     * @param quantum
+     *            value step
+     * @param delay
+     *            time from timeline start to track start
+     * @param duration
+     *            track duration
+     * @param easing
+     *            easing function
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final Timeline track(
+        final DoubleConsumer target,
+        final double from,
+        final double to,
+        final double quantum,
+        final Duration delay,
+        final Duration duration,
+        final Easing easing) {
+
+        LOG.traceEntry("from = [{}] ; to = [{}] ; quantum = [{}] ; delay = [{}] ; duration = [{}] ; easing = [{}]",
+            from, to, quantum, delay, duration, easing);
+        isTrue(quantum > 0.0D && !delay.isNegative() && !duration.isNegative());
+
+        final long start = delay.toNanos();
+        tracks.add(new Track(target, from, to, quantum, start, start + duration.toNanos(), easing));
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Set minimum time between frames. Useful if frame takes longer to show than the changes come.
+     * <p><b>PRE-conditions:</b> non-negative {@code interval}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:36:02 PM Jun 19, 2017</i>
+     * 
+     * @param interval
+     *            minimum time between frames
+     * @return this instance (for call chaining)
+     */
+    public final Timeline frameIntervalMin(final Duration interval) {
+        isTrue(!interval.isNegative());
+        frameIntervalMin = interval.toNanos();
+        return this;
+    }
+
+    /**
+     * Play the timeline on current thread until all tracks are finished. Frame is shown only when some property
+     * changed, and thread is parked until the next change otherwise. Playing stops early if the thread is
+     * interrupted, interruption status is kept.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> properties are changed, frames are shown, this method blocks
+     * <br><b>Created on:</b> <i>3:38:15 PM Jun 19, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final Timeline play() {
+        LOG.traceEntry();
+
+        for (final Track track : tracks) {
+            track.applied = Long.MIN_VALUE;
+        }
+        frames = 0L;
+        final long origin = System.nanoTime();
+        long lastFrame = Long.MIN_VALUE;
+        while (true) {
+            final long now = System.nanoTime() - origin;
+            boolean isChanged = false;
+            for (final Track track : tracks) {
+                isChanged |= track.apply(now);
+            }
+            if (isChanged) {
+                onFrame.run();
+                frames++;
+                lastFrame = now;
+            }
+
+            long next = NEVER;
+            for (final Track track : tracks) {
+                next = Math.min(next, track.nextChange(now));
+            }
+            if (next == NEVER) {
+                break;
+            }
+            if (lastFrame != Long.MIN_VALUE) {
+                next = Math.max(next, lastFrame + frameIntervalMin);
+            }
+            long wait;
+            while ((wait = next - (System.nanoTime() - origin)) > 0) { // park may return early
+                LockSupport.parkNanos(this, wait);
+                if (Thread.currentThread().isInterrupted()) {
+                    LOG.warn("timeline interrupted : frames = [%d]", frames);
+                    return notNull(LOG.traceExit(this));
+                }
+            }
+        }
+        LOG.debug("timeline finished : frames = [%d]", frames);
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Get number of frames shown on last play.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> {@code result} &gt;= 0
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:40:30 PM Jun 19, 2017</i>
+     * 
+     * @return number of frames
+     */
+    public final long frames() {
+        return frames;
+    }
+
+    /**
+     * Get string representation of this timeline.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>3:41:05 PM Jun 19, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this timeline
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{tracks=[").append(tracks.size())
+            .append("],frames=[").append(frames)
+            .append("]}")
+            .toString());
+    }
+
+}
@@ -0,0 +1,423 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.time.Duration;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Screen transitions computed on packed frames. Old frame is the one that was last sent to the display, new frame is
+ * packed from the current display image. Each step of the transition is composed directly from the packed frames
+ * (columns are moved as bytes, rows are moved with bit shifts), and only the window that differs from the previous
+ * step is sent. Number of steps is limited by the bus budget, so transition takes specified time on slow buses too.
+ * <p>On panels that are not higher than half of display RAM (128x32, 96x16), vertical pushes are done by hardware :
+ * new frame is written once to the hidden part of RAM, and each step costs single start line command (see
+ * {@link Display#startLine(int)}).
+ * <p><b>Created on:</b> <i>5:10:20 PM Jun 26, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class Transition {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>5:10:58 PM Jun 26, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(Transition.class));
+
+    /**
+     * Default bus budget, bytes per second : 400 kHz I2C bus, 9 clocks per byte.
+     * <p><b>Created on:</b> <i>5:11:30 PM Jun 26, 2017</i>
+     */
+    private static final int BUS_BUDGET_DFLT = 400_000 / 9;
+
+    /**
+     * Minimum time between steps, nanoseconds (60 steps per second).
+     * <p><b>Created on:</b> <i>5:12:02 PM Jun 26, 2017</i>
+     */
+    private static final long STEP_INTERVAL_MIN = 1_000_000_000L / 60;
+
+    /**
+     * Estimated bus bytes of addressing commands of one step.
+     * <p><b>Created on:</b> <i>5:12:35 PM Jun 26, 2017</i>
+     */
+    private static final int STEP_OVERHEAD = 16;
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Transition effect.
+     * <p><b>Created on:</b> <i>5:13:08 PM Jun 26, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    public static enum Effect {
+            /**
+             * New frame is revealed column by column from the right edge to the left one. Each column is sent once.
+             * <p><b>Created on:</b> <i>5:13:40 PM Jun 26, 2017</i>
+             */
+            WIPE_LEFT,
+
+            /**
+             * New frame is revealed column by column from the left edge to the right one. Each column is sent once.
+             * <p><b>Created on:</b> <i>5:14:12 PM Jun 26, 2017</i>
+             */
+            WIPE_RIGHT,
+
+            /**
+             * New frame slides in from the right edge and pushes old frame out to the left.
+             * <p><b>Created on:</b> <i>5:14:45 PM Jun 26, 2017</i>
+             */
+            SLIDE_LEFT,
+
+            /**
+             * New frame slides in from the left edge and pushes old frame out to the right.
+             * <p><b>Created on:</b> <i>5:15:18 PM Jun 26, 2017</i>
+             */
+            SLIDE_RIGHT,
+
+            /**
+             * New frame comes from the bottom edge and pushes old frame up.
+             * <p><b>Created on:</b> <i>5:15:50 PM Jun 26, 2017</i>
+             */
+            PUSH_UP,
+
+            /**
+             * New frame comes from the top edge and pushes old frame down.
+             * <p><b>Created on:</b> <i>5:16:22 PM Jun 26, 2017</i>
+             */
+            PUSH_DOWN;
+    }
+
+
+    /**
+     * Display to show transition on.
+     * <p><b>Created on:</b> <i>5:16:55 PM Jun 26, 2017</i>
+     */
+    private final Display display;
+
+    /**
+     * Display width.
+     * <p><b>Created on:</b> <i>5:17:28 PM Jun 26, 2017</i>
+     */
+    private final int width;
+
+    /**
+     * Display height.
+     * <p><b>Created on:</b> <i>5:18:00 PM Jun 26, 2017</i>
+     */
+    private final int height;
+
+    /**
+     * Number of display pages.
+     * <p><b>Created on:</b> <i>5:18:32 PM Jun 26, 2017</i>
+     */
+    private final int pages;
+
+    /**
+     * Frame of the current step.
+     * <p><b>Created on:</b> <i>5:19:05 PM Jun 26, 2017</i>
+     */
+    private final byte[] frame;
+
+    /**
+     * Frame of the previous step.
+     * <p><b>Created on:</b> <i>5:19:38 PM Jun 26, 2017</i>
+     */
+    private final byte[] shown;
+
+    /**
+     * Bus budget, bytes per second.
+     * <p><b>Created on:</b> <i>5:20:10 PM Jun 26, 2017</i>
+     */
+    private int busBudget = BUS_BUDGET_DFLT;
+
+    /**
+     * Offset of the current step, in columns or rows depending on the effect.
+     * <p><b>Created on:</b> <i>5:20:42 PM Jun 26, 2017</i>
+     */
+    private int offset = 0;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.Transition.<p>
+     * <p><b>PRE-conditions:</b> non-null {@code display}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>5:21:15 PM Jun 26, 2017</i>
+     * 
+     * @param display
+     *            display to show transition on
+     */
+    private Transition(final Display display) {
+        this.display = display;
+        width = display.width();
+        height = display.height();
+        pages = display.buffer().length / width;
+        frame = new byte[display.buffer().length];
+        shown = new byte[frame.length];
+    }
+
+    /**
+     * Create new {@link Transition} instance.
+     * <p><b>PRE-conditions:</b> non-null {@code display}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>5:21:50 PM Jun 26, 2017</i>
+     * 
+     * @param display
+     *            display to show transition on
+     * @return new {@link Transition} instance
+     */
+    public static final Transition newInstance(final Display display) {
+        return new Transition(display);
+    }
+
+    /**
+     * Set bus budget. Steps that resend large part of the frame are spaced so that transition does not take more
+     * than this budget.
+     * <p><b>PRE-conditions:</b> positive {@code bytesPerSecond}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>5:23:05 PM Jun 26, 2017</i>
+     * 
+     * @param bytesPerSecond
+     *            bus bytes per second available for the transition
+     * @return this instance (for call chaining)
+     */
+    public final Transition busBudget(final int bytesPerSecond) {
+        isTrue(bytesPerSecond > 0);
+        busBudget = bytesPerSecond;
+        return this;
+    }
+
+    /**
+     * Show current display image with linear transition effect. See {@link #play(Effect, Duration, Easing)}.
+     * <p><b>PRE-conditions:</b> non-null {@code effect}, non-negative {@code duration}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> display buffer is modified, GPIO I/O calls, this method blocks
+     * <br><b>Created on:</b> <i>5:24:20 PM Jun 26, 2017</i>
+     * 
+     * @param effect
+     *            transition effect
+     * @param duration
+     *            transition duration
+     * @return this instance (for call chaining)
+     */
+    public final Transition play(final Effect effect, final Duration duration) {
+        return play(effect, duration, Easing.LINEAR);
+    }
+
+    /**
+     * Show current display image with transition effect. Content drawn on display image since last sync is the new
+     * frame, the frame that was sent last is the old one. This method blocks until the transition is finished, after
+     * that display shows the same as after {@link Display#sync()}.
+     * <p><b>PRE-conditions:</b> non-null {@code effect}, non-negative {@code duration}, non-null {@code easing}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> display buffer is modified, GPIO I/O calls, this method blocks
+     * <br><b>Created on:</b> <i>5:26:02 PM Jun 26, 2017</i>
+     * 
+     * @param effect
+     *            transition effect
+     * @param duration
+     *            transition duration
+     * @param easing
+     *            easing of the transition movement
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final Transition play(final Effect effect, final Duration duration, final Easing easing) {
+        LOG.traceEntry("effect = [{}] ; duration = [{}] ; easing = [{}]", effect, duration, easing);
+
+        final byte[] buffer = display.buffer();
+        final byte[] old = buffer.clone();
+        System.arraycopy(old, 0, shown, 0, old.length);
+        display.pack();
+
+        final boolean isVertical = (effect == Effect.PUSH_UP || effect == Effect.PUSH_DOWN);
+        final int distance = isVertical ? height : width;
+        final int startLine = display.startLine();
+        final boolean isHardware = isVertical && height * 2 <= Display.RAM_ROWS && startLine % 8 == 0;
+        final long stepBytes;
+        final Runnable step;
+        if (isHardware) {
+            final int up = (effect == Effect.PUSH_UP) ? 1 : -1;
+            final int hiddenLine = Math.floorMod(startLine + up * height, Display.RAM_ROWS);
+            display.flush(buffer, Region.full(width, pages), hiddenLine / 8);
+            stepBytes = 2;
+            step = () -> display.startLine(Math.floorMod(startLine + up * offset, Display.RAM_ROWS));
+        } else {
+            stepBytes = (effect == Effect.WIPE_LEFT || effect == Effect.WIPE_RIGHT) ? STEP_OVERHEAD
+                : STEP_OVERHEAD + buffer.length;
+            step = () -> step(effect, old, buffer);
+        }
+        final long interval = Math.max(STEP_INTERVAL_MIN, stepBytes * 1_000_000_000L / busBudget);
+        final Timeline timeline = Timeline.newInstance(step)
+            .track(value -> offset = value, 0, distance, Duration.ZERO, duration, easing)
+            .frameIntervalMin(Duration.ofNanos(interval));
+        timeline.play();
+        if (offset != distance) { // last step may be skipped if thread was interrupted
+            offset = distance;
+            step.run();
+        }
+        LOG.debug("transition finished : effect = [%s] ; hardware = [%s] ; steps = [%d]",
+            effect, isHardware, timeline.frames());
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Compose frame of the current step and send window that differs from the previous step.
+     * <p><b>PRE-conditions:</b> non-null {@code effect}, non-null {@code old} and {@code neu} frames
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>5:30:15 PM Jun 26, 2017</i>
+     * 
+     * @param effect
+     *            transition effect
+     * @param old
+     *            old frame
+     * @param neu
+     *            new frame
+     */
+    private final void step(final Effect effect, final byte[] old, final byte[] neu) {
+        switch (effect) {
+            case WIPE_LEFT:
+                for (int page = 0 ; page < pages ; page++) {
+                    final int row = page * width;
+                    System.arraycopy(old, row, frame, row, width - offset);
+                    System.arraycopy(neu, row + width - offset, frame, row + width - offset, offset);
+                }
+                break;
+            case WIPE_RIGHT:
+                for (int page = 0 ; page < pages ; page++) {
+                    final int row = page * width;
+                    System.arraycopy(neu, row, frame, row, offset);
+                    System.arraycopy(old, row + offset, frame, row + offset, width - offset);
+                }
+                break;
+            case SLIDE_LEFT:
+                for (int page = 0 ; page < pages ; page++) {
+                    final int row = page * width;
+                    System.arraycopy(old, row + offset, frame, row, width - offset);
+                    System.arraycopy(neu, row, frame, row + width - offset, offset);
+                }
+                break;
+            case SLIDE_RIGHT:
+                for (int page = 0 ; page < pages ; page++) {
+                    final int row = page * width;
+                    System.arraycopy(neu, row + width - offset, frame, row, offset);
+                    System.arraycopy(old, row, frame, row + offset, width - offset);
+                }
+                break;
+            case PUSH_UP:
+            case PUSH_DOWN:
+            default:
+                final long mask = (height == Long.SIZE) ? -1L : (1L << height) - 1;
+                final boolean isUp = (effect == Effect.PUSH_UP);
+                for (int col = 0 ; col < width ; col++) {
+                    final long oldBits = column(old, col);
+                    final long newBits = column(neu, col);
+                    final long bits = isUp
+                        ? shiftRight(oldBits, offset) | shiftLeft(newBits, height - offset)
+                        : shiftLeft(oldBits, offset) | shiftRight(newBits, height - offset);
+                    for (int page = 0 ; page < pages ; page++) {
+                        frame[page * width + col] = (byte) ((bits & mask) >>> (page * 8));
+                    }
+                }
+                break;
+        }
+        final @Nullable Region changed = Region.diff(shown, frame, width);
+        if (changed != null) {
+            display.flush(frame, changed);
+            System.arraycopy(frame, 0, shown, 0, frame.length);
+        }
+    }
+
+    /**
+     * Get bits of packed column, bit {@code n} is row {@code n}.
+     * <p><b>PRE-conditions:</b> non-null {@code packed} frame
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>5:32:40 PM Jun 26, 2017</i>
+     * 
+     * @param packed
+     *            packed frame
+     * @param col
+     *            column
+     * @return column bits
+     */
+    private final long column(final byte[] packed, final int col) {
+        long bits = 0L;
+        for (int page = 0 ; page < pages ; page++) {
+            bits |= (packed[page * width + col] & 0xFFL) << (page * 8);
+        }
+        return bits;
+    }
+
+    /**
+     * Shift bits left, shift by 64 or more gives zero.
+     * <p><b>PRE-conditions:</b> non-negative {@code count}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>5:33:55 PM Jun 26, 2017</i>
+     * 
+     * @param bits
+     *            bits to shift
+     * @param count
+     *            number of bits to shift by
+     * @return shifted bits
+     */
+    private static final long shiftLeft(final long bits, final int count) {
+        return (count >= Long.SIZE) ? 0L : bits << count;
+    }
+
+    /**
+     * Shift bits right, shift by 64 or more gives zero.
+     * <p><b>PRE-conditions:</b> non-negative {@code count}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>5:34:30 PM Jun 26, 2017</i>
+     * 
+     * @param bits
+     *            bits to shift
+     * @param count
+     *            number of bits to shift by
+     * @return shifted bits
+     */
+    private static final long shiftRight(final long bits, final int count) {
+        return (count >= Long.SIZE) ? 0L : bits >>> count;
+    }
+
+    /**
+     * Get string representation of this transition.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>5:35:10 PM Jun 26, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this transition
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{display=[").append(display)
+            .append("],busBudget=[").append(busBudget)
+            .append("]}")
+            .toString());
+    }
+
+}
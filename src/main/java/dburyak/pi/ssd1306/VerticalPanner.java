@@ -0,0 +1,322 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Display.RAM_PAGES;
+import static dburyak.pi.ssd1306.Display.RAM_ROWS;
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Vertical panning over content that is taller than the display. Panning is performed with hardware start line (see
+ * {@link Display#startLine(int)}) : display RAM is used as a ring of 64 rows, where content row {@code r} is always
+ * stored in RAM row {@code r % 64}. Moving the view costs one command, and only RAM pages that expose stale rows are
+ * rewritten. Rows of the ring that are not visible are filled with content that follows the view, so panels shorter
+ * than 64 rows pan over several pages without any data transfer.
+ * <p>Panner takes over display RAM : {@link Display#sync()} should not be used while panning, and
+ * {@link #invalidate()} should be called if display RAM was modified by anybody else.
+ * <p><b>Created on:</b> <i>2:10:44 PM May 16, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class VerticalPanner {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>2:11:20 PM May 16, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(VerticalPanner.class));
+
+    /**
+     * Marker of the RAM row with unknown content.
+     * <p><b>Created on:</b> <i>2:11:58 PM May 16, 2017</i>
+     */
+    private static final int ROW_UNKNOWN = -1;
+
+
+    /**
+     * Display to pan on.
+     * <p><b>Created on:</b> <i>2:12:33 PM May 16, 2017</i>
+     */
+    private final Display display;
+
+    /**
+     * Packed content, pages go one after another.
+     * <p><b>Created on:</b> <i>2:13:05 PM May 16, 2017</i>
+     */
+    private final byte[] content;
+
+    /**
+     * Content height in rows.
+     * <p><b>Created on:</b> <i>2:13:37 PM May 16, 2017</i>
+     */
+    private final int contentHeight;
+
+    /**
+     * Content row stored in each RAM row.
+     * <p><b>Created on:</b> <i>2:14:10 PM May 16, 2017</i>
+     */
+    private final int[] loaded = new int[RAM_ROWS];
+
+    /**
+     * Buffer for one RAM page to be written.
+     * <p><b>Created on:</b> <i>2:14:44 PM May 16, 2017</i>
+     */
+    private final byte[] pageBuffer;
+
+    /**
+     * Region of one page.
+     * <p><b>Created on:</b> <i>2:15:17 PM May 16, 2017</i>
+     */
+    private final Region pageRegion;
+
+    /**
+     * Content row displayed on the top of the panel.
+     * <p><b>Created on:</b> <i>2:15:49 PM May 16, 2017</i>
+     */
+    private int offset = 0;
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.VerticalPanner.<p>
+     * <p><b>PRE-conditions:</b> non-null {@code display}, non-null {@code content} of {@code display.width()} columns
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:16:30 PM May 16, 2017</i>
+     * 
+     * @param display
+     *            display to pan on
+     * @param content
+     *            packed content
+     * @param contentHeight
+     *            content height in rows
+     */
+    private VerticalPanner(final Display display, final byte[] content, final int contentHeight) {
+        this.display = display;
+        this.content = content;
+        this.contentHeight = contentHeight;
+        pageBuffer = new byte[display.width()];
+        pageRegion = Region.of(0, display.width() - 1, 0, 0);
+        Arrays.fill(loaded, ROW_UNKNOWN);
+    }
+
+    /**
+     * Create new {@link VerticalPanner} instance. Content is converted to black and white and packed once.
+     * <p><b>PRE-conditions:</b> non-null {@code display}, non-null {@code content},
+     * {@code content.getWidth() == display.width()}, {@code content.getHeight() >= display.height()}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:18:12 PM May 16, 2017</i>
+     * 
+     * @param display
+     *            display to pan on
+     * @param content
+     *            content image
+     * @return new {@link VerticalPanner} instance
+     */
+    public static final VerticalPanner newInstance(final Display display, final BufferedImage content) {
+        isTrue(content.getWidth() == display.width());
+        isTrue(content.getHeight() >= display.height());
+
+        return new VerticalPanner(display, Packer.pack(content), content.getHeight());
+    }
+
+    /**
+     * Get content row displayed on the top of the panel.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> 0 &lt;= {@code result} &lt;= {@link #maxOffset()}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:20:40 PM May 16, 2017</i>
+     * 
+     * @return current offset
+     */
+    public final int offset() {
+        return offset;
+    }
+
+    /**
+     * Get the largest possible offset, when the last content row is displayed on the bottom of the panel.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> {@code result} &gt;= 0
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:21:15 PM May 16, 2017</i>
+     * 
+     * @return max offset
+     */
+    public final int maxOffset() {
+        return contentHeight - display.height();
+    }
+
+    /**
+     * Show content starting from specified row on the top of the panel. RAM pages with stale visible rows are
+     * rewritten first, and then start line is changed.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code newOffset} &lt;= {@link #maxOffset()}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>2:23:02 PM May 16, 2017</i>
+     * 
+     * @param newOffset
+     *            content row to be displayed on the top of the panel
+     * @return this instance (for call chaining)
+     */
+    @SuppressWarnings({ "boxing", "nls" })
+    public final VerticalPanner scrollTo(final int newOffset) {
+        LOG.traceEntry("newOffset = [{}]", newOffset);
+        isTrue(0 <= newOffset && newOffset <= maxOffset());
+
+        final int start = newOffset % RAM_ROWS;
+        for (int page = 0 ; page < RAM_PAGES ; page++) {
+            if (isStale(page, newOffset, start)) {
+                LOG.trace("rewriting stale page : page = [%d] ; offset = [%d]", page, newOffset);
+                writePage(page, newOffset, start);
+            }
+        }
+        if (start != display.startLine()) {
+            display.startLine(start);
+        }
+        offset = newOffset;
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Move view by specified number of rows. Result offset is clamped to valid range.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>2:25:30 PM May 16, 2017</i>
+     * 
+     * @param rows
+     *            number of rows to move view down by, negative values move view up
+     * @return this instance (for call chaining)
+     */
+    public final VerticalPanner scrollBy(final int rows) {
+        return scrollTo(Math.max(0, Math.min(maxOffset(), offset + rows)));
+    }
+
+    /**
+     * Forget what is stored in display RAM. All visible pages are rewritten on the next scroll.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:26:48 PM May 16, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    public final VerticalPanner invalidate() {
+        Arrays.fill(loaded, ROW_UNKNOWN);
+        return this;
+    }
+
+    /**
+     * Get content row that should be stored in RAM row when view starts at specified offset. RAM ring is filled
+     * starting from the view top.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code ramRow} &lt; 64, {@code start == viewOffset % 64}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:28:10 PM May 16, 2017</i>
+     * 
+     * @param ramRow
+     *            RAM row
+     * @param viewOffset
+     *            view offset
+     * @param start
+     *            start line for the view offset
+     * @return content row
+     */
+    private static final int contentRow(final int ramRow, final int viewOffset, final int start) {
+        return viewOffset + Math.floorMod(ramRow - start, RAM_ROWS);
+    }
+
+    /**
+     * Check whether RAM page has visible rows with stale content.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code page} &lt; 8, {@code start == viewOffset % 64}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:30:02 PM May 16, 2017</i>
+     * 
+     * @param page
+     *            RAM page
+     * @param viewOffset
+     *            view offset
+     * @param start
+     *            start line for the view offset
+     * @return true if page should be rewritten
+     */
+    private final boolean isStale(final int page, final int viewOffset, final int start) {
+        for (int row = page * 8 ; row < page * 8 + 8 ; row++) {
+            final boolean isVisible = Math.floorMod(row - start, RAM_ROWS) < display.height();
+            if (isVisible && loaded[row] != contentRow(row, viewOffset, start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Write RAM page with content for specified view offset. Since content row is stored in RAM row with the same bit
+     * position, each byte is combined from at most two content pages.
+     * <p><b>PRE-conditions:</b> 0 &lt;= {@code page} &lt; 8, {@code start == viewOffset % 64}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>2:32:40 PM May 16, 2017</i>
+     * 
+     * @param page
+     *            RAM page
+     * @param viewOffset
+     *            view offset
+     * @param start
+     *            start line for the view offset
+     */
+    private final void writePage(final int page, final int viewOffset, final int start) {
+        final int width = display.width();
+        final int contentPages = content.length / width;
+        Arrays.fill(pageBuffer, (byte) 0);
+        for (int bit = 0 ; bit < 8 ; bit++) {
+            final int row = page * 8 + bit;
+            final int contentRow = contentRow(row, viewOffset, start);
+            final int contentPage = contentRow / 8;
+            if (contentPage < contentPages) { // rows below content are blank
+                final int mask = 1 << bit;
+                final int contentOffset = contentPage * width;
+                for (int col = 0 ; col < width ; col++) {
+                    pageBuffer[col] |= content[contentOffset + col] & mask;
+                }
+            }
+            loaded[row] = contentRow;
+        }
+        display.flush(pageBuffer, pageRegion, page);
+    }
+
+    /**
+     * Get string representation of this panner.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:35:11 PM May 16, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this panner
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{display=[").append(display)
+            .append("],contentHeight=[").append(contentHeight)
+            .append("],offset=[").append(offset)
+            .append("]}")
+            .toString());
+    }
+
+}
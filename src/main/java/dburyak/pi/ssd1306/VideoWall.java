@@ -0,0 +1,445 @@
+package dburyak.pi.ssd1306;
+
+
+import static dburyak.pi.ssd1306.Util.isTrue;
+import static dburyak.pi.ssd1306.Util.notNull;
+import static java.awt.Color.BLACK;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Logical canvas that spans a grid of displays (video wall). Whole area is drawn with single {@link Graphics2D}. On
+ * {@link #sync()} canvas is split into per-display tiles that are packed in parallel on a fork-join pool, and then every
+ * tile is sent to its display by {@link DisplayManager}, so displays on different buses are updated concurrently.
+ * <p>Displays of the grid may have any {@link Display.Dimensions}, but all displays in one grid row must have the same
+ * height and all displays in one grid column must have the same width.
+ * <p>Wall tracks shadow state of each tile, so only region of the tile that changed since previous sync is sent.
+ * <p>Like {@link Display}, this class is not thread safe : drawing and {@link #sync()} should be performed on the same
+ * thread.
+ * <p><b>Created on:</b> <i>6:40:18 PM May 9, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@NotThreadSafe
+public final class VideoWall {
+
+    /**
+     * Default system logger.
+     * <p><b>Created on:</b> <i>6:41:02 PM May 9, 2017</i>
+     */
+    private static final Logger LOG = notNull(LogManager.getFormatterLogger(VideoWall.class));
+
+
+    /**
+     * Manager that performs transfers.
+     * <p><b>Created on:</b> <i>6:41:40 PM May 9, 2017</i>
+     */
+    private final DisplayManager manager;
+
+    /**
+     * Pool for parallel packing of tiles.
+     * <p><b>Created on:</b> <i>6:42:11 PM May 9, 2017</i>
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Canvas image that covers whole wall.
+     * <p><b>Created on:</b> <i>6:42:43 PM May 9, 2017</i>
+     */
+    private final BufferedImage canvas;
+
+    /**
+     * Graphics to draw on canvas.
+     * <p><b>Created on:</b> <i>6:43:10 PM May 9, 2017</i>
+     */
+    private final Graphics2D graphics;
+
+    /**
+     * Tiles of the wall, row by row.
+     * <p><b>Created on:</b> <i>6:43:44 PM May 9, 2017</i>
+     */
+    private final List<Tile> tiles;
+
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Part of the canvas shown by one display.
+     * <p><b>Created on:</b> <i>6:44:20 PM May 9, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    private static final class Tile {
+
+        /**
+         * Display of the tile.
+         * <p><b>Created on:</b> <i>6:44:58 PM May 9, 2017</i>
+         */
+        private final Display display;
+
+        /**
+         * Left coordinate of the tile on canvas.
+         * <p><b>Created on:</b> <i>6:45:31 PM May 9, 2017</i>
+         */
+        private final int x;
+
+        /**
+         * Top coordinate of the tile on canvas.
+         * <p><b>Created on:</b> <i>6:45:59 PM May 9, 2017</i>
+         */
+        private final int y;
+
+        /**
+         * Packed tile frame.
+         * <p><b>Created on:</b> <i>6:46:27 PM May 9, 2017</i>
+         */
+        private final byte[] frame;
+
+        /**
+         * Packed content that display shows (or will show once queued transfers are finished).
+         * <p><b>Created on:</b> <i>6:47:02 PM May 9, 2017</i>
+         */
+        private final byte[] shadow;
+
+        /**
+         * Indicates whether {@link #shadow} reflects display content. Reset when transfer fails.
+         * <p><b>Created on:</b> <i>6:47:36 PM May 9, 2017</i>
+         */
+        private volatile boolean isShadowValid = false;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.VideoWall.Tile.<p>
+         * <p><b>PRE-conditions:</b> non-null {@code display}
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>6:48:10 PM May 9, 2017</i>
+         * 
+         * @param display
+         *            display of the tile
+         * @param x
+         *            left coordinate of the tile on canvas
+         * @param y
+         *            top coordinate of the tile on canvas
+         */
+        Tile(final Display display, final int x, final int y) {
+            this.display = display;
+            this.x = x;
+            this.y = y;
+            frame = new byte[display.buffer().length];
+            shadow = new byte[display.buffer().length];
+        }
+    }
+
+    /**
+     * Project : pi_java_ssd1306<p>
+     * Fork-join task that packs range of tiles. Range is split in halves until single tile is left.
+     * <p><b>Created on:</b> <i>6:50:05 PM May 9, 2017</i>
+     * 
+     * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+     * @version 0.1
+     */
+    @SuppressWarnings("serial")
+    private final class PackTask extends RecursiveAction {
+
+        /**
+         * First tile index (inclusive).
+         * <p><b>Created on:</b> <i>6:50:41 PM May 9, 2017</i>
+         */
+        private final int from;
+
+        /**
+         * Last tile index (exclusive).
+         * <p><b>Created on:</b> <i>6:51:09 PM May 9, 2017</i>
+         */
+        private final int to;
+
+
+        /**
+         * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.VideoWall.PackTask.<p>
+         * <p><b>PRE-conditions:</b> 0 &lt;= {@code from} &lt; {@code to} &lt;= number of tiles
+         * <br><b>Side-effects:</b> NONE
+         * <br><b>Created on:</b> <i>6:51:40 PM May 9, 2017</i>
+         * 
+         * @param from
+         *            first tile index (inclusive)
+         * @param to
+         *            last tile index (exclusive)
+         */
+        PackTask(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Pack tiles of the range.
+         * <p><b>PRE-conditions:</b> NONE
+         * <br><b>POST-conditions:</b> NONE
+         * <br><b>Side-effects:</b> frames of the tiles are modified
+         * <br><b>Created on:</b> <i>6:52:22 PM May 9, 2017</i>
+         * 
+         * @see java.util.concurrent.RecursiveAction#compute()
+         */
+        @Override
+        protected final void compute() {
+            if (to - from == 1) {
+                final Tile tile = tiles.get(from);
+                Packer.packBinary(canvas, tile.x, tile.y, tile.display.width(), tile.display.height(),
+                    tile.frame, tile.display.width());
+            } else {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new PackTask(from, mid), new PackTask(mid, to));
+            }
+        }
+    }
+
+
+    /**
+     * Constructor for class : [pi_java_ssd1306] dburyak.pi.ssd1306.VideoWall.<p>
+     * <p><b>PRE-conditions:</b> non-null {@code manager}, non-null {@code pool}, non-empty {@code tiles}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>6:54:03 PM May 9, 2017</i>
+     * 
+     * @param manager
+     *            manager that performs transfers
+     * @param pool
+     *            pool for parallel packing
+     * @param width
+     *            canvas width
+     * @param height
+     *            canvas height
+     * @param tiles
+     *            tiles of the wall
+     */
+    private VideoWall(
+        final DisplayManager manager,
+        final ForkJoinPool pool,
+        final int width,
+        final int height,
+        final List<Tile> tiles) {
+
+        this.manager = manager;
+        this.pool = pool;
+        this.tiles = tiles;
+        canvas = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+        graphics = notNull(canvas.createGraphics());
+    }
+
+    /**
+     * Create new {@link VideoWall} instance that packs tiles on the common fork-join pool.
+     * <p><b>PRE-conditions:</b> non-null {@code manager}, non-empty rectangular {@code grid}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> displays are registered in {@code manager}
+     * <br><b>Created on:</b> <i>6:56:20 PM May 9, 2017</i>
+     * 
+     * @param manager
+     *            manager that performs transfers
+     * @param grid
+     *            displays of the wall, {@code grid[row][column]}
+     * @return new {@link VideoWall} instance
+     */
+    public static final VideoWall newInstance(final DisplayManager manager, final Display[][] grid) {
+        return newInstance(manager, notNull(ForkJoinPool.commonPool()), grid);
+    }
+
+    /**
+     * Create new {@link VideoWall} instance.
+     * <p><b>PRE-conditions:</b> non-null {@code manager}, non-null {@code pool}, non-empty rectangular {@code grid},
+     * displays in each grid row have the same height, displays in each grid column have the same width
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> displays are registered in {@code manager}
+     * <br><b>Created on:</b> <i>6:58:47 PM May 9, 2017</i>
+     * 
+     * @param manager
+     *            manager that performs transfers
+     * @param pool
+     *            pool for parallel packing of tiles
+     * @param grid
+     *            displays of the wall, {@code grid[row][column]}
+     * @return new {@link VideoWall} instance
+     */
+    public static final VideoWall newInstance(
+        final DisplayManager manager,
+        final ForkJoinPool pool,
+        final Display[][] grid) {
+
+        isTrue(grid.length > 0 && grid[0].length > 0);
+        final int columns = grid[0].length;
+        final List<Tile> tiles = new ArrayList<>(grid.length * columns);
+        int y = 0;
+        for (final Display[] row : grid) {
+            isTrue(row.length == columns);
+            final int rowHeight = row[0].height();
+            int x = 0;
+            for (int col = 0 ; col < columns ; col++) {
+                final Display display = row[col];
+                isTrue(display.height() == rowHeight);
+                isTrue(display.width() == grid[0][col].width());
+                tiles.add(new Tile(display, x, y));
+                manager.add(display);
+                x += display.width();
+            }
+            y += rowHeight;
+        }
+        int width = 0;
+        for (final Display display : grid[0]) {
+            width += display.width();
+        }
+        return new VideoWall(manager, pool, width, y, Collections.unmodifiableList(tiles));
+    }
+
+    /**
+     * Get graphics to draw on the whole wall canvas.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>7:02:15 PM May 9, 2017</i>
+     * 
+     * @return canvas graphics
+     */
+    public final Graphics2D graphics() {
+        return graphics;
+    }
+
+    /**
+     * Get canvas width.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>7:02:48 PM May 9, 2017</i>
+     * 
+     * @return canvas width
+     */
+    public final int width() {
+        return canvas.getWidth();
+    }
+
+    /**
+     * Get canvas height.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> positive {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>7:03:20 PM May 9, 2017</i>
+     * 
+     * @return canvas height
+     */
+    public final int height() {
+        return canvas.getHeight();
+    }
+
+    /**
+     * Init and turn on all displays of the wall and clear the canvas.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> GPIO I/O calls
+     * <br><b>Created on:</b> <i>7:04:05 PM May 9, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    public final VideoWall begin() {
+        LOG.traceEntry();
+
+        clear();
+        for (final Tile tile : tiles) {
+            tile.display.begin(); // display is cleared, its panel is blank
+            Arrays.fill(tile.shadow, (byte) 0);
+            tile.isShadowValid = true;
+        }
+
+        return notNull(LOG.traceExit(this));
+    }
+
+    /**
+     * Clear the canvas. Displays are not updated until {@link #sync()} is called.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> canvas is modified
+     * <br><b>Created on:</b> <i>7:05:31 PM May 9, 2017</i>
+     * 
+     * @return this instance (for call chaining)
+     */
+    public final VideoWall clear() {
+        graphics.setColor(BLACK);
+        graphics.fillRect(0, 0, width(), height());
+        return this;
+    }
+
+    /**
+     * Pack all tiles of the canvas in parallel and send changed region of each tile to its display.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> frames are queued for transfer
+     * <br><b>Created on:</b> <i>7:07:12 PM May 9, 2017</i>
+     * 
+     * @return future that is completed when all displays show this frame (or newer one)
+     */
+    @SuppressWarnings("nls")
+    public final CompletableFuture<Void> sync() {
+        LOG.traceEntry();
+
+        canvas.flush();
+        pool.invoke(new PackTask(0, tiles.size()));
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(tiles.size());
+        for (final Tile tile : tiles) {
+            final int width = tile.display.width();
+            final @Nullable Region region = tile.isShadowValid
+                ? Region.diff(tile.shadow, tile.frame, width)
+                : Region.full(width, tile.display.pages());
+            if (region != null) {
+                LOG.trace("flushing tile : display = [%s] ; region = [%s]", tile.display, region);
+                System.arraycopy(tile.frame, 0, tile.shadow, 0, tile.frame.length);
+                tile.isShadowValid = true;
+                futures.add(manager.submit(tile.display, tile.frame, region).whenComplete((v, e) -> {
+                    if (e != null) { // panel did not receive the frame, its content is unknown now
+                        tile.isShadowValid = false;
+                    }
+                }));
+            } else { // nothing changed, but previous frame may still be in flight
+                futures.add(manager.settled(tile.display));
+            }
+        }
+        final CompletableFuture<Void> result = CompletableFuture.allOf(
+            futures.toArray(new CompletableFuture<?>[futures.size()]));
+
+        return notNull(LOG.traceExit(result));
+    }
+
+    /**
+     * Get string representation of this wall.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>7:09:40 PM May 9, 2017</i>
+     * 
+     * @see java.lang.Object#toString()
+     * @return string representation of this wall
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String toString() {
+        return notNull(new StringBuilder()
+            .append("{width=[").append(width())
+            .append("],height=[").append(height())
+            .append("],tiles=[").append(tiles.size())
+            .append("]}")
+            .toString());
+    }
+
+}
@@ -0,0 +1,148 @@
+package dburyak.pi.ssd1306;
+
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+import java.util.ServiceLoader;
+
+import org.junit.Test;
+
+import dburyak.pi.ssd1306.Display.OverlayType;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Checks that packer backends produce exactly the same output as scalar backend. Registered providers (for instance,
+ * Vector API backend when it is on the test class path) are checked the same way as built-in ones.
+ * <p><b>Created on:</b> <i>3:05:20 PM Jul 24, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+public class PackerBackendTest {
+
+    /**
+     * Seed of random test patterns, fixed so failures are reproducible.
+     * <p><b>Created on:</b> <i>3:06:02 PM Jul 24, 2017</i>
+     */
+    private static final long SEED = 0x5D1306L;
+
+    /**
+     * Row widths in pixels : partial blocks, whole blocks, and rows longer than widest vector with partial tail.
+     * <p><b>Created on:</b> <i>3:06:40 PM Jul 24, 2017</i>
+     */
+    private static final int[] WIDTHS = { 1, 7, 8, 9, 15, 16, 17, 63, 64, 65, 127, 128, 129, 133, 255, 256, 257, 521,
+        1024, 1037 };
+
+    /**
+     * Reference backend.
+     * <p><b>Created on:</b> <i>3:07:15 PM Jul 24, 2017</i>
+     */
+    private final PackerBackend scalar = new Packer.ScalarBackend();
+
+
+    /**
+     * Built-in swar backend packs the same as scalar one.
+     * <p><b>Created on:</b> <i>3:08:00 PM Jul 24, 2017</i>
+     */
+    @Test
+    public void swarPacksAsScalar() {
+        assertPacksAsScalar(new Packer.SwarBackend());
+    }
+
+    /**
+     * Built-in swar backend composes the same as scalar one.
+     * <p><b>Created on:</b> <i>3:08:35 PM Jul 24, 2017</i>
+     */
+    @Test
+    public void swarComposesAsScalar() {
+        assertComposesAsScalar(new Packer.SwarBackend());
+    }
+
+    /**
+     * Registered providers pack and compose the same as scalar backend.
+     * <p><b>Created on:</b> <i>3:09:10 PM Jul 24, 2017</i>
+     */
+    @Test
+    public void providersWorkAsScalar() {
+        for (final PackerBackend provider : ServiceLoader.load(PackerBackend.class)) {
+            assertPacksAsScalar(provider);
+            assertComposesAsScalar(provider);
+        }
+    }
+
+    /**
+     * Backend that is chosen by packer packs the same as scalar one.
+     * <p><b>Created on:</b> <i>3:09:45 PM Jul 24, 2017</i>
+     */
+    @Test
+    public void chosenPacksAsScalar() {
+        assertPacksAsScalar(Packer.backend());
+        assertComposesAsScalar(Packer.backend());
+    }
+
+    /**
+     * Compare packing of random rasters with all widths, bit offsets from 0 to 16 (aligned and unaligned), non-zero
+     * source offset and destination wider than the packed rectangle. Destination is pre-filled with random bytes, so
+     * writes outside of the rectangle are caught too.
+     * <p><b>Created on:</b> <i>3:10:30 PM Jul 24, 2017</i>
+     * 
+     * @param backend
+     *            backend to be checked
+     */
+    @SuppressWarnings("nls")
+    private final void assertPacksAsScalar(final PackerBackend backend) {
+        final Random random = new Random(SEED);
+        for (final int width : WIDTHS) {
+            for (int bitOffset = 0 ; bitOffset <= 16 ; bitOffset++) {
+                for (int pages = 1 ; pages <= 3 ; pages++) {
+                    final int srcOffset = random.nextInt(5);
+                    final int stride = (bitOffset + width + 7) / 8 + random.nextInt(3);
+                    final byte[] src = new byte[srcOffset + stride * pages * 8];
+                    random.nextBytes(src);
+                    final int dstWidth = width + random.nextInt(3);
+                    final byte[] expected = new byte[pages * dstWidth];
+                    random.nextBytes(expected);
+                    final byte[] actual = expected.clone();
+                    scalar.packBinary(src, srcOffset, stride, bitOffset, width, pages, expected, dstWidth);
+                    backend.packBinary(src, srcOffset, stride, bitOffset, width, pages, actual, dstWidth);
+                    assertArrayEquals(backend.name() + " : width = " + width + " ; bitOffset = " + bitOffset
+                        + " ; pages = " + pages, expected, actual);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compare composing of random runs with every overlay type, runs start and end at any position, so partial vector
+     * heads and tails are covered.
+     * <p><b>Created on:</b> <i>3:11:40 PM Jul 24, 2017</i>
+     * 
+     * @param backend
+     *            backend to be checked
+     */
+    @SuppressWarnings("nls")
+    private final void assertComposesAsScalar(final PackerBackend backend) {
+        final Random random = new Random(SEED);
+        for (final OverlayType overlay : OverlayType.values()) {
+            for (final int length : WIDTHS) {
+                for (int from = 0 ; from <= 9 ; from++) {
+                    final int to = from + length;
+                    final byte[] pixels = new byte[to + 9];
+                    final byte[] mask = new byte[pixels.length];
+                    final byte[] expected = new byte[pixels.length];
+                    random.nextBytes(pixels);
+                    random.nextBytes(mask);
+                    random.nextBytes(expected);
+                    final byte[] actual = expected.clone();
+                    scalar.compose(overlay, pixels, mask, expected, from, to);
+                    backend.compose(overlay, pixels, mask, actual, from, to);
+                    assertArrayEquals(backend.name() + " : overlay = " + overlay + " ; from = " + from + " ; to = " + to,
+                        expected, actual);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,370 @@
+package dburyak.pi.ssd1306;
+
+
+import static jdk.incubator.vector.VectorOperators.LSHL;
+import static jdk.incubator.vector.VectorOperators.LSHR;
+import static jdk.incubator.vector.VectorOperators.XOR;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import dburyak.pi.ssd1306.Display.OverlayType;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+
+/**
+ * Project : pi_java_ssd1306<p>
+ * Backend that runs packing and composing loops on Vector API ({@code jdk.incubator.vector}, JDK 16+). Is built from
+ * separate {@code vector} source set into its own jar and registered as {@link PackerBackend} provider, so the library
+ * itself still runs on Java 8. JVM must be started with {@code --add-modules jdk.incubator.vector}, otherwise provider
+ * fails to load and built-in backend is used.
+ * <p>Packing works on chunks of 8x8 pixel blocks that fill one vector of raster bytes per row : 8 rows are loaded as
+ * vectors of {@code long} lanes, bytes are shuffled and transposed across the 8 vectors, so each lane holds one 8x8
+ * block, and bit matrix of each lane is transposed the same way as in {@code swar} backend. Shuffles are constant and
+ * stay inside of the vector, so packed blocks are stored as whole vectors. Unaligned rows and blocks after the last
+ * whole chunk are handled by {@code swar} backend loops.
+ * <p><b>Created on:</b> <i>2:20:30 PM Jul 24, 2017</i>
+ * 
+ * @author <i>Dmytro Buryak &lt;dmytro.buryak@gmail.com&gt;</i>
+ * @version 0.1
+ */
+@ThreadSafe
+public final class VectorBackend implements PackerBackend {
+
+    /**
+     * Species of {@code long} vectors, 8x8 block per lane.
+     * <p><b>Created on:</b> <i>2:21:10 PM Jul 24, 2017</i>
+     */
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    /**
+     * Species of {@code byte} vectors of the same shape as {@link #LONGS}.
+     * <p><b>Created on:</b> <i>2:21:45 PM Jul 24, 2017</i>
+     */
+    private static final VectorSpecies<Byte> BYTES = VectorSpecies.of(byte.class, LONGS.vectorShape());
+
+    /**
+     * Number of 8x8 blocks (raster bytes of one row) in chunk.
+     * <p><b>Created on:</b> <i>2:22:20 PM Jul 24, 2017</i>
+     */
+    private static final int CHUNK = BYTES.length();
+
+    /**
+     * Number of {@code long} lanes in vector.
+     * <p><b>Created on:</b> <i>2:22:40 PM Jul 24, 2017</i>
+     */
+    private static final int LANES = LONGS.length();
+
+    /**
+     * Shuffle of loaded raster row : byte {@code k} of lane {@code j} is raster byte {@code k * LANES + j} of the
+     * chunk. After transposition of bytes across 8 row vectors, lane {@code j} of vector {@code k} is block
+     * {@code k * LANES + j}, so each vector covers consecutive blocks.
+     * <p><b>Created on:</b> <i>2:23:05 PM Jul 24, 2017</i>
+     */
+    private static final VectorShuffle<Byte> LOAD = VectorShuffle.fromOp(BYTES, i -> (i % 8) * LANES + i / 8);
+
+    /**
+     * Shuffle of packed bytes before store : bit transposition leaves pixel column {@code M} of the block in byte
+     * {@code 7 - M} of the lane, so bytes of each lane are reversed.
+     * <p><b>Created on:</b> <i>2:23:30 PM Jul 24, 2017</i>
+     */
+    private static final VectorShuffle<Byte> STORE = VectorShuffle.fromOp(BYTES, i -> (i / 8) * 8 + 7 - i % 8);
+
+    /**
+     * Mask of lower 4 bytes of each 8 bytes, is used in the first byte transposition step.
+     * <p><b>Created on:</b> <i>2:23:50 PM Jul 24, 2017</i>
+     */
+    private static final long HALF_32 = 0x00000000FFFFFFFFL;
+
+    /**
+     * Mask of lower 2 bytes of each 4 bytes, is used in the second byte transposition step.
+     * <p><b>Created on:</b> <i>2:24:15 PM Jul 24, 2017</i>
+     */
+    private static final long HALF_16 = 0x0000FFFF0000FFFFL;
+
+    /**
+     * Mask of lower byte of each 2 bytes, is used in the last byte transposition step.
+     * <p><b>Created on:</b> <i>2:24:40 PM Jul 24, 2017</i>
+     */
+    private static final long HALF_8 = 0x00FF00FF00FF00FFL;
+
+    /**
+     * Minimal number of bytes in vector for this backend to be preferred over {@code swar} one. With 128-bit vectors
+     * (NEON on Raspberry Pi, SSE) packing was measured slower than {@code swar} backend.
+     * <p><b>Created on:</b> <i>4:12:10 PM Jul 26, 2017</i>
+     */
+    private static final int PREFERRED_CHUNK = 32;
+
+
+    /**
+     * Get name of this backend.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> non-empty {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:25:10 PM Jul 24, 2017</i>
+     * 
+     * @see dburyak.pi.ssd1306.PackerBackend#name()
+     * @return name of this backend
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public final String name() {
+        return "vector";
+    }
+
+    /**
+     * Check whether vectors are wide enough for this backend to be faster than {@code swar} one. Rows narrower than one
+     * chunk (128-pixel panel rows on 512-bit vectors) are packed by {@code swar} loops anyway.
+     * <p><b>PRE-conditions:</b> NONE
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>4:12:45 PM Jul 26, 2017</i>
+     * 
+     * @see dburyak.pi.ssd1306.PackerBackend#isPreferred()
+     * @return true if vectors are at least {@link #PREFERRED_CHUNK} bytes wide
+     */
+    @Override
+    public final boolean isPreferred() {
+        return CHUNK >= PREFERRED_CHUNK;
+    }
+
+    /**
+     * Pack pages of 1-bit raster into packed display buffer chunk by chunk.
+     * <p><b>PRE-conditions:</b> see {@link PackerBackend#packBinary(byte[], int, int, int, int, int, byte[], int)}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@code dst} is modified
+     * <br><b>Created on:</b> <i>2:26:00 PM Jul 24, 2017</i>
+     * 
+     * @see dburyak.pi.ssd1306.PackerBackend#packBinary(byte[], int, int, int, int, int, byte[], int)
+     * @param src
+     *            raster bytes
+     * @param srcOffset
+     *            index of the first byte of the first row
+     * @param stride
+     *            number of bytes in raster row
+     * @param bitOffset
+     *            number of the bit of the leftmost pixel, counted from the start of the row
+     * @param width
+     *            number of pixels in row
+     * @param pages
+     *            number of pages to pack
+     * @param dst
+     *            destination packed buffer
+     * @param dstWidth
+     *            number of columns (bytes per page) in destination buffer
+     */
+    @Override
+    public final void packBinary(
+        final byte[] src,
+        final int srcOffset,
+        final int stride,
+        final int bitOffset,
+        final int width,
+        final int pages,
+        final byte[] dst,
+        final int dstWidth) {
+
+        if ((bitOffset & 7) != 0) { // blocks are not byte aligned
+            PackerBackend.super.packBinary(src, srcOffset, stride, bitOffset, width, pages, dst, dstWidth);
+            return;
+        }
+        final int blocks = width / 8;
+        final int chunked = blocks - blocks % CHUNK;
+        final int byteOffset = bitOffset >> 3;
+        for (int page = 0 ; page < pages ; page++) {
+            final int pageStart = srcOffset + page * 8 * stride + byteOffset;
+            final int dstOffset = page * dstWidth;
+            for (int block = 0 ; block < chunked ; block += CHUNK) {
+                final int rowStart = pageStart + block;
+                // byte k of lane j of row vector is block k * LANES + j of the chunk
+                final LongVector r0 = row(src, rowStart);
+                final LongVector r1 = row(src, rowStart + stride);
+                final LongVector r2 = row(src, rowStart + 2 * stride);
+                final LongVector r3 = row(src, rowStart + 3 * stride);
+                final LongVector r4 = row(src, rowStart + 4 * stride);
+                final LongVector r5 = row(src, rowStart + 5 * stride);
+                final LongVector r6 = row(src, rowStart + 6 * stride);
+                final LongVector r7 = row(src, rowStart + 7 * stride);
+                // transpose bytes across vectors in 4x4, 2x2 and 1x1 steps, then byte r of lane j in vector k is row r
+                // of block k * LANES + j
+                final LongVector a0 = low(r0, r4, 32, HALF_32);
+                final LongVector a1 = low(r1, r5, 32, HALF_32);
+                final LongVector a2 = low(r2, r6, 32, HALF_32);
+                final LongVector a3 = low(r3, r7, 32, HALF_32);
+                final LongVector a4 = high(r0, r4, 32, HALF_32);
+                final LongVector a5 = high(r1, r5, 32, HALF_32);
+                final LongVector a6 = high(r2, r6, 32, HALF_32);
+                final LongVector a7 = high(r3, r7, 32, HALF_32);
+                final LongVector b0 = low(a0, a2, 16, HALF_16);
+                final LongVector b1 = low(a1, a3, 16, HALF_16);
+                final LongVector b2 = high(a0, a2, 16, HALF_16);
+                final LongVector b3 = high(a1, a3, 16, HALF_16);
+                final LongVector b4 = low(a4, a6, 16, HALF_16);
+                final LongVector b5 = low(a5, a7, 16, HALF_16);
+                final LongVector b6 = high(a4, a6, 16, HALF_16);
+                final LongVector b7 = high(a5, a7, 16, HALF_16);
+                final int chunkStart = dstOffset + block * 8;
+                store(low(b0, b1, 8, HALF_8), dst, chunkStart);
+                store(high(b0, b1, 8, HALF_8), dst, chunkStart + CHUNK);
+                store(low(b2, b3, 8, HALF_8), dst, chunkStart + 2 * CHUNK);
+                store(high(b2, b3, 8, HALF_8), dst, chunkStart + 3 * CHUNK);
+                store(low(b4, b5, 8, HALF_8), dst, chunkStart + 4 * CHUNK);
+                store(high(b4, b5, 8, HALF_8), dst, chunkStart + 5 * CHUNK);
+                store(low(b6, b7, 8, HALF_8), dst, chunkStart + 6 * CHUNK);
+                store(high(b6, b7, 8, HALF_8), dst, chunkStart + 7 * CHUNK);
+            }
+        }
+        Packer.SwarBackend.packBlocks(src, srcOffset, stride, bitOffset, chunked, blocks, pages, dst, dstWidth);
+        Packer.SwarBackend.packColumns(src, srcOffset, stride, bitOffset, blocks * 8, width, pages, dst, dstWidth);
+    }
+
+    /**
+     * Load chunk of raster row.
+     * <p><b>PRE-conditions:</b> non-null {@code src}, chunk is inside of {@code src}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:27:30 PM Jul 24, 2017</i>
+     * 
+     * @param src
+     *            raster bytes
+     * @param offset
+     *            index of the first byte of the chunk
+     * @return raster bytes of the chunk, shuffled with {@link #LOAD}
+     */
+    private static final LongVector row(final byte[] src, final int offset) {
+        return ByteVector.fromArray(BYTES, src, offset).rearrange(LOAD).reinterpretAsLongs();
+    }
+
+    /**
+     * Take lower parts of each pair of lanes : lower part of {@code x} stays, lower part of {@code y} is moved up.
+     * <p><b>PRE-conditions:</b> non-null {@code x} and {@code y}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:28:15 PM Jul 24, 2017</i>
+     * 
+     * @param x
+     *            first vector
+     * @param y
+     *            second vector
+     * @param shift
+     *            size of the part in bits
+     * @param mask
+     *            mask of lower parts
+     * @return vector of lower parts
+     */
+    private static final LongVector low(final LongVector x, final LongVector y, final int shift, final long mask) {
+        return x.and(mask).or(y.lanewise(LSHL, shift).and(~mask));
+    }
+
+    /**
+     * Take upper parts of each pair of lanes : upper part of {@code x} is moved down, upper part of {@code y} stays.
+     * <p><b>PRE-conditions:</b> non-null {@code x} and {@code y}
+     * <br><b>POST-conditions:</b> non-null {@code result}
+     * <br><b>Side-effects:</b> NONE
+     * <br><b>Created on:</b> <i>2:29:00 PM Jul 24, 2017</i>
+     * 
+     * @param x
+     *            first vector
+     * @param y
+     *            second vector
+     * @param shift
+     *            size of the part in bits
+     * @param mask
+     *            mask of lower parts
+     * @return vector of upper parts
+     */
+    private static final LongVector high(final LongVector x, final LongVector y, final int shift, final long mask) {
+        return x.lanewise(LSHR, shift).and(mask).or(y.and(~mask));
+    }
+
+    /**
+     * Transpose bit matrix of each lane and write packed bytes of consecutive blocks.
+     * <p><b>PRE-conditions:</b> non-null {@code blocks}, non-null {@code dst}, blocks are inside of {@code dst}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@code dst} is modified
+     * <br><b>Created on:</b> <i>2:30:10 PM Jul 24, 2017</i>
+     * 
+     * @param blocks
+     *            8x8 blocks, byte {@code i} of lane is row {@code i} of the block
+     * @param dst
+     *            destination packed buffer
+     * @param offset
+     *            index of the first column of the blocks in {@code dst}
+     */
+    private static final void store(final LongVector blocks, final byte[] dst, final int offset) {
+        LongVector x = blocks;
+        LongVector t = x.lanewise(XOR, x.lanewise(LSHR, 7)).and(0x00AA00AA00AA00AAL);
+        x = x.lanewise(XOR, t).lanewise(XOR, t.lanewise(LSHL, 7));
+        t = x.lanewise(XOR, x.lanewise(LSHR, 14)).and(0x0000CCCC0000CCCCL);
+        x = x.lanewise(XOR, t).lanewise(XOR, t.lanewise(LSHL, 14));
+        t = x.lanewise(XOR, x.lanewise(LSHR, 28)).and(0x00000000F0F0F0F0L);
+        x = x.lanewise(XOR, t).lanewise(XOR, t.lanewise(LSHL, 28));
+        x.reinterpretAsBytes().rearrange(STORE).intoArray(dst, offset);
+    }
+
+    /**
+     * Blit run of packed bytes onto destination vector by vector.
+     * <p><b>PRE-conditions:</b> see {@link PackerBackend#compose(OverlayType, byte[], byte[], byte[], int, int)}
+     * <br><b>POST-conditions:</b> NONE
+     * <br><b>Side-effects:</b> {@code dst} is modified
+     * <br><b>Created on:</b> <i>2:31:20 PM Jul 24, 2017</i>
+     * 
+     * @see dburyak.pi.ssd1306.PackerBackend#compose(OverlayType, byte[], byte[], byte[], int, int)
+     * @param overlay
+     *            overlay strategy
+     * @param pixels
+     *            source pixels
+     * @param mask
+     *            source mask, only pixels with mask bit set are blitted
+     * @param dst
+     *            destination buffer
+     * @param from
+     *            index of the first byte of the run (inclusive)
+     * @param to
+     *            index of the last byte of the run (exclusive)
+     */
+    @Override
+    public final void compose(
+        final OverlayType overlay,
+        final byte[] pixels,
+        final byte[] mask,
+        final byte[] dst,
+        final int from,
+        final int to) {
+
+        final int bound = from + BYTES.loopBound(to - from);
+        int i = from;
+        switch (overlay) {
+            case FULL:
+                for ( ; i < bound ; i += CHUNK) {
+                    final ByteVector m = ByteVector.fromArray(BYTES, mask, i);
+                    ByteVector.fromArray(BYTES, dst, i).and(m.not())
+                        .or(ByteVector.fromArray(BYTES, pixels, i).and(m))
+                        .intoArray(dst, i);
+                }
+                break;
+            case ON_PIXELS:
+                for ( ; i < bound ; i += CHUNK) {
+                    ByteVector.fromArray(BYTES, dst, i)
+                        .or(ByteVector.fromArray(BYTES, pixels, i).and(ByteVector.fromArray(BYTES, mask, i)))
+                        .intoArray(dst, i);
+                }
+                break;
+            case OFF_PIXELS:
+                for ( ; i < bound ; i += CHUNK) {
+                    ByteVector.fromArray(BYTES, dst, i)
+                        .and(ByteVector.fromArray(BYTES, mask, i).and(ByteVector.fromArray(BYTES, pixels, i).not())
+                            .not())
+                        .intoArray(dst, i);
+                }
+                break;
+            case NONE:
+            default:
+                return;
+        }
+        PackerBackend.super.compose(overlay, pixels, mask, dst, i, to); // bytes after the last whole vector
+    }
+
+}